@@ -0,0 +1,79 @@
+package ru.practicum.shareit.gateway.baseClients;
+
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.httpcomponents.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One connection pool to the ShareIt server shared by the RestTemplate clients. The pool state is published
+ * as httpcomponents.httpclient.pool.* metrics with the tag httpclient=shareit-server.
+ */
+@Configuration
+public class ShareItServerHttpClientConfig {
+    static final String POOL_NAME = "shareit-server";
+
+    @Bean(destroyMethod = "close")
+    public PoolingHttpClientConnectionManager shareItServerConnectionManager(
+            @Value("${shareit-server.http-client.max-connections:200}") int maxConnections,
+            @Value("${shareit-server.http-client.max-connections-per-route:200}") int maxConnectionsPerRoute,
+            @Value("${shareit-server.http-client.validate-after-inactivity-millis:2000}") int validateAfterInactivityMillis) {
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(maxConnections);
+        // every client calls the same server, so a single route may take the whole pool
+        connectionManager.setDefaultMaxPerRoute(maxConnectionsPerRoute);
+        connectionManager.setValidateAfterInactivity(validateAfterInactivityMillis);
+        return connectionManager;
+    }
+
+    @Bean
+    public HttpComponentsClientHttpRequestFactory shareItServerRequestFactory(
+            PoolingHttpClientConnectionManager shareItServerConnectionManager,
+            @Value("${shareit-server.http-client.connect-timeout-millis:2000}") int connectTimeoutMillis,
+            @Value("${shareit-server.http-client.read-timeout-millis:10000}") int readTimeoutMillis,
+            @Value("${shareit-server.http-client.lease-timeout-millis:5000}") int leaseTimeoutMillis,
+            @Value("${shareit-server.http-client.keep-alive-millis:30000}") long keepAliveMillis,
+            @Value("${shareit-server.http-client.max-idle-millis:30000}") long maxIdleMillis) {
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout(connectTimeoutMillis)
+                .setSocketTimeout(readTimeoutMillis)
+                .setConnectionRequestTimeout(leaseTimeoutMillis)
+                .build();
+        return new HttpComponentsClientHttpRequestFactory(HttpClients.custom()
+                .setConnectionManager(shareItServerConnectionManager)
+                // the connection manager is closed by its own bean
+                .setConnectionManagerShared(true)
+                .setDefaultRequestConfig(requestConfig)
+                .setKeepAliveStrategy(keepAliveStrategy(keepAliveMillis))
+                .evictExpiredConnections()
+                .evictIdleConnections(maxIdleMillis, TimeUnit.MILLISECONDS)
+                .build());
+    }
+
+    @Bean
+    public MeterBinder shareItServerConnectionPoolMetrics(
+            PoolingHttpClientConnectionManager shareItServerConnectionManager) {
+        return new PoolingHttpClientConnectionManagerMetricsBinder(shareItServerConnectionManager, POOL_NAME);
+    }
+
+    /**
+     * Keeps a connection for as long as the server allows in its Keep-Alive header, otherwise for
+     * keepAliveMillis.
+     */
+    private static ConnectionKeepAliveStrategy keepAliveStrategy(long keepAliveMillis) {
+        return (response, context) -> {
+            long serverKeepAliveMillis = DefaultConnectionKeepAliveStrategy.INSTANCE
+                    .getKeepAliveDuration(response, context);
+            return serverKeepAliveMillis > 0 ? serverKeepAliveMillis : keepAliveMillis;
+        };
+    }
+}
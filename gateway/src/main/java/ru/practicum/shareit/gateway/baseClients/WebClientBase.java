@@ -1,33 +1,68 @@
 package ru.practicum.shareit.gateway.baseClients;
 
+import io.netty.channel.ChannelOption;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.*;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.util.UriBuilder;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
 
+import javax.annotation.PreDestroy;
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
 
+/**
+ * Non-blocking client of the ShareIt server. Every method returns without waiting for the server, so the
+ * servlet thread of the calling controller is released until the response arrives. Connections come from a
+ * bounded pool; requests wait for a free connection at most pending-acquire-timeout-millis, and at most
+ * pending-acquire-max-count of them wait at once.
+ */
 @Component
 @Slf4j
 public class WebClientBase {
+    private final ConnectionProvider connectionProvider;
     private final WebClient client;
 
-
     @Autowired
-    public WebClientBase(@Value("${shareit-server.url}") String serverUrl) {
-
+    public WebClientBase(
+            @Value("${shareit-server.url}") String serverUrl,
+            @Value("${shareit-server.webclient.max-connections:200}") int maxConnections,
+            @Value("${shareit-server.webclient.pending-acquire-max-count:1000}") int pendingAcquireMaxCount,
+            @Value("${shareit-server.webclient.pending-acquire-timeout-millis:5000}") long pendingAcquireTimeoutMillis,
+            @Value("${shareit-server.webclient.max-idle-time-millis:30000}") long maxIdleTimeMillis,
+            @Value("${shareit-server.webclient.connect-timeout-millis:2000}") int connectTimeoutMillis,
+            @Value("${shareit-server.webclient.response-timeout-millis:10000}") long responseTimeoutMillis) {
+        this.connectionProvider = ConnectionProvider.builder("shareit-server")
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(pendingAcquireMaxCount)
+                .pendingAcquireTimeout(Duration.ofMillis(pendingAcquireTimeoutMillis))
+                .maxIdleTime(Duration.ofMillis(maxIdleTimeMillis))
+                .metrics(true)
+                .build();
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeoutMillis)
+                .responseTimeout(Duration.ofMillis(responseTimeoutMillis));
         this.client = WebClient.builder()
                 .baseUrl(serverUrl)
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
                 .filter(logRequest())
                 .build();
     }
 
+    @PreDestroy
+    public void close() {
+        connectionProvider.dispose();
+    }
+
     private static ExchangeFilterFunction logRequest() {
         return ExchangeFilterFunction.ofRequestProcessor(clientRequest -> {
             log.info("Request: {} {}", clientRequest.method(), clientRequest.url());
@@ -66,6 +101,16 @@ public class WebClientBase {
         );
     }
 
+    public <T> Mono<ResponseEntity<Object>> patch(String path, long userIdHeader, T body) {
+        return sendRequest(
+                HttpMethod.PATCH,
+                path,
+                userIdHeader,
+                null,
+                body
+        );
+    }
+
     public <T> Mono<ResponseEntity<Object>> patch(String path, long userIdHeader, Long updatedObjectId, T body) {
         return sendRequest(
                 HttpMethod.PATCH,
@@ -117,6 +162,28 @@ public class WebClientBase {
         );
     }
 
+    public Mono<ResponseEntity<Object>> get(String path, Map<String, Object> requestParams) {
+        return sendRequest(
+                HttpMethod.GET,
+                path,
+                null,
+                requestParams,
+                null
+        );
+    }
+
+    /**
+     * Relays an NDJSON response element by element as it arrives instead of collecting the whole body.
+     */
+    public Flux<Object> getStream(String path) {
+        return client
+                .get()
+                .uri(path)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .retrieve()
+                .bodyToFlux(Object.class);
+    }
+
     public Mono<ResponseEntity<Object>> get(String path, long userIdHeader) {
         return sendRequest(
                 HttpMethod.GET,
@@ -175,20 +242,16 @@ public class WebClientBase {
             requestBodySpec.body(Mono.just(body), Object.class);
         }
 
-        ResponseEntity<Object> response = requestBodySpec
+        return requestBodySpec
                 .retrieve()
                 .onStatus(HttpStatus::is4xxClientError,
                         resp -> Mono.empty())
                 .onStatus(HttpStatus::is5xxServerError,
                         resp -> Mono.empty())
                 .toEntity(Object.class)
-                .block();
-
-        if (response.getStatusCode() == HttpStatus.BAD_REQUEST) {
-            return Mono.just(ResponseEntity.badRequest().body(response.getBody()));
-        }
-
-        return Mono.just(response);
+                .map(response -> response.getStatusCode() == HttpStatus.BAD_REQUEST
+                        ? ResponseEntity.badRequest().body(response.getBody())
+                        : response);
     }
 
     private void defineHeaders(Long userId, HttpHeaders httpHeaders) {
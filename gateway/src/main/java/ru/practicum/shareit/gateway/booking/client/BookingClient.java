@@ -10,7 +10,9 @@ import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.gateway.baseClients.BaseClient;
 import ru.practicum.shareit.gateway.booking.dto.BookingCreationDto;
 import ru.practicum.shareit.gateway.booking.dto.BookingStateSearchDto;
+import ru.practicum.shareit.gateway.booking.dto.BookingStatusChangeDto;
 
+import java.util.List;
 import java.util.Map;
 
 @Service
@@ -18,11 +20,13 @@ public class BookingClient extends BaseClient {
     private static final String BOOKINGS_API_PREFIX = "/bookings";
 
     @Autowired
-    public BookingClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public BookingClient(@Value("${shareit-server.url}") String serverUrl,
+                         RestTemplateBuilder builder,
+                         HttpComponentsClientHttpRequestFactory shareItServerRequestFactory) {
         super(
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + BOOKINGS_API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
+                        .requestFactory(() -> shareItServerRequestFactory)
                         .build()
         );
     }
@@ -45,6 +49,36 @@ public class BookingClient extends BaseClient {
         return get("/owner?state={state}&from={from}&size={size}", userId, parameters);
     }
 
+    public ResponseEntity<Object> getBookingsForBookerAfterCursor(long userId,
+                                                                  BookingStateSearchDto state,
+                                                                  String cursor,
+                                                                  Integer size) {
+        Map<String, Object> parameters = Map.of(
+                "state", state.name(),
+                "from", 0,
+                "size", size,
+                "cursor", cursor
+        );
+        return get("?state={state}&from={from}&size={size}&cursor={cursor}", userId, parameters);
+    }
+
+    public ResponseEntity<Object> getBookingForItemOwnerAfterCursor(long userId,
+                                                                    BookingStateSearchDto state,
+                                                                    String cursor,
+                                                                    Integer size) {
+        Map<String, Object> parameters = Map.of(
+                "state", state.name(),
+                "from", 0,
+                "size", size,
+                "cursor", cursor
+        );
+        return get("/owner?state={state}&from={from}&size={size}&cursor={cursor}", userId, parameters);
+    }
+
+    public ResponseEntity<Object> getBookingSummaryForItemOwner(long userId) {
+        return get("/owner/summary", userId);
+    }
+
     public ResponseEntity<Object> bookItem(long userId, BookingCreationDto bookingCreationDto) {
         return post("", userId, bookingCreationDto);
     }
@@ -56,4 +90,8 @@ public class BookingClient extends BaseClient {
     public ResponseEntity<Object> changeStatus(long userId, Long bookingId, boolean approved) {
         return patch("/" + bookingId + "?approved=" + approved, userId);
     }
+
+    public ResponseEntity<Object> changeStatuses(long userId, List<BookingStatusChangeDto> changes) {
+        return patch("/bulk", userId, changes);
+    }
 }
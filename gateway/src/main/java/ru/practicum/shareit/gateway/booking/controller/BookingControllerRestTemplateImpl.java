@@ -10,11 +10,15 @@ import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.gateway.booking.client.BookingClient;
 import ru.practicum.shareit.gateway.booking.dto.BookingCreationDto;
 import ru.practicum.shareit.gateway.booking.dto.BookingStateSearchDto;
+import ru.practicum.shareit.gateway.booking.dto.BookingStatusChangeDto;
 import ru.practicum.shareit.gateway.exception.InvalidParamException;
 
 import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
+import javax.validation.constraints.Size;
+import java.util.List;
 
 @Controller
 @RequestMapping(path = "/bookings")
@@ -42,6 +46,14 @@ public class BookingControllerRestTemplateImpl {
         return bookingClient.changeStatus(userId, bookingId, approved);
     }
 
+    @PatchMapping("/bulk")
+    public ResponseEntity<Object> changeStatuses(
+            @RequestHeader("X-Sharer-User-Id") long userId,
+            @RequestBody @NotEmpty @Size(max = 500) List<@Valid BookingStatusChangeDto> changes) {
+        log.info("Got request to change statuses of {} bookings, userId: {}", changes.size(), userId);
+        return bookingClient.changeStatuses(userId, changes);
+    }
+
     @GetMapping("/{bookingId}")
     public ResponseEntity<Object> getBookingById(@RequestHeader("X-Sharer-User-Id") long userId,
                                                  @PathVariable Long bookingId) {
@@ -54,11 +66,15 @@ public class BookingControllerRestTemplateImpl {
             @RequestHeader("X-Sharer-User-Id") long userId,
             @RequestParam(name = "state", defaultValue = "all") String stateParam,
             @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
-            @Positive @RequestParam(name = "size", defaultValue = "20") Integer size) {
+            @Positive @RequestParam(name = "size", defaultValue = "20") Integer size,
+            @RequestParam(name = "cursor", required = false) String cursor) {
         BookingStateSearchDto state = BookingStateSearchDto.from(stateParam)
                 .orElseThrow(() -> new InvalidParamException("Booking state", "Unknown state: " + stateParam));
-        log.info("Get booking  for booker with state {}, userId={}, from={}, size={}",
-                stateParam, userId, from, size);
+        log.info("Get booking  for booker with state {}, userId={}, from={}, size={}, cursor={}",
+                stateParam, userId, from, size, cursor);
+        if (cursor != null) {
+            return bookingClient.getBookingsForBookerAfterCursor(userId, state, cursor, size);
+        }
         return bookingClient.getBookingsForBooker(userId, state, from, size);
     }
 
@@ -67,11 +83,21 @@ public class BookingControllerRestTemplateImpl {
             @RequestHeader("X-Sharer-User-Id") long ownerId,
             @RequestParam(name = "state", defaultValue = "all") String stateParam,
             @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
-            @Positive @RequestParam(name = "size", defaultValue = "20") Integer size) {
+            @Positive @RequestParam(name = "size", defaultValue = "20") Integer size,
+            @RequestParam(name = "cursor", required = false) String cursor) {
         BookingStateSearchDto state = BookingStateSearchDto.from(stateParam)
                 .orElseThrow(() -> new InvalidParamException("Booking state", "Unknown state: " + stateParam));
-        log.info("Get booking for item owner with state {}, userId={}, from={}, size={}",
-                stateParam, ownerId, from, size);
+        log.info("Get booking for item owner with state {}, userId={}, from={}, size={}, cursor={}",
+                stateParam, ownerId, from, size, cursor);
+        if (cursor != null) {
+            return bookingClient.getBookingForItemOwnerAfterCursor(ownerId, state, cursor, size);
+        }
         return bookingClient.getBookingForItemOwner(ownerId, state, from, size);
     }
+
+    @GetMapping("/owner/summary")
+    public ResponseEntity<Object> getSummaryForItemOwner(@RequestHeader("X-Sharer-User-Id") long ownerId) {
+        log.info("Get bookings summary for item owner, userId={}", ownerId);
+        return bookingClient.getBookingSummaryForItemOwner(ownerId);
+    }
 }
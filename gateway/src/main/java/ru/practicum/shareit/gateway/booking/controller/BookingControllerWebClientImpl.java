@@ -11,11 +11,16 @@ import reactor.core.publisher.Mono;
 import ru.practicum.shareit.gateway.baseClients.WebClientBase;
 import ru.practicum.shareit.gateway.booking.dto.BookingCreationDto;
 import ru.practicum.shareit.gateway.booking.dto.BookingStateSearchDto;
+import ru.practicum.shareit.gateway.booking.dto.BookingStatusChangeDto;
 import ru.practicum.shareit.gateway.exception.InvalidParamException;
 
 import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
+import javax.validation.constraints.Size;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @Controller
@@ -46,6 +51,14 @@ public class BookingControllerWebClientImpl {
         return client.patch(BOOKINGS_PATH, userId, bookingId, Map.of("approved", approved));
     }
 
+    @PatchMapping("/bulk")
+    public Mono<ResponseEntity<Object>> changeStatuses(
+            @RequestHeader("X-Sharer-User-Id") long userId,
+            @RequestBody @NotEmpty @Size(max = 500) List<@Valid BookingStatusChangeDto> changes) {
+        log.info("Got request to change statuses of {} bookings, userId: {}", changes.size(), userId);
+        return client.patch(BOOKINGS_PATH + "/bulk", userId, changes);
+    }
+
     @GetMapping("/{bookingId}")
     public Mono<ResponseEntity<Object>> getBookingById(@RequestHeader("X-Sharer-User-Id") long userId,
                                                        @PathVariable Long bookingId) {
@@ -58,16 +71,13 @@ public class BookingControllerWebClientImpl {
             @RequestHeader("X-Sharer-User-Id") long userId,
             @RequestParam(name = "state", defaultValue = "all") String stateParam,
             @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
-            @Positive @RequestParam(name = "size", defaultValue = "20") Integer size) {
+            @Positive @RequestParam(name = "size", defaultValue = "20") Integer size,
+            @RequestParam(name = "cursor", required = false) String cursor) {
         BookingStateSearchDto state = BookingStateSearchDto.from(stateParam)
                 .orElseThrow(() -> new InvalidParamException("Booking state", "Unknown state: " + stateParam));
-        log.info("Get booking  for booker with state {}, userId={}, from={}, size={}",
-                stateParam, userId, from, size);
-        return client.get(BOOKINGS_PATH, userId, Map.of(
-                "state", state,
-                "from", from,
-                "size", size
-        ));
+        log.info("Get booking  for booker with state {}, userId={}, from={}, size={}, cursor={}",
+                stateParam, userId, from, size, cursor);
+        return client.get(BOOKINGS_PATH, userId, getByStateParams(state, from, size, cursor));
     }
 
     @GetMapping("/owner")
@@ -75,15 +85,32 @@ public class BookingControllerWebClientImpl {
             @RequestHeader("X-Sharer-User-Id") long ownerId,
             @RequestParam(name = "state", defaultValue = "all") String stateParam,
             @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
-            @Positive @RequestParam(name = "size", defaultValue = "20") Integer size) {
+            @Positive @RequestParam(name = "size", defaultValue = "20") Integer size,
+            @RequestParam(name = "cursor", required = false) String cursor) {
         BookingStateSearchDto state = BookingStateSearchDto.from(stateParam)
                 .orElseThrow(() -> new InvalidParamException("Booking state", "Unknown state: " + stateParam));
-        log.info("Get booking for item owner with state {}, userId={}, from={}, size={}",
-                stateParam, ownerId, from, size);
-        return client.get(BOOKINGS_PATH + "/owner", ownerId, Map.of(
-                "state", state,
-                "from", from,
-                "size", size
-        ));
+        log.info("Get booking for item owner with state {}, userId={}, from={}, size={}, cursor={}",
+                stateParam, ownerId, from, size, cursor);
+        return client.get(BOOKINGS_PATH + "/owner", ownerId, getByStateParams(state, from, size, cursor));
+    }
+
+    @GetMapping("/owner/summary")
+    public Mono<ResponseEntity<Object>> getSummaryForItemOwner(@RequestHeader("X-Sharer-User-Id") long ownerId) {
+        log.info("Get bookings summary for item owner, userId={}", ownerId);
+        return client.get(BOOKINGS_PATH + "/owner/summary", ownerId);
+    }
+
+    private Map<String, Object> getByStateParams(BookingStateSearchDto state,
+                                                 Integer from,
+                                                 Integer size,
+                                                 String cursor) {
+        Map<String, Object> params = new HashMap<>();
+        params.put("state", state);
+        params.put("from", from);
+        params.put("size", size);
+        if (cursor != null) {
+            params.put("cursor", cursor);
+        }
+        return params;
     }
 }
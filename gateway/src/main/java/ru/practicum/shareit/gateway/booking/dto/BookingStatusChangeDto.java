@@ -0,0 +1,17 @@
+package ru.practicum.shareit.gateway.booking.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import javax.validation.constraints.NotNull;
+
+@Data
+@Builder
+public class BookingStatusChangeDto {
+
+    @NotNull
+    private Long bookingId;
+
+    @NotNull
+    private Boolean approved;
+}
@@ -9,6 +9,7 @@ import org.springframework.web.bind.MissingRequestHeaderException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
 
 import javax.validation.ConstraintViolationException;
 import java.util.List;
@@ -60,6 +61,13 @@ public class GateWayErrorHandler {
         return new ErrorResponse(e.getHeaderName(), e.getMessage());
     }
 
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public ErrorResponse handleWebClientRequestException(WebClientRequestException e) {
+        log.error(e.getMessage());
+        return new ErrorResponse("ShareIt server", e.getMessage());
+    }
+
     @ExceptionHandler
     @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
     public ErrorResponse handleThrowable(Throwable e) {
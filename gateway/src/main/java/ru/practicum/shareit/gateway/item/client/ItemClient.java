@@ -14,6 +14,7 @@ import ru.practicum.shareit.gateway.item.dto.ItemDto;
 import ru.practicum.shareit.gateway.item.dto.requestParam.GetByUserRequestParams;
 import ru.practicum.shareit.gateway.item.dto.requestParam.SearchRequestParams;
 
+import java.time.LocalDateTime;
 import java.util.Map;
 
 @Service
@@ -21,11 +22,13 @@ public class ItemClient extends BaseClient {
     private static final String ITEMS_API_PREFIX = "/items";
 
     @Autowired
-    public ItemClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder restTemplateBuilder) {
+    public ItemClient(@Value("${shareit-server.url}") String serverUrl,
+                      RestTemplateBuilder restTemplateBuilder,
+                      HttpComponentsClientHttpRequestFactory shareItServerRequestFactory) {
         super(
                 restTemplateBuilder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + ITEMS_API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
+                        .requestFactory(() -> shareItServerRequestFactory)
                         .build()
         );
     }
@@ -62,4 +65,41 @@ public class ItemClient extends BaseClient {
         );
         return get("/search?text={text}&from={from}&size={size}", userId, params);
     }
+
+    public ResponseEntity<Object> searchAvailableItems(long userId,
+                                                       SearchRequestParams requestParams,
+                                                       LocalDateTime start,
+                                                       LocalDateTime end) {
+        Map<String, Object> params = Map.of(
+                "from", requestParams.getFrom(),
+                "size", requestParams.getSize(),
+                "text", requestParams.getText(),
+                "start", start,
+                "end", end
+        );
+        return get("/search?text={text}&from={from}&size={size}&start={start}&end={end}", userId, params);
+    }
+
+    public ResponseEntity<Object> suggestNames(long userId, String prefix, Integer limit) {
+        Map<String, Object> params = Map.of(
+                "prefix", prefix,
+                "limit", limit
+        );
+        return get("/suggest?prefix={prefix}&limit={limit}", userId, params);
+    }
+
+    public ResponseEntity<Object> getMatchingRequests(long userId, Long itemId, Integer size) {
+        Map<String, Object> params = Map.of(
+                "size", size
+        );
+        return get("/" + itemId + "/matching-requests?size={size}", userId, params);
+    }
+
+    public ResponseEntity<Object> getAvailability(long userId, Long itemId, LocalDateTime from, LocalDateTime to) {
+        Map<String, Object> params = Map.of(
+                "from", from,
+                "to", to
+        );
+        return get("/" + itemId + "/availability?from={from}&to={to}", userId, params);
+    }
 }
@@ -3,11 +3,13 @@ package ru.practicum.shareit.gateway.item.controller;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import reactor.core.publisher.Mono;
 import ru.practicum.shareit.gateway.baseClients.WebClientBase;
+import ru.practicum.shareit.gateway.exception.InvalidParamException;
 import ru.practicum.shareit.gateway.item.dto.CommentDto;
 import ru.practicum.shareit.gateway.item.dto.ItemCreateDto;
 import ru.practicum.shareit.gateway.item.dto.ItemDto;
@@ -15,8 +17,12 @@ import ru.practicum.shareit.gateway.item.dto.requestParam.GetByUserRequestParams
 import ru.practicum.shareit.gateway.item.dto.requestParam.SearchRequestParams;
 
 import javax.validation.Valid;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
+import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.Map;
 
 @Slf4j
@@ -80,14 +86,81 @@ public class ItemControllerWebClientImpl {
             @RequestHeader("X-Sharer-User-Id") long userId,
             @RequestParam("text") String text,
             @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
-            @Positive @RequestParam(name = "size", defaultValue = "20") Integer size
+            @Positive @RequestParam(name = "size", defaultValue = "20") Integer size,
+            @RequestParam(name = "start", required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+            @RequestParam(name = "end", required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end
     ) {
         SearchRequestParams requestParams = new SearchRequestParams(userId, text, from, size);
-        log.info("Got request to find available items with: {}", requestParams);
-        return client.get(ITEMS_PATH + "/search", userId, Map.of(
+        log.info("Got request to find available items with: {}, start {}, end {}", requestParams, start, end);
+        Map<String, Object> params = new HashMap<>(Map.of(
                 "text", text,
                 "from", from,
                 "size", size
         ));
+        if (start != null || end != null) {
+            validateSearchPeriod(start, end);
+            params.put("start", start);
+            params.put("end", end);
+        }
+        return client.get(ITEMS_PATH + "/search", userId, params);
+    }
+
+    @GetMapping("/suggest")
+    public Mono<ResponseEntity<Object>> suggestNames(
+            @RequestHeader("X-Sharer-User-Id") long userId,
+            @NotBlank @RequestParam("prefix") String prefix,
+            @Positive @Max(50) @RequestParam(name = "limit", defaultValue = "10") Integer limit
+    ) {
+        log.debug("Got request to suggest item names with: userId {}, prefix {}, limit {}", userId, prefix, limit);
+        return client.get(ITEMS_PATH + "/suggest", userId, Map.of(
+                "prefix", prefix,
+                "limit", limit
+        ));
+    }
+
+    @GetMapping("/{id}/matching-requests")
+    public Mono<ResponseEntity<Object>> getMatchingRequests(
+            @RequestHeader("X-Sharer-User-Id") long userId,
+            @PathVariable("id") Long itemId,
+            @Positive @Max(50) @RequestParam(name = "size", defaultValue = "10") Integer size
+    ) {
+        log.info("Got request to get requests matching item with: userId {}, itemId {}, size {}",
+                userId, itemId, size);
+        return client.get(ITEMS_PATH + "/" + itemId + "/matching-requests", userId, Map.of(
+                "size", size
+        ));
+    }
+
+    @GetMapping("/{id}/availability")
+    public Mono<ResponseEntity<Object>> getAvailability(
+            @RequestHeader("X-Sharer-User-Id") long userId,
+            @PathVariable("id") Long itemId,
+            @RequestParam(name = "from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(name = "to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to
+    ) {
+        log.info("Got request to get availability of item with: userId {}, itemId {}, from {}, to {}",
+                userId, itemId, from, to);
+        validatePeriod(from, to);
+        return client.get(ITEMS_PATH + "/" + itemId + "/availability", userId, Map.of(
+                "from", from,
+                "to", to
+        ));
+    }
+
+    private void validateSearchPeriod(LocalDateTime start, LocalDateTime end) {
+        if (start == null || end == null) {
+            throw new InvalidParamException("Start", "Start and end must be passed together");
+        }
+        if (!start.isBefore(end)) {
+            throw new InvalidParamException("Start", String.format("Start: %s is not before end: %s", start, end));
+        }
+    }
+
+    private void validatePeriod(LocalDateTime from, LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            throw new InvalidParamException("From", String.format("From: %s is not before to: %s", from, to));
+        }
     }
 }
@@ -17,11 +17,13 @@ public class RequestClient extends BaseClient {
 
     private static final String REQUESTS_API_PREFIX = "/requests";
 
-    public RequestClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder restTemplateBuilder) {
+    public RequestClient(@Value("${shareit-server.url}") String serverUrl,
+                         RestTemplateBuilder restTemplateBuilder,
+                         HttpComponentsClientHttpRequestFactory shareItServerRequestFactory) {
         super(
                 restTemplateBuilder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + REQUESTS_API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
+                        .requestFactory(() -> shareItServerRequestFactory)
                         .build()
         );
     }
@@ -45,4 +47,11 @@ public class RequestClient extends BaseClient {
     public ResponseEntity<Object> getRequestById(long userId, Long requestId) {
         return get("/" + requestId, userId);
     }
+
+    public ResponseEntity<Object> getCandidateItems(long userId, Long requestId, Integer size) {
+        Map<String, Object> params = Map.of(
+                "size", size
+        );
+        return get("/" + requestId + "/candidates?size={size}", userId, params);
+    }
 }
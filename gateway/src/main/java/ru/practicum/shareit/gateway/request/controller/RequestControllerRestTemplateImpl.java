@@ -11,6 +11,7 @@ import ru.practicum.shareit.gateway.request.dto.CreationRequestDto;
 import ru.practicum.shareit.gateway.request.dto.requestParams.GetAllRequestParams;
 
 import javax.validation.Valid;
+import javax.validation.constraints.Max;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
 
@@ -56,4 +57,15 @@ public class RequestControllerRestTemplateImpl {
         log.info("Got request to get request with: userId {}, requestId {}", userId, requestId);
         return requestClient.getRequestById(userId, requestId);
     }
+
+    @GetMapping("/{id}/candidates")
+    public ResponseEntity<Object> getCandidateItems(
+            @RequestHeader("X-Sharer-User-Id") long userId,
+            @PathVariable("id") Long requestId,
+            @Positive @Max(50) @RequestParam(name = "size", defaultValue = "10") Integer size
+    ) {
+        log.info("Got request to get candidate items for request with: userId {}, requestId {}, size {}",
+                userId, requestId, size);
+        return requestClient.getCandidateItems(userId, requestId, size);
+    }
 }
@@ -12,6 +12,7 @@ import ru.practicum.shareit.gateway.request.dto.CreationRequestDto;
 import ru.practicum.shareit.gateway.request.dto.requestParams.GetAllRequestParams;
 
 import javax.validation.Valid;
+import javax.validation.constraints.Max;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
 import java.util.Map;
@@ -62,4 +63,17 @@ public class RequestControllerWebClientImpl {
         log.info("Got request to get request with: userId {}, requestId {}", userId, requestId);
         return client.get(REQUESTS_PATH, userId, requestId);
     }
+
+    @GetMapping("/{id}/candidates")
+    public Mono<ResponseEntity<Object>> getCandidateItems(
+            @RequestHeader("X-Sharer-User-Id") long userId,
+            @PathVariable("id") Long requestId,
+            @Positive @Max(50) @RequestParam(name = "size", defaultValue = "10") Integer size
+    ) {
+        log.info("Got request to get candidate items for request with: userId {}, requestId {}, size {}",
+                userId, requestId, size);
+        return client.get(REQUESTS_PATH + "/" + requestId + "/candidates", userId, Map.of(
+                "size", size
+        ));
+    }
 }
@@ -3,24 +3,33 @@ package ru.practicum.shareit.gateway.user.client;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.util.StreamUtils;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.gateway.baseClients.BaseClient;
 import ru.practicum.shareit.gateway.user.dto.UserCreateDto;
 import ru.practicum.shareit.gateway.user.dto.UserDto;
 
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Map;
+
 @Service
 public class UserClient extends BaseClient {
     private static final String USERS_API_PREFIX = "/users";
 
     @Autowired
-    public UserClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder restTemplateBuilder) {
+    public UserClient(@Value("${shareit-server.url}") String serverUrl,
+                      RestTemplateBuilder restTemplateBuilder,
+                      HttpComponentsClientHttpRequestFactory shareItServerRequestFactory) {
         super(
                 restTemplateBuilder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + USERS_API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
+                        .requestFactory(() -> shareItServerRequestFactory)
                         .build()
         );
     }
@@ -41,6 +50,31 @@ public class UserClient extends BaseClient {
         return get("");
     }
 
+    public ResponseEntity<Object> getAllUsers(Integer from, Integer size) {
+        Map<String, Object> parameters = Map.of(
+                "from", from,
+                "size", size
+        );
+        return get("?from={from}&size={size}", null, parameters);
+    }
+
+    public ResponseEntity<Object> getAllUsersAfterCursor(String cursor, Integer size) {
+        Map<String, Object> parameters = Map.of(
+                "cursor", cursor,
+                "size", size
+        );
+        return get("?cursor={cursor}&size={size}", null, parameters);
+    }
+
+    /**
+     * Copies the server's NDJSON user stream to the output as it arrives, without buffering the body.
+     */
+    public void streamAllUsers(OutputStream outputStream) {
+        rest.execute("", HttpMethod.GET,
+                request -> request.getHeaders().setAccept(List.of(MediaType.APPLICATION_NDJSON)),
+                response -> StreamUtils.copy(response.getBody(), outputStream));
+    }
+
     public ResponseEntity<Object> deleteUserById(Long userId) {
         return delete("/" + userId);
     }
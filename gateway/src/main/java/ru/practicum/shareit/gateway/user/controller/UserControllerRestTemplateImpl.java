@@ -3,14 +3,19 @@ package ru.practicum.shareit.gateway.user.controller;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.gateway.user.client.UserClient;
 import ru.practicum.shareit.gateway.user.dto.UserCreateDto;
 import ru.practicum.shareit.gateway.user.dto.UserDto;
 
 import javax.validation.Valid;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Positive;
+import javax.validation.constraints.PositiveOrZero;
 
 
 @RestController
@@ -20,6 +25,7 @@ import javax.validation.Valid;
 @Validated
 @ConditionalOnProperty(name = "feature.toggles.useWebClient", havingValue = "false")
 public class UserControllerRestTemplateImpl {
+    private static final int DEFAULT_PAGE_SIZE = 20;
 
     private final UserClient userClient;
 
@@ -44,11 +50,28 @@ public class UserControllerRestTemplateImpl {
     }
 
     @GetMapping
-    public ResponseEntity<Object> getAll() {
-        log.info("Got request to get all users");
+    public ResponseEntity<Object> getAll(
+            @PositiveOrZero @RequestParam(name = "from", required = false) Integer from,
+            @Positive @Max(1000) @RequestParam(name = "size", required = false) Integer size,
+            @RequestParam(name = "cursor", required = false) String cursor) {
+        log.info("Got request to get users: from {}, size {}, cursor {}", from, size, cursor);
+        if (cursor != null) {
+            return userClient.getAllUsersAfterCursor(cursor, size == null ? DEFAULT_PAGE_SIZE : size);
+        }
+        if (from != null || size != null) {
+            return userClient.getAllUsers(from == null ? 0 : from, size == null ? DEFAULT_PAGE_SIZE : size);
+        }
         return userClient.getAllUsers();
     }
 
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAll() {
+        log.info("Got request to stream all users");
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(userClient::streamAllUsers);
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<Object> delete(@PathVariable("id") Long id) {
         log.info("Got request to delete user with id {}", id);
@@ -3,15 +3,21 @@ package ru.practicum.shareit.gateway.user.controller;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import ru.practicum.shareit.gateway.baseClients.WebClientBase;
 import ru.practicum.shareit.gateway.user.dto.UserCreateDto;
 import ru.practicum.shareit.gateway.user.dto.UserDto;
 
 import javax.validation.Valid;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Positive;
+import javax.validation.constraints.PositiveOrZero;
+import java.util.Map;
 
 @RestController
 @RequestMapping(path = "/users")
@@ -22,6 +28,7 @@ import javax.validation.Valid;
 public class UserControllerWebClientImpl {
     private final WebClientBase client;
     private static final String USERS_PATH = "/users";
+    private static final int DEFAULT_PAGE_SIZE = 20;
 
     @PostMapping()
     public Mono<ResponseEntity<Object>> add(@RequestBody @Valid UserCreateDto userCreateDto) {
@@ -44,11 +51,32 @@ public class UserControllerWebClientImpl {
     }
 
     @GetMapping
-    public Mono<ResponseEntity<Object>> getAll() {
-        log.info("Got request to get all users");
+    public Mono<ResponseEntity<Object>> getAll(
+            @PositiveOrZero @RequestParam(name = "from", required = false) Integer from,
+            @Positive @Max(1000) @RequestParam(name = "size", required = false) Integer size,
+            @RequestParam(name = "cursor", required = false) String cursor) {
+        log.info("Got request to get users: from {}, size {}, cursor {}", from, size, cursor);
+        if (cursor != null) {
+            return client.get(USERS_PATH, Map.of(
+                    "cursor", cursor,
+                    "size", size == null ? DEFAULT_PAGE_SIZE : size
+            ));
+        }
+        if (from != null || size != null) {
+            return client.get(USERS_PATH, Map.of(
+                    "from", from == null ? 0 : from,
+                    "size", size == null ? DEFAULT_PAGE_SIZE : size
+            ));
+        }
         return client.get(USERS_PATH);
     }
 
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Object> streamAll() {
+        log.info("Got request to stream all users");
+        return client.getStream(USERS_PATH);
+    }
+
     @DeleteMapping("/{id}")
     public Mono<ResponseEntity<Object>> delete(@PathVariable("id") Long id) {
         log.info("Got request to delete user with id {}", id);
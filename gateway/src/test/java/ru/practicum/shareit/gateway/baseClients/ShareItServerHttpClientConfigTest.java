@@ -0,0 +1,84 @@
+package ru.practicum.shareit.gateway.baseClients;
+
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.SneakyThrows;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ShareItServerHttpClientConfigTest {
+    private final ShareItServerHttpClientConfig config = new ShareItServerHttpClientConfig();
+
+    private HttpServer server;
+    private String serverUrl;
+    private PoolingHttpClientConnectionManager connectionManager;
+    private HttpComponentsClientHttpRequestFactory requestFactory;
+
+    @BeforeEach
+    @SneakyThrows
+    void setUp() {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/users", exchange -> {
+            byte[] bytes = "[]".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream responseBody = exchange.getResponseBody()) {
+                responseBody.write(bytes);
+            }
+        });
+        server.start();
+        serverUrl = "http://localhost:" + server.getAddress().getPort();
+        connectionManager = config.shareItServerConnectionManager(50, 20, 2000);
+        requestFactory = config.shareItServerRequestFactory(connectionManager, 2000, 10000, 5000, 30000, 30000);
+    }
+
+    @AfterEach
+    @SneakyThrows
+    void tearDown() {
+        requestFactory.destroy();
+        connectionManager.close();
+        server.stop(0);
+    }
+
+    @Test
+    void requestFactory_whenUsedByTwoClients_thenConnectionKeptAliveAndShared() {
+        RestTemplate usersClient = new RestTemplateBuilder().requestFactory(() -> requestFactory).build();
+        RestTemplate otherClient = new RestTemplateBuilder().requestFactory(() -> requestFactory).build();
+
+        usersClient.getForEntity(serverUrl + "/users", Object.class);
+        otherClient.getForEntity(serverUrl + "/users", Object.class);
+        usersClient.getForEntity(serverUrl + "/users", Object.class);
+
+        assertEquals(0, connectionManager.getTotalStats().getLeased(), "Connection not returned to the pool");
+        assertEquals(1, connectionManager.getTotalStats().getAvailable(), "Connection not reused by the clients");
+    }
+
+    @Test
+    void connectionPoolMetrics_whenBound_thenPoolLimitsAndStatePublished() {
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        config.shareItServerConnectionPoolMetrics(connectionManager).bindTo(meterRegistry);
+
+        new RestTemplate(requestFactory).getForEntity(serverUrl + "/users", Object.class);
+
+        assertEquals(50, meterRegistry.get("httpcomponents.httpclient.pool.total.max")
+                .tag("httpclient", ShareItServerHttpClientConfig.POOL_NAME).gauge().value());
+        assertEquals(20, meterRegistry.get("httpcomponents.httpclient.pool.route.max.default")
+                .tag("httpclient", ShareItServerHttpClientConfig.POOL_NAME).gauge().value());
+        assertEquals(1, meterRegistry.get("httpcomponents.httpclient.pool.total.connections")
+                .tags("httpclient", ShareItServerHttpClientConfig.POOL_NAME, "state", "available").gauge().value());
+        assertEquals(0, meterRegistry.get("httpcomponents.httpclient.pool.total.pending")
+                .tag("httpclient", ShareItServerHttpClientConfig.POOL_NAME).gauge().value());
+    }
+}
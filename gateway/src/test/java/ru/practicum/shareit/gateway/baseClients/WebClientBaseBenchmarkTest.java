@@ -0,0 +1,129 @@
+package ru.practicum.shareit.gateway.baseClients;
+
+import com.sun.net.httpserver.HttpServer;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares the throughput of the RestTemplate and WebClient modes. Measures wall-clock time, so it is left out
+ * of mvn test and run with mvn test -Pbenchmark.
+ */
+@Tag("benchmark")
+class WebClientBaseBenchmarkTest {
+    private static final long SERVER_DELAY_MILLIS = 200;
+    private static final int SERVLET_THREADS = 4;
+    private static final int REQUESTS = 40;
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private String serverUrl;
+    private WebClientBase client;
+
+    @BeforeEach
+    @SneakyThrows
+    void setUp() {
+        serverExecutor = Executors.newCachedThreadPool();
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), REQUESTS * 2);
+        server.createContext("/users", exchange -> {
+            try {
+                Thread.sleep(SERVER_DELAY_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] bytes = "{\"id\":1,\"name\":\"name\"}".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream responseBody = exchange.getResponseBody()) {
+                responseBody.write(bytes);
+            }
+        });
+        server.setExecutor(serverExecutor);
+        server.start();
+        serverUrl = "http://localhost:" + server.getAddress().getPort();
+        client = new WebClientBase(serverUrl, 100, 1000, 5000, 30000, 2000, 10000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        client.close();
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    /**
+     * Serves the same burst with the same number of request threads in both modes. A thread of the
+     * RestTemplate mode is held for the whole server delay, a thread of the WebClient mode only until
+     * the request is sent, so the WebClient mode keeps every request of the burst in flight at once.
+     */
+    @Test
+    void burst_whenSameThreadCount_thenWebClientServesBurstFasterThanRestTemplate() {
+        RestTemplate restTemplate = new RestTemplate(new HttpComponentsClientHttpRequestFactory());
+        // warm both clients up so connection setup and class loading are not measured
+        restTemplate.getForEntity(serverUrl + "/users", Object.class);
+        client.get("/users").block();
+
+        long restTemplateMillis = runBurst((done, failures) -> {
+            restTemplate.getForEntity(serverUrl + "/users", Object.class);
+            done.countDown();
+        });
+        long webClientMillis = runBurst((done, failures) -> client.get("/users")
+                .subscribe(response -> done.countDown(), error -> {
+                    failures.incrementAndGet();
+                    done.countDown();
+                }));
+
+        String timings = String.format("%d requests, %d threads, %d ms server delay: RestTemplate %d ms, "
+                        + "WebClient %d ms",
+                REQUESTS, SERVLET_THREADS, SERVER_DELAY_MILLIS, restTemplateMillis, webClientMillis);
+        assertTrue(restTemplateMillis >= REQUESTS / SERVLET_THREADS * SERVER_DELAY_MILLIS,
+                "RestTemplate mode served more requests at once than it has threads: " + timings);
+        assertTrue(webClientMillis * 2 < restTemplateMillis,
+                "WebClient mode is not faster than RestTemplate mode with the same threads: " + timings);
+    }
+
+    @SneakyThrows
+    private long runBurst(RequestTask task) {
+        ExecutorService servletThreads = Executors.newFixedThreadPool(SERVLET_THREADS);
+        CountDownLatch done = new CountDownLatch(REQUESTS);
+        AtomicLong failures = new AtomicLong();
+        long startNanos = System.nanoTime();
+        try {
+            for (int i = 0; i < REQUESTS; i++) {
+                servletThreads.execute(() -> {
+                    try {
+                        task.run(done, failures);
+                    } catch (RuntimeException e) {
+                        failures.incrementAndGet();
+                        done.countDown();
+                    }
+                });
+            }
+            assertTrue(done.await(30, TimeUnit.SECONDS), "Burst not served in time");
+        } finally {
+            servletThreads.shutdownNow();
+        }
+        assertEquals(0, failures.get(), "Requests of the burst failed");
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+
+    private interface RequestTask {
+        void run(CountDownLatch done, AtomicLong failures);
+    }
+}
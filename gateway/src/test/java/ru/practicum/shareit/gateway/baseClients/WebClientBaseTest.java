@@ -0,0 +1,144 @@
+package ru.practicum.shareit.gateway.baseClients;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import reactor.core.publisher.Mono;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WebClientBaseTest {
+    private static final int MAX_CONNECTIONS = 2;
+    private static final int REQUESTS = 6;
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private final AtomicInteger received = new AtomicInteger();
+    private final Semaphore arrivals = new Semaphore(0);
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private String serverUrl;
+    private WebClientBase client;
+
+    @BeforeEach
+    @SneakyThrows
+    void setUp() {
+        serverExecutor = Executors.newCachedThreadPool();
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), REQUESTS * 2);
+        server.createContext("/invalid", exchange -> respond(exchange, 400, "{\"error\":\"invalid\"}"));
+        server.createContext("/held", this::respondWhenReleased);
+        server.setExecutor(serverExecutor);
+        server.start();
+        serverUrl = "http://localhost:" + server.getAddress().getPort();
+        client = new WebClientBase(serverUrl, MAX_CONNECTIONS, 1000, 5000, 30000, 2000, 10000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        client.close();
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Test
+    @SneakyThrows
+    void get_whenServerHasNotResponded_thenReturnedMonoNotCompleted() {
+        CompletableFuture<ResponseEntity<Object>> response = client.get("/held", 1L).toFuture();
+
+        awaitReceived(1);
+        assertFalse(response.isDone(), "Response completed before the server responded");
+
+        release.countDown();
+        ResponseEntity<Object> entity = response.get(5, TimeUnit.SECONDS);
+        assertEquals(HttpStatus.OK, entity.getStatusCode());
+        assertEquals("name", ((Map<?, ?>) entity.getBody()).get("name"));
+    }
+
+    @Test
+    void get_whenServerRespondsBadRequest_thenBadRequestWithBodyReturned() {
+        ResponseEntity<Object> entity = client.get("/invalid").block();
+
+        assertEquals(HttpStatus.BAD_REQUEST, entity.getStatusCode());
+        assertEquals("invalid", ((Map<?, ?>) entity.getBody()).get("error"));
+    }
+
+    @Test
+    void get_whenServerSlowerThanResponseTimeout_thenRequestExceptionThrown() {
+        WebClientBase impatientClient = new WebClientBase(serverUrl, MAX_CONNECTIONS, 1000, 5000, 30000, 2000, 50);
+        try {
+            Mono<ResponseEntity<Object>> response = impatientClient.get("/held", 1L);
+
+            assertThrows(WebClientRequestException.class, response::block);
+        } finally {
+            impatientClient.close();
+        }
+    }
+
+    @Test
+    @SneakyThrows
+    void get_whenMoreRequestsThanConnections_thenRestWaitForPooledConnection() {
+        List<CompletableFuture<ResponseEntity<Object>>> responses = new ArrayList<>();
+        for (int i = 0; i < REQUESTS; i++) {
+            responses.add(client.get("/held").toFuture());
+        }
+
+        awaitReceived(MAX_CONNECTIONS);
+        assertTrue(responses.stream().noneMatch(CompletableFuture::isDone), "Response completed before release");
+
+        release.countDown();
+        for (CompletableFuture<ResponseEntity<Object>> response : responses) {
+            assertEquals(HttpStatus.OK, response.get(5, TimeUnit.SECONDS).getStatusCode());
+        }
+        assertEquals(REQUESTS, received.get());
+        assertTrue(maxInFlight.get() <= MAX_CONNECTIONS, "More requests in flight than pooled connections");
+    }
+
+    @SneakyThrows
+    private void awaitReceived(int requests) {
+        assertTrue(arrivals.tryAcquire(requests, 5, TimeUnit.SECONDS), "Requests did not reach the server");
+    }
+
+    @SneakyThrows
+    private void respondWhenReleased(HttpExchange exchange) {
+        maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+        received.incrementAndGet();
+        arrivals.release();
+        release.await(10, TimeUnit.SECONDS);
+        // before the response, so the next request on the same connection is not counted twice
+        inFlight.decrementAndGet();
+        respond(exchange, 200, "{\"id\":1,\"name\":\"name\"}");
+    }
+
+    @SneakyThrows
+    private static void respond(HttpExchange exchange, int status, String body) {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream responseBody = exchange.getResponseBody()) {
+            responseBody.write(bytes);
+        }
+    }
+}
@@ -14,11 +14,14 @@ import org.springframework.test.web.servlet.MockMvc;
 import ru.practicum.shareit.gateway.booking.client.BookingClient;
 import ru.practicum.shareit.gateway.booking.dto.BookingCreationDto;
 import ru.practicum.shareit.gateway.booking.dto.BookingStateSearchDto;
+import ru.practicum.shareit.gateway.booking.dto.BookingStatusChangeDto;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -240,6 +243,70 @@ class BookingControllerIntegrationTest {
                 "Invalid bookingId passed to service");
     }
 
+    @SneakyThrows
+    @Test
+    void changeStatuses_whenInvoked_thenStatusIsOkAndChangesPassedToClient() {
+        long ownerId = 3L;
+        List<BookingStatusChangeDto> changes = List.of(
+                BookingStatusChangeDto.builder().bookingId(1L).approved(true).build(),
+                BookingStatusChangeDto.builder().bookingId(2L).approved(false).build());
+
+        mvc.perform(patch("/bookings/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(changes))
+                        .header("X-Sharer-User-Id", ownerId))
+                .andExpect(status().isOk());
+
+        verify(bookingClient, times(1)).changeStatuses(ownerId, changes);
+    }
+
+    @SneakyThrows
+    @Test
+    void changeStatuses_whenApprovedIsMissing_thenStatusIsBadRequest() {
+        List<BookingStatusChangeDto> changes = List.of(BookingStatusChangeDto.builder().bookingId(1L).build());
+
+        mvc.perform(patch("/bookings/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(changes))
+                        .header("X-Sharer-User-Id", 3L))
+                .andExpect(status().isBadRequest());
+
+        verify(bookingClient, never()).changeStatuses(anyLong(), anyList());
+    }
+
+    @SneakyThrows
+    @Test
+    void changeStatuses_whenChangesAreEmpty_thenStatusIsBadRequest() {
+        mvc.perform(patch("/bookings/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]")
+                        .header("X-Sharer-User-Id", 3L))
+                .andExpect(status().isBadRequest());
+
+        verify(bookingClient, never()).changeStatuses(anyLong(), anyList());
+    }
+
+    @SneakyThrows
+    @Test
+    void getSummaryForItemOwner_whenInvoked_thenStatusIsOkAndOwnerPassedToClient() {
+        long ownerId = 3L;
+
+        mvc.perform(get("/bookings/owner/summary")
+                        .header("X-Sharer-User-Id", ownerId))
+                .andExpect(status().isOk());
+
+        verify(bookingClient, times(1)).getBookingSummaryForItemOwner(ownerId);
+    }
+
+    @SneakyThrows
+    @Test
+    void getSummaryForItemOwner_whenXSharerUserIdIsMissing_thenStatusIsBadRequest() {
+        mvc.perform(get("/bookings/owner/summary"))
+                .andExpect(status().isBadRequest());
+
+        verify(bookingClient, never()).getBookingSummaryForItemOwner(anyLong());
+    }
+
     @SneakyThrows
     @Test
     void getBookingById_whenXSharerUserIdIsMissing_thenStatusIsBadRequest() {
@@ -446,4 +513,40 @@ class BookingControllerIntegrationTest {
         assertEquals(defaultFrom, fromArgumentCaptor.getValue(),
                 "Invalid from passed to service");
     }
+
+    @SneakyThrows
+    @Test
+    void getBookingsForBooker_whenCursorPassed_thenCursorPassedToClient() {
+        Long userId = 0L;
+        String state = "PAST";
+        String cursor = "cursor";
+        int size = 5;
+
+        mvc.perform(get("/bookings?state={state}&size={size}&cursor={cursor}", state, size, cursor)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("X-Sharer-User-Id", userId))
+                .andExpect(status().isOk());
+
+        verify(bookingClient, times(1)).getBookingsForBookerAfterCursor(
+                userId, BookingStateSearchDto.PAST, cursor, size);
+        verify(bookingClient, never()).getBookingsForBooker(anyLong(), any(), anyInt(), anyInt());
+    }
+
+    @SneakyThrows
+    @Test
+    void getByStateForItemOwner_whenCursorPassed_thenCursorPassedToClient() {
+        Long userId = 0L;
+        String state = "PAST";
+        String cursor = "cursor";
+        int size = 5;
+
+        mvc.perform(get("/bookings/owner?state={state}&size={size}&cursor={cursor}", state, size, cursor)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("X-Sharer-User-Id", userId))
+                .andExpect(status().isOk());
+
+        verify(bookingClient, times(1)).getBookingForItemOwnerAfterCursor(
+                userId, BookingStateSearchDto.PAST, cursor, size);
+        verify(bookingClient, never()).getBookingForItemOwner(anyLong(), any(), anyInt(), anyInt());
+    }
 }
\ No newline at end of file
@@ -18,7 +18,15 @@ import ru.practicum.shareit.gateway.item.dto.ItemDto;
 import ru.practicum.shareit.gateway.item.dto.requestParam.GetByUserRequestParams;
 import ru.practicum.shareit.gateway.item.dto.requestParam.SearchRequestParams;
 
+import java.time.LocalDateTime;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -650,6 +658,66 @@ class ItemControllerIntegrationTest {
                 .andExpect(status().isBadRequest());
     }
 
+    @SneakyThrows
+    @Test
+    void suggestNames_whenInvoked_thenStatusIsOkAndParamsPassedToClient() {
+        mvc.perform(get("/items/suggest?prefix={prefix}&limit={limit}", "dri", 5)
+                        .header("X-Sharer-User-Id", 0L))
+                .andExpect(status().isOk());
+
+        verify(itemClient, times(1)).suggestNames(0L, "dri", 5);
+    }
+
+    @SneakyThrows
+    @Test
+    void suggestNames_whenLimitIsMissing_thenDefaultValuePassedToClient() {
+        mvc.perform(get("/items/suggest?prefix={prefix}", "dri")
+                        .header("X-Sharer-User-Id", 0L))
+                .andExpect(status().isOk());
+
+        verify(itemClient, times(1)).suggestNames(0L, "dri", 10);
+    }
+
+    @SneakyThrows
+    @Test
+    void suggestNames_whenPrefixIsBlank_thenStatusIsBadRequest() {
+        mvc.perform(get("/items/suggest?prefix={prefix}", " ")
+                        .header("X-Sharer-User-Id", 0L))
+                .andExpect(status().isBadRequest());
+
+        verify(itemClient, never()).suggestNames(anyLong(), anyString(), anyInt());
+    }
+
+    @SneakyThrows
+    @Test
+    void suggestNames_whenLimitIsTooBig_thenStatusIsBadRequest() {
+        mvc.perform(get("/items/suggest?prefix={prefix}&limit={limit}", "dri", 51)
+                        .header("X-Sharer-User-Id", 0L))
+                .andExpect(status().isBadRequest());
+
+        verify(itemClient, never()).suggestNames(anyLong(), anyString(), anyInt());
+    }
+
+    @SneakyThrows
+    @Test
+    void getMatchingRequests_whenSizeIsMissing_thenDefaultValuePassedToClient() {
+        mvc.perform(get("/items/{id}/matching-requests", 1L)
+                        .header("X-Sharer-User-Id", 0L))
+                .andExpect(status().isOk());
+
+        verify(itemClient, times(1)).getMatchingRequests(0L, 1L, 10);
+    }
+
+    @SneakyThrows
+    @Test
+    void getMatchingRequests_whenSizeIsTooBig_thenStatusIsBadRequest() {
+        mvc.perform(get("/items/{id}/matching-requests?size={size}", 1L, 51)
+                        .header("X-Sharer-User-Id", 0L))
+                .andExpect(status().isBadRequest());
+
+        verify(itemClient, never()).getMatchingRequests(anyLong(), anyLong(), anyInt());
+    }
+
     @SneakyThrows
     @Test
     void searchItems_whenInvoked_thenStatusIsOkAndParamsPassedToClient() {
@@ -799,4 +867,73 @@ class ItemControllerIntegrationTest {
                         .header("X-Sharer-User-Id", userId))
                 .andExpect(status().isBadRequest());
     }
-}
\ No newline at end of file
+
+    @SneakyThrows
+    @Test
+    void getAvailability_whenInvoked_thenStatusIsOkAndParamsPassedToClient() {
+        long userId = 0L;
+        Long itemId = 1L;
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 10, 0);
+        LocalDateTime to = from.plusDays(1);
+
+        mvc.perform(get("/items/{id}/availability?from={from}&to={to}", itemId, from, to)
+                        .header("X-Sharer-User-Id", userId))
+                .andExpect(status().isOk());
+
+        verify(itemClient, times(1)).getAvailability(userId, itemId, from, to);
+    }
+
+    @SneakyThrows
+    @Test
+    void getAvailability_whenFromIsAfterTo_thenStatusIsBadRequest() {
+        Long userId = 0L;
+        Long itemId = 1L;
+        LocalDateTime from = LocalDateTime.of(2030, 1, 2, 10, 0);
+        LocalDateTime to = from.minusDays(1);
+
+        mvc.perform(get("/items/{id}/availability?from={from}&to={to}", itemId, from, to)
+                        .header("X-Sharer-User-Id", userId))
+                .andExpect(status().isBadRequest());
+
+        verify(itemClient, never()).getAvailability(anyLong(), anyLong(), any(), any());
+    }
+
+    @SneakyThrows
+    @Test
+    void searchItems_whenStartAndEndPassed_thenAvailableItemsSearchedByClient() {
+        LocalDateTime start = LocalDateTime.of(2030, 1, 1, 10, 0);
+        LocalDateTime end = start.plusDays(2);
+
+        mvc.perform(get("/items/search?text={text}&start={start}&end={end}", "drill", start, end)
+                        .header("X-Sharer-User-Id", 0L))
+                .andExpect(status().isOk());
+
+        verify(itemClient, times(1)).searchAvailableItems(
+                eq(0L), searchRequestParamsArgumentCaptor.capture(), eq(start), eq(end));
+        verify(itemClient, never()).searchItems(anyLong(), any());
+        assertEquals("drill", searchRequestParamsArgumentCaptor.getValue().getText(),
+                "Invalid text passed to client when searchAvailableItems");
+    }
+
+    @SneakyThrows
+    @Test
+    void searchItems_whenOnlyStartPassed_thenStatusIsBadRequest() {
+        mvc.perform(get("/items/search?text={text}&start={start}", "drill", LocalDateTime.of(2030, 1, 1, 10, 0))
+                        .header("X-Sharer-User-Id", 0L))
+                .andExpect(status().isBadRequest());
+
+        verify(itemClient, never()).searchAvailableItems(anyLong(), any(), any(), any());
+    }
+
+    @SneakyThrows
+    @Test
+    void searchItems_whenStartIsAfterEnd_thenStatusIsBadRequest() {
+        LocalDateTime start = LocalDateTime.of(2030, 1, 2, 10, 0);
+
+        mvc.perform(get("/items/search?text={text}&start={start}&end={end}", "drill", start, start.minusDays(1))
+                        .header("X-Sharer-User-Id", 0L))
+                .andExpect(status().isBadRequest());
+
+        verify(itemClient, never()).searchAvailableItems(anyLong(), any(), any(), any());
+    }
+}
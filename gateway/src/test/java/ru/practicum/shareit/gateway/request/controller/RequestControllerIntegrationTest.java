@@ -261,4 +261,24 @@ class RequestControllerIntegrationTest {
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isBadRequest());
     }
-}
\ No newline at end of file
+
+    @SneakyThrows
+    @Test
+    void getCandidateItems_whenInvoked_thenStatusIsOkAndParamsPassedToClient() {
+        mvc.perform(get("/requests/{id}/candidates?size={size}", 1L, 5)
+                        .header("X-Sharer-User-Id", 0L))
+                .andExpect(status().isOk());
+
+        verify(requestClient, times(1)).getCandidateItems(0L, 1L, 5);
+    }
+
+    @SneakyThrows
+    @Test
+    void getCandidateItems_whenSizeIsNotPositive_thenStatusIsBadRequest() {
+        mvc.perform(get("/requests/{id}/candidates?size={size}", 1L, 0)
+                        .header("X-Sharer-User-Id", 0L))
+                .andExpect(status().isBadRequest());
+
+        verify(requestClient, never()).getCandidateItems(anyLong(), anyLong(), anyInt());
+    }
+}
@@ -11,14 +11,18 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import ru.practicum.shareit.gateway.user.client.UserClient;
 import ru.practicum.shareit.gateway.user.dto.UserCreateDto;
 import ru.practicum.shareit.gateway.user.dto.UserDto;
 
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
-import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(controllers = UserControllerRestTemplateImpl.class)
 @TestPropertySource(locations = "classpath:test.web.mvc.application.properties")
@@ -232,6 +236,51 @@ class UserControllerIntegrationTest {
         verify(userClient, times(1)).getAllUsers();
     }
 
+    @SneakyThrows
+    @Test
+    void getAll_whenPaged_thenParamsPassedToClient() {
+        mvc.perform(get("/users?from={from}&size={size}", 10, 5))
+                .andExpect(status().isOk());
+        verify(userClient, times(1)).getAllUsers(10, 5);
+        verify(userClient, never()).getAllUsers();
+    }
+
+    @SneakyThrows
+    @Test
+    void getAll_whenCursorWithoutSize_thenDefaultSizePassedToClient() {
+        mvc.perform(get("/users?cursor={cursor}", "cursor"))
+                .andExpect(status().isOk());
+        verify(userClient, times(1)).getAllUsersAfterCursor("cursor", 20);
+    }
+
+    @SneakyThrows
+    @Test
+    void getAll_whenSizeIsNotPositive_thenStatusIsBadRequest() {
+        mvc.perform(get("/users?from={from}&size={size}", 0, 0))
+                .andExpect(status().isBadRequest());
+        verify(userClient, never()).getAllUsers(anyInt(), anyInt());
+    }
+
+    @SneakyThrows
+    @Test
+    void streamAll_whenNdjsonAccepted_thenServerStreamCopiedToResponse() {
+        byte[] body = "{\"id\":1}\n{\"id\":2}\n".getBytes(StandardCharsets.UTF_8);
+        doAnswer(invocation -> {
+            OutputStream outputStream = invocation.getArgument(0);
+            outputStream.write(body);
+            return null;
+        }).when(userClient).streamAllUsers(any());
+
+        MvcResult asyncResult = mvc.perform(get("/users").accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mvc.perform(asyncDispatch(asyncResult))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().bytes(body));
+        verify(userClient, never()).getAllUsers();
+    }
+
     @SneakyThrows
     @Test
     void delete_whenInvoked_thenStatusIsOkAndIdPassedToClient() {
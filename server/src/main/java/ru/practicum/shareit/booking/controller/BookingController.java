@@ -2,9 +2,14 @@ package ru.practicum.shareit.booking.controller;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.booking.dto.BookingCreationDto;
+import ru.practicum.shareit.booking.dto.BookingCursorPageDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingStatusChangeDto;
+import ru.practicum.shareit.booking.dto.BookingStatusChangeResultDto;
+import ru.practicum.shareit.booking.dto.OwnerBookingSummaryDto;
 import ru.practicum.shareit.booking.dto.requestParams.GetByStateRequestParams;
 import ru.practicum.shareit.booking.service.BookingServiceImpl;
 
@@ -16,6 +21,7 @@ import java.util.List;
 @RequiredArgsConstructor
 public class BookingController {
 
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
     private final BookingServiceImpl bookingService;
 
     @PostMapping
@@ -35,6 +41,13 @@ public class BookingController {
         return bookingService.changeStatus(userId, bookingId, approved);
     }
 
+    @PatchMapping("/bulk")
+    public List<BookingStatusChangeResultDto> changeStatuses(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                             @RequestBody List<BookingStatusChangeDto> changes) {
+        log.info("Got request to change status of {} bookings with: userId: {}", changes.size(), userId);
+        return bookingService.changeStatuses(userId, changes);
+    }
+
     @GetMapping("/{bookingId}")
     public BookingDto getById(@RequestHeader("X-Sharer-User-Id") Long userId,
                               @PathVariable("bookingId") Long bookingId) {
@@ -43,23 +56,47 @@ public class BookingController {
     }
 
     @GetMapping()
-    public List<BookingDto> getByStateForBooker(@RequestHeader("X-Sharer-User-Id") Long bookerId,
-                                                @RequestParam(name = "state") String state,
-                                                @RequestParam(name = "from") int from,
-                                                @RequestParam(name = "size") int size) {
+    public ResponseEntity<List<BookingDto>> getByStateForBooker(
+            @RequestHeader("X-Sharer-User-Id") Long bookerId,
+            @RequestParam(name = "state") String state,
+            @RequestParam(name = "from") int from,
+            @RequestParam(name = "size") int size,
+            @RequestParam(name = "cursor", required = false) String cursor) {
         GetByStateRequestParams requestParams = new GetByStateRequestParams(bookerId, state, from, size);
-        log.info("Got request from booker with to get bookings: {}", requestParams);
-        return bookingService.getByStateBooker(bookerId, state, from, size);
+        log.info("Got request from booker with to get bookings: {}, cursor: {}", requestParams, cursor);
+        if (cursor != null) {
+            return toCursorResponse(bookingService.getByStateBookerAfterCursor(bookerId, state, cursor, size));
+        }
+        return ResponseEntity.ok(bookingService.getByStateBooker(bookerId, state, from, size));
     }
 
     @GetMapping("/owner")
-    public List<BookingDto> getByStateForItemOwner(@RequestHeader("X-Sharer-User-Id") Long ownerId,
-                                                   @RequestParam(name = "state") String state,
-                                                   @RequestParam(name = "from") int from,
-                                                   @RequestParam(name = "size") int size) {
+    public ResponseEntity<List<BookingDto>> getByStateForItemOwner(
+            @RequestHeader("X-Sharer-User-Id") Long ownerId,
+            @RequestParam(name = "state") String state,
+            @RequestParam(name = "from") int from,
+            @RequestParam(name = "size") int size,
+            @RequestParam(name = "cursor", required = false) String cursor) {
         GetByStateRequestParams requestParams = new GetByStateRequestParams(ownerId, state, from, size);
-        log.info("Got request from items owner to get bookings: {}", requestParams);
-        return bookingService.getByStateOwner(ownerId, state, from, size);
+        log.info("Got request from items owner to get bookings: {}, cursor: {}", requestParams, cursor);
+        if (cursor != null) {
+            return toCursorResponse(bookingService.getByStateOwnerAfterCursor(ownerId, state, cursor, size));
+        }
+        return ResponseEntity.ok(bookingService.getByStateOwner(ownerId, state, from, size));
+    }
+
+    @GetMapping("/owner/summary")
+    public OwnerBookingSummaryDto getOwnerSummary(@RequestHeader("X-Sharer-User-Id") Long ownerId) {
+        log.info("Got request from items owner to get bookings summary: ownerId {}", ownerId);
+        return bookingService.getOwnerSummary(ownerId);
+    }
+
+    private ResponseEntity<List<BookingDto>> toCursorResponse(BookingCursorPageDto page) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getBookings());
     }
 
 }
@@ -0,0 +1,53 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.Data;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.exception.InvalidParamException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+
+/**
+ * Opaque keyset position over (start, booking_id) for listings ordered by start and id descending.
+ * An empty cursor means the first page.
+ */
+@Data
+public class BookingCursor {
+    private static final LocalDateTime FIRST_PAGE_START = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+    private static final String SEPARATOR = "|";
+
+    private final LocalDateTime start;
+    private final Long id;
+
+    public static BookingCursor of(Booking booking) {
+        // timestamps are stored with microsecond precision
+        return new BookingCursor(booking.getStart().truncatedTo(ChronoUnit.MICROS), booking.getId());
+    }
+
+    public static BookingCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return new BookingCursor(FIRST_PAGE_START, Long.MAX_VALUE);
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separatorIndex = decoded.indexOf(SEPARATOR);
+            return new BookingCursor(
+                    LocalDateTime.parse(decoded.substring(0, separatorIndex)),
+                    Long.parseLong(decoded.substring(separatorIndex + 1))
+            );
+        } catch (IllegalArgumentException | DateTimeParseException | IndexOutOfBoundsException e) {
+            throw new InvalidParamException(
+                    "Cursor",
+                    String.format("Invalid cursor: %s", cursor)
+            );
+        }
+    }
+
+    public String encode() {
+        String raw = start + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,5 @@
+package ru.practicum.shareit.booking.dto;
+
+public enum BookingStatusChangeOutcome {
+    CHANGED, NOT_FOUND, NOT_WAITING
+}
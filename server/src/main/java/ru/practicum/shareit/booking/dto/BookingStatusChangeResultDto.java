@@ -0,0 +1,12 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class BookingStatusChangeResultDto {
+    private Long bookingId;
+    private BookingStatusChangeOutcome outcome;
+    private BookingDto booking;
+}
@@ -0,0 +1,14 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class OwnerBookingSummaryDto {
+    private long waiting;
+    private long current;
+    private long future;
+    private long past;
+    private long rejected;
+}
@@ -5,10 +5,12 @@ import org.springframework.stereotype.Component;
 import ru.practicum.shareit.booking.dto.BookingCreationDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.LastNextBookingDto;
+import ru.practicum.shareit.booking.model.ArchivedBooking;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.item.dto.ItemBookingDto;
 import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemBookingSummary;
 import ru.practicum.shareit.user.dto.UserBookingDto;
 import ru.practicum.shareit.user.mapper.UserMapper;
 import ru.practicum.shareit.user.model.User;
@@ -64,4 +66,35 @@ public class BookingMapper {
                 .bookerId(booking.getBooker().getId())
                 .build();
     }
+
+    public LastNextBookingDto mapToLastDto(ItemBookingSummary summary) {
+        if (summary == null || summary.getLastBookingId() == null) {
+            return null;
+        }
+        return LastNextBookingDto.builder()
+                .id(summary.getLastBookingId())
+                .bookerId(summary.getLastBookerId())
+                .build();
+    }
+
+    public LastNextBookingDto mapToNextDto(ItemBookingSummary summary) {
+        if (summary == null || summary.getNextBookingId() == null) {
+            return null;
+        }
+        return LastNextBookingDto.builder()
+                .id(summary.getNextBookingId())
+                .bookerId(summary.getNextBookerId())
+                .build();
+    }
+
+    public Booking mapToBooking(ArchivedBooking archivedBooking) {
+        return Booking.builder()
+                .id(archivedBooking.getId())
+                .booker(archivedBooking.getBooker())
+                .item(archivedBooking.getItem())
+                .state(archivedBooking.getState())
+                .start(archivedBooking.getStart())
+                .end(archivedBooking.getEnd())
+                .build();
+    }
 }
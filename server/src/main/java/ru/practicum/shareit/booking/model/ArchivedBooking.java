@@ -0,0 +1,44 @@
+package ru.practicum.shareit.booking.model;
+
+import lombok.*;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Ended booking moved out of the booking table by BookingArchiver.
+ */
+@Entity
+@Table(name = "booking_archive")
+@Getter
+@Setter
+@ToString
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ArchivedBooking {
+    @Id
+    @Column(name = "booking_id")
+    private Long id;
+
+    @ToString.Exclude
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "booker_id", referencedColumnName = "user_id")
+    private User booker;
+
+    @ToString.Exclude
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "item_id", referencedColumnName = "item_id")
+    private Item item;
+
+    @Enumerated(EnumType.STRING)
+    private BookingState state;
+
+    @Column(name = "start_date_time")
+    private LocalDateTime start;
+
+    @Column(name = "end_date_time")
+    private LocalDateTime end;
+}
@@ -0,0 +1,82 @@
+package ru.practicum.shareit.booking.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import ru.practicum.shareit.booking.model.ArchivedBooking;
+import ru.practicum.shareit.booking.model.BookingState;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Archived bookings have ended long ago, so they match PAST as well as ALL listings.
+ */
+public interface ArchivedBookingRepository extends JpaRepository<ArchivedBooking, Long> {
+
+    @EntityGraph(attributePaths = {"booker", "item"})
+    @Query("select b from ArchivedBooking as b where b.id = ?1")
+    Optional<ArchivedBooking> findWithBookerAndItemById(Long id);
+
+    @EntityGraph(attributePaths = {"booker", "item"})
+    @Query("select b from ArchivedBooking as b where b.id in ?1")
+    List<ArchivedBooking> findWithBookerAndItemByIdIn(Collection<Long> bookingIds);
+
+    @EntityGraph(attributePaths = {"booker", "item"})
+    @Query("select b from ArchivedBooking as b " +
+            "where b.booker.id = ?1 " +
+            "and (b.start < ?2 or (b.start = ?2 and b.id < ?3))")
+    List<ArchivedBooking> findByBookerIdAfterCursor(Pageable page,
+                                                    Long bookerId,
+                                                    LocalDateTime cursorStart,
+                                                    Long cursorId);
+
+    @EntityGraph(attributePaths = {"booker", "item"})
+    @Query("select b from ArchivedBooking as b " +
+            "where b.booker.id = ?1 and b.state = ?4 " +
+            "and (b.start < ?2 or (b.start = ?2 and b.id < ?3))")
+    List<ArchivedBooking> findByBookerIdAndStateAfterCursor(Pageable page,
+                                                            Long bookerId,
+                                                            LocalDateTime cursorStart,
+                                                            Long cursorId,
+                                                            BookingState state);
+
+    @EntityGraph(attributePaths = {"booker", "item"})
+    @Query("select b from ArchivedBooking as b " +
+            "where b.item.id in (select it.id from Item as it where it.owner.id = ?1) " +
+            "and (b.start < ?2 or (b.start = ?2 and b.id < ?3))")
+    List<ArchivedBooking> findByItemOwnerIdAfterCursor(Pageable page,
+                                                       Long itemOwner,
+                                                       LocalDateTime cursorStart,
+                                                       Long cursorId);
+
+    @EntityGraph(attributePaths = {"booker", "item"})
+    @Query("select b from ArchivedBooking as b " +
+            "where b.item.id in (select it.id from Item as it where it.owner.id = ?1) " +
+            "and b.state = ?4 " +
+            "and (b.start < ?2 or (b.start = ?2 and b.id < ?3))")
+    List<ArchivedBooking> findByItemOwnerIdAndStateAfterCursor(Pageable page,
+                                                               Long itemOwner,
+                                                               LocalDateTime cursorStart,
+                                                               Long cursorId,
+                                                               BookingState state);
+
+    @Query("select count(b) > 0 from ArchivedBooking as b " +
+            "where b.state = ?1 and b.booker.id = ?2 and b.item.id = ?3 and b.end < ?4")
+    boolean existsByStateAndBookerIdAndItemIdAndEndIsBefore(BookingState state,
+                                                            Long bookerId,
+                                                            Long itemId,
+                                                            LocalDateTime date);
+
+    @Query(value = "select b.booking_id, b.booker_id, b.item_id, b.state, b.start_date_time, b.end_date_time " +
+            "from (select bk.*, row_number() over (partition by bk.item_id order by bk.end_date_time desc) as rn " +
+            "from booking_archive as bk " +
+            "where bk.state = ?1 and bk.item_id in ?2 and bk.start_date_time < ?3) as b " +
+            "where b.rn = 1",
+            nativeQuery = true)
+    List<ArchivedBooking> findLastBookingsForItems(String state, Collection<Long> itemIds, LocalDateTime date);
+
+}
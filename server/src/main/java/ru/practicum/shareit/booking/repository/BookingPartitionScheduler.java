@@ -0,0 +1,31 @@
+package ru.practicum.shareit.booking.repository;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps monthly partitions of the booking table created ahead of time (see schema-postgresql-partitioned.sql).
+ */
+@Slf4j
+@Component
+@Profile("partitioned")
+public class BookingPartitionScheduler {
+    private final JdbcTemplate jdbcTemplate;
+    private final int monthsAhead;
+
+    public BookingPartitionScheduler(JdbcTemplate jdbcTemplate,
+                                     @Value("${shareit.booking.partitions.months-ahead:12}") int monthsAhead) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.monthsAhead = monthsAhead;
+    }
+
+    @Scheduled(cron = "${shareit.booking.partitions.cron:0 0 3 * * *}")
+    public void createPartitions() {
+        Integer created = jdbcTemplate.queryForObject("select create_booking_partitions(?)", Integer.class, monthsAhead);
+        log.info("Created {} booking partitions ahead", created);
+    }
+}
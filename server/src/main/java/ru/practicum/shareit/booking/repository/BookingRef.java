@@ -0,0 +1,10 @@
+package ru.practicum.shareit.booking.repository;
+
+/**
+ * Id of a booking in a listing merged from booking and booking_archive.
+ */
+public interface BookingRef {
+    Long getId();
+
+    Boolean getArchived();
+}
@@ -2,57 +2,306 @@ package ru.practicum.shareit.booking.repository;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingState;
 
+import javax.persistence.LockModeType;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
-import java.util.Optional;
 
 public interface BookingRepository extends JpaRepository<Booking, Long> {
 
+    @EntityGraph(attributePaths = {"booker", "item"})
+    @Query("select b from Booking as b where b.booker.id = ?1")
     Page<Booking> findByBookerId(Pageable page, Long bookerId);
 
+    @EntityGraph(attributePaths = {"booker", "item"})
+    @Query("select b from Booking as b " +
+            "where b.booker.id = ?1 and b.end > ?2 and b.start < ?3")
     Page<Booking> findByBookerIdAndEndIsAfterAndStartIsBefore(
             Pageable page,
             Long bookerId,
             LocalDateTime end,
             LocalDateTime start);
 
+    @EntityGraph(attributePaths = {"booker", "item"})
+    @Query("select b from Booking as b " +
+            "where b.booker.id = ?1 and b.end < ?2 and b.start < ?2")
     Page<Booking> findByBookerIdAndEndIsBefore(Pageable page, Long bookerId, LocalDateTime date);
 
+    @Query("select b from Booking as b " +
+            "where b.state = ?1 and b.booker.id = ?2 and b.item.id = ?3 and b.end < ?4 and b.start < ?4")
     List<Booking> findByStateAndBookerIdAndItemIdAndEndIsBefore(BookingState state,
                                                                 Long bookerId,
                                                                 Long itemId,
                                                                 LocalDateTime date);
 
+    @EntityGraph(attributePaths = {"booker", "item"})
+    @Query("select b from Booking as b where b.booker.id = ?1 and b.start > ?2")
     Page<Booking> findByBookerIdAndStartIsAfter(Pageable page, Long bookerId, LocalDateTime date);
 
+    @EntityGraph(attributePaths = {"booker", "item"})
+    @Query("select b from Booking as b where b.booker.id = ?1 and b.state = ?2")
     Page<Booking> findByBookerIdAndState(Pageable page, Long bookerId, BookingState state);
 
+    @EntityGraph(attributePaths = {"booker", "item"})
+    @Query("select b from Booking as b " +
+            "where b.item.id in (select it.id from Item as it where it.owner.id = ?1)")
     Page<Booking> findByItemOwnerId(Pageable page, Long itemOwner);
 
+    @EntityGraph(attributePaths = {"booker", "item"})
+    @Query("select b from Booking as b " +
+            "where b.item.id in (select it.id from Item as it where it.owner.id = ?1) " +
+            "and b.end > ?2 and b.start < ?3")
     Page<Booking> findByItemOwnerIdAndEndIsAfterAndStartIsBefore(
             Pageable page,
             Long bookerId,
             LocalDateTime end,
             LocalDateTime start);
 
+    @EntityGraph(attributePaths = {"booker", "item"})
+    @Query("select b from Booking as b " +
+            "where b.item.id in (select it.id from Item as it where it.owner.id = ?1) " +
+            "and b.end < ?2 and b.start < ?2")
     Page<Booking> findByItemOwnerIdAndEndIsBefore(Pageable page, Long itemOwner, LocalDateTime date);
 
+    @EntityGraph(attributePaths = {"booker", "item"})
+    @Query("select b from Booking as b " +
+            "where b.item.id in (select it.id from Item as it where it.owner.id = ?1) " +
+            "and b.start > ?2")
     Page<Booking> findByItemOwnerIdAndStartIsAfter(Pageable page, Long itemOwner, LocalDateTime date);
 
+    @EntityGraph(attributePaths = {"booker", "item"})
+    @Query("select b from Booking as b " +
+            "where b.item.id in (select it.id from Item as it where it.owner.id = ?1) " +
+            "and b.state = ?2")
     Page<Booking> findByItemOwnerIdAndState(Pageable page, Long itemOwner, BookingState state);
 
-    Optional<Booking> findTopByStateAndItemIdAndStartIsBefore(BookingState state,
-                                                              Long itemId,
-                                                              LocalDateTime date,
-                                                              Sort sort);
+    @EntityGraph(attributePaths = {"booker", "item"})
+    @Query("select b from Booking as b " +
+            "where b.booker.id = ?1 " +
+            "and (b.start < ?2 or (b.start = ?2 and b.id < ?3))")
+    List<Booking> findByBookerIdAfterCursor(Pageable page, Long bookerId, LocalDateTime cursorStart, Long cursorId);
 
-    Optional<Booking> findTopByStateAndItemIdAndStartAfter(BookingState state,
-                                                           Long itemId,
-                                                           LocalDateTime date,
-                                                           Sort sort);
+    @EntityGraph(attributePaths = {"booker", "item"})
+    @Query("select b from Booking as b " +
+            "where b.booker.id = ?1 and b.end > ?4 and b.start < ?4 " +
+            "and (b.start < ?2 or (b.start = ?2 and b.id < ?3))")
+    List<Booking> findCurrentByBookerIdAfterCursor(Pageable page,
+                                                   Long bookerId,
+                                                   LocalDateTime cursorStart,
+                                                   Long cursorId,
+                                                   LocalDateTime date);
+
+    @EntityGraph(attributePaths = {"booker", "item"})
+    @Query("select b from Booking as b " +
+            "where b.booker.id = ?1 and b.end < ?4 and b.start < ?4 " +
+            "and (b.start < ?2 or (b.start = ?2 and b.id < ?3))")
+    List<Booking> findPastByBookerIdAfterCursor(Pageable page,
+                                                Long bookerId,
+                                                LocalDateTime cursorStart,
+                                                Long cursorId,
+                                                LocalDateTime date);
+
+    @EntityGraph(attributePaths = {"booker", "item"})
+    @Query("select b from Booking as b " +
+            "where b.booker.id = ?1 and b.start > ?4 " +
+            "and (b.start < ?2 or (b.start = ?2 and b.id < ?3))")
+    List<Booking> findFutureByBookerIdAfterCursor(Pageable page,
+                                                  Long bookerId,
+                                                  LocalDateTime cursorStart,
+                                                  Long cursorId,
+                                                  LocalDateTime date);
+
+    @EntityGraph(attributePaths = {"booker", "item"})
+    @Query("select b from Booking as b " +
+            "where b.booker.id = ?1 and b.state = ?4 " +
+            "and (b.start < ?2 or (b.start = ?2 and b.id < ?3))")
+    List<Booking> findByBookerIdAndStateAfterCursor(Pageable page,
+                                                    Long bookerId,
+                                                    LocalDateTime cursorStart,
+                                                    Long cursorId,
+                                                    BookingState state);
+
+    @EntityGraph(attributePaths = {"booker", "item"})
+    @Query("select b from Booking as b " +
+            "where b.item.id in (select it.id from Item as it where it.owner.id = ?1) " +
+            "and (b.start < ?2 or (b.start = ?2 and b.id < ?3))")
+    List<Booking> findByItemOwnerIdAfterCursor(Pageable page, Long itemOwner, LocalDateTime cursorStart, Long cursorId);
+
+    @EntityGraph(attributePaths = {"booker", "item"})
+    @Query("select b from Booking as b " +
+            "where b.item.id in (select it.id from Item as it where it.owner.id = ?1) " +
+            "and b.end > ?4 and b.start < ?4 " +
+            "and (b.start < ?2 or (b.start = ?2 and b.id < ?3))")
+    List<Booking> findCurrentByItemOwnerIdAfterCursor(Pageable page,
+                                                      Long itemOwner,
+                                                      LocalDateTime cursorStart,
+                                                      Long cursorId,
+                                                      LocalDateTime date);
+
+    @EntityGraph(attributePaths = {"booker", "item"})
+    @Query("select b from Booking as b " +
+            "where b.item.id in (select it.id from Item as it where it.owner.id = ?1) " +
+            "and b.end < ?4 and b.start < ?4 " +
+            "and (b.start < ?2 or (b.start = ?2 and b.id < ?3))")
+    List<Booking> findPastByItemOwnerIdAfterCursor(Pageable page,
+                                                   Long itemOwner,
+                                                   LocalDateTime cursorStart,
+                                                   Long cursorId,
+                                                   LocalDateTime date);
+
+    @EntityGraph(attributePaths = {"booker", "item"})
+    @Query("select b from Booking as b " +
+            "where b.item.id in (select it.id from Item as it where it.owner.id = ?1) " +
+            "and b.start > ?4 " +
+            "and (b.start < ?2 or (b.start = ?2 and b.id < ?3))")
+    List<Booking> findFutureByItemOwnerIdAfterCursor(Pageable page,
+                                                     Long itemOwner,
+                                                     LocalDateTime cursorStart,
+                                                     Long cursorId,
+                                                     LocalDateTime date);
+
+    @EntityGraph(attributePaths = {"booker", "item"})
+    @Query("select b from Booking as b " +
+            "where b.item.id in (select it.id from Item as it where it.owner.id = ?1) " +
+            "and b.state = ?4 " +
+            "and (b.start < ?2 or (b.start = ?2 and b.id < ?3))")
+    List<Booking> findByItemOwnerIdAndStateAfterCursor(Pageable page,
+                                                       Long itemOwner,
+                                                       LocalDateTime cursorStart,
+                                                       Long cursorId,
+                                                       BookingState state);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select b from Booking as b " +
+            "join fetch b.booker " +
+            "join fetch b.item " +
+            "where b.id in ?1")
+    List<Booking> findForUpdateByIdIn(Collection<Long> bookingIds);
+
+    @Modifying(clearAutomatically = true)
+    @Query("update Booking as b set b.state = ?1 where b.id in ?2 and b.state = ?3")
+    int updateStateByIdInAndState(BookingState newState, Collection<Long> bookingIds, BookingState currentState);
+
+    List<Booking> findByItemIdAndStateInAndEndIsAfter(Long itemId,
+                                                      Collection<BookingState> states,
+                                                      LocalDateTime date);
+
+    @Query(value = "select b.booking_id, b.booker_id, b.item_id, b.state, b.start_date_time, b.end_date_time " +
+            "from (select bk.*, row_number() over (partition by bk.item_id order by bk.end_date_time desc) as rn " +
+            "from booking as bk " +
+            "where bk.state = ?1 and bk.item_id in ?2 and bk.start_date_time < ?3) as b " +
+            "where b.rn = 1",
+            nativeQuery = true)
+    List<Booking> findLastBookingsForItems(String state, Collection<Long> itemIds, LocalDateTime date);
+
+    @Query(value = "select b.booking_id, b.booker_id, b.item_id, b.state, b.start_date_time, b.end_date_time " +
+            "from (select bk.*, row_number() over (partition by bk.item_id order by bk.start_date_time asc) as rn " +
+            "from booking as bk " +
+            "where bk.state = ?1 and bk.item_id in ?2 and bk.start_date_time > ?3) as b " +
+            "where b.rn = 1",
+            nativeQuery = true)
+    List<Booking> findNextBookingsForItems(String state, Collection<Long> itemIds, LocalDateTime date);
+
+    @EntityGraph(attributePaths = {"booker", "item"})
+    @Query("select b from Booking as b where b.id in ?1")
+    List<Booking> findWithBookerAndItemByIdIn(Collection<Long> bookingIds);
+
+    // One statement over booking and booking_archive, so a booking archived meanwhile is counted once. Only
+    // bookings that have not started or ended by ?2 keep their moments, all others group by state alone.
+    @Query(value = "select ob.state as state, ob.starts as starts, ob.ends as ends, count(*) as bookings from (" +
+            "select bk.state, " +
+            "case when bk.start_date_time >= ?2 then bk.start_date_time end as starts, " +
+            "case when bk.end_date_time >= ?2 then bk.end_date_time end as ends " +
+            "from booking as bk " +
+            "where bk.item_id in (select it.item_id from item as it where it.owner_id = ?1) " +
+            "union all " +
+            "select ba.state, " +
+            "case when ba.start_date_time >= ?2 then ba.start_date_time end as starts, " +
+            "case when ba.end_date_time >= ?2 then ba.end_date_time end as ends " +
+            "from booking_archive as ba " +
+            "where ba.item_id in (select it.item_id from item as it where it.owner_id = ?1)) as ob " +
+            "group by ob.state, ob.starts, ob.ends",
+            nativeQuery = true)
+    List<OwnerBookingGroup> countGroupsWithArchivedByItemOwnerId(Long itemOwner, LocalDateTime date);
+
+    // The listings below page booking and booking_archive together in one query, so a page costs
+    // limit/offset rows of the union instead of offset + size rows of each table. The page must be unsorted.
+
+    @Query(value = "select b.booking_id as id, b.archived as archived from (" +
+            "select bk.booking_id, bk.start_date_time, false as archived from booking as bk " +
+            "where bk.booker_id = ?1 " +
+            "union all " +
+            "select ba.booking_id, ba.start_date_time, true as archived from booking_archive as ba " +
+            "where ba.booker_id = ?1) as b " +
+            "order by b.start_date_time desc, b.booking_id desc",
+            nativeQuery = true)
+    List<BookingRef> findRefsWithArchivedByBookerId(Pageable page, Long bookerId);
+
+    @Query(value = "select b.booking_id as id, b.archived as archived from (" +
+            "select bk.booking_id, bk.start_date_time, false as archived from booking as bk " +
+            "where bk.booker_id = ?1 and bk.end_date_time < ?2 and bk.start_date_time < ?2 " +
+            "union all " +
+            "select ba.booking_id, ba.start_date_time, true as archived from booking_archive as ba " +
+            "where ba.booker_id = ?1) as b " +
+            "order by b.start_date_time desc, b.booking_id desc",
+            nativeQuery = true)
+    List<BookingRef> findPastRefsWithArchivedByBookerId(Pageable page, Long bookerId, LocalDateTime date);
+
+    @Query(value = "select b.booking_id as id, b.archived as archived from (" +
+            "select bk.booking_id, bk.start_date_time, false as archived from booking as bk " +
+            "where bk.booker_id = ?1 and bk.state = ?2 " +
+            "union all " +
+            "select ba.booking_id, ba.start_date_time, true as archived from booking_archive as ba " +
+            "where ba.booker_id = ?1 and ba.state = ?2) as b " +
+            "order by b.start_date_time desc, b.booking_id desc",
+            nativeQuery = true)
+    List<BookingRef> findRefsWithArchivedByBookerIdAndState(Pageable page, Long bookerId, String state);
+
+    @Query(value = "select b.booking_id as id, b.archived as archived from (" +
+            "select bk.booking_id, bk.start_date_time, false as archived from booking as bk " +
+            "where bk.item_id in (select it.item_id from item as it where it.owner_id = ?1) " +
+            "union all " +
+            "select ba.booking_id, ba.start_date_time, true as archived from booking_archive as ba " +
+            "where ba.item_id in (select it.item_id from item as it where it.owner_id = ?1)) as b " +
+            "order by b.start_date_time desc, b.booking_id desc",
+            nativeQuery = true)
+    List<BookingRef> findRefsWithArchivedByItemOwnerId(Pageable page, Long itemOwner);
+
+    @Query(value = "select b.booking_id as id, b.archived as archived from (" +
+            "select bk.booking_id, bk.start_date_time, false as archived from booking as bk " +
+            "where bk.item_id in (select it.item_id from item as it where it.owner_id = ?1) " +
+            "and bk.end_date_time < ?2 and bk.start_date_time < ?2 " +
+            "union all " +
+            "select ba.booking_id, ba.start_date_time, true as archived from booking_archive as ba " +
+            "where ba.item_id in (select it.item_id from item as it where it.owner_id = ?1)) as b " +
+            "order by b.start_date_time desc, b.booking_id desc",
+            nativeQuery = true)
+    List<BookingRef> findPastRefsWithArchivedByItemOwnerId(Pageable page, Long itemOwner, LocalDateTime date);
+
+    @Query(value = "select b.booking_id as id, b.archived as archived from (" +
+            "select bk.booking_id, bk.start_date_time, false as archived from booking as bk " +
+            "where bk.item_id in (select it.item_id from item as it where it.owner_id = ?1) and bk.state = ?2 " +
+            "union all " +
+            "select ba.booking_id, ba.start_date_time, true as archived from booking_archive as ba " +
+            "where ba.item_id in (select it.item_id from item as it where it.owner_id = ?1) and ba.state = ?2) as b " +
+            "order by b.start_date_time desc, b.booking_id desc",
+            nativeQuery = true)
+    List<BookingRef> findRefsWithArchivedByItemOwnerIdAndState(Pageable page, Long itemOwner, String state);
+
+    @Query("select b.id from Booking as b " +
+            "where b.state in ?1 and b.end < ?2 " +
+            "order by b.id")
+    List<Long> findIdsToArchive(Pageable page, Collection<BookingState> states, LocalDateTime date);
+
+    @Modifying
+    @Query("delete from Booking as b where b.id in ?1")
+    int deleteByIdIn(Collection<Long> bookingIds);
 }
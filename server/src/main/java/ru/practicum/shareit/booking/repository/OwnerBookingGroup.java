@@ -0,0 +1,17 @@
+package ru.practicum.shareit.booking.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Number of an owner's bookings in one state that start and end at the same pending moments. Starts and ends
+ * that had passed when the group was counted are null.
+ */
+public interface OwnerBookingGroup {
+    String getState();
+
+    LocalDateTime getStarts();
+
+    LocalDateTime getEnds();
+
+    Long getBookings();
+}
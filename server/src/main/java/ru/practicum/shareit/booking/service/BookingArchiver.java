@@ -0,0 +1,78 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Moves approved and rejected bookings that ended more than the configured number of days ago
+ * from booking to booking_archive. Each chunk is copied and deleted in its own transaction.
+ */
+@Slf4j
+@Component
+public class BookingArchiver {
+    static final Set<BookingState> ARCHIVED_STATES = Set.of(BookingState.APPROVED, BookingState.REJECTED);
+    private static final String COPY_TO_ARCHIVE_SQL = "insert into booking_archive " +
+            "(booking_id, booker_id, item_id, state, start_date_time, end_date_time) " +
+            "select booking_id, booker_id, item_id, state, start_date_time, end_date_time " +
+            "from booking " +
+            "where booking_id in (:bookingIds)";
+
+    private final BookingRepository bookingRepository;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int archiveAfterDays;
+    private final int chunkSize;
+
+    public BookingArchiver(BookingRepository bookingRepository,
+                           NamedParameterJdbcTemplate jdbcTemplate,
+                           TransactionTemplate transactionTemplate,
+                           @Value("${shareit.booking.archive.after-days:30}") int archiveAfterDays,
+                           @Value("${shareit.booking.archive.chunk-size:500}") int chunkSize) {
+        this.bookingRepository = bookingRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.archiveAfterDays = archiveAfterDays;
+        this.chunkSize = chunkSize;
+    }
+
+    @Scheduled(cron = "${shareit.booking.archive.cron:0 30 3 * * *}")
+    public void archiveScheduled() {
+        archive(LocalDateTime.now().minusDays(archiveAfterDays));
+    }
+
+    public long archive(LocalDateTime endedBefore) {
+        long archived = 0;
+        int chunkArchived;
+        do {
+            chunkArchived = transactionTemplate.execute(status -> archiveChunk(endedBefore));
+            archived += chunkArchived;
+        } while (chunkArchived == chunkSize);
+        log.info("Archived {} bookings ended before {}", archived, endedBefore);
+        return archived;
+    }
+
+    private int archiveChunk(LocalDateTime endedBefore) {
+        List<Long> bookingIds = bookingRepository.findIdsToArchive(
+                PageRequest.of(0, chunkSize),
+                ARCHIVED_STATES,
+                endedBefore
+        );
+        if (bookingIds.isEmpty()) {
+            return 0;
+        }
+        jdbcTemplate.update(COPY_TO_ARCHIVE_SQL, Map.of("bookingIds", bookingIds));
+        return bookingRepository.deleteByIdIn(bookingIds);
+    }
+}
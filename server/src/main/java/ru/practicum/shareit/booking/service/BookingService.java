@@ -1,7 +1,11 @@
 package ru.practicum.shareit.booking.service;
 
 import ru.practicum.shareit.booking.dto.BookingCreationDto;
+import ru.practicum.shareit.booking.dto.BookingCursorPageDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingStatusChangeDto;
+import ru.practicum.shareit.booking.dto.BookingStatusChangeResultDto;
+import ru.practicum.shareit.booking.dto.OwnerBookingSummaryDto;
 
 import java.util.List;
 
@@ -10,11 +14,19 @@ public interface BookingService {
 
     BookingDto changeStatus(Long itemOwnerId, Long bookingId, boolean approved);
 
+    List<BookingStatusChangeResultDto> changeStatuses(Long itemOwnerId, List<BookingStatusChangeDto> changes);
+
     BookingDto getById(Long userId, Long bookingId);
 
     List<BookingDto> getByStateBooker(Long bookerId, String state, int from, int size);
 
     List<BookingDto> getByStateOwner(Long ownerId, String state, int from, int size);
 
+    BookingCursorPageDto getByStateBookerAfterCursor(Long bookerId, String state, String cursor, int size);
+
+    BookingCursorPageDto getByStateOwnerAfterCursor(Long ownerId, String state, String cursor, int size);
+
+    OwnerBookingSummaryDto getOwnerSummary(Long ownerId);
+
 
 }
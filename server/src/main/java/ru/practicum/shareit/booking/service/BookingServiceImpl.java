@@ -1,34 +1,58 @@
 package ru.practicum.shareit.booking.service;
 
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.booking.dto.BookingCreationDto;
+import ru.practicum.shareit.booking.dto.BookingCursor;
+import ru.practicum.shareit.booking.dto.BookingCursorPageDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingStateSearchDto;
+import ru.practicum.shareit.booking.dto.BookingStatusChangeDto;
+import ru.practicum.shareit.booking.dto.BookingStatusChangeOutcome;
+import ru.practicum.shareit.booking.dto.BookingStatusChangeResultDto;
+import ru.practicum.shareit.booking.dto.OwnerBookingSummaryDto;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
+import ru.practicum.shareit.booking.model.ArchivedBooking;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.booking.repository.ArchivedBookingRepository;
+import ru.practicum.shareit.booking.repository.BookingRef;
 import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.exception.InvalidParamException;
 import ru.practicum.shareit.exception.NotExistsException;
+import ru.practicum.shareit.exception.OverlapException;
 import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemBookingSummaryProjection;
+import ru.practicum.shareit.item.service.OwnerItemCounters;
 import ru.practicum.shareit.user.mapper.UserMapper;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserExistenceCache;
 
+import java.sql.SQLException;
 import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 public class BookingServiceImpl implements BookingService {
+    // SQLState of the booking_no_overlap exclusion constraint
+    private static final String EXCLUSION_VIOLATION = "23P01";
 
     private final BookingRepository bookingRepository;
     private final UserRepository userRepository;
@@ -36,7 +60,17 @@ public class BookingServiceImpl implements BookingService {
     private final BookingMapper bookingMapper;
     private final ItemMapper itemMapper;
     private final UserMapper userMapper;
+    private final ItemAvailabilityIndex availabilityIndex;
+    private final ItemBookingSummaryProjection bookingSummaryProjection;
+    private final ArchivedBookingRepository archivedBookingRepository;
+    private final OwnerBookingCounters ownerBookingCounters;
+    private final UserExistenceCache userExistenceCache;
+    private final OwnerItemCounters ownerItemCounters;
     private final Sort sortByStartDesc = Sort.by(Sort.Direction.DESC, "start");
+    private final Sort sortByStartAndIdDesc = Sort.by(Sort.Direction.DESC, "start", "id");
+    private final Comparator<Booking> byStartAndIdDesc = Comparator.comparing(Booking::getStart)
+            .thenComparing(Booking::getId)
+            .reversed();
 
     @Override
     @Transactional
@@ -51,7 +85,10 @@ public class BookingServiceImpl implements BookingService {
         Booking booking = bookingMapper.mapToEntity(bookingCreationDto, booker, item);
         booking.setState(BookingState.WAITING);
 
-        Booking savedBooking = bookingRepository.save(booking);
+        Booking savedBooking = saveWithoutOverlap(booking);
+        availabilityIndex.updateAfterCommit(savedBooking);
+        bookingSummaryProjection.onBookingChanged(savedBooking);
+        ownerBookingCounters.addAfterCommit(savedBooking);
 
         return bookingMapper.mapToDto(
                 savedBooking,
@@ -81,16 +118,62 @@ public class BookingServiceImpl implements BookingService {
             );
         }
 
+        Booking savedBooking = bookingRepository.save(booking);
+        availabilityIndex.updateAfterCommit(booking);
+        bookingSummaryProjection.onBookingChanged(booking);
+        ownerBookingCounters.changeStateAfterCommit(booking, BookingState.WAITING);
+
         return bookingMapper.mapToDto(
-                bookingRepository.save(booking),
+                savedBooking,
                 userMapper.mapToBookingDto(booking.getBooker()),
                 itemMapper.mapToBookingDto(booking.getItem())
         );
     }
 
+    @Override
+    @Transactional
+    public List<BookingStatusChangeResultDto> changeStatuses(Long itemOwnerId, List<BookingStatusChangeDto> changes) {
+        validateIfUserExist(itemOwnerId);
+        List<Long> bookingIds = changes.stream()
+                .map(BookingStatusChangeDto::getBookingId)
+                .collect(Collectors.toList());
+        validateNoDuplicates(bookingIds);
+
+        Map<Long, Booking> bookings = bookingRepository.findForUpdateByIdIn(bookingIds).stream()
+                .filter(booking -> Objects.equals(booking.getItem().getOwner().getId(), itemOwnerId))
+                .collect(Collectors.toMap(Booking::getId, Function.identity()));
+        Map<Boolean, List<Long>> changedIdsByApproved = changes.stream()
+                .filter(change -> bookings.containsKey(change.getBookingId()))
+                .filter(change -> bookings.get(change.getBookingId()).getState() == BookingState.WAITING)
+                .collect(Collectors.partitioningBy(
+                        BookingStatusChangeDto::getApproved,
+                        Collectors.mapping(BookingStatusChangeDto::getBookingId, Collectors.toList())
+                ));
+        updateStates(changedIdsByApproved.get(true), BookingState.APPROVED, bookings);
+        updateStates(changedIdsByApproved.get(false), BookingState.REJECTED, bookings);
+
+        Set<Long> changedIds = Stream.concat(
+                        changedIdsByApproved.get(true).stream(),
+                        changedIdsByApproved.get(false).stream())
+                .collect(Collectors.toSet());
+        List<Booking> changedBookings = changedIds.stream()
+                .map(bookings::get)
+                .collect(Collectors.toList());
+        if (!changedBookings.isEmpty()) {
+            changedBookings.forEach(availabilityIndex::updateAfterCommit);
+            changedBookings.forEach(booking ->
+                    ownerBookingCounters.changeStateAfterCommit(booking, BookingState.WAITING));
+            bookingSummaryProjection.onBookingsChanged(changedBookings);
+        }
+
+        return bookingIds.stream()
+                .map(bookingId -> mapToStatusChangeResult(bookingId, bookings.get(bookingId), changedIds))
+                .collect(Collectors.toList());
+    }
+
     @Override
     public BookingDto getById(Long userId, Long bookingId) {
-        Booking requestedBooking = getBookingById(bookingId);
+        Booking requestedBooking = getLiveOrArchivedBookingById(bookingId);
         Item item = requestedBooking.getItem();
 
         validateUserIfItemOwnerOrBooker(item, requestedBooking, userId);
@@ -107,13 +190,15 @@ public class BookingServiceImpl implements BookingService {
     public List<BookingDto> getByStateBooker(Long bookerId, String state, int from, int size) {
         BookingStateSearchDto bookingState = getBookingState(state);
         validateIfUserExist(bookerId);
-        Page<Booking> requestedBookings = null;
+        List<Booking> requestedBookings = null;
         PageRequest pageRequest = PageRequest.of(from > 0 ? from / size : 0, size, sortByStartDesc);
 
 
         switch (bookingState) {
             case ALL:
-                requestedBookings = bookingRepository.findByBookerId(pageRequest, bookerId);
+                requestedBookings = findWithArchived(
+                        bookingRepository.findRefsWithArchivedByBookerId(unsorted(pageRequest), bookerId)
+                );
                 break;
             case CURRENT:
                 requestedBookings = bookingRepository.findByBookerIdAndEndIsAfterAndStartIsBefore(
@@ -121,13 +206,15 @@ public class BookingServiceImpl implements BookingService {
                         bookerId,
                         LocalDateTime.now(),
                         LocalDateTime.now()
-                );
+                ).getContent();
                 break;
             case PAST:
-                requestedBookings = bookingRepository.findByBookerIdAndEndIsBefore(
-                        pageRequest,
-                        bookerId,
-                        LocalDateTime.now()
+                requestedBookings = findWithArchived(
+                        bookingRepository.findPastRefsWithArchivedByBookerId(
+                                unsorted(pageRequest),
+                                bookerId,
+                                LocalDateTime.now()
+                        )
                 );
                 break;
             case FUTURE:
@@ -135,25 +222,27 @@ public class BookingServiceImpl implements BookingService {
                         pageRequest,
                         bookerId,
                         LocalDateTime.now()
-                );
+                ).getContent();
                 break;
             case WAITING:
                 requestedBookings = bookingRepository.findByBookerIdAndState(
                         pageRequest,
                         bookerId,
                         BookingState.WAITING
-                );
+                ).getContent();
                 break;
             case REJECTED:
-                requestedBookings = bookingRepository.findByBookerIdAndState(
-                        pageRequest,
-                        bookerId,
-                        BookingState.REJECTED
+                requestedBookings = findWithArchived(
+                        bookingRepository.findRefsWithArchivedByBookerIdAndState(
+                                unsorted(pageRequest),
+                                bookerId,
+                                BookingState.REJECTED.name()
+                        )
                 );
                 break;
         }
 
-        return bookingMapper.mapToListDto(requestedBookings.toList());
+        return bookingMapper.mapToListDto(requestedBookings);
     }
 
     @Override
@@ -161,12 +250,14 @@ public class BookingServiceImpl implements BookingService {
         BookingStateSearchDto bookingState = getBookingState(state);
         validateIfUserExist(ownerId);
         validateIfUserHasItems(ownerId);
-        Page<Booking> requestedBookings = null;
+        List<Booking> requestedBookings = null;
         PageRequest pageRequest = PageRequest.of(from > 0 ? from / size : 0, size, sortByStartDesc);
 
         switch (bookingState) {
             case ALL:
-                requestedBookings = bookingRepository.findByItemOwnerId(pageRequest, ownerId);
+                requestedBookings = findWithArchived(
+                        bookingRepository.findRefsWithArchivedByItemOwnerId(unsorted(pageRequest), ownerId)
+                );
                 break;
             case CURRENT:
                 requestedBookings = bookingRepository.findByItemOwnerIdAndEndIsAfterAndStartIsBefore(
@@ -174,52 +265,322 @@ public class BookingServiceImpl implements BookingService {
                         ownerId,
                         LocalDateTime.now(),
                         LocalDateTime.now()
+                ).getContent();
+                break;
+            case PAST:
+                requestedBookings = findWithArchived(
+                        bookingRepository.findPastRefsWithArchivedByItemOwnerId(
+                                unsorted(pageRequest),
+                                ownerId,
+                                LocalDateTime.now()
+                        )
+                );
+                break;
+            case FUTURE:
+                requestedBookings = bookingRepository.findByItemOwnerIdAndStartIsAfter(
+                        pageRequest,
+                        ownerId,
+                        LocalDateTime.now()
+                ).getContent();
+                break;
+            case WAITING:
+                requestedBookings = bookingRepository.findByItemOwnerIdAndState(
+                        pageRequest,
+                        ownerId,
+                        BookingState.WAITING
+                ).getContent();
+                break;
+            case REJECTED:
+                requestedBookings = findWithArchived(
+                        bookingRepository.findRefsWithArchivedByItemOwnerIdAndState(
+                                unsorted(pageRequest),
+                                ownerId,
+                                BookingState.REJECTED.name()
+                        )
+                );
+                break;
+        }
+
+        return bookingMapper.mapToListDto(requestedBookings);
+    }
+
+    @Override
+    public BookingCursorPageDto getByStateBookerAfterCursor(Long bookerId, String state, String cursor, int size) {
+        BookingStateSearchDto bookingState = getBookingState(state);
+        validateIfUserExist(bookerId);
+        BookingCursor position = BookingCursor.decode(cursor);
+        PageRequest pageRequest = PageRequest.of(0, size, sortByStartAndIdDesc);
+        List<Booking> requestedBookings = null;
+
+        switch (bookingState) {
+            case ALL:
+                requestedBookings = mergeWithArchived(
+                        bookingRepository.findByBookerIdAfterCursor(
+                                pageRequest,
+                                bookerId,
+                                position.getStart(),
+                                position.getId()
+                        ),
+                        archivedBookingRepository.findByBookerIdAfterCursor(
+                                pageRequest,
+                                bookerId,
+                                position.getStart(),
+                                position.getId()
+                        ),
+                        size
+                );
+                break;
+            case CURRENT:
+                requestedBookings = bookingRepository.findCurrentByBookerIdAfterCursor(
+                        pageRequest,
+                        bookerId,
+                        position.getStart(),
+                        position.getId(),
+                        LocalDateTime.now()
                 );
                 break;
             case PAST:
-                requestedBookings = bookingRepository.findByItemOwnerIdAndEndIsBefore(
+                requestedBookings = mergeWithArchived(
+                        bookingRepository.findPastByBookerIdAfterCursor(
+                                pageRequest,
+                                bookerId,
+                                position.getStart(),
+                                position.getId(),
+                                LocalDateTime.now()
+                        ),
+                        archivedBookingRepository.findByBookerIdAfterCursor(
+                                pageRequest,
+                                bookerId,
+                                position.getStart(),
+                                position.getId()
+                        ),
+                        size
+                );
+                break;
+            case FUTURE:
+                requestedBookings = bookingRepository.findFutureByBookerIdAfterCursor(
+                        pageRequest,
+                        bookerId,
+                        position.getStart(),
+                        position.getId(),
+                        LocalDateTime.now()
+                );
+                break;
+            case WAITING:
+                requestedBookings = bookingRepository.findByBookerIdAndStateAfterCursor(
+                        pageRequest,
+                        bookerId,
+                        position.getStart(),
+                        position.getId(),
+                        BookingState.WAITING
+                );
+                break;
+            case REJECTED:
+                requestedBookings = mergeWithArchived(
+                        bookingRepository.findByBookerIdAndStateAfterCursor(
+                                pageRequest,
+                                bookerId,
+                                position.getStart(),
+                                position.getId(),
+                                BookingState.REJECTED
+                        ),
+                        archivedBookingRepository.findByBookerIdAndStateAfterCursor(
+                                pageRequest,
+                                bookerId,
+                                position.getStart(),
+                                position.getId(),
+                                BookingState.REJECTED
+                        ),
+                        size
+                );
+                break;
+        }
+
+        return mapToCursorPage(requestedBookings, size);
+    }
+
+    @Override
+    public BookingCursorPageDto getByStateOwnerAfterCursor(Long ownerId, String state, String cursor, int size) {
+        BookingStateSearchDto bookingState = getBookingState(state);
+        validateIfUserExist(ownerId);
+        validateIfUserHasItems(ownerId);
+        BookingCursor position = BookingCursor.decode(cursor);
+        PageRequest pageRequest = PageRequest.of(0, size, sortByStartAndIdDesc);
+        List<Booking> requestedBookings = null;
+
+        switch (bookingState) {
+            case ALL:
+                requestedBookings = mergeWithArchived(
+                        bookingRepository.findByItemOwnerIdAfterCursor(
+                                pageRequest,
+                                ownerId,
+                                position.getStart(),
+                                position.getId()
+                        ),
+                        archivedBookingRepository.findByItemOwnerIdAfterCursor(
+                                pageRequest,
+                                ownerId,
+                                position.getStart(),
+                                position.getId()
+                        ),
+                        size
+                );
+                break;
+            case CURRENT:
+                requestedBookings = bookingRepository.findCurrentByItemOwnerIdAfterCursor(
                         pageRequest,
                         ownerId,
+                        position.getStart(),
+                        position.getId(),
                         LocalDateTime.now()
                 );
                 break;
+            case PAST:
+                requestedBookings = mergeWithArchived(
+                        bookingRepository.findPastByItemOwnerIdAfterCursor(
+                                pageRequest,
+                                ownerId,
+                                position.getStart(),
+                                position.getId(),
+                                LocalDateTime.now()
+                        ),
+                        archivedBookingRepository.findByItemOwnerIdAfterCursor(
+                                pageRequest,
+                                ownerId,
+                                position.getStart(),
+                                position.getId()
+                        ),
+                        size
+                );
+                break;
             case FUTURE:
-                requestedBookings = bookingRepository.findByItemOwnerIdAndStartIsAfter(
+                requestedBookings = bookingRepository.findFutureByItemOwnerIdAfterCursor(
                         pageRequest,
                         ownerId,
+                        position.getStart(),
+                        position.getId(),
                         LocalDateTime.now()
                 );
                 break;
             case WAITING:
-                requestedBookings = bookingRepository.findByItemOwnerIdAndState(
+                requestedBookings = bookingRepository.findByItemOwnerIdAndStateAfterCursor(
                         pageRequest,
                         ownerId,
+                        position.getStart(),
+                        position.getId(),
                         BookingState.WAITING
                 );
                 break;
             case REJECTED:
-                requestedBookings = bookingRepository.findByItemOwnerIdAndState(
-                        pageRequest,
-                        ownerId,
-                        BookingState.REJECTED
+                requestedBookings = mergeWithArchived(
+                        bookingRepository.findByItemOwnerIdAndStateAfterCursor(
+                                pageRequest,
+                                ownerId,
+                                position.getStart(),
+                                position.getId(),
+                                BookingState.REJECTED
+                        ),
+                        archivedBookingRepository.findByItemOwnerIdAndStateAfterCursor(
+                                pageRequest,
+                                ownerId,
+                                position.getStart(),
+                                position.getId(),
+                                BookingState.REJECTED
+                        ),
+                        size
                 );
                 break;
         }
 
-        return bookingMapper.mapToListDto(requestedBookings.toList());
+        return mapToCursorPage(requestedBookings, size);
+    }
+
+    @Override
+    public OwnerBookingSummaryDto getOwnerSummary(Long ownerId) {
+        validateIfUserExist(ownerId);
+        return ownerBookingCounters.getSummary(ownerId);
+    }
+
+    /**
+     * Loads the bookings of a page merged from booking and booking_archive in the order of its refs. A booking
+     * archived between the two queries is missing from both fetches and is left out of the page.
+     */
+    private List<Booking> findWithArchived(List<BookingRef> refs) {
+        Map<Boolean, List<Long>> idsByArchived = refs.stream()
+                .collect(Collectors.partitioningBy(
+                        BookingRef::getArchived,
+                        Collectors.mapping(BookingRef::getId, Collectors.toList())));
+        Map<Long, Booking> bookings = new HashMap<>();
+        if (!idsByArchived.get(false).isEmpty()) {
+            bookingRepository.findWithBookerAndItemByIdIn(idsByArchived.get(false))
+                    .forEach(booking -> bookings.put(booking.getId(), booking));
+        }
+        if (!idsByArchived.get(true).isEmpty()) {
+            archivedBookingRepository.findWithBookerAndItemByIdIn(idsByArchived.get(true))
+                    .forEach(booking -> bookings.put(booking.getId(), bookingMapper.mapToBooking(booking)));
+        }
+
+        return refs.stream()
+                .map(ref -> bookings.get(ref.getId()))
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    private PageRequest unsorted(PageRequest pageRequest) {
+        return PageRequest.of(pageRequest.getPageNumber(), pageRequest.getPageSize());
+    }
+
+    private List<Booking> mergeWithArchived(List<Booking> bookings, List<ArchivedBooking> archivedBookings, int size) {
+        return Stream.concat(
+                        bookings.stream(),
+                        archivedBookings.stream().map(bookingMapper::mapToBooking))
+                .sorted(byStartAndIdDesc)
+                .limit(size)
+                .collect(Collectors.toList());
+    }
+
+    private BookingCursorPageDto mapToCursorPage(List<Booking> bookings, int size) {
+        String nextCursor = null;
+        if (bookings.size() == size) {
+            nextCursor = BookingCursor.of(bookings.get(bookings.size() - 1)).encode();
+        }
+
+        return BookingCursorPageDto.builder()
+                .bookings(bookingMapper.mapToListDto(bookings))
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    private Booking saveWithoutOverlap(Booking booking) {
+        try {
+            return bookingRepository.save(booking);
+        } catch (DataIntegrityViolationException e) {
+            Throwable cause = e.getMostSpecificCause();
+            if (cause instanceof SQLException &&
+                    EXCLUSION_VIOLATION.equals(((SQLException) cause).getSQLState())) {
+                throw new OverlapException(
+                        "Booking",
+                        String.format("Item with id %d is already booked from %s to %s",
+                                booking.getItem().getId(),
+                                booking.getStart(),
+                                booking.getEnd())
+                );
+            }
+            throw e;
+        }
     }
 
     private void validateIfUserExist(Long userId) {
-        userRepository.findById(userId).orElseThrow(
-                () -> new NotExistsException(
-                        "User",
-                        String.format("User with id %d does not exist", userId)
-                )
-        );
+        if (!userExistenceCache.exists(userId)) {
+            throw new NotExistsException(
+                    "User",
+                    String.format("User with id %d does not exist", userId)
+            );
+        }
     }
 
     private User getUserById(Long userId) {
-        return userRepository.findById(userId).orElseThrow(
+        return userRepository.findByIdAndDeletedFalse(userId).orElseThrow(
                 () -> new NotExistsException(
                         "User",
                         String.format("User with id %d does not exist", userId)
@@ -228,7 +589,7 @@ public class BookingServiceImpl implements BookingService {
     }
 
     private Item getItemById(Long itemId) {
-        return itemRepository.findById(itemId).orElseThrow(
+        return itemRepository.findByIdAndOwnerDeletedFalse(itemId).orElseThrow(
                 () -> new NotExistsException(
                         "Item",
                         String.format("Item with id %d does not exist", itemId)
@@ -244,6 +605,16 @@ public class BookingServiceImpl implements BookingService {
                 ));
     }
 
+    private Booking getLiveOrArchivedBookingById(Long bookingId) {
+        return bookingRepository.findById(bookingId)
+                .or(() -> archivedBookingRepository.findWithBookerAndItemById(bookingId)
+                        .map(bookingMapper::mapToBooking))
+                .orElseThrow(() -> new NotExistsException(
+                        "Booking",
+                        String.format("Booking with id %d does not exist", bookingId)
+                ));
+    }
+
     private void validateIfOwner(Long userId, Long ownerId) {
         if (Objects.equals(userId, ownerId)) {
             throw new NotExistsException(
@@ -265,7 +636,7 @@ public class BookingServiceImpl implements BookingService {
     }
 
     private void validateIfUserHasItems(Long userId) {
-        if (itemRepository.findByOwnerId(userId).isEmpty()) {
+        if (ownerItemCounters.getItemCount(userId) == 0) {
             throw new NotExistsException(
                     "Items",
                     String.format("There is no items for user with id %d", userId)
@@ -301,6 +672,49 @@ public class BookingServiceImpl implements BookingService {
         }
     }
 
+    private void validateNoDuplicates(List<Long> bookingIds) {
+        Set<Long> uniqueIds = new HashSet<>();
+        for (Long bookingId : bookingIds) {
+            if (!uniqueIds.add(bookingId)) {
+                throw new InvalidParamException(
+                        "Booking id",
+                        String.format("Booking with id %d is listed more than once", bookingId)
+                );
+            }
+        }
+    }
+
+    private void updateStates(List<Long> bookingIds, BookingState newState, Map<Long, Booking> bookings) {
+        if (bookingIds.isEmpty()) {
+            return;
+        }
+        // rows are locked by findForUpdateByIdIn, so every listed booking is still WAITING here
+        bookingRepository.updateStateByIdInAndState(newState, bookingIds, BookingState.WAITING);
+        bookingIds.forEach(bookingId -> bookings.get(bookingId).setState(newState));
+    }
+
+    private BookingStatusChangeResultDto mapToStatusChangeResult(Long bookingId,
+                                                                 Booking booking,
+                                                                 Set<Long> changedIds) {
+        if (booking == null) {
+            return BookingStatusChangeResultDto.builder()
+                    .bookingId(bookingId)
+                    .outcome(BookingStatusChangeOutcome.NOT_FOUND)
+                    .build();
+        }
+        return BookingStatusChangeResultDto.builder()
+                .bookingId(bookingId)
+                .outcome(changedIds.contains(bookingId)
+                        ? BookingStatusChangeOutcome.CHANGED
+                        : BookingStatusChangeOutcome.NOT_WAITING)
+                .booking(bookingMapper.mapToDto(
+                        booking,
+                        userMapper.mapToBookingDto(booking.getBooker()),
+                        itemMapper.mapToBookingDto(booking.getItem())
+                ))
+                .build();
+    }
+
     private void validateIfItemOwner(Item item, Long requestUserId) {
         if (!Objects.equals(item.getOwner().getId(), requestUserId)) {
             throw new NotExistsException(
@@ -0,0 +1,320 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.exception.NotExistsException;
+import ru.practicum.shareit.item.dto.AvailabilitySlotDto;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory index of occupied periods per item, loaded lazily from the database and kept current
+ * after booking transactions commit. Active bookings of one item never overlap (see booking_no_overlap),
+ * so periods ordered by start form a disjoint interval set and a free-slot lookup is a range scan.
+ * The number of indexed items is bounded; least recently used items are evicted.
+ */
+@Component
+@Slf4j
+public class ItemAvailabilityIndex {
+    static final Set<BookingState> BLOCKING_STATES = Set.of(BookingState.APPROVED, BookingState.WAITING);
+
+    private final BookingRepository bookingRepository;
+    private final ItemRepository itemRepository;
+    private final int maxItems;
+    private final ConcurrentMap<Long, ItemTimeline> timelines = new ConcurrentHashMap<>();
+    private final AtomicLong accessClock = new AtomicLong();
+
+    public ItemAvailabilityIndex(BookingRepository bookingRepository,
+                                 ItemRepository itemRepository,
+                                 @Value("${shareit.availability.max-items:10000}") int maxItems) {
+        this.bookingRepository = bookingRepository;
+        this.itemRepository = itemRepository;
+        this.maxItems = maxItems;
+    }
+
+    public List<AvailabilitySlotDto> findFreeSlots(Long itemId, LocalDateTime from, LocalDateTime to) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime slotStart = from.isBefore(now) ? now : from;
+        List<AvailabilitySlotDto> freeSlots = new ArrayList<>();
+        if (!slotStart.isBefore(to)) {
+            return freeSlots;
+        }
+
+        ItemTimeline timeline = getTimeline(itemId);
+        timeline.pruneEnded(now);
+        NavigableMap<PeriodKey, LocalDateTime> periods = timeline.periods;
+        Map.Entry<PeriodKey, LocalDateTime> covering = periods.floorEntry(new PeriodKey(slotStart, Long.MAX_VALUE));
+        if (covering != null && covering.getValue().isAfter(slotStart)) {
+            slotStart = covering.getValue();
+        }
+        NavigableMap<PeriodKey, LocalDateTime> periodsStartingInRange = periods.subMap(
+                new PeriodKey(slotStart, Long.MIN_VALUE), true, new PeriodKey(to, Long.MIN_VALUE), false);
+        for (Map.Entry<PeriodKey, LocalDateTime> period : periodsStartingInRange.entrySet()) {
+            if (period.getKey().start.isAfter(slotStart)) {
+                freeSlots.add(AvailabilitySlotDto.builder().start(slotStart).end(period.getKey().start).build());
+            }
+            if (period.getValue().isAfter(slotStart)) {
+                slotStart = period.getValue();
+            }
+        }
+        if (slotStart.isBefore(to)) {
+            freeSlots.add(AvailabilitySlotDto.builder().start(slotStart).end(to).build());
+        }
+        return freeSlots;
+    }
+
+    public void updateAfterCommit(Booking booking) {
+        Long itemId = booking.getItem().getId();
+        PeriodUpdate update = new PeriodUpdate(booking.getId(), booking.getStart(), booking.getEnd(),
+                BLOCKING_STATES.contains(booking.getState()));
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            update(itemId, update);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                update(itemId, update);
+            }
+        });
+    }
+
+    /**
+     * Drops the items' timelines once the transaction commits, e.g. after their bookings were deleted outside
+     * the booking flow. They are loaded again on the next lookup.
+     */
+    public void invalidateAfterCommit(Collection<Long> itemIds) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            itemIds.forEach(timelines::remove);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                itemIds.forEach(timelines::remove);
+            }
+        });
+    }
+
+    public int size() {
+        return timelines.size();
+    }
+
+    /**
+     * Returns the number of periods indexed for the item, 0 if the item is not indexed.
+     */
+    public int periodCount(Long itemId) {
+        ItemTimeline timeline = timelines.get(itemId);
+        return timeline == null ? 0 : timeline.periods.size();
+    }
+
+    private void update(Long itemId, PeriodUpdate update) {
+        ItemTimeline timeline = timelines.get(itemId);
+        if (timeline != null) {
+            timeline.update(update);
+        }
+    }
+
+    private ItemTimeline getTimeline(Long itemId) {
+        ItemTimeline timeline = timelines.get(itemId);
+        if (timeline == null) {
+            ItemTimeline created = new ItemTimeline();
+            timeline = timelines.putIfAbsent(itemId, created);
+            if (timeline == null) {
+                timeline = created;
+                load(itemId, created);
+                evictIfFull();
+            }
+        }
+        timeline.awaitLoaded();
+        timeline.lastAccess = accessClock.incrementAndGet();
+        return timeline;
+    }
+
+    /**
+     * Loads the bookings of an item into a timeline that is already in the index, so updates committed
+     * while the database is read are recorded by the timeline and replayed over the loaded bookings.
+     */
+    private void load(Long itemId, ItemTimeline timeline) {
+        try {
+            if (!itemRepository.existsByIdAndOwnerDeletedFalse(itemId)) {
+                throw new NotExistsException(
+                        "Item",
+                        String.format("Item with id %d not exist", itemId)
+                );
+            }
+            timeline.finishLoading(bookingRepository
+                    .findByItemIdAndStateInAndEndIsAfter(itemId, BLOCKING_STATES, LocalDateTime.now()));
+        } catch (RuntimeException e) {
+            timelines.remove(itemId, timeline);
+            timeline.failLoading(e);
+            throw e;
+        }
+    }
+
+    private void evictIfFull() {
+        if (timelines.size() <= maxItems) {
+            return;
+        }
+        synchronized (timelines) {
+            int toEvict = timelines.size() - maxItems * 9 / 10;
+            if (toEvict <= 0) {
+                return;
+            }
+            timelines.entrySet().stream()
+                    .sorted(Comparator.comparingLong(entry -> entry.getValue().lastAccess))
+                    .limit(toEvict)
+                    .map(Map.Entry::getKey)
+                    .collect(Collectors.toList())
+                    .forEach(timelines::remove);
+            log.debug("Evicted {} items from availability index", toEvict);
+        }
+    }
+
+    private static class ItemTimeline {
+        // booking periods ordered by start; the booking id keeps periods of different bookings apart
+        private final NavigableMap<PeriodKey, LocalDateTime> periods = new ConcurrentSkipListMap<>();
+        private final Map<Long, LocalDateTime> startsByBookingId = new ConcurrentHashMap<>();
+        private final CompletableFuture<Void> loaded = new CompletableFuture<>();
+        // updates that arrive while the timeline is loading, null once loaded
+        private List<PeriodUpdate> pendingUpdates = new ArrayList<>();
+        private volatile long lastAccess;
+
+        private synchronized void update(PeriodUpdate update) {
+            if (pendingUpdates != null) {
+                pendingUpdates.add(update);
+                return;
+            }
+            apply(update);
+            pruneEnded(LocalDateTime.now());
+        }
+
+        private synchronized void finishLoading(List<Booking> bookings) {
+            bookings.forEach(booking -> add(booking.getId(), booking.getStart(), booking.getEnd()));
+            pendingUpdates.forEach(this::apply);
+            pendingUpdates = null;
+            loaded.complete(null);
+        }
+
+        /**
+         * Drops periods that ended by the given moment, so a timeline that is never evicted does not keep
+         * every booking it has seen. Only periods started by then can have ended, and they come first.
+         */
+        private void pruneEnded(LocalDateTime now) {
+            Map.Entry<PeriodKey, LocalDateTime> first = periods.firstEntry();
+            if (first == null || first.getValue().isAfter(now)) {
+                return;
+            }
+            synchronized (this) {
+                List<Long> ended = periods.headMap(new PeriodKey(now, Long.MAX_VALUE), true).entrySet().stream()
+                        .filter(period -> !period.getValue().isAfter(now))
+                        .map(period -> period.getKey().bookingId)
+                        .collect(Collectors.toList());
+                ended.forEach(this::remove);
+            }
+        }
+
+        private void failLoading(RuntimeException e) {
+            loaded.completeExceptionally(e);
+        }
+
+        private void awaitLoaded() {
+            try {
+                loaded.join();
+            } catch (CompletionException e) {
+                throw (RuntimeException) e.getCause();
+            }
+        }
+
+        private void apply(PeriodUpdate update) {
+            if (update.blocking) {
+                add(update.bookingId, update.start, update.end);
+            } else {
+                remove(update.bookingId);
+            }
+        }
+
+        private void add(Long bookingId, LocalDateTime start, LocalDateTime end) {
+            remove(bookingId);
+            startsByBookingId.put(bookingId, start);
+            periods.put(new PeriodKey(start, bookingId), end);
+        }
+
+        private void remove(Long bookingId) {
+            LocalDateTime start = startsByBookingId.remove(bookingId);
+            if (start != null) {
+                periods.remove(new PeriodKey(start, bookingId));
+            }
+        }
+    }
+
+    private static class PeriodKey implements Comparable<PeriodKey> {
+        private final LocalDateTime start;
+        private final long bookingId;
+
+        private PeriodKey(LocalDateTime start, long bookingId) {
+            this.start = start;
+            this.bookingId = bookingId;
+        }
+
+        @Override
+        public int compareTo(PeriodKey other) {
+            int byStart = start.compareTo(other.start);
+            return byStart != 0 ? byStart : Long.compare(bookingId, other.bookingId);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof PeriodKey)) {
+                return false;
+            }
+            PeriodKey other = (PeriodKey) o;
+            return bookingId == other.bookingId && start.equals(other.start);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(start, bookingId);
+        }
+    }
+
+    private static class PeriodUpdate {
+        private final Long bookingId;
+        private final LocalDateTime start;
+        private final LocalDateTime end;
+        private final boolean blocking;
+
+        private PeriodUpdate(Long bookingId, LocalDateTime start, LocalDateTime end, boolean blocking) {
+            this.bookingId = bookingId;
+            this.start = start;
+            this.end = end;
+            this.blocking = blocking;
+        }
+    }
+}
@@ -0,0 +1,286 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.dto.OwnerBookingSummaryDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.repository.OwnerBookingGroup;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Per-owner booking counters for the owner dashboard. Counters are loaded once per owner from grouped counts
+ * and then kept current after booking transactions commit. Time-based states only move forward, so bookings
+ * that have not started or ended yet wait in ordered maps and are drained into the counters on read.
+ * The number of tracked owners is bounded; least recently used owners are evicted.
+ */
+@Component
+@Slf4j
+public class OwnerBookingCounters {
+
+    private final BookingRepository bookingRepository;
+    private final int maxOwners;
+    private final ConcurrentMap<Long, Counters> counters = new ConcurrentHashMap<>();
+    // owners with a booking transaction between its update and its completion
+    private final ConcurrentMap<Long, Integer> writesInFlight = new ConcurrentHashMap<>();
+    private final AtomicLong accessClock = new AtomicLong();
+
+    public OwnerBookingCounters(BookingRepository bookingRepository,
+                                @Value("${shareit.booking.owner-summary.max-owners:10000}") int maxOwners) {
+        this.bookingRepository = bookingRepository;
+        this.maxOwners = maxOwners;
+    }
+
+    public OwnerBookingSummaryDto getSummary(Long ownerId) {
+        return getCounters(ownerId).snapshot(LocalDateTime.now());
+    }
+
+    public void addAfterCommit(Booking booking) {
+        updateAfterCommit(booking, null);
+    }
+
+    public void changeStateAfterCommit(Booking booking, BookingState previousState) {
+        updateAfterCommit(booking, previousState);
+    }
+
+    /**
+     * Drops the counters of the given owners once a transaction that deleted their bookings commits.
+     */
+    public void invalidateAfterCommit(Collection<Long> ownerIds) {
+        runAfterCommit(() -> ownerIds.forEach(counters::remove));
+    }
+
+    public int size() {
+        return counters.size();
+    }
+
+    private void updateAfterCommit(Booking booking, BookingState previousState) {
+        Long ownerId = booking.getItem().getOwner().getId();
+        BookingUpdate update = new BookingUpdate(booking.getStart(), booking.getEnd(), previousState,
+                booking.getState());
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            update(ownerId, update);
+            return;
+        }
+        writesInFlight.merge(ownerId, 1, Integer::sum);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                update(ownerId, update);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                writesInFlight.computeIfPresent(ownerId, (id, writes) -> writes == 1 ? null : writes - 1);
+            }
+        });
+    }
+
+    private void runAfterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private void update(Long ownerId, BookingUpdate update) {
+        Counters ownerCounters = counters.get(ownerId);
+        if (ownerCounters != null) {
+            ownerCounters.update(update);
+        }
+    }
+
+    private Counters getCounters(Long ownerId) {
+        Counters ownerCounters = counters.get(ownerId);
+        if (ownerCounters == null) {
+            Counters created = new Counters(LocalDateTime.now());
+            ownerCounters = counters.putIfAbsent(ownerId, created);
+            if (ownerCounters == null) {
+                ownerCounters = created;
+                load(ownerId, created);
+                evictIfFull();
+            }
+        }
+        ownerCounters.awaitLoaded();
+        ownerCounters.lastAccess = accessClock.incrementAndGet();
+        return ownerCounters;
+    }
+
+    /**
+     * Counts the owner's bookings outside the map lock. Counts carry no booking ids, so an update cannot tell
+     * whether the counts already include its booking: when a booking of the owner is written while the
+     * counters load, they answer the waiting reads with the counts as read and are not kept.
+     */
+    private void load(Long ownerId, Counters ownerCounters) {
+        try {
+            List<OwnerBookingGroup> groups = bookingRepository.countGroupsWithArchivedByItemOwnerId(
+                    ownerId, ownerCounters.watermark);
+            if (!ownerCounters.finishLoading(groups, writesInFlight.containsKey(ownerId))) {
+                counters.remove(ownerId, ownerCounters);
+            }
+        } catch (RuntimeException e) {
+            counters.remove(ownerId, ownerCounters);
+            ownerCounters.failLoading(e);
+            throw e;
+        }
+    }
+
+    private void evictIfFull() {
+        if (counters.size() <= maxOwners) {
+            return;
+        }
+        synchronized (counters) {
+            int toEvict = counters.size() - maxOwners * 9 / 10;
+            if (toEvict <= 0) {
+                return;
+            }
+            counters.entrySet().stream()
+                    .sorted(Comparator.comparingLong(entry -> entry.getValue().lastAccess))
+                    .limit(toEvict)
+                    .map(Map.Entry::getKey)
+                    .collect(Collectors.toList())
+                    .forEach(counters::remove);
+            log.debug("Evicted {} owners from booking counters", toEvict);
+        }
+    }
+
+    private static class Counters {
+        private final Map<BookingState, Long> byState = new EnumMap<>(BookingState.class);
+        private final NavigableMap<LocalDateTime, Long> pendingStarts = new TreeMap<>();
+        private final NavigableMap<LocalDateTime, Long> pendingEnds = new TreeMap<>();
+        private final CompletableFuture<Void> loaded = new CompletableFuture<>();
+        private boolean loading = true;
+        // a booking was written while loading, so updates can no longer be applied exactly
+        private boolean stale;
+        private LocalDateTime watermark;
+        private long total;
+        private long started;
+        private long ended;
+        private volatile long lastAccess;
+
+        private Counters(LocalDateTime watermark) {
+            this.watermark = watermark;
+        }
+
+        private synchronized void update(BookingUpdate update) {
+            if (loading || stale) {
+                stale = true;
+                return;
+            }
+            apply(update);
+        }
+
+        /**
+         * Returns false when the counters are stale and must not be kept.
+         */
+        private synchronized boolean finishLoading(List<OwnerBookingGroup> groups, boolean writesInFlight) {
+            groups.forEach(this::add);
+            loading = false;
+            stale |= writesInFlight;
+            loaded.complete(null);
+            return !stale;
+        }
+
+        private void failLoading(RuntimeException e) {
+            loaded.completeExceptionally(e);
+        }
+
+        private void awaitLoaded() {
+            try {
+                loaded.join();
+            } catch (CompletionException e) {
+                throw (RuntimeException) e.getCause();
+            }
+        }
+
+        private void add(OwnerBookingGroup group) {
+            long bookings = group.getBookings();
+            total += bookings;
+            byState.merge(BookingState.valueOf(group.getState()), bookings, Long::sum);
+            started += track(pendingStarts, group.getStarts(), bookings);
+            ended += track(pendingEnds, group.getEnds(), bookings);
+        }
+
+        private void apply(BookingUpdate update) {
+            if (update.previousState == null) {
+                total++;
+                started += track(pendingStarts, update.start, 1);
+                ended += track(pendingEnds, update.end, 1);
+            } else {
+                byState.merge(update.previousState, -1L, Long::sum);
+            }
+            byState.merge(update.state, 1L, Long::sum);
+        }
+
+        private synchronized OwnerBookingSummaryDto snapshot(LocalDateTime now) {
+            if (now.isAfter(watermark)) {
+                started += drain(pendingStarts, now);
+                ended += drain(pendingEnds, now);
+                watermark = now;
+            }
+            return OwnerBookingSummaryDto.builder()
+                    .waiting(byState.getOrDefault(BookingState.WAITING, 0L))
+                    .rejected(byState.getOrDefault(BookingState.REJECTED, 0L))
+                    .current(started - ended)
+                    .past(ended)
+                    .future(total - started)
+                    .build();
+        }
+
+        // null is a moment that had passed when the bookings were counted
+        private long track(NavigableMap<LocalDateTime, Long> pending, LocalDateTime moment, long bookings) {
+            if (moment == null || moment.isBefore(watermark)) {
+                return bookings;
+            }
+            pending.merge(moment, bookings, Long::sum);
+            return 0;
+        }
+
+        private long drain(NavigableMap<LocalDateTime, Long> pending, LocalDateTime now) {
+            NavigableMap<LocalDateTime, Long> passed = pending.headMap(now, false);
+            long count = passed.values().stream().mapToLong(Long::longValue).sum();
+            passed.clear();
+            return count;
+        }
+    }
+
+    private static class BookingUpdate {
+        private final LocalDateTime start;
+        private final LocalDateTime end;
+        // null for a new booking
+        private final BookingState previousState;
+        private final BookingState state;
+
+        private BookingUpdate(LocalDateTime start, LocalDateTime end, BookingState previousState,
+                              BookingState state) {
+            this.start = start;
+            this.end = end;
+            this.previousState = previousState;
+            this.state = state;
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package ru.practicum.shareit.exception;
+
+import lombok.Getter;
+
+public class OverlapException extends RuntimeException {
+    @Getter
+    private final String entityName;
+
+    public OverlapException(String entityName, String message) {
+        super(message);
+        this.entityName = entityName;
+    }
+}
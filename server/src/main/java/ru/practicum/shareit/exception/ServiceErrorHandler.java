@@ -36,6 +36,13 @@ public class ServiceErrorHandler {
         return new ErrorResponse(e.getEntityName(), e.getMessage());
     }
 
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ErrorResponse handleOverlapException(OverlapException e) {
+        log.error(e.getMessage());
+        return new ErrorResponse(e.getEntityName(), e.getMessage());
+    }
+
     @ExceptionHandler
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public ErrorResponse handleMissingRequestHeaderException(MissingRequestHeaderException e) {
@@ -2,7 +2,9 @@ package ru.practicum.shareit.item.controller;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.item.dto.AvailabilitySlotDto;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemCreateDto;
 import ru.practicum.shareit.item.dto.ItemDto;
@@ -10,7 +12,9 @@ import ru.practicum.shareit.item.dto.ItemWithBookingsAndCommentsDto;
 import ru.practicum.shareit.item.dto.requestParam.GetByUserRequestParams;
 import ru.practicum.shareit.item.dto.requestParam.SearchRequestParams;
 import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.request.dto.RequestNoItemsDto;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 
@@ -68,10 +72,47 @@ public class ItemController {
     public List<ItemDto> searchItems(@RequestHeader("X-Sharer-User-Id") Long userId,
                                      @RequestParam("text") String text,
                                      @RequestParam(name = "from") int from,
-                                     @RequestParam(name = "size") int size
+                                     @RequestParam(name = "size") int size,
+                                     @RequestParam(name = "start", required = false)
+                                     @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+                                     @RequestParam(name = "end", required = false)
+                                     @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end
     ) {
         SearchRequestParams requestParams = new SearchRequestParams(userId, text, from, size);
-        log.info("Got request to find available items with: {}", requestParams);
+        log.info("Got request to find available items with: {}, start {}, end {}", requestParams, start, end);
+        if (start != null || end != null) {
+            return itemService.searchAvailableItems(userId, text, start, end, from, size);
+        }
         return itemService.searchItems(userId, text, from, size);
     }
+
+    @GetMapping("/suggest")
+    public List<String> suggestNames(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                     @RequestParam("prefix") String prefix,
+                                     @RequestParam(name = "limit") int limit
+    ) {
+        log.debug("Got request to suggest item names with: userId {}, prefix {}, limit {}", userId, prefix, limit);
+        return itemService.suggestNames(userId, prefix, limit);
+    }
+
+    @GetMapping("/{id}/matching-requests")
+    public List<RequestNoItemsDto> getMatchingRequests(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                       @PathVariable("id") Long itemId,
+                                                       @RequestParam(name = "size") int size) {
+        log.info("Got request to get requests matching item with: userId {}, itemId {}, size {}",
+                userId, itemId, size);
+        return itemService.getMatchingRequests(userId, itemId, size);
+    }
+
+    @GetMapping("/{id}/availability")
+    public List<AvailabilitySlotDto> getAvailability(
+            @RequestHeader("X-Sharer-User-Id") Long userId,
+            @PathVariable("id") Long itemId,
+            @RequestParam(name = "from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(name = "to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to
+    ) {
+        log.info("Got request to get availability of item with: userId {}, itemId {}, from {}, to {}",
+                userId, itemId, from, to);
+        return itemService.getAvailability(userId, itemId, from, to);
+    }
 }
@@ -0,0 +1,59 @@
+package ru.practicum.shareit.item.model;
+
+import lombok.*;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Read model with the last and next approved bookings of an item.
+ * The summary is valid until nextStart: after that the next booking has started and the row must be recomputed.
+ */
+@Entity
+@Table(name = "item_booking_summary")
+@Builder
+@Getter
+@Setter
+@ToString
+@AllArgsConstructor
+@NoArgsConstructor
+public class ItemBookingSummary {
+    @Id
+    @Column(name = "item_id")
+    private Long itemId;
+
+    @Column(name = "last_booking_id")
+    private Long lastBookingId;
+
+    @Column(name = "last_booker_id")
+    private Long lastBookerId;
+
+    @Column(name = "last_end")
+    private LocalDateTime lastEnd;
+
+    @Column(name = "next_booking_id")
+    private Long nextBookingId;
+
+    @Column(name = "next_booker_id")
+    private Long nextBookerId;
+
+    @Column(name = "next_start")
+    private LocalDateTime nextStart;
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ItemBookingSummary summary = (ItemBookingSummary) o;
+        return Objects.equals(itemId, summary.itemId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(itemId);
+    }
+}
@@ -1,10 +1,18 @@
 package ru.practicum.shareit.item.repository;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import ru.practicum.shareit.item.model.Comment;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface CommentRepository extends JpaRepository<Comment, Long> {
+    @Query("select c from Comment as c where c.item.id = ?1 order by c.created desc")
     List<Comment> findByItemIdOrderByCreatedDesc(Long itemId);
+
+    @EntityGraph(attributePaths = "author")
+    @Query("select c from Comment as c where c.item.id in ?1 order by c.created desc")
+    List<Comment> findByItemIdInOrderByCreatedDesc(Collection<Long> itemIds);
 }
@@ -0,0 +1,22 @@
+package ru.practicum.shareit.item.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import ru.practicum.shareit.item.model.ItemBookingSummary;
+
+import javax.persistence.LockModeType;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface ItemBookingSummaryRepository extends JpaRepository<ItemBookingSummary, Long> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from ItemBookingSummary as s where s.itemId in ?1 order by s.itemId")
+    List<ItemBookingSummary> findForUpdateByItemIdIn(Collection<Long> itemIds);
+
+    @Query("select s.itemId from ItemBookingSummary as s where s.nextStart <= ?1")
+    List<Long> findItemIdsByNextStartNotAfter(LocalDateTime now, Pageable pageable);
+}
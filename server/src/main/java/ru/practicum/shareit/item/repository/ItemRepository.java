@@ -2,24 +2,141 @@ package ru.practicum.shareit.item.repository;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import ru.practicum.shareit.item.model.Item;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 
 public interface ItemRepository extends JpaRepository<Item, Long> {
+    /**
+     * Items of soft-deleted owners stay in item until UserPurger removes them, so lookups skip them.
+     */
+    Optional<Item> findByIdAndOwnerDeletedFalse(Long id);
+
+    boolean existsByIdAndOwnerDeletedFalse(Long id);
+
+    Slice<Item> findAllByOwnerDeletedFalse(Pageable page);
+
+    @Query("select it from Item as it where it.owner.id = ?1")
     Page<Item> findByOwnerId(Pageable page, Long ownerId);
 
+    @Query("select it from Item as it where it.owner.id = ?1")
     List<Item> findByOwnerId(Long ownerId);
 
-    @Query("select it " +
+    @Query("select count(it) from Item as it where it.owner.id = ?1")
+    long countByOwnerId(Long ownerId);
+
+    @Query("select it.owner.id as ownerId, count(it) as itemCount " +
             "from Item as it " +
-            "where it.available = true and (lower(it.name) like lower(concat('%', ?1, '%')) " +
-            "or lower(it.description) like lower(concat('%', ?1,'%')))")
+            "where it.owner.id in ?1 " +
+            "group by it.owner.id")
+    List<OwnerItemCount> countByOwnerIds(Collection<Long> ownerIds);
+
+    @Query(value = "select it " +
+            "from Item as it " +
+            "where it.available = true and it.owner.deleted = false " +
+            "and (lower(it.name) like lower(concat('%', ?1, '%')) " +
+            "or lower(it.description) like lower(concat('%', ?1,'%'))) " +
+            "order by case when lower(it.name) like lower(concat('%', ?1, '%')) then 0 else 1 end, it.id",
+            countQuery = "select count(it) " +
+                    "from Item as it " +
+                    "where it.available = true and it.owner.deleted = false " +
+            "and (lower(it.name) like lower(concat('%', ?1, '%')) " +
+                    "or lower(it.description) like lower(concat('%', ?1,'%')))")
     Page<Item> searchByText(Pageable page, String text);
 
+    /**
+     * Postgres variant of {@link #searchByText} served by the trigram indexes from schema-postgresql.sql.
+     * Name matches go first, then the closer the name is to the text the higher the item is ranked.
+     */
+    @Query(value = "select * " +
+            "from item as it " +
+            "where it.available = true " +
+            "and it.owner_id in (select u.user_id from users as u where u.deleted = false) " +
+            "and (lower(it.item_name) like concat('%', lower(?1), '%') " +
+            "or lower(it.description) like concat('%', lower(?1), '%')) " +
+            "order by lower(it.item_name) like concat('%', lower(?1), '%') desc, " +
+            "similarity(lower(it.item_name), lower(?1)) desc, it.item_id",
+            countQuery = "select count(*) " +
+                    "from item as it " +
+                    "where it.available = true " +
+                    "and it.owner_id in (select u.user_id from users as u where u.deleted = false) " +
+                    "and (lower(it.item_name) like concat('%', lower(?1), '%') " +
+                    "or lower(it.description) like concat('%', lower(?1), '%'))",
+            nativeQuery = true)
+    Page<Item> searchByTextRanked(Pageable page, String text);
+
+    /**
+     * {@link #searchByText} restricted to items without an approved or waiting booking overlapping [start, end).
+     */
+    @Query(value = "select it " +
+            "from Item as it " +
+            "where it.available = true and it.owner.deleted = false " +
+            "and (lower(it.name) like lower(concat('%', ?1, '%')) " +
+            "or lower(it.description) like lower(concat('%', ?1,'%'))) " +
+            "and not exists (select b.id from Booking as b where b.item.id = it.id " +
+            "and b.state in (ru.practicum.shareit.booking.model.BookingState.APPROVED, " +
+            "ru.practicum.shareit.booking.model.BookingState.WAITING) " +
+            "and b.start < ?3 and b.end > ?2) " +
+            "order by case when lower(it.name) like lower(concat('%', ?1, '%')) then 0 else 1 end, it.id",
+            countQuery = "select count(it) " +
+                    "from Item as it " +
+                    "where it.available = true and it.owner.deleted = false " +
+            "and (lower(it.name) like lower(concat('%', ?1, '%')) " +
+                    "or lower(it.description) like lower(concat('%', ?1,'%'))) " +
+                    "and not exists (select b.id from Booking as b where b.item.id = it.id " +
+                    "and b.state in (ru.practicum.shareit.booking.model.BookingState.APPROVED, " +
+                    "ru.practicum.shareit.booking.model.BookingState.WAITING) " +
+                    "and b.start < ?3 and b.end > ?2)")
+    Page<Item> searchFreeByText(Pageable page, String text, LocalDateTime start, LocalDateTime end);
+
+    /**
+     * Postgres variant of {@link #searchFreeByText}; the booking probe is served by booking_item_id_state_start_idx.
+     */
+    @Query(value = "select * " +
+            "from item as it " +
+            "where it.available = true " +
+            "and it.owner_id in (select u.user_id from users as u where u.deleted = false) " +
+            "and (lower(it.item_name) like concat('%', lower(?1), '%') " +
+            "or lower(it.description) like concat('%', lower(?1), '%')) " +
+            "and not exists (select 1 from booking as b where b.item_id = it.item_id " +
+            "and b.state in ('APPROVED', 'WAITING') and b.start_date_time < ?3 and b.end_date_time > ?2) " +
+            "order by lower(it.item_name) like concat('%', lower(?1), '%') desc, " +
+            "similarity(lower(it.item_name), lower(?1)) desc, it.item_id",
+            countQuery = "select count(*) " +
+                    "from item as it " +
+                    "where it.available = true " +
+                    "and it.owner_id in (select u.user_id from users as u where u.deleted = false) " +
+                    "and (lower(it.item_name) like concat('%', lower(?1), '%') " +
+                    "or lower(it.description) like concat('%', lower(?1), '%')) " +
+                    "and not exists (select 1 from booking as b where b.item_id = it.item_id " +
+                    "and b.state in ('APPROVED', 'WAITING') and b.start_date_time < ?3 and b.end_date_time > ?2)",
+            nativeQuery = true)
+    Page<Item> searchFreeByTextRanked(Pageable page, String text, LocalDateTime start, LocalDateTime end);
+
+    @Query("select it.name " +
+            "from Item as it " +
+            "where it.available = true and it.owner.deleted = false " +
+            "and lower(it.name) like concat(lower(?1), '%') " +
+            "group by it.name " +
+            "order by lower(it.name), it.name")
+    List<String> findAvailableNamesByPrefix(String prefix, Pageable page);
+
+    @Query("select it from Item as it where it.request.requestId = ?1 and it.owner.deleted = false")
     List<Item> findAllByRequest_RequestId(Long requestId);
 
+    @Query("select it from Item as it where it.request is not null and it.owner.deleted = false")
+    Slice<Item> findAllWithRequestByOwnerDeletedFalse(Pageable page);
+
+    @Query("select it from Item as it " +
+            "where it.request.requestId in ?1 and it.owner.deleted = false " +
+            "order by it.id")
+    List<Item> findAllByRequestIds(Collection<Long> requestIds);
+
 }
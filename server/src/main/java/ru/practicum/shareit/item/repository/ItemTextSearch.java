@@ -0,0 +1,21 @@
+package ru.practicum.shareit.item.repository;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.item.model.Item;
+
+import java.time.LocalDateTime;
+
+/**
+ * Finds available items whose name or description contains the text, name matches first. The Postgres search
+ * and the in-memory index then rank by pg_trgm similarity of the name to the text and by id; the H2 search only
+ * by id.
+ */
+public interface ItemTextSearch {
+    Page<Item> search(Pageable page, String text);
+
+    /**
+     * Same as {@link #search}, keeping only items with no approved or waiting booking overlapping [start, end).
+     */
+    Page<Item> searchFree(Pageable page, String text, LocalDateTime start, LocalDateTime end);
+}
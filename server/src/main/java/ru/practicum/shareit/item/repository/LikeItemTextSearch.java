@@ -0,0 +1,30 @@
+package ru.practicum.shareit.item.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.model.Item;
+
+import java.time.LocalDateTime;
+
+/**
+ * Portable LIKE search for H2, which has no trigram indexes.
+ */
+@Component
+@Profile({"test", "ci"})
+@RequiredArgsConstructor
+public class LikeItemTextSearch implements ItemTextSearch {
+    private final ItemRepository itemRepository;
+
+    @Override
+    public Page<Item> search(Pageable page, String text) {
+        return itemRepository.searchByText(page, text);
+    }
+
+    @Override
+    public Page<Item> searchFree(Pageable page, String text, LocalDateTime start, LocalDateTime end) {
+        return itemRepository.searchFreeByText(page, text, start, end);
+    }
+}
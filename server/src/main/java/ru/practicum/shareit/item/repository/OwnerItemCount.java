@@ -0,0 +1,7 @@
+package ru.practicum.shareit.item.repository;
+
+public interface OwnerItemCount {
+    Long getOwnerId();
+
+    Long getItemCount();
+}
@@ -0,0 +1,254 @@
+package ru.practicum.shareit.item.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.mapper.BookingMapper;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.booking.repository.ArchivedBookingRepository;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemBookingSummary;
+import ru.practicum.shareit.item.repository.ItemBookingSummaryRepository;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps item_booking_summary in line with approved bookings.
+ * Booking approvals are applied incrementally under a row lock. Rows whose next booking has already started
+ * are recomputed in memory on read, without writing, and stored by a scheduled refresh.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ItemBookingSummaryProjection {
+    private static final int REBUILD_PAGE_SIZE = 500;
+    private static final int REFRESH_PAGE_SIZE = 500;
+
+    private final ItemBookingSummaryRepository summaryRepository;
+    private final BookingRepository bookingRepository;
+    private final ArchivedBookingRepository archivedBookingRepository;
+    private final BookingMapper bookingMapper;
+    private final ItemRepository itemRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Transactional
+    public void addItem(Long itemId) {
+        summaryRepository.save(ItemBookingSummary.builder()
+                .itemId(itemId)
+                .build());
+    }
+
+    @Transactional(readOnly = true)
+    public ItemBookingSummary getForItem(Long itemId) {
+        return getForItems(List.of(itemId)).get(itemId);
+    }
+
+    @Transactional(readOnly = true)
+    public Map<Long, ItemBookingSummary> getForItems(Collection<Long> itemIds) {
+        LocalDateTime now = LocalDateTime.now();
+        Map<Long, ItemBookingSummary> summaries = mapByItemId(summaryRepository.findAllById(itemIds));
+        List<Long> outdatedItemIds = itemIds.stream()
+                .filter(itemId -> isOutdated(summaries.get(itemId), now))
+                .collect(Collectors.toList());
+
+        if (!outdatedItemIds.isEmpty()) {
+            // new unsaved summaries, so the stored rows are neither locked nor changed by the read
+            summaries.putAll(mapByItemId(recompute(outdatedItemIds, Map.of(), now)));
+        }
+        return summaries;
+    }
+
+    @Transactional
+    public void onBookingChanged(Booking booking) {
+        onBookingsChanged(List.of(booking));
+    }
+
+    /**
+     * Applies changes of several bookings with one lock query and at most one recompute for all affected items.
+     * Bookings only move from WAITING to APPROVED or REJECTED, so only approved bookings can change a summary
+     * and changes of other bookings take no lock.
+     */
+    @Transactional
+    public void onBookingsChanged(Collection<Booking> bookings) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Booking> approvedBookings = bookings.stream()
+                .filter(booking -> booking.getState() == BookingState.APPROVED)
+                .collect(Collectors.toList());
+        if (approvedBookings.isEmpty()) {
+            return;
+        }
+        List<Long> itemIds = approvedBookings.stream()
+                .map(booking -> booking.getItem().getId())
+                .distinct()
+                .collect(Collectors.toList());
+        Map<Long, ItemBookingSummary> summaries = mapByItemId(summaryRepository.findForUpdateByItemIdIn(itemIds));
+        Set<Long> recomputedItemIds = new HashSet<>();
+
+        for (Booking booking : approvedBookings) {
+            Long itemId = booking.getItem().getId();
+            ItemBookingSummary summary = summaries.get(itemId);
+
+            if (recomputedItemIds.contains(itemId)) {
+                continue;
+            }
+            if (isOutdated(summary, now)) {
+                recomputedItemIds.add(itemId);
+            } else {
+                apply(summary, booking, now);
+            }
+        }
+        if (!recomputedItemIds.isEmpty()) {
+            summaryRepository.saveAll(recompute(recomputedItemIds, summaries, now));
+        }
+    }
+
+    /**
+     * Recomputes summaries of the given items, e.g. after their bookings were deleted outside the booking flow.
+     */
+    @Transactional
+    public void refreshItems(Collection<Long> itemIds) {
+        refresh(new ArrayList<>(itemIds), LocalDateTime.now());
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.item.booking-summary.refresh-delay-millis:60000}",
+            initialDelayString = "${shareit.item.booking-summary.refresh-delay-millis:60000}")
+    public void refreshOutdatedScheduled() {
+        refreshOutdated();
+    }
+
+    /**
+     * Stores the recomputed summaries of items whose next booking has started, a chunk per transaction.
+     */
+    public long refreshOutdated() {
+        long refreshed = 0;
+        List<Long> itemIds;
+        do {
+            LocalDateTime now = LocalDateTime.now();
+            itemIds = summaryRepository.findItemIdsByNextStartNotAfter(now, PageRequest.of(0, REFRESH_PAGE_SIZE));
+            if (!itemIds.isEmpty()) {
+                List<Long> chunk = itemIds;
+                transactionTemplate.executeWithoutResult(status -> refresh(chunk, now));
+                refreshed += chunk.size();
+            }
+        } while (itemIds.size() == REFRESH_PAGE_SIZE);
+        if (refreshed > 0) {
+            log.info("Refreshed booking summaries for {} items", refreshed);
+        }
+        return refreshed;
+    }
+
+    /**
+     * Recomputes summaries of all items from the booking table.
+     * Intended for recovery, while bookings are not being changed.
+     */
+    public long rebuild() {
+        long rebuilt = 0;
+        PageRequest pageRequest = PageRequest.of(0, REBUILD_PAGE_SIZE, Sort.by(Sort.Direction.ASC, "id"));
+        Page<Item> items;
+        do {
+            items = itemRepository.findAll(pageRequest);
+            List<Long> itemIds = items.stream()
+                    .map(Item::getId)
+                    .collect(Collectors.toList());
+            Map<Long, ItemBookingSummary> existing = mapByItemId(summaryRepository.findAllById(itemIds));
+            summaryRepository.saveAll(recompute(itemIds, existing, LocalDateTime.now()));
+            rebuilt += itemIds.size();
+            pageRequest = pageRequest.next();
+        } while (items.hasNext());
+        log.info("Rebuilt booking summaries for {} items", rebuilt);
+        return rebuilt;
+    }
+
+    private void refresh(List<Long> itemIds, LocalDateTime now) {
+        Map<Long, ItemBookingSummary> locked = mapByItemId(summaryRepository.findForUpdateByItemIdIn(itemIds));
+        summaryRepository.saveAll(recompute(itemIds, locked, now));
+    }
+
+    private List<ItemBookingSummary> recompute(Collection<Long> itemIds,
+                                               Map<Long, ItemBookingSummary> existing,
+                                               LocalDateTime now) {
+        if (itemIds.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Booking> lastBookings = mapByItemIdOf(
+                bookingRepository.findLastBookingsForItems(BookingState.APPROVED.name(), itemIds, now));
+        archivedBookingRepository.findLastBookingsForItems(BookingState.APPROVED.name(), itemIds, now)
+                .stream()
+                .map(bookingMapper::mapToBooking)
+                .forEach(archived -> lastBookings.merge(archived.getItem().getId(), archived,
+                        (hot, cold) -> cold.getEnd().isAfter(hot.getEnd()) ? cold : hot));
+        Map<Long, Booking> nextBookings = mapByItemIdOf(
+                bookingRepository.findNextBookingsForItems(BookingState.APPROVED.name(), itemIds, now));
+
+        return itemIds.stream()
+                .map(itemId -> {
+                    ItemBookingSummary summary = existing.containsKey(itemId)
+                            ? existing.get(itemId)
+                            : ItemBookingSummary.builder().itemId(itemId).build();
+                    setLast(summary, lastBookings.get(itemId));
+                    setNext(summary, nextBookings.get(itemId));
+                    return summary;
+                })
+                .collect(Collectors.toList());
+    }
+
+    private void apply(ItemBookingSummary summary, Booking booking, LocalDateTime now) {
+        if (booking.getStart().isBefore(now)) {
+            if (summary.getLastBookingId() == null || booking.getEnd().isAfter(summary.getLastEnd())) {
+                setLast(summary, booking);
+            }
+        } else if (booking.getStart().isAfter(now)) {
+            if (summary.getNextBookingId() == null || booking.getStart().isBefore(summary.getNextStart())) {
+                setNext(summary, booking);
+            }
+        }
+    }
+
+    private boolean isOutdated(ItemBookingSummary summary, LocalDateTime now) {
+        return summary == null || (summary.getNextStart() != null && !summary.getNextStart().isAfter(now));
+    }
+
+    private void setLast(ItemBookingSummary summary, Booking booking) {
+        summary.setLastBookingId(booking == null ? null : booking.getId());
+        summary.setLastBookerId(booking == null ? null : booking.getBooker().getId());
+        summary.setLastEnd(booking == null ? null : booking.getEnd());
+    }
+
+    private void setNext(ItemBookingSummary summary, Booking booking) {
+        summary.setNextBookingId(booking == null ? null : booking.getId());
+        summary.setNextBookerId(booking == null ? null : booking.getBooker().getId());
+        summary.setNextStart(booking == null ? null : booking.getStart());
+    }
+
+    private Map<Long, ItemBookingSummary> mapByItemId(List<ItemBookingSummary> summaries) {
+        return summaries.stream()
+                .collect(Collectors.toMap(ItemBookingSummary::getItemId, Function.identity()));
+    }
+
+    private Map<Long, Booking> mapByItemIdOf(List<Booking> bookings) {
+        return bookings.stream()
+                .collect(Collectors.toMap(
+                        booking -> booking.getItem().getId(),
+                        Function.identity(),
+                        (first, second) -> first,
+                        HashMap::new));
+    }
+}
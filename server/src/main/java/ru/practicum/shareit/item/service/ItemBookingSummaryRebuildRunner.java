@@ -0,0 +1,27 @@
+package ru.practicum.shareit.item.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+/**
+ * Rebuilds item_booking_summary on startup when the server is launched with --rebuild-item-booking-summary.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ItemBookingSummaryRebuildRunner implements ApplicationRunner {
+    static final String REBUILD_OPTION = "rebuild-item-booking-summary";
+
+    private final ItemBookingSummaryProjection projection;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (args.containsOption(REBUILD_OPTION)) {
+            log.info("Got command to rebuild item booking summaries");
+            projection.rebuild();
+        }
+    }
+}
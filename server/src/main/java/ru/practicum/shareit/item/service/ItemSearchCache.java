@@ -0,0 +1,210 @@
+package ru.practicum.shareit.item.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.item.dto.ItemDto;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Bounded cache of item search pages keyed by lower-cased text, page number and page size. Search matches
+ * a text contained in an item's name or description, so when an item is added or changed only the texts
+ * contained in its old or new name or description are dropped. Searches that overlap an invalidation are
+ * not cached, since they may have read the data before the change. Least recently used pages are evicted
+ * once the cache is full.
+ */
+@Component
+@Slf4j
+public class ItemSearchCache {
+    private static final String METRIC_PREFIX = "shareit.item.search.cache";
+
+    private final int maxEntries;
+    private final ConcurrentMap<Key, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+    private final AtomicLong accessClock = new AtomicLong();
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter sizeEvictions;
+    private final Counter invalidations;
+
+    public ItemSearchCache(MeterRegistry meterRegistry,
+                           @Value("${shareit.item.search.cache.max-entries:10000}") int maxEntries) {
+        this.maxEntries = maxEntries;
+        hits = Counter.builder(METRIC_PREFIX + ".gets").tag("result", "hit")
+                .description("Search pages served from the cache")
+                .register(meterRegistry);
+        misses = Counter.builder(METRIC_PREFIX + ".gets").tag("result", "miss")
+                .description("Search pages not found in the cache")
+                .register(meterRegistry);
+        sizeEvictions = Counter.builder(METRIC_PREFIX + ".evictions").tag("cause", "size")
+                .description("Search pages evicted to keep the cache bounded")
+                .register(meterRegistry);
+        invalidations = Counter.builder(METRIC_PREFIX + ".evictions").tag("cause", "invalidation")
+                .description("Search pages dropped because a matching item changed")
+                .register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".size", entries, Map::size)
+                .description("Search pages held by the cache")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Generation to pass to {@link #put}; read it before searching.
+     */
+    public long generation() {
+        return generation.get();
+    }
+
+    public Optional<List<ItemDto>> get(String text, int page, int size) {
+        Entry entry = entries.get(new Key(normalize(text), page, size));
+        if (entry == null) {
+            misses.increment();
+            return Optional.empty();
+        }
+        hits.increment();
+        entry.lastAccess = accessClock.incrementAndGet();
+        return Optional.of(entry.items);
+    }
+
+    public void put(String text, int page, int size, long searchGeneration, List<ItemDto> items) {
+        if (generation.get() != searchGeneration) {
+            return;
+        }
+        Key key = new Key(normalize(text), page, size);
+        Entry entry = new Entry(List.copyOf(items), accessClock.incrementAndGet());
+        entries.put(key, entry);
+        // an invalidation that started after the check above may have scanned the keys before this put
+        if (generation.get() != searchGeneration) {
+            entries.remove(key, entry);
+            return;
+        }
+        evictIfFull();
+    }
+
+    /**
+     * Drops cached texts contained in any of the given item texts once the transaction commits.
+     * Pass both the old and the new name and description of a changed item.
+     */
+    public void invalidateAfterCommit(String... itemTexts) {
+        List<String> normalizedTexts = Stream.of(itemTexts)
+                .filter(Objects::nonNull)
+                .map(ItemSearchCache::normalize)
+                .collect(Collectors.toList());
+        runAfterCommit(() -> invalidate(normalizedTexts));
+    }
+
+    /**
+     * Drops the whole cache once the transaction commits, e.g. when items are removed with their owner.
+     */
+    public void invalidateAllAfterCommit() {
+        runAfterCommit(() -> {
+            generation.incrementAndGet();
+            int size = entries.size();
+            entries.clear();
+            invalidations.increment(size);
+        });
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private void invalidate(List<String> itemTexts) {
+        generation.incrementAndGet();
+        entries.keySet().stream()
+                .filter(key -> itemTexts.stream().anyMatch(itemText -> itemText.contains(key.text)))
+                .collect(Collectors.toList())
+                .forEach(key -> {
+                    if (entries.remove(key) != null) {
+                        invalidations.increment();
+                    }
+                });
+    }
+
+    private void runAfterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private void evictIfFull() {
+        if (entries.size() <= maxEntries) {
+            return;
+        }
+        synchronized (entries) {
+            int toEvict = entries.size() - maxEntries * 9 / 10;
+            if (toEvict <= 0) {
+                return;
+            }
+            entries.entrySet().stream()
+                    .sorted(Comparator.comparingLong(entry -> entry.getValue().lastAccess))
+                    .limit(toEvict)
+                    .map(Map.Entry::getKey)
+                    .collect(Collectors.toList())
+                    .forEach(entries::remove);
+            sizeEvictions.increment(toEvict);
+            log.debug("Evicted {} pages from item search cache", toEvict);
+        }
+    }
+
+    private static String normalize(String text) {
+        return text.toLowerCase(Locale.ROOT);
+    }
+
+    private static class Key {
+        private final String text;
+        private final int page;
+        private final int size;
+
+        private Key(String text, int page, int size) {
+            this.text = text;
+            this.page = page;
+            this.size = size;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Key key = (Key) o;
+            return page == key.page && size == key.size && text.equals(key.text);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(text, page, size);
+        }
+    }
+
+    private static class Entry {
+        private final List<ItemDto> items;
+        private volatile long lastAccess;
+
+        private Entry(List<ItemDto> items, long lastAccess) {
+            this.items = items;
+            this.lastAccess = lastAccess;
+        }
+    }
+}
@@ -0,0 +1,321 @@
+package ru.practicum.shareit.item.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * In-memory inverted index for item text search. Name and description are split into whitespace-delimited
+ * terms and every term is indexed by its trigrams, so a substring query narrows candidates by intersecting
+ * the postings of its own trigrams and is then checked against the stored text. Queries never lock: writers
+ * add new postings before replacing the document and drop stale postings last, so a concurrent reader sees
+ * the item under either the old or the new text. Loaded once the application is ready; until then
+ * {@link #isReady()} is false and search falls back to the database. Names of available items are also kept
+ * in a sorted map keyed by lower-cased name, so a prefix suggestion is a single ordered range read.
+ */
+@Component
+@Slf4j
+public class ItemSearchIndex {
+    private static final int GRAM_LENGTH = 3;
+    private static final int LOAD_PAGE_SIZE = 1000;
+    private static final char NAME_KEY_SEPARATOR = '\u0000';
+    // rough per-entry costs of the maps and sets backing the index on a 64-bit JVM with compressed oops
+    private static final long DOCUMENT_OVERHEAD_BYTES = 120;
+    private static final long GRAM_OVERHEAD_BYTES = 150;
+    private static final long POSTING_OVERHEAD_BYTES = 56;
+    private static final long NAME_OVERHEAD_BYTES = 200;
+
+    private final ItemRepository itemRepository;
+    private final boolean enabled;
+    private final ConcurrentMap<Long, Document> documents = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Set<Long>> postings = new ConcurrentHashMap<>();
+    // "lower-cased name \0 name" -> number of available items with that name
+    private final ConcurrentNavigableMap<String, Integer> availableNames = new ConcurrentSkipListMap<>();
+    private final Object writeLock = new Object();
+    private volatile boolean ready;
+    private volatile long postingsCount;
+    private volatile long storedChars;
+
+    public ItemSearchIndex(ItemRepository itemRepository,
+                           MeterRegistry meterRegistry,
+                           @Value("${shareit.item.search.in-memory.enabled:true}") boolean enabled) {
+        this.itemRepository = itemRepository;
+        this.enabled = enabled;
+        Gauge.builder("shareit.item.search.index.items", documents, Map::size)
+                .description("Items held by the in-memory search index")
+                .register(meterRegistry);
+        Gauge.builder("shareit.item.search.index.grams", postings, Map::size)
+                .description("Distinct trigrams held by the in-memory search index")
+                .register(meterRegistry);
+        Gauge.builder("shareit.item.search.index.memory", this, ItemSearchIndex::estimatedMemoryBytes)
+                .description("Estimated heap used by the in-memory search index")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (!enabled) {
+            log.info("In-memory item search index is disabled");
+            return;
+        }
+        Pageable page = PageRequest.of(0, LOAD_PAGE_SIZE, Sort.by(Sort.Direction.ASC, "id"));
+        Slice<Item> items;
+        do {
+            items = itemRepository.findAllByOwnerDeletedFalse(page);
+            // items changed by transactions that committed during the load are already newer than the snapshot
+            items.forEach(item -> index(Document.of(item), true));
+            page = items.nextPageable();
+        } while (items.hasNext());
+        ready = true;
+        log.info("Loaded {} items into search index: {} trigrams, {} postings, ~{} KiB",
+                documents.size(), postings.size(), postingsCount, estimatedMemoryBytes() / 1024);
+    }
+
+    /**
+     * Finds available items whose name or description contains the text. Ranked like
+     * {@link ItemRepository#searchByTextRanked}, the Postgres search used while the index is loading: name
+     * matches first, then by {@link TrigramSimilarity} of the name to the text, then by id.
+     * Returned items are detached copies carrying only id, name, description, availability and owner id.
+     */
+    public Page<Item> search(Pageable page, String text) {
+        String query = text.toLowerCase(Locale.ROOT);
+        List<Document> matches = candidates(query)
+                .filter(document -> document.available && document.contains(query))
+                .collect(Collectors.toList());
+        Set<String> queryTrigrams = TrigramSimilarity.trigrams(query);
+        Map<Long, Float> similarities = matches.stream()
+                .collect(Collectors.toMap(document -> document.id, document -> TrigramSimilarity.similarity(
+                        TrigramSimilarity.trigrams(document.name), queryTrigrams)));
+        matches.sort(Comparator.comparing((Document document) -> !document.name.contains(query))
+                .thenComparing(document -> similarities.get(document.id), Comparator.reverseOrder())
+                .thenComparing(document -> document.id));
+
+        List<Item> content = matches.stream()
+                .skip(page.getOffset())
+                .limit(page.getPageSize())
+                .map(Document::toItem)
+                .collect(Collectors.toList());
+        return new PageImpl<>(content, page, matches.size());
+    }
+
+    /**
+     * Distinct names of available items starting with the prefix, case-insensitively, in alphabetical order.
+     */
+    public List<String> suggest(String prefix, int limit) {
+        String keyPrefix = prefix.toLowerCase(Locale.ROOT);
+        return availableNames.tailMap(keyPrefix).keySet().stream()
+                .takeWhile(key -> key.startsWith(keyPrefix))
+                .limit(limit)
+                .map(key -> key.substring(key.indexOf(NAME_KEY_SEPARATOR) + 1))
+                .collect(Collectors.toList());
+    }
+
+    public void updateAfterCommit(Item item) {
+        Document document = Document.of(item);
+        runAfterCommit(() -> index(document, false));
+    }
+
+    /**
+     * Drops the owner's items once the owner deletion commits, since items are removed with their owner.
+     */
+    public void removeOwnerAfterCommit(Long ownerId) {
+        runAfterCommit(() -> documents.values().stream()
+                .filter(document -> ownerId.equals(document.ownerId))
+                .map(document -> document.id)
+                .collect(Collectors.toList())
+                .forEach(this::remove));
+    }
+
+    public int size() {
+        return documents.size();
+    }
+
+    public long estimatedMemoryBytes() {
+        return documents.size() * DOCUMENT_OVERHEAD_BYTES + storedChars * Character.BYTES
+                + postings.size() * GRAM_OVERHEAD_BYTES + postingsCount * POSTING_OVERHEAD_BYTES
+                + availableNames.size() * NAME_OVERHEAD_BYTES;
+    }
+
+    private void runAfterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private Stream<Document> candidates(String query) {
+        Set<String> queryGrams = grams(query);
+        if (queryGrams.isEmpty()) {
+            return documents.values().stream();
+        }
+        List<Set<Long>> queryPostings = queryGrams.stream()
+                .map(gram -> postings.getOrDefault(gram, Set.of()))
+                .sorted(Comparator.comparingInt(Set::size))
+                .collect(Collectors.toList());
+        Set<Long> rarest = queryPostings.get(0);
+        List<Set<Long>> others = queryPostings.subList(1, queryPostings.size());
+        return rarest.stream()
+                .filter(itemId -> others.stream().allMatch(posting -> posting.contains(itemId)))
+                .map(documents::get)
+                .filter(Objects::nonNull);
+    }
+
+    private void index(Document document, boolean onlyIfAbsent) {
+        synchronized (writeLock) {
+            Document previous = documents.get(document.id);
+            if (onlyIfAbsent && previous != null) {
+                return;
+            }
+            Set<String> newGrams = document.grams();
+            for (String gram : newGrams) {
+                if (postings.computeIfAbsent(gram, key -> ConcurrentHashMap.newKeySet()).add(document.id)) {
+                    postingsCount++;
+                }
+            }
+            if (document.available) {
+                availableNames.merge(document.nameKey(), 1, Integer::sum);
+            }
+            documents.put(document.id, document);
+            storedChars += document.storedChars();
+            if (previous != null) {
+                storedChars -= previous.storedChars();
+                Set<String> staleGrams = previous.grams();
+                staleGrams.removeAll(newGrams);
+                staleGrams.forEach(gram -> removePosting(gram, document.id));
+                removeName(previous);
+            }
+        }
+    }
+
+    private void remove(Long itemId) {
+        synchronized (writeLock) {
+            Document previous = documents.remove(itemId);
+            if (previous != null) {
+                storedChars -= previous.storedChars();
+                previous.grams().forEach(gram -> removePosting(gram, itemId));
+                removeName(previous);
+            }
+        }
+    }
+
+    private void removePosting(String gram, Long itemId) {
+        Set<Long> posting = postings.get(gram);
+        if (posting != null && posting.remove(itemId)) {
+            postingsCount--;
+            if (posting.isEmpty()) {
+                postings.remove(gram);
+            }
+        }
+    }
+
+    private void removeName(Document document) {
+        if (document.available) {
+            availableNames.computeIfPresent(document.nameKey(), (key, count) -> count > 1 ? count - 1 : null);
+        }
+    }
+
+    private static Set<String> grams(String text) {
+        Set<String> grams = new HashSet<>();
+        for (String term : text.split("\\s+")) {
+            for (int i = 0; i + GRAM_LENGTH <= term.length(); i++) {
+                grams.add(term.substring(i, i + GRAM_LENGTH));
+            }
+        }
+        return grams;
+    }
+
+    private static class Document {
+        private final Long id;
+        private final Long ownerId;
+        private final String name;
+        private final String description;
+        private final String originalName;
+        private final String originalDescription;
+        private final boolean available;
+
+        private Document(Long id, Long ownerId, String originalName, String originalDescription, boolean available) {
+            this.id = id;
+            this.ownerId = ownerId;
+            this.originalName = originalName;
+            this.originalDescription = originalDescription;
+            this.name = originalName == null ? "" : originalName.toLowerCase(Locale.ROOT);
+            this.description = originalDescription == null ? "" : originalDescription.toLowerCase(Locale.ROOT);
+            this.available = available;
+        }
+
+        private static Document of(Item item) {
+            Long ownerId = item.getOwner() == null ? null : item.getOwner().getId();
+            return new Document(item.getId(), ownerId, item.getName(), item.getDescription(),
+                    Boolean.TRUE.equals(item.getAvailable()));
+        }
+
+        private boolean contains(String query) {
+            return name.contains(query) || description.contains(query);
+        }
+
+        private String nameKey() {
+            return name + NAME_KEY_SEPARATOR + originalName;
+        }
+
+        private Set<String> grams() {
+            Set<String> grams = ItemSearchIndex.grams(name);
+            grams.addAll(ItemSearchIndex.grams(description));
+            return grams;
+        }
+
+        // original and lower-cased copies of both fields
+        private long storedChars() {
+            return 2L * (name.length() + description.length());
+        }
+
+        private Item toItem() {
+            return Item.builder()
+                    .id(id)
+                    .name(originalName)
+                    .description(originalDescription)
+                    .available(available)
+                    .owner(ownerId == null ? null : User.builder().id(ownerId).build())
+                    .build();
+        }
+    }
+}
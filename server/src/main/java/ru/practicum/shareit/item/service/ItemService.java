@@ -1,11 +1,14 @@
 package ru.practicum.shareit.item.service;
 
 
+import ru.practicum.shareit.item.dto.AvailabilitySlotDto;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemCreateDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemWithBookingsAndCommentsDto;
+import ru.practicum.shareit.request.dto.RequestNoItemsDto;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface ItemService {
@@ -19,5 +22,14 @@ public interface ItemService {
 
     List<ItemDto> searchItems(Long userId, String requestedText, int from, int size);
 
+    List<ItemDto> searchAvailableItems(Long userId, String requestedText, LocalDateTime start, LocalDateTime end,
+                                       int from, int size);
+
+    List<String> suggestNames(Long userId, String prefix, int limit);
+
+    List<RequestNoItemsDto> getMatchingRequests(Long userId, Long itemId, int size);
+
     CommentDto addComment(Long authorId, Long itemId, CommentDto commentDto);
+
+    List<AvailabilitySlotDto> getAvailability(Long userId, Long itemId, LocalDateTime from, LocalDateTime to);
 }
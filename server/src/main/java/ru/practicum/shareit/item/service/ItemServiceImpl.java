@@ -1,6 +1,7 @@
 package ru.practicum.shareit.item.service;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
@@ -9,9 +10,12 @@ import ru.practicum.shareit.booking.dto.LastNextBookingDto;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.booking.repository.ArchivedBookingRepository;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.ItemAvailabilityIndex;
 import ru.practicum.shareit.exception.InvalidParamException;
 import ru.practicum.shareit.exception.NotExistsException;
+import ru.practicum.shareit.item.dto.AvailabilitySlotDto;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemCreateDto;
 import ru.practicum.shareit.item.dto.ItemDto;
@@ -20,32 +24,50 @@ import ru.practicum.shareit.item.mapper.CommentMapper;
 import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemBookingSummary;
 import ru.practicum.shareit.item.repository.CommentRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.repository.ItemTextSearch;
+import ru.practicum.shareit.request.dto.RequestNoItemsDto;
+import ru.practicum.shareit.request.mapper.RequestMapper;
 import ru.practicum.shareit.request.model.Request;
 import ru.practicum.shareit.request.repository.RequestRepository;
+import ru.practicum.shareit.request.service.RequestFeed;
+import ru.practicum.shareit.request.service.RequestMatcher;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserExistenceCache;
 
 import java.time.LocalDateTime;
-import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class ItemServiceImpl implements ItemService {
     private final ItemRepository itemRepository;
+    private final ItemTextSearch itemTextSearch;
     private final UserRepository userRepository;
     private final BookingRepository bookingRepository;
+    private final ArchivedBookingRepository archivedBookingRepository;
     private final CommentRepository commentRepository;
     private final RequestRepository requestRepository;
     private final ItemMapper itemMapper;
     private final BookingMapper bookingMapper;
     private final CommentMapper commentMapper;
-    private final Sort sortByStartAsc = Sort.by(Sort.Direction.ASC, "start");
-    private final Sort sortByEndDesc = Sort.by(Sort.Direction.DESC, "end");
+    private final ItemAvailabilityIndex availabilityIndex;
+    private final ItemBookingSummaryProjection bookingSummaryProjection;
+    private final ItemSearchIndex searchIndex;
+    private final ItemSearchCache searchCache;
+    private final RequestFeed requestFeed;
+    private final RequestMatcher requestMatcher;
+    private final RequestMapper requestMapper;
+    private final UserExistenceCache userExistenceCache;
+    private final OwnerItemCounters ownerItemCounters;
+    private final Sort sortByIdAsc = Sort.by(Sort.Direction.ASC, "id");
 
     @Override
     @Transactional
@@ -62,6 +84,12 @@ public class ItemServiceImpl implements ItemService {
         }
 
         Item savedItem = itemRepository.save(itemToSave);
+        ownerItemCounters.increment(userId);
+        bookingSummaryProjection.addItem(savedItem.getId());
+        searchIndex.updateAfterCommit(savedItem);
+        requestFeed.updateItemAfterCommit(null, savedItem);
+        requestMatcher.addItemAfterCommit(savedItem);
+        searchCache.invalidateAfterCommit(savedItem.getName(), savedItem.getDescription());
 
         if (hasRequest) {
             return itemMapper.mapToDto(savedItem, itemCreateDto.getRequestId());
@@ -75,10 +103,17 @@ public class ItemServiceImpl implements ItemService {
     public ItemDto update(Long userId, Long itemId, ItemDto itemDto) {
         Item updatedItem = getItemById(itemId);
         validateIfUserIsOwner(updatedItem, userId);
+        String oldName = updatedItem.getName();
+        String oldDescription = updatedItem.getDescription();
+        Long oldRequestId = updatedItem.getRequest() == null ? null : updatedItem.getRequest().getRequestId();
 
         updateFields(updatedItem, itemDto);
 
         Item savedItem = itemRepository.save(updatedItem);
+        searchIndex.updateAfterCommit(savedItem);
+        requestFeed.updateItemAfterCommit(oldRequestId, savedItem);
+        requestMatcher.updateItemAfterCommit(savedItem);
+        searchCache.invalidateAfterCommit(oldName, oldDescription, savedItem.getName(), savedItem.getDescription());
         if (savedItem.getRequest() != null) {
             return itemMapper.mapToDto(savedItem, savedItem.getRequest().getRequestId());
         } else {
@@ -95,8 +130,9 @@ public class ItemServiceImpl implements ItemService {
         List<CommentDto> comments = getCommentsDtoForItem(itemId);
 
         if (Objects.equals(userId, requestedItem.getOwner().getId())) {
-            last = findLastBooking(itemId);
-            next = findNextBooking(itemId);
+            ItemBookingSummary summary = bookingSummaryProjection.getForItem(itemId);
+            last = bookingMapper.mapToLastDto(summary);
+            next = bookingMapper.mapToNextDto(summary);
         }
         return itemMapper.mapToWithBookingsDto(requestedItem, last, next, comments);
     }
@@ -104,17 +140,25 @@ public class ItemServiceImpl implements ItemService {
     @Override
     public List<ItemWithBookingsAndCommentsDto> getUserItems(Long userId, int from, int size) {
         validateIfUserExist(userId);
-        PageRequest pageRequest = PageRequest.of(from > 0 ? from / size : 0, size);
+        PageRequest pageRequest = PageRequest.of(from > 0 ? from / size : 0, size, sortByIdAsc);
+        List<Item> items = itemRepository.findByOwnerId(pageRequest, userId).getContent();
 
-        return itemRepository.findByOwnerId(pageRequest, userId).stream()
-                .map(item -> {
-                    LastNextBookingDto last = findLastBooking(item.getId());
-                    LastNextBookingDto next = findNextBooking(item.getId());
-                    List<CommentDto> comments = getCommentsDtoForItem(item.getId());
+        if (items.isEmpty()) {
+            return List.of();
+        }
 
-                    return itemMapper.mapToWithBookingsDto(item, last, next, comments);
-                })
-                .sorted(Comparator.comparingLong(ItemWithBookingsAndCommentsDto::getId))
+        List<Long> itemIds = items.stream()
+                .map(Item::getId)
+                .collect(Collectors.toList());
+        Map<Long, ItemBookingSummary> summaries = bookingSummaryProjection.getForItems(itemIds);
+        Map<Long, List<CommentDto>> comments = getCommentsDtoForItems(itemIds);
+
+        return items.stream()
+                .map(item -> itemMapper.mapToWithBookingsDto(
+                        item,
+                        bookingMapper.mapToLastDto(summaries.get(item.getId())),
+                        bookingMapper.mapToNextDto(summaries.get(item.getId())),
+                        comments.getOrDefault(item.getId(), List.of())))
                 .collect(Collectors.toList());
     }
 
@@ -125,12 +169,68 @@ public class ItemServiceImpl implements ItemService {
         }
         validateIfUserExist(userId);
         PageRequest pageRequest = PageRequest.of(from > 0 ? from / size : 0, size);
+        Optional<List<ItemDto>> cached = searchCache.get(requestedText, pageRequest.getPageNumber(), size);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+        long cacheGeneration = searchCache.generation();
 
-        return itemRepository.searchByText(pageRequest, requestedText)
-                .stream()
+        Page<Item> items = searchIndex.isReady()
+                ? searchIndex.search(pageRequest, requestedText)
+                : itemTextSearch.search(pageRequest, requestedText);
+
+        List<ItemDto> found = items.stream()
                 .map(itemMapper::mapToDto)
                 .collect(Collectors.toList()
                 );
+        searchCache.put(requestedText, pageRequest.getPageNumber(), size, cacheGeneration, found);
+        return found;
+    }
+
+    @Override
+    public List<ItemDto> searchAvailableItems(Long userId, String requestedText, LocalDateTime start,
+                                              LocalDateTime end, int from, int size) {
+        if (start == null || end == null) {
+            throw new InvalidParamException("Start", "Start and end must be passed together");
+        }
+        if (!start.isBefore(end)) {
+            throw new InvalidParamException(
+                    "Start",
+                    String.format("Start: %s is not before end: %s", start, end)
+            );
+        }
+        if (requestedText.isBlank()) {
+            return List.of();
+        }
+        validateIfUserExist(userId);
+        PageRequest pageRequest = PageRequest.of(from > 0 ? from / size : 0, size);
+
+        return itemTextSearch.searchFree(pageRequest, requestedText, start, end)
+                .stream()
+                .map(itemMapper::mapToDto)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<String> suggestNames(Long userId, String prefix, int limit) {
+        if (prefix.isBlank()) {
+            return List.of();
+        }
+        validateIfUserExist(userId);
+        if (searchIndex.isReady()) {
+            return searchIndex.suggest(prefix, limit);
+        }
+        return itemRepository.findAvailableNamesByPrefix(prefix, PageRequest.of(0, limit));
+    }
+
+    @Override
+    public List<RequestNoItemsDto> getMatchingRequests(Long userId, Long itemId, int size) {
+        validateIfUserExist(userId);
+        Item item = getItemById(itemId);
+
+        return requestMatcher.findMatchingRequests(item, size).stream()
+                .map(requestMapper::mapToNoItemsDto)
+                .collect(Collectors.toList());
     }
 
     @Override
@@ -147,6 +247,19 @@ public class ItemServiceImpl implements ItemService {
         );
     }
 
+    @Override
+    public List<AvailabilitySlotDto> getAvailability(Long userId, Long itemId, LocalDateTime from, LocalDateTime to) {
+        validateIfUserExist(userId);
+        if (!from.isBefore(to)) {
+            throw new InvalidParamException(
+                    "From",
+                    String.format("From: %s is not before to: %s", from, to)
+            );
+        }
+
+        return availabilityIndex.findFreeSlots(itemId, from, to);
+    }
+
     private List<CommentDto> getCommentsDtoForItem(Long itemId) {
         return commentRepository.findByItemIdOrderByCreatedDesc(itemId).stream()
                 .filter(Objects::nonNull)
@@ -154,6 +267,15 @@ public class ItemServiceImpl implements ItemService {
                 .collect(Collectors.toList());
     }
 
+    private Map<Long, List<CommentDto>> getCommentsDtoForItems(List<Long> itemIds) {
+        return commentRepository.findByItemIdInOrderByCreatedDesc(itemIds).stream()
+                .filter(Objects::nonNull)
+                .collect(Collectors.groupingBy(
+                        comment -> comment.getItem().getId(),
+                        Collectors.mapping(commentMapper::mapToDto, Collectors.toList())
+                ));
+    }
+
     private void validateIfUserHasBookingsForItem(Long userId, Long itemId) {
         List<Booking> bookings = bookingRepository.findByStateAndBookerIdAndItemIdAndEndIsBefore(
                 BookingState.APPROVED,
@@ -161,7 +283,11 @@ public class ItemServiceImpl implements ItemService {
                 itemId,
                 LocalDateTime.now());
 
-        if (bookings.isEmpty()) {
+        if (bookings.isEmpty() && !archivedBookingRepository.existsByStateAndBookerIdAndItemIdAndEndIsBefore(
+                BookingState.APPROVED,
+                userId,
+                itemId,
+                LocalDateTime.now())) {
             throw new InvalidParamException(
                     "Booking",
                     String.format("There is no ended bookings for user id %d and itemId %d",
@@ -170,26 +296,6 @@ public class ItemServiceImpl implements ItemService {
         }
     }
 
-    private LastNextBookingDto findLastBooking(Long itemId) {
-        return bookingRepository.findTopByStateAndItemIdAndStartIsBefore(
-                        BookingState.APPROVED,
-                        itemId,
-                        LocalDateTime.now(),
-                        sortByEndDesc)
-                .map(bookingMapper::mapToLastNextDto)
-                .orElse(null);
-    }
-
-    private LastNextBookingDto findNextBooking(Long itemId) {
-        return bookingRepository.findTopByStateAndItemIdAndStartAfter(
-                        BookingState.APPROVED,
-                        itemId,
-                        LocalDateTime.now(),
-                        sortByStartAsc)
-                .map(bookingMapper::mapToLastNextDto)
-                .orElse(null);
-    }
-
     private void validateIfUserIsOwner(Item item, Long userId) {
         if (!Objects.equals(item.getOwner().getId(), userId)) {
             throw new NotExistsException(
@@ -200,11 +306,16 @@ public class ItemServiceImpl implements ItemService {
     }
 
     private void validateIfUserExist(Long userId) {
-        getUserById(userId);
+        if (!userExistenceCache.exists(userId)) {
+            throw new NotExistsException(
+                    "User",
+                    String.format("User with id %d does not exist", userId)
+            );
+        }
     }
 
     private User getUserById(Long userId) {
-        return userRepository.findById(userId).orElseThrow(
+        return userRepository.findByIdAndDeletedFalse(userId).orElseThrow(
                 () -> new NotExistsException(
                         "User",
                         String.format("User with id %d does not exist", userId)
@@ -213,7 +324,7 @@ public class ItemServiceImpl implements ItemService {
     }
 
     private Item getItemById(Long itemId) {
-        return itemRepository.findById(itemId).orElseThrow(
+        return itemRepository.findByIdAndOwnerDeletedFalse(itemId).orElseThrow(
                 () -> new NotExistsException(
                         "Item",
                         String.format("Item with id %d not exist", itemId)
@@ -0,0 +1,57 @@
+package ru.practicum.shareit.item.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.repository.OwnerItemCount;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Per-owner item counts kept in users.item_count and incremented in the transaction that adds the item.
+ * Users created by UserServiceImpl start at zero and schema.sql backfills the count of existing users. A count
+ * that is still null (a user inserted directly) is counted from the item table on read without being stored,
+ * and is stored by the first increment.
+ */
+@Component
+@RequiredArgsConstructor
+public class OwnerItemCounters {
+    private final UserRepository userRepository;
+    private final ItemRepository itemRepository;
+
+    @Transactional(readOnly = true)
+    public long getItemCount(Long ownerId) {
+        Long itemCount = userRepository.findItemCountById(ownerId);
+        return itemCount != null ? itemCount : itemRepository.countByOwnerId(ownerId);
+    }
+
+    @Transactional
+    public void increment(Long ownerId) {
+        userRepository.incrementItemCount(ownerId);
+    }
+
+    /**
+     * Counts the users whose count is still null with one grouped query and sets it on the entities.
+     */
+    @Transactional(readOnly = true)
+    public void fillItemCounts(Collection<User> users) {
+        List<Long> uncountedIds = users.stream()
+                .filter(user -> user.getItemCount() == null)
+                .map(User::getId)
+                .collect(Collectors.toList());
+        if (uncountedIds.isEmpty()) {
+            return;
+        }
+        Map<Long, Long> counts = itemRepository.countByOwnerIds(uncountedIds).stream()
+                .collect(Collectors.toMap(OwnerItemCount::getOwnerId, OwnerItemCount::getItemCount));
+        users.stream()
+                .filter(user -> user.getItemCount() == null)
+                .forEach(user -> user.setItemCount(counts.getOrDefault(user.getId(), 0L)));
+    }
+}
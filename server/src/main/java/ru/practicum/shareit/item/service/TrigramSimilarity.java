@@ -0,0 +1,57 @@
+package ru.practicum.shareit.item.service;
+
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Java port of pg_trgm similarity(), so the in-memory search index ranks items exactly as the Postgres
+ * search does. Text is lower-cased and split into words on non-alphanumeric characters, every word is padded
+ * with two spaces in front and one behind, and similarity is the share of distinct trigrams the two texts
+ * have in common. Registered as the H2 function similarity for tests.
+ */
+public class TrigramSimilarity {
+
+    private TrigramSimilarity() {
+    }
+
+    public static float similarity(String first, String second) {
+        if (first == null || second == null) {
+            return 0;
+        }
+        return similarity(trigrams(first), trigrams(second));
+    }
+
+    static float similarity(Set<String> first, Set<String> second) {
+        if (first.isEmpty() || second.isEmpty()) {
+            return 0;
+        }
+        int shared = 0;
+        for (String trigram : first) {
+            if (second.contains(trigram)) {
+                shared++;
+            }
+        }
+        // float like pg_trgm, so ties break the same way
+        return (float) shared / (float) (first.size() + second.size() - shared);
+    }
+
+    static Set<String> trigrams(String text) {
+        Set<String> trigrams = new HashSet<>();
+        String lowerCased = text.toLowerCase(Locale.ROOT);
+        int wordStart = -1;
+        for (int i = 0; i <= lowerCased.length(); i++) {
+            boolean wordChar = i < lowerCased.length() && Character.isLetterOrDigit(lowerCased.charAt(i));
+            if (wordChar && wordStart < 0) {
+                wordStart = i;
+            } else if (!wordChar && wordStart >= 0) {
+                String padded = "  " + lowerCased.substring(wordStart, i) + " ";
+                for (int j = 0; j + 3 <= padded.length(); j++) {
+                    trigrams.add(padded.substring(j, j + 3));
+                }
+                wordStart = -1;
+            }
+        }
+        return trigrams;
+    }
+}
@@ -3,6 +3,7 @@ package ru.practicum.shareit.request.controller;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.request.dto.CreationRequestDto;
 import ru.practicum.shareit.request.dto.RequestDto;
 import ru.practicum.shareit.request.dto.RequestNoItemsDto;
@@ -50,4 +51,13 @@ public class RequestController {
         log.info("Got request to get request with: userId {}, requestId {}", userId, requestId);
         return requestService.getById(userId, requestId);
     }
+
+    @GetMapping("/{id}/candidates")
+    public List<ItemDto> getCandidateItems(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                          @PathVariable("id") Long requestId,
+                                          @RequestParam(name = "size") int size) {
+        log.info("Got request to get candidate items for request with: userId {}, requestId {}, size {}",
+                userId, requestId, size);
+        return requestService.getCandidateItems(userId, requestId, size);
+    }
 }
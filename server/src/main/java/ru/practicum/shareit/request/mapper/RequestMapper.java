@@ -1,9 +1,7 @@
 package ru.practicum.shareit.request.mapper;
 
-import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 import ru.practicum.shareit.item.dto.ItemDto;
-import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.request.dto.CreationRequestDto;
 import ru.practicum.shareit.request.dto.RequestDto;
 import ru.practicum.shareit.request.dto.RequestNoItemsDto;
@@ -12,15 +10,12 @@ import ru.practicum.shareit.user.model.User;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 @Component
-@RequiredArgsConstructor
 public class RequestMapper {
-    private final ItemMapper itemMapper;
-
     public Request mapToEntity(CreationRequestDto creationRequestDto, User owner) {
         return Request.builder()
                 .owner(owner)
@@ -46,35 +41,11 @@ public class RequestMapper {
                 .build();
     }
 
-    public List<RequestDto> mapStreamToDto(Stream<Request> requestStream) {
-        return requestStream
-                .filter(Objects::nonNull)
-                .map(itemRequest -> {
-                    List<ItemDto> requestItemsList =
-                            itemRequest.getItems()
-                                    .stream()
-                                    .filter(Objects::nonNull)
-                                    .map(item -> itemMapper.mapToDto(item, itemRequest.getRequestId()))
-                                    .collect(Collectors.toList());
-
-                    return mapToRequestDto(itemRequest, requestItemsList);
-                })
-                .collect(Collectors.toList());
-    }
-
-    public List<RequestDto> mapToListDto(List<Request> requests) {
+    public List<RequestDto> mapToListDto(List<Request> requests, Map<Long, List<ItemDto>> itemsByRequestId) {
         return requests.stream()
                 .filter(Objects::nonNull)
-                .map(itemRequest -> {
-                    List<ItemDto> requestItemsList =
-                            itemRequest.getItems()
-                                    .stream()
-                                    .filter(Objects::nonNull)
-                                    .map(item -> itemMapper.mapToDto(item, itemRequest.getRequestId()))
-                                    .collect(Collectors.toList());
-
-                    return mapToRequestDto(itemRequest, requestItemsList);
-                })
+                .map(request -> mapToRequestDto(request,
+                        itemsByRequestId.getOrDefault(request.getRequestId(), List.of())))
                 .collect(Collectors.toList());
     }
 }
@@ -10,13 +10,20 @@ import ru.practicum.shareit.request.model.Request;
 import java.util.List;
 
 public interface RequestRepository extends JpaRepository<Request, Long> {
+    @Query("select request from Request as request where request.owner.id = ?1")
     List<Request> findAllByOwnerId(Long ownerId, Sort sort);
 
     Page<Request> findAll(Pageable page);
 
-    @Query("select distinct request from Request as request " +
-            "join request.items " +
-            "where request.owner.id <> ?1")
-    Page<Request> findAllExceptOwnerRequestsEager(Long ownerId, Pageable page);
+    Page<Request> findAllByOwnerDeletedFalse(Pageable page);
+
+    /**
+     * Requests of other users that already have items. Returns a plain list, so no count query is issued;
+     * items are fetched separately for the whole page.
+     */
+    @Query("select request from Request as request " +
+            "where request.owner.id <> ?1 and request.owner.deleted = false " +
+            "and exists (select it.id from Item as it where it.request = request and it.owner.deleted = false)")
+    List<Request> findAllExceptOwnerWithItems(Long ownerId, Pageable page);
 
 }
@@ -0,0 +1,313 @@
+package ru.practicum.shareit.request.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.mapper.ItemMapper;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.request.dto.RequestDto;
+import ru.practicum.shareit.request.model.Request;
+import ru.practicum.shareit.request.repository.RequestRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Newest-first window of the most recent item requests together with their items, serving the
+ * "all other users' requests" feed without touching the database. The window always holds every request
+ * created after its oldest entry, so a page that fits into it is exact; a page reaching past the window is
+ * left to the database. Requests enter the window when created and drop out of its tail once it is full.
+ * Loaded once the application is ready; until then every page falls back to the database.
+ */
+@Component
+@Slf4j
+public class RequestFeed {
+    private static final Comparator<Key> NEWEST_FIRST = Comparator.comparing((Key key) -> key.created)
+            .thenComparing(key -> key.requestId)
+            .reversed();
+
+    private final RequestRepository requestRepository;
+    private final ItemRepository itemRepository;
+    private final ItemMapper itemMapper;
+    private final boolean enabled;
+    private final int capacity;
+    private final ConcurrentNavigableMap<Key, Entry> entries = new ConcurrentSkipListMap<>(NEWEST_FIRST);
+    private final ConcurrentMap<Long, Key> keys = new ConcurrentHashMap<>();
+    private final Object writeLock = new Object();
+    // item and owner changes committed while the feed is loading, null when no load is running
+    private List<Runnable> changesDuringLoad;
+    private volatile boolean ready;
+    // false once a request has left the window, i.e. older requests exist only in the database
+    private volatile boolean complete = true;
+
+    public RequestFeed(RequestRepository requestRepository,
+                       ItemRepository itemRepository,
+                       ItemMapper itemMapper,
+                       MeterRegistry meterRegistry,
+                       @Value("${shareit.request.feed.enabled:true}") boolean enabled,
+                       @Value("${shareit.request.feed.capacity:1000}") int capacity) {
+        this.requestRepository = requestRepository;
+        this.itemRepository = itemRepository;
+        this.itemMapper = itemMapper;
+        this.enabled = enabled;
+        this.capacity = capacity;
+        Gauge.builder("shareit.request.feed.size", entries, Map::size)
+                .description("Requests held by the in-memory request feed")
+                .register(meterRegistry);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (!enabled) {
+            log.info("In-memory request feed is disabled");
+            return;
+        }
+        synchronized (writeLock) {
+            changesDuringLoad = new ArrayList<>();
+        }
+        Page<Request> requests;
+        Map<Long, List<FeedItem>> itemsByRequestId;
+        try {
+            Sort newestFirst = Sort.by(Sort.Direction.DESC, "created", "requestId");
+            requests = requestRepository.findAllByOwnerDeletedFalse(PageRequest.of(0, capacity, newestFirst));
+            List<Long> requestIds = requests.stream()
+                    .map(Request::getRequestId)
+                    .collect(Collectors.toList());
+            itemsByRequestId = requestIds.isEmpty() ? Map.of()
+                    : itemRepository.findAllByRequestIds(requestIds).stream()
+                    .map(this::toFeedItem)
+                    .collect(Collectors.groupingBy(item -> item.dto.getRequestId()));
+        } catch (RuntimeException e) {
+            synchronized (writeLock) {
+                changesDuringLoad = null;
+            }
+            throw e;
+        }
+        synchronized (writeLock) {
+            // requests created by transactions that committed during the load are newer than the snapshot
+            requests.forEach(request -> {
+                if (!keys.containsKey(request.getRequestId())) {
+                    put(Entry.of(request, itemsByRequestId.getOrDefault(request.getRequestId(), List.of())));
+                }
+            });
+            // item and owner changes committed during the load may have found no entry yet or predate the snapshot
+            changesDuringLoad.forEach(Runnable::run);
+            changesDuringLoad = null;
+            complete = complete && requests.getTotalElements() <= capacity;
+            evictIfFull();
+        }
+        ready = true;
+        log.info("Loaded {} requests into request feed, complete: {}", entries.size(), complete);
+    }
+
+    /**
+     * Requests of other users that have items, newest first, or empty when the page reaches past the window.
+     */
+    public Optional<List<RequestDto>> findOtherUsersRequests(Long userId, long offset, int size) {
+        if (!ready) {
+            return Optional.empty();
+        }
+        boolean windowComplete = complete;
+        List<RequestDto> page = entries.values().stream()
+                .filter(entry -> !entry.ownerId.equals(userId) && !entry.items.isEmpty())
+                .skip(offset)
+                .limit(size)
+                .map(Entry::toDto)
+                .collect(Collectors.toList());
+        if (page.size() < size && !windowComplete) {
+            return Optional.empty();
+        }
+        return Optional.of(page);
+    }
+
+    public void addAfterCommit(Request request) {
+        Entry entry = Entry.of(request, List.of());
+        runAfterCommit(() -> {
+            synchronized (writeLock) {
+                if (!keys.containsKey(entry.requestId)) {
+                    put(entry);
+                    evictIfFull();
+                }
+            }
+        });
+    }
+
+    /**
+     * Moves the item from the request it was linked to into its current request, or refreshes it there,
+     * once the transaction commits.
+     */
+    public void updateItemAfterCommit(Long previousRequestId, Item item) {
+        Long itemId = item.getId();
+        FeedItem feedItem = item.getRequest() == null ? null : toFeedItem(item);
+        runAfterCommit(() -> applyChange(() -> {
+            if (previousRequestId != null) {
+                updateItems(previousRequestId,
+                        items -> items.removeIf(existing -> existing.dto.getId().equals(itemId)));
+            }
+            if (feedItem != null) {
+                updateItems(feedItem.dto.getRequestId(), items -> {
+                    items.removeIf(existing -> existing.dto.getId().equals(itemId));
+                    items.add(feedItem);
+                    items.sort(Comparator.comparing(existing -> existing.dto.getId()));
+                });
+            }
+        }));
+    }
+
+    /**
+     * Drops the owner's requests and items once the owner deletion commits, since both are removed with
+     * their owner.
+     */
+    public void removeOwnerAfterCommit(Long ownerId) {
+        runAfterCommit(() -> applyChange(() -> {
+            List<Entry> owned = entries.values().stream()
+                    .filter(entry -> entry.ownerId.equals(ownerId))
+                    .collect(Collectors.toList());
+            owned.forEach(entry -> entries.remove(keys.remove(entry.requestId)));
+            entries.replaceAll((key, entry) -> entry.withItems(entry.items.stream()
+                    .filter(item -> !ownerId.equals(item.ownerId))
+                    .collect(Collectors.toList())));
+        }));
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private void put(Entry entry) {
+        Key key = new Key(entry.created, entry.requestId);
+        keys.put(entry.requestId, key);
+        entries.put(key, entry);
+    }
+
+    /**
+     * Applies the change now and, while the feed is loading, once more over the loaded snapshot, which may
+     * predate it. Changes are idempotent, so applying one twice is harmless.
+     */
+    private void applyChange(Runnable change) {
+        synchronized (writeLock) {
+            change.run();
+            if (changesDuringLoad != null) {
+                changesDuringLoad.add(change);
+            }
+        }
+    }
+
+    private void updateItems(Long requestId, Consumer<List<FeedItem>> change) {
+        Key key = keys.get(requestId);
+        if (key == null) {
+            return;
+        }
+        List<FeedItem> items = new ArrayList<>(entries.get(key).items);
+        change.accept(items);
+        entries.put(key, entries.get(key).withItems(items));
+    }
+
+    private void evictIfFull() {
+        while (entries.size() > capacity) {
+            Map.Entry<Key, Entry> oldest = entries.pollLastEntry();
+            keys.remove(oldest.getKey().requestId);
+            complete = false;
+        }
+    }
+
+    private FeedItem toFeedItem(Item item) {
+        Long ownerId = item.getOwner() == null ? null : item.getOwner().getId();
+        return new FeedItem(ownerId, itemMapper.mapToDto(item, item.getRequest().getRequestId()));
+    }
+
+    private void runAfterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static class Key {
+        private final LocalDateTime created;
+        private final Long requestId;
+
+        private Key(LocalDateTime created, Long requestId) {
+            this.created = created;
+            this.requestId = requestId;
+        }
+    }
+
+    private static class FeedItem {
+        private final Long ownerId;
+        private final ItemDto dto;
+
+        private FeedItem(Long ownerId, ItemDto dto) {
+            this.ownerId = ownerId;
+            this.dto = dto;
+        }
+    }
+
+    private static class Entry {
+        private final Long requestId;
+        private final Long ownerId;
+        private final String description;
+        private final LocalDateTime created;
+        private final List<FeedItem> items;
+
+        private Entry(Long requestId, Long ownerId, String description, LocalDateTime created,
+                      List<FeedItem> items) {
+            this.requestId = requestId;
+            this.ownerId = ownerId;
+            this.description = description;
+            this.created = created;
+            this.items = List.copyOf(items);
+        }
+
+        private static Entry of(Request request, List<FeedItem> items) {
+            return new Entry(request.getRequestId(), request.getOwner().getId(), request.getDescription(),
+                    request.getCreated(), items);
+        }
+
+        private Entry withItems(List<FeedItem> newItems) {
+            return new Entry(requestId, ownerId, description, created, newItems);
+        }
+
+        private RequestDto toDto() {
+            return RequestDto.builder()
+                    .id(requestId)
+                    .description(description)
+                    .created(created)
+                    .items(items.stream()
+                            .map(item -> item.dto)
+                            .collect(Collectors.toList()))
+                    .build();
+        }
+    }
+}
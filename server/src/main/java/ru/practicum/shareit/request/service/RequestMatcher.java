@@ -0,0 +1,356 @@
+package ru.practicum.shareit.request.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.repository.ItemTextSearch;
+import ru.practicum.shareit.item.service.ItemSearchIndex;
+import ru.practicum.shareit.request.model.Request;
+import ru.practicum.shareit.request.repository.RequestRepository;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Matches items against open item requests, i.e. requests no item has been linked to yet. Request descriptions
+ * are split into words and kept in an inverted index of open requests, so an item is scored by looking up only
+ * its own words; a request's score is the share of its words the item's name and description contain. The
+ * other direction goes through the item search index: every word of a request is searched as a text and the
+ * found items are scored the same way. The index follows request creation, item linking and owner deletion
+ * after commit and is never rebuilt; it is loaded once the application is ready.
+ */
+@Component
+@Slf4j
+public class RequestMatcher {
+    private static final int LOAD_PAGE_SIZE = 1000;
+    private static final int MIN_TERM_LENGTH = 3;
+    private static final int ITEMS_PER_TERM = 200;
+    private static final int LOGGED_MATCHES = 10;
+    private static final Set<String> STOP_WORDS = Set.of(
+            "and", "the", "for", "with", "that", "this", "need", "want", "would", "like", "some", "any",
+            "для", "что", "как", "или", "нужен", "нужна", "нужно", "хотел", "хотела", "хочу", "который", "которая");
+
+    private final RequestRepository requestRepository;
+    private final ItemRepository itemRepository;
+    private final ItemSearchIndex itemSearchIndex;
+    private final ItemTextSearch itemTextSearch;
+    private final Timer matchTimer;
+    private final ConcurrentMap<Long, Document> requests = new ConcurrentHashMap<>();
+    // word -> ids of open requests whose description contains it
+    private final ConcurrentMap<String, Set<Long>> postings = new ConcurrentHashMap<>();
+    // item id -> request the item is linked to
+    private final ConcurrentMap<Long, LinkedItem> linkedItems = new ConcurrentHashMap<>();
+    private final Object writeLock = new Object();
+
+    public RequestMatcher(RequestRepository requestRepository,
+                          ItemRepository itemRepository,
+                          ItemSearchIndex itemSearchIndex,
+                          ItemTextSearch itemTextSearch,
+                          MeterRegistry meterRegistry) {
+        this.requestRepository = requestRepository;
+        this.itemRepository = itemRepository;
+        this.itemSearchIndex = itemSearchIndex;
+        this.itemTextSearch = itemTextSearch;
+        matchTimer = Timer.builder("shareit.request.matching.item")
+                .description("Time to score an item against the open requests")
+                .register(meterRegistry);
+        Gauge.builder("shareit.request.matching.open", this, RequestMatcher::openRequests)
+                .description("Open requests held by the request matching index")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        Pageable page = PageRequest.of(0, LOAD_PAGE_SIZE, Sort.by(Sort.Direction.ASC, "requestId"));
+        Slice<Request> requestPage;
+        do {
+            requestPage = requestRepository.findAllByOwnerDeletedFalse(page);
+            requestPage.forEach(request -> addRequest(Document.of(request)));
+            page = requestPage.nextPageable();
+        } while (requestPage.hasNext());
+
+        page = PageRequest.of(0, LOAD_PAGE_SIZE, Sort.by(Sort.Direction.ASC, "id"));
+        Slice<Item> itemPage;
+        do {
+            itemPage = itemRepository.findAllWithRequestByOwnerDeletedFalse(page);
+            itemPage.forEach(item -> linkItem(item.getId(), LinkedItem.of(item)));
+            page = itemPage.nextPageable();
+        } while (itemPage.hasNext());
+        log.info("Loaded {} requests into request matching index, {} open", requests.size(), openRequests());
+    }
+
+    /**
+     * Open requests of other users matching the item, best match first, then newest first.
+     * Returned requests are detached copies carrying only id, description and creation time.
+     */
+    public List<Request> findMatchingRequests(Item item, int limit) {
+        Long ownerId = item.getOwner() == null ? null : item.getOwner().getId();
+        Map<Long, Integer> sharedTerms = new HashMap<>();
+        for (String term : terms(item.getName(), item.getDescription())) {
+            postings.getOrDefault(term, Set.of())
+                    .forEach(requestId -> sharedTerms.merge(requestId, 1, Integer::sum));
+        }
+        return sharedTerms.entrySet().stream()
+                .map(shared -> {
+                    Document document = requests.get(shared.getKey());
+                    return document == null ? null : new Match<>(document, document.score(shared.getValue()));
+                })
+                .filter(Objects::nonNull)
+                .filter(match -> match.value.itemCount == 0 && !match.value.ownerId.equals(ownerId))
+                .sorted(Comparator.comparingDouble((Match<Document> match) -> match.score).reversed()
+                        .thenComparing(match -> match.value.created, Comparator.reverseOrder())
+                        .thenComparing(match -> match.value.id, Comparator.reverseOrder()))
+                .limit(limit)
+                .map(match -> match.value.toRequest())
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Available items of other users matching the request description, best match first, then by id.
+     */
+    public List<Item> findCandidateItems(Request request, int limit) {
+        Set<String> requestTerms = terms(request.getDescription());
+        Long ownerId = request.getOwner().getId();
+        Pageable page = PageRequest.of(0, ITEMS_PER_TERM);
+        Map<Long, Item> found = new HashMap<>();
+        for (String term : requestTerms) {
+            List<Item> items = itemSearchIndex.isReady()
+                    ? itemSearchIndex.search(page, term).getContent()
+                    : itemTextSearch.search(page, term).getContent();
+            items.forEach(item -> found.putIfAbsent(item.getId(), item));
+        }
+        return found.values().stream()
+                .filter(item -> item.getOwner() == null || !ownerId.equals(item.getOwner().getId()))
+                .map(item -> {
+                    Set<String> itemTerms = terms(item.getName(), item.getDescription());
+                    long shared = requestTerms.stream().filter(itemTerms::contains).count();
+                    return new Match<>(item, (double) shared / requestTerms.size());
+                })
+                .filter(match -> match.score > 0)
+                .sorted(Comparator.comparingDouble((Match<Item> match) -> match.score).reversed()
+                        .thenComparing(match -> match.value.getId()))
+                .limit(limit)
+                .map(match -> match.value)
+                .collect(Collectors.toList());
+    }
+
+    public void addRequestAfterCommit(Request request) {
+        Document document = Document.of(request);
+        runAfterCommit(() -> addRequest(document));
+    }
+
+    /**
+     * Scores a newly added item against the open requests and links it to its own request once the
+     * transaction commits.
+     */
+    public void addItemAfterCommit(Item item) {
+        LinkedItem linkedItem = item.getRequest() == null ? null : LinkedItem.of(item);
+        runAfterCommit(() -> {
+            long startTime = System.nanoTime();
+            List<Request> matches = findMatchingRequests(item, LOGGED_MATCHES);
+            matchTimer.record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+            if (!matches.isEmpty()) {
+                log.info("Item {} matches open requests {}", item.getId(),
+                        matches.stream().map(Request::getRequestId).collect(Collectors.toList()));
+            }
+            linkItem(item.getId(), linkedItem);
+        });
+    }
+
+    /**
+     * Follows the item to the request it is linked to now, if any, once the transaction commits.
+     */
+    public void updateItemAfterCommit(Item item) {
+        LinkedItem linkedItem = item.getRequest() == null ? null : LinkedItem.of(item);
+        runAfterCommit(() -> linkItem(item.getId(), linkedItem));
+    }
+
+    /**
+     * Drops the owner's requests and unlinks the owner's items once the owner deletion commits, since both are
+     * removed with their owner.
+     */
+    public void removeOwnerAfterCommit(Long ownerId) {
+        runAfterCommit(() -> {
+            synchronized (writeLock) {
+                linkedItems.entrySet().stream()
+                        .filter(linked -> ownerId.equals(linked.getValue().ownerId))
+                        .map(Map.Entry::getKey)
+                        .collect(Collectors.toList())
+                        .forEach(itemId -> linkItem(itemId, null));
+                requests.values().stream()
+                        .filter(document -> ownerId.equals(document.ownerId))
+                        .collect(Collectors.toList())
+                        .forEach(document -> {
+                            requests.remove(document.id);
+                            document.terms.forEach(term -> removePosting(term, document.id));
+                        });
+            }
+        });
+    }
+
+    public int size() {
+        return requests.size();
+    }
+
+    private long openRequests() {
+        return requests.values().stream()
+                .filter(document -> document.itemCount == 0)
+                .count();
+    }
+
+    private void addRequest(Document document) {
+        synchronized (writeLock) {
+            if (requests.putIfAbsent(document.id, document) == null && document.itemCount == 0) {
+                document.terms.forEach(term -> postings.computeIfAbsent(term, key -> ConcurrentHashMap.newKeySet())
+                        .add(document.id));
+            }
+        }
+    }
+
+    private void linkItem(Long itemId, LinkedItem linkedItem) {
+        synchronized (writeLock) {
+            LinkedItem previous = linkedItem == null
+                    ? linkedItems.remove(itemId)
+                    : linkedItems.put(itemId, linkedItem);
+            Long previousRequestId = previous == null ? null : previous.requestId;
+            Long requestId = linkedItem == null ? null : linkedItem.requestId;
+            if (Objects.equals(previousRequestId, requestId)) {
+                return;
+            }
+            if (previousRequestId != null) {
+                changeItemCount(previousRequestId, -1);
+            }
+            if (requestId != null) {
+                changeItemCount(requestId, 1);
+            }
+        }
+    }
+
+    // a request opens and closes when its item count moves between zero and one
+    private void changeItemCount(Long requestId, int delta) {
+        Document document = requests.get(requestId);
+        if (document == null) {
+            return;
+        }
+        boolean wasOpen = document.itemCount == 0;
+        document.itemCount = Math.max(0, document.itemCount + delta);
+        boolean isOpen = document.itemCount == 0;
+        if (wasOpen && !isOpen) {
+            document.terms.forEach(term -> removePosting(term, requestId));
+        } else if (!wasOpen && isOpen) {
+            document.terms.forEach(term -> postings.computeIfAbsent(term, key -> ConcurrentHashMap.newKeySet())
+                    .add(requestId));
+        }
+    }
+
+    private void removePosting(String term, Long requestId) {
+        Set<Long> posting = postings.get(term);
+        if (posting != null && posting.remove(requestId) && posting.isEmpty()) {
+            postings.remove(term);
+        }
+    }
+
+    private void runAfterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static Set<String> terms(String... texts) {
+        return Stream.of(texts)
+                .filter(Objects::nonNull)
+                .flatMap(text -> Stream.of(text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")))
+                .filter(term -> term.length() >= MIN_TERM_LENGTH && !STOP_WORDS.contains(term))
+                .collect(Collectors.toSet());
+    }
+
+    private static class Match<T> {
+        private final T value;
+        private final double score;
+
+        private Match(T value, double score) {
+            this.value = value;
+            this.score = score;
+        }
+    }
+
+    private static class LinkedItem {
+        private final Long requestId;
+        private final Long ownerId;
+
+        private LinkedItem(Long requestId, Long ownerId) {
+            this.requestId = requestId;
+            this.ownerId = ownerId;
+        }
+
+        private static LinkedItem of(Item item) {
+            return new LinkedItem(item.getRequest().getRequestId(),
+                    item.getOwner() == null ? null : item.getOwner().getId());
+        }
+    }
+
+    private static class Document {
+        private final Long id;
+        private final Long ownerId;
+        private final String description;
+        private final LocalDateTime created;
+        private final Set<String> terms;
+        // guarded by writeLock
+        private volatile int itemCount;
+
+        private Document(Long id, Long ownerId, String description, LocalDateTime created) {
+            this.id = id;
+            this.ownerId = ownerId;
+            this.description = description;
+            this.created = created;
+            this.terms = terms(description);
+        }
+
+        private static Document of(Request request) {
+            return new Document(request.getRequestId(), request.getOwner().getId(), request.getDescription(),
+                    request.getCreated());
+        }
+
+        private double score(int sharedTerms) {
+            return (double) sharedTerms / terms.size();
+        }
+
+        private Request toRequest() {
+            return Request.builder()
+                    .requestId(id)
+                    .description(description)
+                    .created(created)
+                    .build();
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package ru.practicum.shareit.request.service;
 
+import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.request.dto.CreationRequestDto;
 import ru.practicum.shareit.request.dto.RequestDto;
 import ru.practicum.shareit.request.dto.RequestNoItemsDto;
@@ -14,4 +15,6 @@ public interface RequestService {
     List<RequestDto> getAllOtherUsersRequests(Long userId, int from, int size);
 
     RequestDto getById(Long userId, Long requestId);
+
+    List<ItemDto> getCandidateItems(Long userId, Long requestId, int size);
 }
@@ -1,7 +1,6 @@
 package ru.practicum.shareit.request.service;
 
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
@@ -18,8 +17,11 @@ import ru.practicum.shareit.request.model.Request;
 import ru.practicum.shareit.request.repository.RequestRepository;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserExistenceCache;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
@@ -30,6 +32,9 @@ public class RequestServiceImpl implements RequestService {
     private final ItemRepository itemRepository;
     private final RequestMapper requestMapper;
     private final ItemMapper itemMapper;
+    private final RequestFeed requestFeed;
+    private final RequestMatcher requestMatcher;
+    private final UserExistenceCache userExistenceCache;
     private final Sort sortByCreatedDesc = Sort.by(Sort.Direction.DESC, "created");
 
     @Override
@@ -38,9 +43,11 @@ public class RequestServiceImpl implements RequestService {
         User owner = getUserById(userId);
         Request request = requestMapper.mapToEntity(creationRequestDto, owner);
 
-        return requestMapper.mapToNoItemsDto(
-                requestRepository.save(request)
-        );
+        Request savedRequest = requestRepository.save(request);
+        requestFeed.addAfterCommit(savedRequest);
+        requestMatcher.addRequestAfterCommit(savedRequest);
+
+        return requestMapper.mapToNoItemsDto(savedRequest);
     }
 
     @Override
@@ -49,26 +56,27 @@ public class RequestServiceImpl implements RequestService {
         validateIfUserExist(ownerId);
         List<Request> userItemRequests = requestRepository.findAllByOwnerId(ownerId, sortByCreatedDesc);
 
-        return requestMapper.mapStreamToDto(userItemRequests.stream());
+        return mapToDtoWithItems(userItemRequests);
     }
 
     @Override
     @Transactional
     public List<RequestDto> getAllOtherUsersRequests(Long userId, int from, int size) {
         PageRequest pageRequest = PageRequest.of(from > 0 ? from / size : 0, size, sortByCreatedDesc);
-        Page<Request> requests = requestRepository.findAllExceptOwnerRequestsEager(userId, pageRequest);
+        Optional<List<RequestDto>> feedPage = requestFeed.findOtherUsersRequests(
+                userId, pageRequest.getOffset(), size);
+        if (feedPage.isPresent()) {
+            return feedPage.get();
+        }
+        List<Request> requests = requestRepository.findAllExceptOwnerWithItems(userId, pageRequest);
 
-        return requestMapper.mapStreamToDto(requests.stream());
+        return mapToDtoWithItems(requests);
     }
 
     @Override
     public RequestDto getById(Long userId, Long requestId) {
         validateIfUserExist(userId);
-        Request request = requestRepository.findById(requestId).orElseThrow(
-                () -> new NotExistsException(
-                        "Request",
-                        String.format("Request with id %d does not exist", requestId))
-        );
+        Request request = getRequestById(requestId);
         List<ItemDto> itemsDto = itemRepository.findAllByRequest_RequestId(requestId).stream()
                 .map(item -> itemMapper.mapToDto(item, requestId))
                 .collect(Collectors.toList());
@@ -76,12 +84,50 @@ public class RequestServiceImpl implements RequestService {
         return requestMapper.mapToRequestDto(request, itemsDto);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public List<ItemDto> getCandidateItems(Long userId, Long requestId, int size) {
+        validateIfUserExist(userId);
+        Request request = getRequestById(requestId);
+
+        return requestMatcher.findCandidateItems(request, size).stream()
+                .map(itemMapper::mapToDto)
+                .collect(Collectors.toList());
+    }
+
+    private List<RequestDto> mapToDtoWithItems(List<Request> requests) {
+        if (requests.isEmpty()) {
+            return List.of();
+        }
+        List<Long> requestIds = requests.stream()
+                .map(Request::getRequestId)
+                .collect(Collectors.toList());
+        Map<Long, List<ItemDto>> itemsByRequestId = itemRepository.findAllByRequestIds(requestIds).stream()
+                .map(item -> itemMapper.mapToDto(item, item.getRequest().getRequestId()))
+                .collect(Collectors.groupingBy(ItemDto::getRequestId));
+
+        return requestMapper.mapToListDto(requests, itemsByRequestId);
+    }
+
+    private Request getRequestById(Long requestId) {
+        return requestRepository.findById(requestId).orElseThrow(
+                () -> new NotExistsException(
+                        "Request",
+                        String.format("Request with id %d does not exist", requestId))
+        );
+    }
+
     private void validateIfUserExist(Long userId) {
-        getUserById(userId);
+        if (!userExistenceCache.exists(userId)) {
+            throw new NotExistsException(
+                    "User",
+                    String.format("User with id %d does not exist", userId)
+            );
+        }
     }
 
     private User getUserById(Long userId) {
-        return userRepository.findById(userId).orElseThrow(
+        return userRepository.findByIdAndDeletedFalse(userId).orElseThrow(
                 () -> new NotExistsException(
                         "User",
                         String.format("User with id %d does not exist", userId)
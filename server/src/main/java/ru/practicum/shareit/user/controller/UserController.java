@@ -1,12 +1,20 @@
 package ru.practicum.shareit.user.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.user.dto.UserCreateDto;
+import ru.practicum.shareit.user.dto.UserCursorPageDto;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.service.UserService;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 
 
@@ -15,7 +23,11 @@ import java.util.List;
 @RequiredArgsConstructor
 @Slf4j
 public class UserController {
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final byte[] LINE_SEPARATOR = {'\n'};
     private final UserService userService;
+    private final ObjectMapper objectMapper;
 
     @PostMapping()
     public UserDto add(@RequestBody UserCreateDto userCreateDto) {
@@ -38,9 +50,39 @@ public class UserController {
     }
 
     @GetMapping
-    public List<UserDto> getAll() {
-        log.info("Got request to get all users");
-        return userService.getAll();
+    public ResponseEntity<List<UserDto>> getAll(
+            @RequestParam(name = "from", required = false) Integer from,
+            @RequestParam(name = "size", required = false) Integer size,
+            @RequestParam(name = "cursor", required = false) String cursor) {
+        log.info("Got request to get users: from {}, size {}, cursor {}", from, size, cursor);
+        if (cursor != null) {
+            return toCursorResponse(userService.getAllAfterCursor(cursor, size == null ? DEFAULT_PAGE_SIZE : size));
+        }
+        if (from != null || size != null) {
+            return ResponseEntity.ok(userService.getAll(from == null ? 0 : from,
+                    size == null ? DEFAULT_PAGE_SIZE : size));
+        }
+        return ResponseEntity.ok(userService.getAll());
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAll() {
+        log.info("Got request to stream all users");
+        ObjectWriter writer = objectMapper.writerFor(UserDto.class);
+        StreamingResponseBody body = outputStream -> userService.forEachBatch(users -> {
+            try {
+                for (UserDto user : users) {
+                    outputStream.write(writer.writeValueAsBytes(user));
+                    outputStream.write(LINE_SEPARATOR);
+                }
+                outputStream.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
     }
 
     @DeleteMapping("/{id}")
@@ -48,4 +90,12 @@ public class UserController {
         log.info("Got request to delete user with id {}", id);
         userService.delete(id);
     }
+
+    private ResponseEntity<List<UserDto>> toCursorResponse(UserCursorPageDto page) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getUsers());
+    }
 }
@@ -0,0 +1,43 @@
+package ru.practicum.shareit.user.dto;
+
+import lombok.Data;
+import ru.practicum.shareit.exception.InvalidParamException;
+import ru.practicum.shareit.user.model.User;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque keyset position over user_id for listings ordered by id ascending.
+ * An empty cursor means the first page.
+ */
+@Data
+public class UserCursor {
+    private static final long FIRST_PAGE_ID = 0L;
+
+    private final Long id;
+
+    public static UserCursor of(User user) {
+        return new UserCursor(user.getId());
+    }
+
+    public static UserCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return new UserCursor(FIRST_PAGE_ID);
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            return new UserCursor(Long.parseLong(decoded));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidParamException(
+                    "Cursor",
+                    String.format("Invalid cursor: %s", cursor)
+            );
+        }
+    }
+
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(String.valueOf(id).getBytes(StandardCharsets.UTF_8));
+    }
+}
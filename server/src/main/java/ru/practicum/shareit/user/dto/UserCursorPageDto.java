@@ -0,0 +1,13 @@
+package ru.practicum.shareit.user.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class UserCursorPageDto {
+    private List<UserDto> users;
+    private String nextCursor;
+}
@@ -0,0 +1,17 @@
+package ru.practicum.shareit.user.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+@Data
+@Builder
+public class UserPurgeProgressDto {
+    private long pendingUsers;
+    private Long currentUserId;
+    private long purgedUsers;
+    private Map<String, Long> purgedRows;
+    private LocalDateTime lastChunkAt;
+}
@@ -14,6 +14,7 @@ public class UserMapper {
                 .id(user.getId())
                 .name(user.getName())
                 .email(user.getEmail())
+                .itemCount(user.getItemCount())
                 .build();
     }
 
@@ -27,6 +28,7 @@ public class UserMapper {
         return User.builder()
                 .name(userCreateDto.getName())
                 .email(userCreateDto.getEmail())
+                .itemCount(0L)
                 .build();
     }
 }
@@ -28,6 +28,13 @@ public class User {
     @Column(name = "user_email")
     private String email;
 
+    @Column(name = "deleted")
+    private boolean deleted;
+
+    // null only for users inserted without a count, see OwnerItemCounters
+    @Column(name = "item_count")
+    private Long itemCount;
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -1,11 +1,53 @@
 package ru.practicum.shareit.user.repository;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import ru.practicum.shareit.user.model.User;
 
+import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
 
     Optional<User> findByEmail(String email);
+
+    Optional<User> findByIdAndDeletedFalse(Long id);
+
+    boolean existsByIdAndDeletedFalse(Long id);
+
+    List<User> findAllByDeletedFalse();
+
+    Page<User> findAllByDeletedFalse(Pageable page);
+
+    List<User> findByIdGreaterThanAndDeletedFalseOrderByIdAsc(Long id, Pageable page);
+
+    /**
+     * Hides the user from the API and releases the email for new users; the row and its data are removed
+     * later by UserPurger.
+     */
+    @Modifying
+    @Query("update User as user set user.deleted = true, user.email = ?2, user.itemCount = 0 " +
+            "where user.id = ?1 and user.deleted = false")
+    int markDeleted(Long id, String releasedEmail);
+
+    @Query("select user.id from User as user where user.deleted = true order by user.id")
+    List<Long> findDeletedIds(Pageable page);
+
+    long countByDeletedTrue();
+
+    @Query("select user.itemCount from User as user where user.id = ?1")
+    Long findItemCountById(Long id);
+
+    /**
+     * Runs after the item is inserted, so a count that is still null is set to the count including the new item.
+     */
+    @Modifying
+    @Query("update User as user " +
+            "set user.itemCount = coalesce(user.itemCount + 1, " +
+            "(select count(it) from Item as it where it.owner.id = ?1)) " +
+            "where user.id = ?1")
+    int incrementItemCount(Long id);
 }
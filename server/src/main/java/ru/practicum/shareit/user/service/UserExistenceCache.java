@@ -0,0 +1,130 @@
+package ru.practicum.shareit.user.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Bounded set of ids of users known to exist, so services that only need to prove a user exists skip the
+ * select. A miss is checked with an id-only exists query and remembered when the user is found; unknown ids
+ * are never cached, so users created outside {@link UserServiceImpl} are still found. Ids are dropped once
+ * the user deletion commits; a check that overlaps a deletion is not remembered. Least recently used ids are
+ * evicted once the set is full.
+ */
+@Component
+@Slf4j
+public class UserExistenceCache {
+    private static final String METRIC_PREFIX = "shareit.user.existence.cache";
+
+    private final UserRepository userRepository;
+    private final int maxIds;
+    // user id -> last access
+    private final ConcurrentMap<Long, Long> ids = new ConcurrentHashMap<>();
+    private final AtomicLong removals = new AtomicLong();
+    private final AtomicLong accessClock = new AtomicLong();
+    private final Counter hits;
+    private final Counter misses;
+
+    public UserExistenceCache(UserRepository userRepository,
+                              MeterRegistry meterRegistry,
+                              @Value("${shareit.user.existence-cache.max-ids:100000}") int maxIds) {
+        this.userRepository = userRepository;
+        this.maxIds = maxIds;
+        hits = Counter.builder(METRIC_PREFIX + ".gets").tag("result", "hit")
+                .description("User existence checks answered without a query")
+                .register(meterRegistry);
+        misses = Counter.builder(METRIC_PREFIX + ".gets").tag("result", "miss")
+                .description("User existence checks that queried the database")
+                .register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".size", ids, Map::size)
+                .description("User ids held by the existence cache")
+                .register(meterRegistry);
+    }
+
+    public boolean exists(Long userId) {
+        if (ids.replace(userId, accessClock.incrementAndGet()) != null) {
+            hits.increment();
+            return true;
+        }
+        misses.increment();
+        long removalsBefore = removals.get();
+        if (!userRepository.existsByIdAndDeletedFalse(userId)) {
+            return false;
+        }
+        remember(userId, removalsBefore);
+        return true;
+    }
+
+    public void addAfterCommit(Long userId) {
+        long removalsBefore = removals.get();
+        runAfterCommit(() -> remember(userId, removalsBefore));
+    }
+
+    public void removeAfterCommit(Long userId) {
+        runAfterCommit(() -> {
+            removals.incrementAndGet();
+            ids.remove(userId);
+        });
+    }
+
+    public int size() {
+        return ids.size();
+    }
+
+    private void remember(Long userId, long removalsBefore) {
+        if (removals.get() != removalsBefore) {
+            return;
+        }
+        ids.put(userId, accessClock.incrementAndGet());
+        // a deletion that committed after the check above may have removed the id before this put
+        if (removals.get() != removalsBefore) {
+            ids.remove(userId);
+            return;
+        }
+        evictIfFull();
+    }
+
+    private void runAfterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private void evictIfFull() {
+        if (ids.size() <= maxIds) {
+            return;
+        }
+        synchronized (ids) {
+            int toEvict = ids.size() - maxIds * 9 / 10;
+            if (toEvict <= 0) {
+                return;
+            }
+            ids.entrySet().stream()
+                    .sorted(Map.Entry.comparingByValue())
+                    .limit(toEvict)
+                    .map(Map.Entry::getKey)
+                    .collect(Collectors.toList())
+                    .forEach(ids::remove);
+            log.debug("Evicted {} ids from user existence cache", toEvict);
+        }
+    }
+}
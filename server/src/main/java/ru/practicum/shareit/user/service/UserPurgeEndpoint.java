@@ -0,0 +1,22 @@
+package ru.practicum.shareit.user.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.user.dto.UserPurgeProgressDto;
+
+/**
+ * Purge progress of soft-deleted users at /actuator/userpurge.
+ */
+@Component
+@Endpoint(id = "userpurge")
+@RequiredArgsConstructor
+public class UserPurgeEndpoint {
+    private final UserPurger userPurger;
+
+    @ReadOperation
+    public UserPurgeProgressDto progress() {
+        return userPurger.getProgress();
+    }
+}
@@ -0,0 +1,237 @@
+package ru.practicum.shareit.user.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.service.ItemAvailabilityIndex;
+import ru.practicum.shareit.booking.service.OwnerBookingCounters;
+import ru.practicum.shareit.item.service.ItemBookingSummaryProjection;
+import ru.practicum.shareit.item.service.ItemSearchCache;
+import ru.practicum.shareit.user.dto.UserPurgeProgressDto;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Removes the data of soft-deleted users (see {@link UserServiceImpl#delete}) and then the users themselves.
+ * Each chunk deletes at most chunk-size rows of one table in its own transaction, children before parents, so
+ * no chunk holds many row locks; a run stops after max-chunks-per-run chunks and pauses between chunks.
+ */
+@Slf4j
+@Component
+public class UserPurger {
+    static final String USERS_TABLE = "users";
+    private static final String METRIC_PREFIX = "shareit.user.purge";
+    private static final List<PurgeStep> STEPS = List.of(
+            new PurgeStep("comment", "comment_id",
+                    "select comment_id from comment where author_id = :userId limit :limit",
+                    false),
+            new PurgeStep("comment", "comment_id",
+                    "select comment.comment_id from comment " +
+                            "join item on item.item_id = comment.item_id " +
+                            "where item.owner_id = :userId limit :limit",
+                    false),
+            // bookings of the user on other owners' items may be the last or next booking of those items
+            new PurgeStep("booking", "booking_id",
+                    "select booking_id from booking where booker_id = :userId limit :limit",
+                    true),
+            new PurgeStep("booking_archive", "booking_id",
+                    "select booking_id from booking_archive where booker_id = :userId limit :limit",
+                    true),
+            new PurgeStep("booking", "booking_id",
+                    "select booking.booking_id from booking " +
+                            "join item on item.item_id = booking.item_id " +
+                            "where item.owner_id = :userId limit :limit",
+                    false),
+            new PurgeStep("booking_archive", "booking_id",
+                    "select booking_archive.booking_id from booking_archive " +
+                            "join item on item.item_id = booking_archive.item_id " +
+                            "where item.owner_id = :userId limit :limit",
+                    false),
+            new PurgeStep("item", "item_id",
+                    "select item_id from item where owner_id = :userId limit :limit",
+                    false),
+            new PurgeStep("request", "request_id",
+                    "select request_id from request where owner_id = :userId limit :limit",
+                    false)
+    );
+    private static final String SELECT_ITEM_OWNER_IDS_SQL =
+            "select distinct owner_id from item where item_id in (:itemIds)";
+    private static final String DELETE_USER_SQL = "delete from users where user_id = :userId and deleted = true";
+
+    private final UserRepository userRepository;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ItemBookingSummaryProjection itemBookingSummaryProjection;
+    private final OwnerBookingCounters ownerBookingCounters;
+    private final ItemAvailabilityIndex itemAvailabilityIndex;
+    private final ItemSearchCache itemSearchCache;
+    private final MeterRegistry meterRegistry;
+    private final boolean scheduled;
+    private final int chunkSize;
+    private final int maxChunksPerRun;
+    private final long pauseMillis;
+    private final Map<String, Counter> purgedRows = new LinkedHashMap<>();
+    private volatile Long currentUserId;
+    private volatile LocalDateTime lastChunkAt;
+
+    public UserPurger(UserRepository userRepository,
+                      NamedParameterJdbcTemplate jdbcTemplate,
+                      TransactionTemplate transactionTemplate,
+                      ItemBookingSummaryProjection itemBookingSummaryProjection,
+                      OwnerBookingCounters ownerBookingCounters,
+                      ItemAvailabilityIndex itemAvailabilityIndex,
+                      ItemSearchCache itemSearchCache,
+                      MeterRegistry meterRegistry,
+                      @Value("${shareit.user.purge.scheduled:true}") boolean scheduled,
+                      @Value("${shareit.user.purge.chunk-size:200}") int chunkSize,
+                      @Value("${shareit.user.purge.max-chunks-per-run:50}") int maxChunksPerRun,
+                      @Value("${shareit.user.purge.pause-millis:50}") long pauseMillis) {
+        this.userRepository = userRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.itemBookingSummaryProjection = itemBookingSummaryProjection;
+        this.ownerBookingCounters = ownerBookingCounters;
+        this.itemAvailabilityIndex = itemAvailabilityIndex;
+        this.itemSearchCache = itemSearchCache;
+        this.meterRegistry = meterRegistry;
+        this.scheduled = scheduled;
+        this.chunkSize = chunkSize;
+        this.maxChunksPerRun = maxChunksPerRun;
+        this.pauseMillis = pauseMillis;
+        STEPS.forEach(step -> purgedRowsCounter(step.table));
+        purgedRowsCounter(USERS_TABLE);
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.user.purge.delay-millis:5000}")
+    public void purgeScheduled() {
+        if (!scheduled) {
+            return;
+        }
+        purge(maxChunksPerRun);
+    }
+
+    /**
+     * Runs up to maxChunks chunks and returns the number of chunks run.
+     */
+    public int purge(int maxChunks) {
+        int chunks = 0;
+        while (chunks < maxChunks) {
+            List<Long> pendingUserIds = userRepository.findDeletedIds(PageRequest.of(0, 1));
+            if (pendingUserIds.isEmpty()) {
+                currentUserId = null;
+                break;
+            }
+            if (chunks > 0 && !pause()) {
+                break;
+            }
+            Long userId = pendingUserIds.get(0);
+            currentUserId = userId;
+            transactionTemplate.executeWithoutResult(status -> purgeChunk(userId));
+            lastChunkAt = LocalDateTime.now();
+            chunks++;
+        }
+        if (chunks > 0) {
+            log.info("Ran {} user purge chunks", chunks);
+        }
+        return chunks;
+    }
+
+    public UserPurgeProgressDto getProgress() {
+        Map<String, Long> rows = new LinkedHashMap<>();
+        purgedRows.forEach((table, counter) -> rows.put(table, (long) counter.count()));
+        return UserPurgeProgressDto.builder()
+                .pendingUsers(userRepository.countByDeletedTrue())
+                .currentUserId(currentUserId)
+                .purgedUsers(rows.get(USERS_TABLE))
+                .purgedRows(rows)
+                .lastChunkAt(lastChunkAt)
+                .build();
+    }
+
+    private void purgeChunk(Long userId) {
+        for (PurgeStep step : STEPS) {
+            List<Long> ids = jdbcTemplate.queryForList(step.selectIdsSql,
+                    Map.of("userId", userId, "limit", chunkSize), Long.class);
+            if (ids.isEmpty()) {
+                continue;
+            }
+            // items whose bookings are deleted
+            List<Long> itemIds = step.table.startsWith("booking")
+                    ? jdbcTemplate.queryForList(step.selectItemIdsSql(), Map.of("ids", ids), Long.class)
+                    : List.of();
+            int deleted = jdbcTemplate.update(step.deleteSql(), Map.of("ids", ids));
+            if (step.refreshesItemSummaries) {
+                itemBookingSummaryProjection.refreshItems(itemIds);
+            }
+            afterDelete(step.table, ids, itemIds);
+            purgedRowsCounter(step.table).increment(deleted);
+            return;
+        }
+        int deleted = jdbcTemplate.update(DELETE_USER_SQL, Map.of("userId", userId));
+        purgedRowsCounter(USERS_TABLE).increment(deleted);
+        log.info("Purged user with id {}", userId);
+    }
+
+    private void afterDelete(String table, List<Long> ids, List<Long> itemIds) {
+        if (table.startsWith("booking")) {
+            ownerBookingCounters.invalidateAfterCommit(jdbcTemplate.queryForList(SELECT_ITEM_OWNER_IDS_SQL,
+                    Map.of("itemIds", itemIds), Long.class));
+            itemAvailabilityIndex.invalidateAfterCommit(itemIds);
+        } else if (table.equals("item")) {
+            itemSearchCache.invalidateAllAfterCommit();
+            itemAvailabilityIndex.invalidateAfterCommit(ids);
+        }
+    }
+
+    private Counter purgedRowsCounter(String table) {
+        return purgedRows.computeIfAbsent(table, key -> Counter.builder(METRIC_PREFIX + ".rows")
+                .tag("table", key)
+                .description("Rows removed by the user purge")
+                .register(meterRegistry));
+    }
+
+    private boolean pause() {
+        if (pauseMillis <= 0) {
+            return true;
+        }
+        try {
+            Thread.sleep(pauseMillis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static class PurgeStep {
+        private final String table;
+        private final String idColumn;
+        private final String selectIdsSql;
+        private final boolean refreshesItemSummaries;
+
+        private PurgeStep(String table, String idColumn, String selectIdsSql, boolean refreshesItemSummaries) {
+            this.table = table;
+            this.idColumn = idColumn;
+            this.selectIdsSql = selectIdsSql;
+            this.refreshesItemSummaries = refreshesItemSummaries;
+        }
+
+        private String selectItemIdsSql() {
+            return "select distinct item_id from " + table + " where " + idColumn + " in (:ids)";
+        }
+
+        private String deleteSql() {
+            return "delete from " + table + " where " + idColumn + " in (:ids)";
+        }
+    }
+}
@@ -1,9 +1,11 @@
 package ru.practicum.shareit.user.service;
 
 import ru.practicum.shareit.user.dto.UserCreateDto;
+import ru.practicum.shareit.user.dto.UserCursorPageDto;
 import ru.practicum.shareit.user.dto.UserDto;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface UserService {
 
@@ -15,5 +17,15 @@ public interface UserService {
 
     List<UserDto> getAll();
 
+    List<UserDto> getAll(int from, int size);
+
+    UserCursorPageDto getAllAfterCursor(String cursor, int size);
+
+    /**
+     * Passes every user, ordered by id, to the consumer one batch at a time, so only a single batch is held
+     * in memory.
+     */
+    void forEachBatch(Consumer<List<UserDto>> batchConsumer);
+
     void delete(Long id);
 }
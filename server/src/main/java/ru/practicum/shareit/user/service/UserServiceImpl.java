@@ -3,35 +3,60 @@ package ru.practicum.shareit.user.service;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.dao.DataIntegrityViolationException;
-import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.service.OwnerBookingCounters;
 import ru.practicum.shareit.exception.DuplicateEntityException;
 import ru.practicum.shareit.exception.NotExistsException;
+import ru.practicum.shareit.item.service.ItemSearchCache;
+import ru.practicum.shareit.item.service.ItemSearchIndex;
+import ru.practicum.shareit.item.service.OwnerItemCounters;
+import ru.practicum.shareit.request.service.RequestFeed;
+import ru.practicum.shareit.request.service.RequestMatcher;
 import ru.practicum.shareit.user.dto.UserCreateDto;
+import ru.practicum.shareit.user.dto.UserCursor;
+import ru.practicum.shareit.user.dto.UserCursorPageDto;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.mapper.UserMapper;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
+import javax.persistence.EntityManager;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class UserServiceImpl implements UserService {
+    static final int STREAM_BATCH_SIZE = 500;
+    private static final String RELEASED_EMAIL_FORMAT = "deleted-user-%d";
+
     private final UserRepository userRepository;
     private final UserMapper mapper;
+    private final OwnerBookingCounters ownerBookingCounters;
+    private final ItemSearchIndex itemSearchIndex;
+    private final ItemSearchCache itemSearchCache;
+    private final RequestFeed requestFeed;
+    private final RequestMatcher requestMatcher;
+    private final UserExistenceCache userExistenceCache;
+    private final OwnerItemCounters ownerItemCounters;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+    private final Sort sortByIdAsc = Sort.by(Sort.Direction.ASC, "id");
 
     @Override
     @Transactional
     public UserDto add(UserCreateDto userCreateDto) {
         User user = mapper.mapToUser(userCreateDto);
         try {
-            return mapper.mapToDto(
-                    userRepository.save(user)
-            );
+            User savedUser = userRepository.save(user);
+            userExistenceCache.addAfterCommit(savedUser.getId());
+            return mapper.mapToDto(savedUser);
         } catch (DataIntegrityViolationException e) {
             throw new DuplicateEntityException(
                     "Email",
@@ -43,7 +68,7 @@ public class UserServiceImpl implements UserService {
     @Override
     @Transactional
     public UserDto update(Long userId, UserDto userDto) {
-        User updatedUser = userRepository.findById(userId).orElseThrow(
+        User updatedUser = userRepository.findByIdAndDeletedFalse(userId).orElseThrow(
                 () -> new NotExistsException(
                         "User",
                         String.format("User with id %d does not exist", userId)
@@ -52,39 +77,99 @@ public class UserServiceImpl implements UserService {
 
         updateFields(updatedUser, userDto);
 
-        return mapper.mapToDto(
-                userRepository.save(updatedUser)
-        );
+        userRepository.save(updatedUser);
+        return mapToListDto(List.of(updatedUser)).get(0);
     }
 
     @Override
     public UserDto getById(Long id) {
-        return mapper.mapToDto(
-                userRepository.findById(id).orElseThrow(() -> new NotExistsException(
-                        "User",
-                        String.format("User with id %d does not exist", id)))
-        );
+        User user = userRepository.findByIdAndDeletedFalse(id).orElseThrow(() -> new NotExistsException(
+                "User",
+                String.format("User with id %d does not exist", id)));
+        return mapToListDto(List.of(user)).get(0);
     }
 
     @Override
     public List<UserDto> getAll() {
-        return userRepository.findAll()
-                .stream()
-                .map(mapper::mapToDto)
-                .collect(Collectors.toList());
+        return mapToListDto(userRepository.findAllByDeletedFalse());
+    }
+
+    @Override
+    public List<UserDto> getAll(int from, int size) {
+        PageRequest pageRequest = PageRequest.of(from > 0 ? from / size : 0, size, sortByIdAsc);
+        return mapToListDto(userRepository.findAllByDeletedFalse(pageRequest).getContent());
+    }
+
+    @Override
+    public UserCursorPageDto getAllAfterCursor(String cursor, int size) {
+        UserCursor position = UserCursor.decode(cursor);
+        List<User> users = userRepository.findByIdGreaterThanAndDeletedFalseOrderByIdAsc(
+                position.getId(),
+                PageRequest.of(0, size)
+        );
+        return UserCursorPageDto.builder()
+                .users(mapToListDto(users))
+                .nextCursor(users.size() < size ? null : UserCursor.of(users.get(users.size() - 1)).encode())
+                .build();
+    }
+
+    /**
+     * Reads every batch in its own read-only transaction and clears the persistence context after it. With
+     * open-in-view the whole stream shares the request's EntityManager, so without the clear every loaded user
+     * would stay in it until the response is written.
+     */
+    @Override
+    public void forEachBatch(Consumer<List<UserDto>> batchConsumer) {
+        TransactionTemplate readOnlyTransaction = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        readOnlyTransaction.setReadOnly(true);
+        Long lastId = UserCursor.decode(null).getId();
+        List<UserDto> batch;
+        do {
+            Long afterId = lastId;
+            batch = readOnlyTransaction.execute(status -> readBatch(afterId));
+            if (batch.isEmpty()) {
+                return;
+            }
+            lastId = batch.get(batch.size() - 1).getId();
+            batchConsumer.accept(batch);
+        } while (batch.size() == STREAM_BATCH_SIZE);
     }
 
+    /**
+     * Soft-deletes the user: the user is gone from the API at once, while their items, bookings, comments and
+     * requests are removed in small batches by {@link UserPurger}.
+     */
     @Override
     @Transactional
     public void delete(Long id) {
-        try {
-            userRepository.deleteById(id);
-        } catch (EmptyResultDataAccessException e) {
+        if (userRepository.markDeleted(id, String.format(RELEASED_EMAIL_FORMAT, id)) == 0) {
             throw new NotExistsException(
                     "User",
                     String.format("User with id %d does not exist", id)
             );
         }
+        ownerBookingCounters.invalidateAfterCommit(List.of(id));
+        itemSearchIndex.removeOwnerAfterCommit(id);
+        requestFeed.removeOwnerAfterCommit(id);
+        requestMatcher.removeOwnerAfterCommit(id);
+        userExistenceCache.removeAfterCommit(id);
+        itemSearchCache.invalidateAllAfterCommit();
+    }
+
+    private List<UserDto> readBatch(Long afterId) {
+        List<UserDto> batch = mapToListDto(userRepository.findByIdGreaterThanAndDeletedFalseOrderByIdAsc(
+                afterId,
+                PageRequest.of(0, STREAM_BATCH_SIZE)
+        ));
+        entityManager.clear();
+        return batch;
+    }
+
+    private List<UserDto> mapToListDto(List<User> users) {
+        ownerItemCounters.fillItemCounts(users);
+        return users.stream()
+                .map(mapper::mapToDto)
+                .collect(Collectors.toList());
     }
 
     private void checkDuplicateEmail(String email, Long userId) {
@@ -0,0 +1,16 @@
+create table if not exists booking (
+    booking_id bigint generated always as identity not null,
+    booker_id bigint not null,
+    item_id bigint not null,
+    state varchar(50) not null,
+    start_date_time timestamp without time zone not null,
+    end_date_time timestamp without time zone not null,
+    constraint pk_booking primary key (booking_id),
+    constraint fk_booking_to_users foreign key (booker_id) references users (user_id) on delete cascade,
+    constraint fk_booking_to_item foreign key (item_id) references item (item_id) on delete cascade
+);
+
+create index if not exists booking_booker_id_start_idx on booking (booker_id, start_date_time);
+create index if not exists booking_item_id_state_start_idx on booking (item_id, state, start_date_time);
+create index if not exists booking_state_end_idx on booking (state, end_date_time);
+create index if not exists booking_booker_id_state_start_idx on booking (booker_id, state, start_date_time);
@@ -0,0 +1,79 @@
+-- item search matches substrings of name and description, which only trigram indexes can serve
+create extension if not exists pg_trgm;
+create index if not exists item_name_trgm_idx on item using gin (lower(item_name) gin_trgm_ops);
+create index if not exists item_description_trgm_idx on item using gin (lower(description) gin_trgm_ops);
+
+create sequence if not exists booking_booking_id_seq;
+
+create table if not exists booking (
+    booking_id bigint not null default nextval('booking_booking_id_seq'),
+    booker_id bigint not null,
+    item_id bigint not null,
+    state varchar(50) not null,
+    start_date_time timestamp without time zone not null,
+    end_date_time timestamp without time zone not null,
+    constraint pk_booking primary key (booking_id, start_date_time),
+    constraint fk_booking_to_users foreign key (booker_id) references users (user_id) on delete cascade,
+    constraint fk_booking_to_item foreign key (item_id) references item (item_id) on delete cascade
+) partition by range (start_date_time);
+
+create table if not exists booking_default partition of booking default;
+
+create index if not exists booking_booker_id_start_idx on booking (booker_id, start_date_time);
+create index if not exists booking_item_id_state_start_idx on booking (item_id, state, start_date_time);
+create index if not exists booking_state_end_idx on booking (state, end_date_time);
+-- the WAITING queue is polled by bookers and owners and stays small compared to the whole table
+create index if not exists booking_waiting_booker_id_start_idx on booking (booker_id, start_date_time)
+    where state = 'WAITING';
+create index if not exists booking_waiting_item_id_start_idx on booking (item_id, start_date_time)
+    where state = 'WAITING';
+
+-- exclusion constraints cannot span partitions, so overlaps are checked per item under an advisory lock
+create or replace function booking_no_overlap() returns trigger as $$
+begin
+    if new.state in ('APPROVED', 'WAITING') then
+        perform pg_advisory_xact_lock(new.item_id);
+        if exists (select 1
+                   from booking as b
+                   where b.item_id = new.item_id
+                     and b.booking_id <> new.booking_id
+                     and b.state in ('APPROVED', 'WAITING')
+                     and tsrange(b.start_date_time, b.end_date_time) && tsrange(new.start_date_time, new.end_date_time)) then
+            raise exception 'Booking overlaps another booking of item %', new.item_id using errcode = '23P01';
+        end if;
+    end if;
+    return null;
+end;
+$$ language plpgsql;
+
+drop trigger if exists booking_no_overlap on booking;
+
+create trigger booking_no_overlap after insert or update on booking
+    for each row execute function booking_no_overlap();
+
+-- creates monthly partitions from the current month on, moving matching rows out of the default partition
+create or replace function create_booking_partitions(months_ahead integer) returns integer as $$
+declare
+    month_start date;
+    partition_name text;
+    created integer := 0;
+begin
+    for i in 0..months_ahead loop
+        month_start := (date_trunc('month', now()) + make_interval(months => i))::date;
+        partition_name := format('booking_%s', to_char(month_start, 'YYYY_MM'));
+        if to_regclass(partition_name) is null then
+            execute format('create table %I (like booking including defaults)', partition_name);
+            execute format('with moved as (delete from booking_default ' ||
+                           'where start_date_time >= %L and start_date_time < %L returning *) ' ||
+                           'insert into %I select * from moved',
+                           month_start, (month_start + interval '1 month')::date, partition_name);
+            execute format('alter table booking attach partition %I for values from (%L) to (%L)',
+                           partition_name, month_start, (month_start + interval '1 month')::date);
+            created := created + 1;
+        end if;
+    end loop;
+    return created;
+end;
+$$ language plpgsql;
+
+select create_booking_partitions(12);
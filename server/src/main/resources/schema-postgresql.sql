@@ -0,0 +1,45 @@
+-- item search matches substrings of name and description, which only trigram indexes can serve
+create extension if not exists pg_trgm;
+create index if not exists item_name_trgm_idx on item using gin (lower(item_name) gin_trgm_ops);
+create index if not exists item_description_trgm_idx on item using gin (lower(description) gin_trgm_ops);
+
+create extension if not exists btree_gist;
+
+create table if not exists booking (
+    booking_id bigint generated always as identity not null,
+    booker_id bigint not null,
+    item_id bigint not null,
+    state varchar(50) not null,
+    start_date_time timestamp without time zone not null,
+    end_date_time timestamp without time zone not null,
+    constraint pk_booking primary key (booking_id),
+    constraint fk_booking_to_users foreign key (booker_id) references users (user_id) on delete cascade,
+    constraint fk_booking_to_item foreign key (item_id) references item (item_id) on delete cascade,
+    constraint booking_no_overlap exclude using gist (
+        item_id with =,
+        tsrange(start_date_time, end_date_time) with &&
+    ) where (state in ('APPROVED', 'WAITING'))
+);
+
+-- a booking table created before booking_no_overlap gets it here; the body is quoted with ' and not $$,
+-- because the script is split on ; and the splitter only skips single-quoted text
+do '
+begin
+    if not exists (select 1 from pg_constraint where conname = ''booking_no_overlap''
+            and conrelid = ''booking''::regclass) then
+        alter table booking add constraint booking_no_overlap exclude using gist (
+            item_id with =,
+            tsrange(start_date_time, end_date_time) with &&
+        ) where (state in (''APPROVED'', ''WAITING''));
+    end if;
+end
+';
+
+create index if not exists booking_booker_id_start_idx on booking (booker_id, start_date_time);
+create index if not exists booking_item_id_state_start_idx on booking (item_id, state, start_date_time);
+create index if not exists booking_state_end_idx on booking (state, end_date_time);
+-- the WAITING queue is polled by bookers and owners and stays small compared to the whole table
+create index if not exists booking_waiting_booker_id_start_idx on booking (booker_id, start_date_time)
+    where state = 'WAITING';
+create index if not exists booking_waiting_item_id_start_idx on booking (item_id, start_date_time)
+    where state = 'WAITING';
@@ -2,10 +2,17 @@ create table if not exists users (
     user_id bigint generated always as identity not null,
     user_name varchar not null,
     user_email varchar not null,
+    deleted boolean default false not null,
+    item_count bigint,
     constraint pk_user primary key (user_id),
     constraint user_email_unique unique (user_email)
 );
 
+alter table users add column if not exists deleted boolean default false not null;
+alter table users add column if not exists item_count bigint;
+-- soft-deleted users wait in users until UserPurger has removed their data
+create index if not exists users_deleted_idx on users (deleted);
+
 create table if not exists request (
     request_id bigint generated always as identity not null,
     description varchar not null,
@@ -15,6 +22,9 @@ create table if not exists request (
     constraint fk_request_to_users foreign key (owner_id) references users (user_id) on delete cascade
 );
 
+create index if not exists request_owner_id_created_idx on request (owner_id, created);
+create index if not exists request_created_idx on request (created);
+
 create table if not exists item (
     item_id bigint generated always as identity not null,
     item_name varchar(50) not null,
@@ -27,17 +37,12 @@ create table if not exists item (
     constraint fk_item_to_request foreign key (request_id) references request (request_id) on delete set null
 );
 
-create table if not exists booking (
-    booking_id bigint generated always as identity not null,
-    booker_id bigint not null,
-    item_id bigint not null,
-    state varchar(50) not null,
-    start_date_time timestamp without time zone not null,
-    end_date_time timestamp without time zone not null,
-    constraint pk_booking primary key (booking_id),
-    constraint fk_booking_to_users foreign key (booker_id) references users (user_id) on delete cascade,
-    constraint fk_booking_to_item foreign key (item_id) references item (item_id) on delete cascade
-);
+create index if not exists item_owner_id_idx on item (owner_id);
+create index if not exists item_request_id_idx on item (request_id);
+
+-- counts users that existed before users.item_count, see OwnerItemCounters
+update users set item_count = (select count(*) from item where item.owner_id = users.user_id)
+where item_count is null;
 
 create table if not exists comment (
     comment_id bigint generated always as identity not null,
@@ -49,3 +54,41 @@ create table if not exists comment (
     constraint fk_comment_to_item foreign key (item_id) references item (item_id) on delete cascade,
     constraint fk_comment_to_users foreign key (author_id) references users (user_id) on delete cascade
 );
+
+create index if not exists comment_item_id_created_idx on comment (item_id, created);
+create index if not exists comment_author_id_idx on comment (author_id);
+
+create table if not exists item_booking_summary (
+    item_id bigint not null,
+    last_booking_id bigint,
+    last_booker_id bigint,
+    last_end timestamp without time zone,
+    next_booking_id bigint,
+    next_booker_id bigint,
+    next_start timestamp without time zone,
+    constraint pk_item_booking_summary primary key (item_id),
+    constraint fk_item_booking_summary_to_item foreign key (item_id) references item (item_id) on delete cascade
+);
+
+create index if not exists item_booking_summary_next_start_idx on item_booking_summary (next_start);
+
+-- items that existed before item_booking_summary get a row whose next_start has passed, so reads recompute it
+-- until the scheduled refresh stores it, see ItemBookingSummaryProjection
+insert into item_booking_summary (item_id, next_start)
+select it.item_id, timestamp '1970-01-01 00:00:00' from item as it
+where not exists (select 1 from item_booking_summary as s where s.item_id = it.item_id);
+
+create table if not exists booking_archive (
+    booking_id bigint not null,
+    booker_id bigint not null,
+    item_id bigint not null,
+    state varchar(50) not null,
+    start_date_time timestamp without time zone not null,
+    end_date_time timestamp without time zone not null,
+    constraint pk_booking_archive primary key (booking_id),
+    constraint fk_booking_archive_to_users foreign key (booker_id) references users (user_id) on delete cascade,
+    constraint fk_booking_archive_to_item foreign key (item_id) references item (item_id) on delete cascade
+);
+
+create index if not exists booking_archive_booker_id_start_idx on booking_archive (booker_id, start_date_time);
+create index if not exists booking_archive_item_id_state_start_idx on booking_archive (item_id, state, start_date_time);
@@ -0,0 +1,205 @@
+package ru.practicum.shareit;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.TestFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.booking.repository.ArchivedBookingRepository;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.repository.CommentRepository;
+import ru.practicum.shareit.item.repository.ItemBookingSummaryRepository;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.request.repository.RequestRepository;
+
+import java.sql.PreparedStatement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+
+/**
+ * Runs EXPLAIN on every statement issued by the listed repository queries and fails
+ * when any of them falls back to a full table scan.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector=" +
+        "ru.practicum.shareit.RepositoryQueryPlanTest$RecordingStatementInspector")
+class RepositoryQueryPlanTest {
+
+    private static final String FULL_SCAN = "tableScan";
+
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private ArchivedBookingRepository archivedBookingRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private CommentRepository commentRepository;
+    @Autowired
+    private RequestRepository requestRepository;
+    @Autowired
+    private ItemBookingSummaryRepository summaryRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final LocalDateTime now = LocalDateTime.now();
+    private final PageRequest page = PageRequest.of(1, 10, Sort.by(Sort.Direction.DESC, "start"));
+    private final PageRequest unsortedPage = PageRequest.of(1, 10);
+    private final PageRequest cursorPage = PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "start", "id"));
+
+    @TestFactory
+    Stream<DynamicTest> repositoryQueries_whenExplained_thenNoFullTableScan() {
+        return queries().entrySet().stream()
+                .map(query -> DynamicTest.dynamicTest(query.getKey(), () -> assertUsesIndexes(query.getValue())));
+    }
+
+    private Map<String, Runnable> queries() {
+        Map<String, Runnable> queries = new LinkedHashMap<>();
+        queries.put("booking.findByBookerId", () -> bookingRepository.findByBookerId(page, 1L));
+        queries.put("booking.findByBookerIdAndEndIsAfterAndStartIsBefore",
+                () -> bookingRepository.findByBookerIdAndEndIsAfterAndStartIsBefore(page, 1L, now, now));
+        queries.put("booking.findByBookerIdAndEndIsBefore",
+                () -> bookingRepository.findByBookerIdAndEndIsBefore(page, 1L, now));
+        queries.put("booking.findByBookerIdAndStartIsAfter",
+                () -> bookingRepository.findByBookerIdAndStartIsAfter(page, 1L, now));
+        queries.put("booking.findByBookerIdAndState",
+                () -> bookingRepository.findByBookerIdAndState(page, 1L, BookingState.WAITING));
+        queries.put("booking.findByItemOwnerId", () -> bookingRepository.findByItemOwnerId(page, 1L));
+        queries.put("booking.countGroupsWithArchivedByItemOwnerId",
+                () -> bookingRepository.countGroupsWithArchivedByItemOwnerId(1L, now));
+        queries.put("booking.findByItemOwnerIdAndEndIsAfterAndStartIsBefore",
+                () -> bookingRepository.findByItemOwnerIdAndEndIsAfterAndStartIsBefore(page, 1L, now, now));
+        queries.put("booking.findByItemOwnerIdAndEndIsBefore",
+                () -> bookingRepository.findByItemOwnerIdAndEndIsBefore(page, 1L, now));
+        queries.put("booking.findByItemOwnerIdAndStartIsAfter",
+                () -> bookingRepository.findByItemOwnerIdAndStartIsAfter(page, 1L, now));
+        queries.put("booking.findByItemOwnerIdAndState",
+                () -> bookingRepository.findByItemOwnerIdAndState(page, 1L, BookingState.WAITING));
+        queries.put("booking.findByBookerIdAfterCursor",
+                () -> bookingRepository.findByBookerIdAfterCursor(cursorPage, 1L, now, 1L));
+        queries.put("booking.findCurrentByBookerIdAfterCursor",
+                () -> bookingRepository.findCurrentByBookerIdAfterCursor(cursorPage, 1L, now, 1L, now));
+        queries.put("booking.findPastByBookerIdAfterCursor",
+                () -> bookingRepository.findPastByBookerIdAfterCursor(cursorPage, 1L, now, 1L, now));
+        queries.put("booking.findFutureByBookerIdAfterCursor",
+                () -> bookingRepository.findFutureByBookerIdAfterCursor(cursorPage, 1L, now, 1L, now));
+        queries.put("booking.findByBookerIdAndStateAfterCursor", () -> bookingRepository
+                .findByBookerIdAndStateAfterCursor(cursorPage, 1L, now, 1L, BookingState.WAITING));
+        queries.put("booking.findByItemOwnerIdAfterCursor",
+                () -> bookingRepository.findByItemOwnerIdAfterCursor(cursorPage, 1L, now, 1L));
+        queries.put("booking.findCurrentByItemOwnerIdAfterCursor",
+                () -> bookingRepository.findCurrentByItemOwnerIdAfterCursor(cursorPage, 1L, now, 1L, now));
+        queries.put("booking.findPastByItemOwnerIdAfterCursor",
+                () -> bookingRepository.findPastByItemOwnerIdAfterCursor(cursorPage, 1L, now, 1L, now));
+        queries.put("booking.findFutureByItemOwnerIdAfterCursor",
+                () -> bookingRepository.findFutureByItemOwnerIdAfterCursor(cursorPage, 1L, now, 1L, now));
+        queries.put("booking.findByItemOwnerIdAndStateAfterCursor", () -> bookingRepository
+                .findByItemOwnerIdAndStateAfterCursor(cursorPage, 1L, now, 1L, BookingState.WAITING));
+        queries.put("booking.findByStateAndBookerIdAndItemIdAndEndIsBefore", () -> bookingRepository
+                .findByStateAndBookerIdAndItemIdAndEndIsBefore(BookingState.APPROVED, 1L, 1L, now));
+        queries.put("booking.findByItemIdAndStateInAndEndIsAfter", () -> bookingRepository
+                .findByItemIdAndStateInAndEndIsAfter(1L, Set.of(BookingState.APPROVED, BookingState.WAITING), now));
+        queries.put("booking.findLastBookingsForItems",
+                () -> bookingRepository.findLastBookingsForItems(BookingState.APPROVED.name(), List.of(1L, 2L), now));
+        queries.put("booking.findNextBookingsForItems",
+                () -> bookingRepository.findNextBookingsForItems(BookingState.APPROVED.name(), List.of(1L, 2L), now));
+        queries.put("booking.findIdsToArchive", () -> bookingRepository.findIdsToArchive(PageRequest.of(0, 10),
+                Set.of(BookingState.APPROVED, BookingState.REJECTED), now));
+        queries.put("booking.findWithBookerAndItemByIdIn",
+                () -> bookingRepository.findWithBookerAndItemByIdIn(List.of(1L, 2L)));
+        queries.put("booking.findRefsWithArchivedByBookerId",
+                () -> bookingRepository.findRefsWithArchivedByBookerId(unsortedPage, 1L));
+        queries.put("booking.findPastRefsWithArchivedByBookerId",
+                () -> bookingRepository.findPastRefsWithArchivedByBookerId(unsortedPage, 1L, now));
+        queries.put("booking.findRefsWithArchivedByBookerIdAndState", () -> bookingRepository
+                .findRefsWithArchivedByBookerIdAndState(unsortedPage, 1L, BookingState.REJECTED.name()));
+        queries.put("booking.findRefsWithArchivedByItemOwnerId",
+                () -> bookingRepository.findRefsWithArchivedByItemOwnerId(unsortedPage, 1L));
+        queries.put("booking.findPastRefsWithArchivedByItemOwnerId",
+                () -> bookingRepository.findPastRefsWithArchivedByItemOwnerId(unsortedPage, 1L, now));
+        queries.put("booking.findRefsWithArchivedByItemOwnerIdAndState", () -> bookingRepository
+                .findRefsWithArchivedByItemOwnerIdAndState(unsortedPage, 1L, BookingState.REJECTED.name()));
+        queries.put("archive.findWithBookerAndItemById",
+                () -> archivedBookingRepository.findWithBookerAndItemById(1L));
+        queries.put("archive.findWithBookerAndItemByIdIn",
+                () -> archivedBookingRepository.findWithBookerAndItemByIdIn(List.of(1L, 2L)));
+        queries.put("archive.findByBookerIdAfterCursor",
+                () -> archivedBookingRepository.findByBookerIdAfterCursor(cursorPage, 1L, now, 1L));
+        queries.put("archive.findByItemOwnerIdAfterCursor",
+                () -> archivedBookingRepository.findByItemOwnerIdAfterCursor(cursorPage, 1L, now, 1L));
+        queries.put("archive.existsByStateAndBookerIdAndItemIdAndEndIsBefore", () -> archivedBookingRepository
+                .existsByStateAndBookerIdAndItemIdAndEndIsBefore(BookingState.APPROVED, 1L, 1L, now));
+        queries.put("archive.findLastBookingsForItems", () -> archivedBookingRepository
+                .findLastBookingsForItems(BookingState.APPROVED.name(), List.of(1L, 2L), now));
+        queries.put("item.findByIdAndOwnerDeletedFalse", () -> itemRepository.findByIdAndOwnerDeletedFalse(1L));
+        queries.put("item.existsByIdAndOwnerDeletedFalse", () -> itemRepository.existsByIdAndOwnerDeletedFalse(1L));
+        queries.put("item.findByOwnerId(page)", () -> itemRepository.findByOwnerId(PageRequest.of(1, 10), 1L));
+        queries.put("item.findByOwnerId", () -> itemRepository.findByOwnerId(1L));
+        queries.put("item.countByOwnerId", () -> itemRepository.countByOwnerId(1L));
+        queries.put("item.countByOwnerIds", () -> itemRepository.countByOwnerIds(List.of(1L, 2L)));
+        queries.put("item.findAllByRequest_RequestId", () -> itemRepository.findAllByRequest_RequestId(1L));
+        queries.put("item.findAllByRequestIds", () -> itemRepository.findAllByRequestIds(List.of(1L, 2L)));
+        queries.put("summary.findItemIdsByNextStartNotAfter",
+                () -> summaryRepository.findItemIdsByNextStartNotAfter(now, PageRequest.of(0, 10)));
+        queries.put("comment.findByItemIdOrderByCreatedDesc", () -> commentRepository.findByItemIdOrderByCreatedDesc(1L));
+        queries.put("comment.findByItemIdInOrderByCreatedDesc",
+                () -> commentRepository.findByItemIdInOrderByCreatedDesc(List.of(1L, 2L)));
+        queries.put("request.findAllByOwnerId",
+                () -> requestRepository.findAllByOwnerId(1L, Sort.by(Sort.Direction.DESC, "created")));
+        return queries;
+    }
+
+    private void assertUsesIndexes(Runnable query) {
+        RecordingStatementInspector.STATEMENTS.clear();
+        query.run();
+        List<String> statements = new ArrayList<>(RecordingStatementInspector.STATEMENTS);
+
+        assertThat(statements, is(not(empty())));
+        for (String statement : statements) {
+            String plan = explain(statement);
+            assertThat(String.format("%s%nplan: %s", statement, plan), plan, not(containsString(FULL_SCAN)));
+        }
+    }
+
+    private String explain(String statement) {
+        return jdbcTemplate.query(connection -> {
+            PreparedStatement explain = connection.prepareStatement("explain " + statement);
+            int parameterCount = explain.getParameterMetaData().getParameterCount();
+            for (int i = 1; i <= parameterCount; i++) {
+                explain.setObject(i, null);
+            }
+            return explain;
+        }, resultSet -> {
+            StringBuilder plan = new StringBuilder();
+            while (resultSet.next()) {
+                plan.append(resultSet.getString(1));
+            }
+            return plan.toString();
+        });
+    }
+
+    public static class RecordingStatementInspector implements StatementInspector {
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
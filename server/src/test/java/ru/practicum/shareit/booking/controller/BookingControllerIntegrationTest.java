@@ -11,14 +11,22 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import ru.practicum.shareit.booking.dto.BookingCreationDto;
+import ru.practicum.shareit.booking.dto.BookingCursorPageDto;
+import ru.practicum.shareit.booking.dto.BookingStatusChangeDto;
+import ru.practicum.shareit.booking.dto.BookingStatusChangeOutcome;
+import ru.practicum.shareit.booking.dto.BookingStatusChangeResultDto;
+import ru.practicum.shareit.booking.dto.OwnerBookingSummaryDto;
 import ru.practicum.shareit.booking.service.BookingServiceImpl;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.mockito.Mockito.times;
-import static org.mockito.Mockito.verify;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(controllers = BookingController.class)
@@ -142,6 +150,50 @@ class BookingControllerIntegrationTest {
                 "Invalid bookingId passed to service");
     }
 
+    @SneakyThrows
+    @Test
+    void getOwnerSummary_whenInvoked_thenStatusIsOkAndCountsReturned() {
+        Long ownerId = 0L;
+        when(bookingService.getOwnerSummary(ownerId)).thenReturn(OwnerBookingSummaryDto.builder()
+                .waiting(2)
+                .rejected(1)
+                .build());
+
+        mvc.perform(get("/bookings/owner/summary")
+                        .header("X-Sharer-User-Id", ownerId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.waiting").value(2))
+                .andExpect(jsonPath("$.rejected").value(1))
+                .andExpect(jsonPath("$.future").value(0));
+
+        verify(bookingService, times(1)).getOwnerSummary(ownerId);
+    }
+
+    @SneakyThrows
+    @Test
+    void changeStatuses_whenInvoked_thenStatusIsOkAndChangesPassedToService() {
+        Long userId = 0L;
+        List<BookingStatusChangeDto> changes = List.of(
+                BookingStatusChangeDto.builder().bookingId(1L).approved(true).build(),
+                BookingStatusChangeDto.builder().bookingId(2L).approved(false).build()
+        );
+        when(bookingService.changeStatuses(userId, changes)).thenReturn(List.of(
+                BookingStatusChangeResultDto.builder().bookingId(1L).outcome(BookingStatusChangeOutcome.CHANGED).build(),
+                BookingStatusChangeResultDto.builder().bookingId(2L).outcome(BookingStatusChangeOutcome.NOT_FOUND).build()
+        ));
+
+        mvc.perform(patch("/bookings/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("X-Sharer-User-Id", userId)
+                        .content(objectMapper.writeValueAsString(changes)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].outcome").value("CHANGED"))
+                .andExpect(jsonPath("$[1].outcome").value("NOT_FOUND"));
+
+        verify(bookingService, times(1)).changeStatuses(userId, changes);
+        verify(bookingService, never()).changeStatus(anyLong(), anyLong(), anyBoolean());
+    }
+
     @SneakyThrows
     @Test
     void getById_whenXSharerUserIdIsMissing_thenStatusIsBadRequest() {
@@ -209,4 +261,47 @@ class BookingControllerIntegrationTest {
         assertEquals(size, sizeArgumentCaptor.getValue(),
                 "Invalid size passed to service");
     }
+
+    @SneakyThrows
+    @Test
+    void getByStateForBooker_whenCursorPassed_thenCursorPassedToServiceAndNextCursorInHeader() {
+        Long userId = 0L;
+        String state = "PAST";
+        String cursor = "cursor";
+        int size = 5;
+        when(bookingService.getByStateBookerAfterCursor(userId, state, cursor, size))
+                .thenReturn(BookingCursorPageDto.builder()
+                        .bookings(List.of())
+                        .nextCursor("nextCursor")
+                        .build());
+
+        mvc.perform(get("/bookings?state={state}&from=0&size={size}&cursor={cursor}", state, size, cursor)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("X-Sharer-User-Id", userId))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Next-Cursor", "nextCursor"));
+
+        verify(bookingService, never()).getByStateBooker(anyLong(), anyString(), anyInt(), anyInt());
+    }
+
+    @SneakyThrows
+    @Test
+    void getByStateForItemOwner_whenCursorPassed_thenCursorPassedToService() {
+        Long userId = 0L;
+        String state = "PAST";
+        String cursor = "";
+        int size = 5;
+        when(bookingService.getByStateOwnerAfterCursor(userId, state, cursor, size))
+                .thenReturn(BookingCursorPageDto.builder()
+                        .bookings(List.of())
+                        .build());
+
+        mvc.perform(get("/bookings/owner?state={state}&from=0&size={size}&cursor=", state, size)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("X-Sharer-User-Id", userId))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("X-Next-Cursor"));
+
+        verify(bookingService, times(1)).getByStateOwnerAfterCursor(userId, state, cursor, size);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,43 @@
+package ru.practicum.shareit.booking.dto;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.exception.InvalidParamException;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BookingCursorTest {
+
+    @Test
+    void decode_whenEncodedCursorPassed_thenSamePositionReturned() {
+        Booking booking = Booking.builder()
+                .id(7L)
+                .start(LocalDateTime.of(2023, 1, 2, 3, 4, 5))
+                .build();
+
+        BookingCursor cursor = BookingCursor.decode(BookingCursor.of(booking).encode());
+
+        assertEquals(booking.getStart(), cursor.getStart());
+        assertEquals(booking.getId(), cursor.getId());
+    }
+
+    @Test
+    void decode_whenCursorIsEmpty_thenFirstPagePositionReturned() {
+        BookingCursor cursor = BookingCursor.decode("");
+
+        assertEquals(Long.MAX_VALUE, cursor.getId());
+        assertTrue(cursor.getStart().isAfter(LocalDateTime.now()));
+    }
+
+    @Test
+    void decode_whenCursorIsInvalid_thenInvalidParamExceptionThrown() {
+        assertThrows(InvalidParamException.class,
+                () -> BookingCursor.decode("not a cursor"),
+                "Invalid cursor decoded, but no InvalidParamException thrown"
+        );
+    }
+}
@@ -0,0 +1,47 @@
+package ru.practicum.shareit.booking.repository;
+
+import org.h2.api.Trigger;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * H2 counterpart of the postgres booking_no_overlap exclusion constraint,
+ * created for the test profile by schema-h2-test.sql. Raises the same SQLState as postgres.
+ */
+public class BookingOverlapTrigger implements Trigger {
+    private static final String EXCLUSION_VIOLATION = "23P01";
+
+    private static final int ID = 0;
+    private static final int ITEM_ID = 2;
+    private static final int STATE = 3;
+    private static final int START = 4;
+    private static final int END = 5;
+    private static final String FIND_OVERLAP = "select booking_id from booking " +
+            "where item_id = ? and booking_id <> ? and state in ('APPROVED', 'WAITING') " +
+            "and start_date_time < ? and end_date_time > ? " +
+            "limit 1";
+
+    @Override
+    public void fire(Connection conn, Object[] oldRow, Object[] newRow) throws SQLException {
+        if (!"APPROVED".equals(newRow[STATE]) && !"WAITING".equals(newRow[STATE])) {
+            return;
+        }
+        try (PreparedStatement statement = conn.prepareStatement(FIND_OVERLAP)) {
+            statement.setObject(1, newRow[ITEM_ID]);
+            statement.setObject(2, newRow[ID]);
+            statement.setObject(3, newRow[END]);
+            statement.setObject(4, newRow[START]);
+            try (ResultSet overlapping = statement.executeQuery()) {
+                if (overlapping.next()) {
+                    throw new SQLException(
+                            String.format("Booking overlaps booking with id %d", overlapping.getLong(1)),
+                            EXCLUSION_VIOLATION
+                    );
+                }
+            }
+        }
+    }
+}
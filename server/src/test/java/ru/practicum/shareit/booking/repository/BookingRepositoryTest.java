@@ -4,6 +4,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
@@ -15,14 +16,18 @@ import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 import java.util.Random;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.notNullValue;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @DataJpaTest
@@ -55,7 +60,7 @@ class BookingRepositoryTest {
                 .build());
         Booking booking2 = bookingRepository.save(Booking.builder()
                 .booker(booker)
-                .item(item)
+                .item(saveRandomItem(saveRandomUser()))
                 .state(BookingState.WAITING)
                 .start(LocalDateTime.now().minusHours(1))
                 .end(LocalDateTime.now().plusHours(1))
@@ -172,7 +177,7 @@ class BookingRepositoryTest {
                 .build());
         Booking booking2 = bookingRepository.save(Booking.builder()
                 .booker(saveRandomUser())
-                .item(item)
+                .item(saveRandomItem(itemOwner))
                 .state(BookingState.WAITING)
                 .start(LocalDateTime.now().minusHours(1))
                 .end(LocalDateTime.now().plusHours(1))
@@ -253,59 +258,163 @@ class BookingRepositoryTest {
     }
 
     @Test
-    void testFindTopByStateAndItemIdAndStartIsBefore() {
+    void testFindByBookerIdAfterCursor() {
+        User booker = saveRandomUser();
         Item item = saveRandomItem(saveRandomUser());
-        Booking notLastBooking = bookingRepository.save(Booking.builder()
+        LocalDateTime start = LocalDateTime.now().plusHours(1).truncatedTo(ChronoUnit.SECONDS);
+        Booking first = bookingRepository.save(Booking.builder()
+                .booker(booker)
                 .item(item)
+                .state(BookingState.WAITING)
+                .start(start)
+                .end(start.plusHours(1))
+                .build());
+        Booking second = bookingRepository.save(Booking.builder()
+                .booker(booker)
+                .item(saveRandomItem(saveRandomUser()))
+                .state(BookingState.WAITING)
+                .start(start)
+                .end(start.plusHours(1))
+                .build());
+        PageRequest pageRequest = PageRequest.of(0, 1, Sort.by(Sort.Direction.DESC, "start", "id"));
+
+        List<Booking> firstPage = bookingRepository.findByBookerIdAfterCursor(
+                pageRequest, booker.getId(), start.plusYears(1), Long.MAX_VALUE);
+        List<Booking> secondPage = bookingRepository.findByBookerIdAfterCursor(
+                pageRequest, booker.getId(), firstPage.get(0).getStart(), firstPage.get(0).getId());
+
+        assertThat(firstPage, contains(second));
+        assertThat(secondPage, contains(first));
+    }
+
+    @Test
+    void testFindLastBookingsForItems() {
+        Item item1 = saveRandomItem(saveRandomUser());
+        Item item2 = saveRandomItem(saveRandomUser());
+        bookingRepository.save(Booking.builder()
+                .item(item1)
                 .state(BookingState.APPROVED)
                 .booker(saveRandomUser())
                 .start(LocalDateTime.now().minusHours(3))
                 .end(LocalDateTime.now().minusHours(2))
                 .build());
-        Booking lastBooking = bookingRepository.save(Booking.builder()
-                .item(item)
+        Booking lastBooking1 = bookingRepository.save(Booking.builder()
+                .item(item1)
                 .state(BookingState.APPROVED)
                 .booker(saveRandomUser())
                 .start(LocalDateTime.now().minusHours(2))
                 .end(LocalDateTime.now().minusHours(1))
                 .build());
+        Booking lastBooking2 = bookingRepository.save(Booking.builder()
+                .item(item2)
+                .state(BookingState.APPROVED)
+                .booker(saveRandomUser())
+                .start(LocalDateTime.now().minusHours(2))
+                .end(LocalDateTime.now().minusHours(1))
+                .build());
+        bookingRepository.save(Booking.builder()
+                .item(item2)
+                .state(BookingState.REJECTED)
+                .booker(saveRandomUser())
+                .start(LocalDateTime.now().minusHours(1))
+                .end(LocalDateTime.now().minusMinutes(30))
+                .build());
 
-        Optional<Booking> last = bookingRepository
-                .findTopByStateAndItemIdAndStartIsBefore(BookingState.APPROVED,
-                        item.getId(),
-                        LocalDateTime.now(),
-                        Sort.by(Sort.Direction.DESC, "end"));
+        List<Booking> last = bookingRepository.findLastBookingsForItems(
+                BookingState.APPROVED.name(),
+                List.of(item1.getId(), item2.getId()),
+                LocalDateTime.now());
 
-        assertTrue(last.isPresent());
-        assertThat(last.get(), equalTo(lastBooking));
+        assertThat(last, containsInAnyOrder(lastBooking1, lastBooking2));
     }
 
     @Test
-    void testFindTopByStateAndItemIdAndStartAfter() {
+    void testFindNextBookingsForItems() {
+        Item item1 = saveRandomItem(saveRandomUser());
+        Item item2 = saveRandomItem(saveRandomUser());
+        bookingRepository.save(Booking.builder()
+                .item(item1)
+                .state(BookingState.APPROVED)
+                .booker(saveRandomUser())
+                .start(LocalDateTime.now().plusHours(3))
+                .end(LocalDateTime.now().plusHours(4))
+                .build());
+        Booking nextBooking1 = bookingRepository.save(Booking.builder()
+                .item(item1)
+                .state(BookingState.APPROVED)
+                .booker(saveRandomUser())
+                .start(LocalDateTime.now().plusHours(1))
+                .end(LocalDateTime.now().plusHours(2))
+                .build());
+        bookingRepository.save(Booking.builder()
+                .item(item2)
+                .state(BookingState.WAITING)
+                .booker(saveRandomUser())
+                .start(LocalDateTime.now().plusHours(1))
+                .end(LocalDateTime.now().plusHours(2))
+                .build());
+
+        List<Booking> next = bookingRepository.findNextBookingsForItems(
+                BookingState.APPROVED.name(),
+                List.of(item1.getId(), item2.getId()),
+                LocalDateTime.now());
+
+        assertThat(next, contains(nextBooking1));
+    }
+
+    @Test
+    void save_whenActiveBookingOverlapsForSameItem_thenDataIntegrityViolationExceptionThrown() {
         Item item = saveRandomItem(saveRandomUser());
-        Booking notNextBooking = bookingRepository.save(Booking.builder()
+        LocalDateTime start = LocalDateTime.now().plusHours(1);
+        bookingRepository.save(Booking.builder()
                 .item(item)
                 .state(BookingState.APPROVED)
                 .booker(saveRandomUser())
-                .start(LocalDateTime.now().plusHours(2))
-                .end(LocalDateTime.now().plusHours(3))
+                .start(start)
+                .end(start.plusHours(2))
                 .build());
-        Booking nextBooking = bookingRepository.save(Booking.builder()
+        Booking overlapping = Booking.builder()
+                .item(item)
+                .state(BookingState.WAITING)
+                .booker(saveRandomUser())
+                .start(start.plusHours(1))
+                .end(start.plusHours(3))
+                .build();
+
+        assertThrows(DataIntegrityViolationException.class,
+                () -> bookingRepository.save(overlapping),
+                "Overlapping booking saved, but should not");
+    }
+
+    @Test
+    void save_whenOverlappingBookingIsRejectedOrAdjacent_thenBookingSaved() {
+        Item item = saveRandomItem(saveRandomUser());
+        LocalDateTime start = LocalDateTime.now().plusHours(1);
+        bookingRepository.save(Booking.builder()
                 .item(item)
                 .state(BookingState.APPROVED)
                 .booker(saveRandomUser())
-                .start(LocalDateTime.now().plusHours(1))
-                .end(LocalDateTime.now().plusHours(2))
+                .start(start)
+                .end(start.plusHours(2))
                 .build());
 
-        Optional<Booking> next = bookingRepository
-                .findTopByStateAndItemIdAndStartAfter(BookingState.APPROVED,
-                        item.getId(),
-                        LocalDateTime.now(),
-                        Sort.by(Sort.Direction.ASC, "start"));
+        Booking rejected = bookingRepository.save(Booking.builder()
+                .item(item)
+                .state(BookingState.REJECTED)
+                .booker(saveRandomUser())
+                .start(start)
+                .end(start.plusHours(2))
+                .build());
+        Booking adjacent = bookingRepository.save(Booking.builder()
+                .item(item)
+                .state(BookingState.WAITING)
+                .booker(saveRandomUser())
+                .start(start.plusHours(2))
+                .end(start.plusHours(3))
+                .build());
 
-        assertTrue(next.isPresent());
-        assertThat(next.get(), equalTo(nextBooking));
+        assertThat(rejected.getId(), notNullValue());
+        assertThat(adjacent.getId(), notNullValue());
     }
 
     private User saveRandomUser() {
@@ -1,30 +1,52 @@
 package ru.practicum.shareit.booking.service;
 
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
 import ru.practicum.shareit.booking.dto.BookingCreationDto;
+import ru.practicum.shareit.booking.dto.BookingCursorPageDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingStatusChangeDto;
+import ru.practicum.shareit.booking.dto.BookingStatusChangeOutcome;
+import ru.practicum.shareit.booking.dto.BookingStatusChangeResultDto;
+import ru.practicum.shareit.booking.dto.OwnerBookingSummaryDto;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.booking.repository.ArchivedBookingRepository;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.repository.OwnerBookingGroup;
+import ru.practicum.shareit.exception.NotExistsException;
+import ru.practicum.shareit.exception.OverlapException;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemBookingSummaryProjection;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
+import javax.persistence.EntityManagerFactory;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.hamcrest.MatcherAssert.assertThat;
-import static org.hamcrest.Matchers.equalTo;
-import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
 
-@SpringBootTest
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
 class BookingServiceImplIntegrationTest {
 
     @Autowired
@@ -35,6 +57,14 @@ class BookingServiceImplIntegrationTest {
     private ItemRepository itemRepository;
     @Autowired
     private BookingRepository bookingRepository;
+    @Autowired
+    private BookingArchiver bookingArchiver;
+    @Autowired
+    private ArchivedBookingRepository archivedBookingRepository;
+    @Autowired
+    private ItemBookingSummaryProjection bookingSummaryProjection;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
 
     @Test
     @Transactional
@@ -78,6 +108,27 @@ class BookingServiceImplIntegrationTest {
         assertThat(returnedBooking.getEnd(), equalTo(bookingCreationDto.getEnd()));
     }
 
+    @Test
+    void add_whenItemAlreadyBookedForOverlappingPeriod_thenOverlapExceptionThrown() {
+        Item item = saveRandomItem(saveRandomUser());
+        LocalDateTime start = LocalDateTime.now().plusHours(1);
+        bookingService.add(saveRandomUser().getId(), BookingCreationDto.builder()
+                .itemId(item.getId())
+                .start(start)
+                .end(start.plusHours(2))
+                .build());
+        BookingCreationDto overlapping = BookingCreationDto.builder()
+                .itemId(item.getId())
+                .start(start.plusHours(1))
+                .end(start.plusHours(3))
+                .build();
+        Long secondBookerId = saveRandomUser().getId();
+
+        assertThrows(OverlapException.class,
+                () -> bookingService.add(secondBookerId, overlapping),
+                "Overlapping booking added, but no OverlapException thrown");
+    }
+
     @Test
     @Transactional
     void changeStatus_whenInvoked_thenBookingWithChangedStatusSavedToDB() {
@@ -341,6 +392,317 @@ class BookingServiceImplIntegrationTest {
         assertThat(foundBooking.getStatus(), equalTo(BookingState.REJECTED));
     }
 
+    @Test
+    @Transactional
+    void getByStateBookerAfterCursor_whenPagedThroughAll_thenEachBookingReturnedOnce() {
+        //clearingContext
+        bookingRepository.deleteAll();
+        Long bookerId = saveOneBookingForEachBookingStateSearchDtoWithSameBookerAndItemOwner()
+                .get("BookerId");
+        String searchedStatus = "all";
+
+        BookingCursorPageDto firstPage = bookingService.getByStateBookerAfterCursor(bookerId, searchedStatus, "", 2);
+        BookingCursorPageDto secondPage = bookingService.getByStateBookerAfterCursor(
+                bookerId, searchedStatus, firstPage.getNextCursor(), 2);
+        BookingCursorPageDto lastPage = bookingService.getByStateBookerAfterCursor(
+                bookerId, searchedStatus, secondPage.getNextCursor(), 2);
+
+        List<Long> returnedIds = Stream.of(firstPage, secondPage, lastPage)
+                .flatMap(page -> page.getBookings().stream())
+                .map(BookingDto::getId)
+                .collect(Collectors.toList());
+        assertThat(returnedIds, hasSize(5));
+        assertThat(Set.copyOf(returnedIds), hasSize(5));
+        assertThat(firstPage.getBookings().get(0).getStart(),
+                greaterThanOrEqualTo(firstPage.getBookings().get(1).getStart()));
+        assertThat(lastPage.getBookings(), hasSize(1));
+        assertThat(lastPage.getNextCursor(), nullValue());
+    }
+
+    @Test
+    @Transactional
+    void getByStateOwnerAfterCursor_whenStatusIsFuture_thenFutureOwnerBookingsReturned() {
+        //clearingContext
+        bookingRepository.deleteAll();
+        Long itemOwnerId = saveOneBookingForEachBookingStateSearchDtoWithSameBookerAndItemOwner()
+                .get("ItemOwnerId");
+        String searchedStatus = "future";
+
+        BookingCursorPageDto page = bookingService.getByStateOwnerAfterCursor(itemOwnerId, searchedStatus, "", 20);
+
+        assertThat(page.getBookings(), hasSize(3));
+        assertTrue(page.getBookings().stream().allMatch(booking -> booking.getStart().isAfter(LocalDateTime.now())));
+        assertThat(page.getNextCursor(), nullValue());
+    }
+
+    @Test
+    void getByStateOwner_whenPageHasManyBookings_thenQueriesCountNotDependOnPageSize() {
+        User owner = saveRandomUser();
+        Item item = saveRandomItem(owner);
+        for (int i = 0; i < 6; i++) {
+            bookingRepository.save(Booking.builder()
+                    .item(i % 2 == 0 ? item : saveRandomItem(owner))
+                    .booker(saveRandomUser())
+                    .start(LocalDateTime.now().plusHours(i + 1))
+                    .end(LocalDateTime.now().plusHours(i + 2))
+                    .state(BookingState.WAITING)
+                    .build());
+        }
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        statistics.clear();
+        List<BookingDto> smallPage = bookingService.getByStateOwner(owner.getId(), "all", 0, 1);
+        long smallPageStatements = statistics.getPrepareStatementCount();
+        statistics.clear();
+        BookingCursorPageDto bigPage = bookingService.getByStateOwnerAfterCursor(owner.getId(), "future", "", 6);
+        long bigPageStatements = statistics.getPrepareStatementCount();
+
+        assertThat(smallPage, hasSize(1));
+        assertThat(bigPage.getBookings(), hasSize(6));
+        assertThat(bigPage.getBookings().get(5).getItem().getName(), equalTo(item.getName()));
+        assertThat(bigPageStatements, lessThanOrEqualTo(smallPageStatements));
+    }
+
+    @Test
+    void getByStateBooker_whenOldBookingsArchived_thenArchivedBookingsMergedIntoAllAndPast() {
+        User owner = saveRandomUser();
+        User booker = saveRandomUser();
+        LocalDateTime now = LocalDateTime.now();
+        Long archivedId = bookingRepository.save(Booking.builder()
+                .item(saveRandomItem(owner))
+                .booker(booker)
+                .start(now.minusDays(401))
+                .end(now.minusDays(400))
+                .state(BookingState.APPROVED)
+                .build()).getId();
+        Long pastId = bookingRepository.save(Booking.builder()
+                .item(saveRandomItem(owner))
+                .booker(booker)
+                .start(now.minusHours(2))
+                .end(now.minusHours(1))
+                .state(BookingState.APPROVED)
+                .build()).getId();
+        Long futureId = bookingRepository.save(Booking.builder()
+                .item(saveRandomItem(owner))
+                .booker(booker)
+                .start(now.plusHours(1))
+                .end(now.plusHours(2))
+                .state(BookingState.WAITING)
+                .build()).getId();
+
+        long archived = bookingArchiver.archive(now.minusDays(300));
+
+        assertThat(archived, greaterThanOrEqualTo(1L));
+        assertThat(bookingRepository.existsById(archivedId), is(false));
+        assertThat(archivedBookingRepository.existsById(archivedId), is(true));
+        assertThat(getIds(bookingService.getByStateBooker(booker.getId(), "all", 0, 2)),
+                contains(futureId, pastId));
+        assertThat(getIds(bookingService.getByStateBooker(booker.getId(), "all", 2, 2)),
+                contains(archivedId));
+        assertThat(getIds(bookingService.getByStateOwner(owner.getId(), "past", 0, 10)),
+                contains(pastId, archivedId));
+        BookingCursorPageDto firstPage = bookingService.getByStateBookerAfterCursor(booker.getId(), "all", "", 2);
+        BookingCursorPageDto secondPage = bookingService.getByStateBookerAfterCursor(
+                booker.getId(), "all", firstPage.getNextCursor(), 2);
+        assertThat(getIds(secondPage.getBookings()), contains(archivedId));
+    }
+
+    @Test
+    void getById_whenBookingArchived_thenArchivedBookingReturnedToOwnerAndBookerOnly() {
+        User owner = saveRandomUser();
+        User booker = saveRandomUser();
+        LocalDateTime now = LocalDateTime.now();
+        Long archivedId = bookingRepository.save(Booking.builder()
+                .item(saveRandomItem(owner))
+                .booker(booker)
+                .start(now.minusDays(401))
+                .end(now.minusDays(400))
+                .state(BookingState.REJECTED)
+                .build()).getId();
+        bookingArchiver.archive(now.minusDays(300));
+
+        assertThat(bookingService.getById(booker.getId(), archivedId).getId(), equalTo(archivedId));
+        assertThat(bookingService.getById(owner.getId(), archivedId).getStatus(), equalTo(BookingState.REJECTED));
+        assertThat(getIds(bookingService.getByStateOwner(owner.getId(), "rejected", 0, 10)),
+                contains(archivedId));
+        assertThrows(NotExistsException.class,
+                () -> bookingService.getById(saveRandomUser().getId(), archivedId));
+    }
+
+    @Test
+    void getOwnerSummary_whenBookingsAddedAndRejected_thenCountsUpdatedIncrementally() {
+        Map<String, Long> ids = saveOneBookingForEachBookingStateSearchDtoWithSameBookerAndItemOwner();
+        Long ownerId = ids.get("ItemOwnerId");
+
+        OwnerBookingSummaryDto loaded = bookingService.getOwnerSummary(ownerId);
+
+        assertThat(loaded, equalTo(OwnerBookingSummaryDto.builder()
+                .waiting(1).current(1).future(3).past(1).rejected(1)
+                .build()));
+
+        Item item = itemRepository.findByOwnerId(ownerId).get(0);
+        Long bookingId = bookingService.add(saveRandomUser().getId(), BookingCreationDto.builder()
+                .itemId(item.getId())
+                .start(LocalDateTime.now().plusDays(10))
+                .end(LocalDateTime.now().plusDays(11))
+                .build()).getId();
+        OwnerBookingSummaryDto afterAdd = bookingService.getOwnerSummary(ownerId);
+        bookingService.changeStatus(ownerId, bookingId, false);
+        OwnerBookingSummaryDto afterReject = bookingService.getOwnerSummary(ownerId);
+
+        assertThat(afterAdd.getWaiting(), equalTo(2L));
+        assertThat(afterAdd.getFuture(), equalTo(4L));
+        assertThat(afterReject.getWaiting(), equalTo(1L));
+        assertThat(afterReject.getRejected(), equalTo(2L));
+        assertThat(afterReject.getFuture(), equalTo(4L));
+    }
+
+    @Test
+    void getOwnerSummary_whenOwnerHasArchivedAndLiveBookings_thenEachBookingCountedOnce() {
+        User owner = saveRandomUser();
+        LocalDateTime now = LocalDateTime.now();
+        bookingRepository.save(Booking.builder()
+                .item(saveRandomItem(owner))
+                .booker(saveRandomUser())
+                .start(now.minusDays(401))
+                .end(now.minusDays(400))
+                .state(BookingState.REJECTED)
+                .build());
+        bookingRepository.save(Booking.builder()
+                .item(saveRandomItem(owner))
+                .booker(saveRandomUser())
+                .start(now.plusDays(1))
+                .end(now.plusDays(2))
+                .state(BookingState.WAITING)
+                .build());
+        bookingArchiver.archive(now.minusDays(300));
+
+        assertThat(bookingService.getOwnerSummary(owner.getId()), equalTo(OwnerBookingSummaryDto.builder()
+                .waiting(1).current(0).future(1).past(1).rejected(1)
+                .build()));
+    }
+
+    @Test
+    void getOwnerSummary_whenBookingAddedWhileCountersLoad_thenCountedOnceAndReloadedOnNextRead() {
+        User owner = saveRandomUser();
+        Booking booking = saveBooking(saveRandomItem(owner), saveRandomUser(), BookingState.WAITING);
+        BookingRepository countingRepository = mock(BookingRepository.class);
+        OwnerBookingCounters loadingCounters = new OwnerBookingCounters(countingRepository, 10);
+        // the booking update arrives while its booking is being counted
+        when(countingRepository.countGroupsWithArchivedByItemOwnerId(eq(owner.getId()), any()))
+                .thenAnswer(invocation -> {
+                    loadingCounters.addAfterCommit(booking);
+                    return countGroups(owner.getId(), invocation.getArgument(1));
+                })
+                .thenAnswer(invocation -> countGroups(owner.getId(), invocation.getArgument(1)));
+
+        OwnerBookingSummaryDto whileLoading = loadingCounters.getSummary(owner.getId());
+        OwnerBookingSummaryDto reloaded = loadingCounters.getSummary(owner.getId());
+
+        assertThat(whileLoading.getWaiting(), equalTo(1L));
+        assertThat(reloaded.getWaiting(), equalTo(1L));
+        verify(countingRepository, times(2)).countGroupsWithArchivedByItemOwnerId(eq(owner.getId()), any());
+    }
+
+    @Test
+    void getOwnerSummary_whenBookingCountedBeforeItsUpdateArrives_thenCountedOnce() {
+        User owner = saveRandomUser();
+        Booking booking = saveBooking(saveRandomItem(owner), saveRandomUser(), BookingState.WAITING);
+        OwnerBookingCounters counters = new OwnerBookingCounters(bookingRepository, 10);
+        OwnerBookingSummaryDto loaded;
+        // the booking is committed and counted, its after-commit update has not run yet
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            counters.addAfterCommit(booking);
+            loaded = counters.getSummary(owner.getId());
+            List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+            TransactionSynchronizationUtils.invokeAfterCommit(synchronizations);
+            TransactionSynchronizationUtils.invokeAfterCompletion(synchronizations,
+                    TransactionSynchronization.STATUS_COMMITTED);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertThat(loaded.getWaiting(), equalTo(1L));
+        assertThat(counters.getSummary(owner.getId()).getWaiting(), equalTo(1L));
+    }
+
+    @Test
+    void changeStatuses_whenMixedBookingsPassed_thenWaitingOwnedBookingsChangedAndOutcomesReturned() {
+        User owner = saveRandomUser();
+        User booker = saveRandomUser();
+        Long toApproveId = saveBooking(saveRandomItem(owner), booker, BookingState.WAITING).getId();
+        Long toRejectId = saveBooking(saveRandomItem(owner), booker, BookingState.WAITING).getId();
+        Long approvedId = saveBooking(saveRandomItem(owner), booker, BookingState.APPROVED).getId();
+        Long foreignId = saveBooking(saveRandomItem(saveRandomUser()), booker, BookingState.WAITING).getId();
+        Long missingId = Long.MAX_VALUE;
+
+        List<BookingStatusChangeResultDto> results = bookingService.changeStatuses(owner.getId(), List.of(
+                BookingStatusChangeDto.builder().bookingId(toApproveId).approved(true).build(),
+                BookingStatusChangeDto.builder().bookingId(toRejectId).approved(false).build(),
+                BookingStatusChangeDto.builder().bookingId(approvedId).approved(false).build(),
+                BookingStatusChangeDto.builder().bookingId(foreignId).approved(true).build(),
+                BookingStatusChangeDto.builder().bookingId(missingId).approved(true).build()
+        ));
+
+        assertThat(results.stream().map(BookingStatusChangeResultDto::getOutcome).collect(Collectors.toList()),
+                contains(BookingStatusChangeOutcome.CHANGED,
+                        BookingStatusChangeOutcome.CHANGED,
+                        BookingStatusChangeOutcome.NOT_WAITING,
+                        BookingStatusChangeOutcome.NOT_FOUND,
+                        BookingStatusChangeOutcome.NOT_FOUND));
+        assertThat(results.get(0).getBooking().getStatus(), equalTo(BookingState.APPROVED));
+        assertThat(results.get(3).getBooking(), nullValue());
+        assertThat(bookingRepository.findById(toApproveId).get().getState(), equalTo(BookingState.APPROVED));
+        assertThat(bookingRepository.findById(toRejectId).get().getState(), equalTo(BookingState.REJECTED));
+        assertThat(bookingRepository.findById(approvedId).get().getState(), equalTo(BookingState.APPROVED));
+        assertThat(bookingRepository.findById(foreignId).get().getState(), equalTo(BookingState.WAITING));
+    }
+
+    @Test
+    void changeStatuses_whenBatchGrows_thenStatementsCountDoesNotGrow() {
+        User owner = saveRandomUser();
+        User booker = saveRandomUser();
+        List<BookingStatusChangeDto> smallBatch = Stream.generate(
+                        () -> saveBooking(saveRandomItemWithSummary(owner), booker, BookingState.WAITING))
+                .limit(2)
+                .map(booking -> BookingStatusChangeDto.builder().bookingId(booking.getId()).approved(true).build())
+                .collect(Collectors.toList());
+        List<BookingStatusChangeDto> bigBatch = Stream.generate(
+                        () -> saveBooking(saveRandomItemWithSummary(owner), booker, BookingState.WAITING))
+                .limit(20)
+                .map(booking -> BookingStatusChangeDto.builder().bookingId(booking.getId()).approved(true).build())
+                .collect(Collectors.toList());
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        statistics.clear();
+        bookingService.changeStatuses(owner.getId(), smallBatch);
+        long smallBatchStatements = statistics.getPrepareStatementCount();
+        statistics.clear();
+        List<BookingStatusChangeResultDto> bigBatchResults = bookingService.changeStatuses(owner.getId(), bigBatch);
+        long bigBatchStatements = statistics.getPrepareStatementCount();
+
+        assertThat(bigBatchResults.stream().map(BookingStatusChangeResultDto::getOutcome).collect(Collectors.toSet()),
+                contains(BookingStatusChangeOutcome.CHANGED));
+        assertThat(bigBatchStatements, lessThanOrEqualTo(smallBatchStatements));
+    }
+
+    private List<Long> getIds(List<BookingDto> bookings) {
+        return bookings.stream()
+                .map(BookingDto::getId)
+                .collect(Collectors.toList());
+    }
+
+    private Booking saveBooking(Item item, User booker, BookingState state) {
+        return bookingRepository.save(Booking.builder()
+                .item(item)
+                .booker(booker)
+                .start(LocalDateTime.now().plusDays(1))
+                .end(LocalDateTime.now().plusDays(2))
+                .state(state)
+                .build());
+    }
+
     private User saveRandomUser() {
         return userRepository.save(User.builder()
                 .name("name")
@@ -357,6 +719,12 @@ class BookingServiceImplIntegrationTest {
                 .build());
     }
 
+    private Item saveRandomItemWithSummary(User owner) {
+        Item item = saveRandomItem(owner);
+        bookingSummaryProjection.addItem(item.getId());
+        return item;
+    }
+
     private Map<String, Long> saveOneBookingForEachBookingStateSearchDtoWithSameBookerAndItemOwner() {
         User itemOwner = saveRandomUser();
         User booker = saveRandomUser();
@@ -409,4 +777,8 @@ class BookingServiceImplIntegrationTest {
         return Map.of("ItemOwnerId", itemOwner.getId(),
                 "BookerId", booker.getId());
     }
+
+    private List<OwnerBookingGroup> countGroups(Long ownerId, LocalDateTime date) {
+        return bookingRepository.countGroupsWithArchivedByItemOwnerId(ownerId, date);
+    }
 }
\ No newline at end of file
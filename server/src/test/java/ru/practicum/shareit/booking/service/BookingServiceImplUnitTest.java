@@ -9,18 +9,23 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.PageRequest;
 import ru.practicum.shareit.booking.dto.BookingCreationDto;
+import ru.practicum.shareit.booking.dto.BookingStatusChangeDto;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.booking.repository.ArchivedBookingRepository;
 import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.exception.InvalidParamException;
 import ru.practicum.shareit.exception.NotExistsException;
 import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemBookingSummaryProjection;
 import ru.practicum.shareit.user.mapper.UserMapper;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserExistenceCache;
+import ru.practicum.shareit.item.service.OwnerItemCounters;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -36,6 +41,10 @@ class BookingServiceImplUnitTest {
     @Mock
     private UserRepository userRepository;
     @Mock
+    private UserExistenceCache userExistenceCache;
+    @Mock
+    private OwnerItemCounters ownerItemCounters;
+    @Mock
     private ItemRepository itemRepository;
     @Mock
     private BookingRepository bookingRepository;
@@ -45,6 +54,14 @@ class BookingServiceImplUnitTest {
     private UserMapper userMapper;
     @Mock
     private ItemMapper itemMapper;
+    @Mock
+    private ItemAvailabilityIndex availabilityIndex;
+    @Mock
+    private ItemBookingSummaryProjection bookingSummaryProjection;
+    @Mock
+    private ArchivedBookingRepository archivedBookingRepository;
+    @Mock
+    private OwnerBookingCounters ownerBookingCounters;
     @InjectMocks
     private BookingServiceImpl bookingService;
     @Captor
@@ -58,7 +75,7 @@ class BookingServiceImplUnitTest {
     void add_whenUserNotFound_thenNotExistsExceptionThrown() {
         Long bookerId = 0L;
         BookingCreationDto bookingCreationDto = BookingCreationDto.builder().build();
-        when(userRepository.findById(bookerId))
+        when(userRepository.findByIdAndDeletedFalse(bookerId))
                 .thenReturn(Optional.empty());
 
         assertThrows(NotExistsException.class,
@@ -73,9 +90,9 @@ class BookingServiceImplUnitTest {
         BookingCreationDto bookingCreationDto = BookingCreationDto.builder()
                 .itemId(itemId)
                 .build();
-        when(userRepository.findById(bookerId))
+        when(userRepository.findByIdAndDeletedFalse(bookerId))
                 .thenReturn(Optional.of(getValidUser(bookerId)));
-        when(itemRepository.findById(itemId))
+        when(itemRepository.findByIdAndOwnerDeletedFalse(itemId))
                 .thenReturn(Optional.empty());
 
         assertThrows(NotExistsException.class,
@@ -92,9 +109,9 @@ class BookingServiceImplUnitTest {
                 .start(LocalDateTime.now().minusHours(1))
                 .end(LocalDateTime.now().minusHours(2))
                 .build();
-        when(userRepository.findById(bookerId))
+        when(userRepository.findByIdAndDeletedFalse(bookerId))
                 .thenReturn(Optional.of(getValidUser(bookerId)));
-        when(itemRepository.findById(itemId))
+        when(itemRepository.findByIdAndOwnerDeletedFalse(itemId))
                 .thenReturn(Optional.of(getValidItem(itemId)));
 
         assertThrows(InvalidParamException.class,
@@ -111,9 +128,9 @@ class BookingServiceImplUnitTest {
                 .start(LocalDateTime.of(2023, 7, 20, 0, 0))
                 .end(LocalDateTime.of(2023, 7, 20, 0, 0))
                 .build();
-        when(userRepository.findById(bookerId))
+        when(userRepository.findByIdAndDeletedFalse(bookerId))
                 .thenReturn(Optional.of(getValidUser(bookerId)));
-        when(itemRepository.findById(itemId))
+        when(itemRepository.findByIdAndOwnerDeletedFalse(itemId))
                 .thenReturn(Optional.of(getValidItem(itemId)));
 
         assertThrows(InvalidParamException.class,
@@ -132,9 +149,9 @@ class BookingServiceImplUnitTest {
                 .start(LocalDateTime.now().minusHours(1))
                 .end(LocalDateTime.now().minusHours(2))
                 .build();
-        when(userRepository.findById(bookerId))
+        when(userRepository.findByIdAndDeletedFalse(bookerId))
                 .thenReturn(Optional.of(getValidUser(bookerId)));
-        when(itemRepository.findById(itemId))
+        when(itemRepository.findByIdAndOwnerDeletedFalse(itemId))
                 .thenReturn(Optional.of(item));
 
         assertThrows(InvalidParamException.class,
@@ -154,9 +171,9 @@ class BookingServiceImplUnitTest {
                 .start(LocalDateTime.now().minusHours(1))
                 .end(LocalDateTime.now().minusHours(2))
                 .build();
-        when(userRepository.findById(bookerId))
+        when(userRepository.findByIdAndDeletedFalse(bookerId))
                 .thenReturn(Optional.of(booker));
-        when(itemRepository.findById(itemId))
+        when(itemRepository.findByIdAndOwnerDeletedFalse(itemId))
                 .thenReturn(Optional.of(item));
 
         assertThrows(InvalidParamException.class,
@@ -164,6 +181,22 @@ class BookingServiceImplUnitTest {
                 "Request is from item owner but no InvalidParamException thrown");
     }
 
+    @Test
+    void changeStatuses_whenBookingIdListedTwice_thenInvalidParamExceptionThrownAndNothingUpdated() {
+        Long ownerId = 1L;
+        when(userExistenceCache.exists(ownerId))
+                .thenReturn(true);
+        List<BookingStatusChangeDto> changes = List.of(
+                BookingStatusChangeDto.builder().bookingId(5L).approved(true).build(),
+                BookingStatusChangeDto.builder().bookingId(5L).approved(false).build()
+        );
+
+        assertThrows(InvalidParamException.class,
+                () -> bookingService.changeStatuses(ownerId, changes),
+                "Booking listed twice, but no InvalidParamException thrown");
+        verify(bookingRepository, never()).updateStateByIdInAndState(any(), any(), any());
+    }
+
     @Test
     void changeStatus_whenBookingNotFound_thenNotExistsExceptionThrown() {
         Long bookingId = 0L;
@@ -440,8 +473,8 @@ class BookingServiceImplUnitTest {
         String state = "all";
         int from = 0;
         int size = 0;
-        when(userRepository.findById(bookerId))
-                .thenReturn(Optional.empty());
+        when(userExistenceCache.exists(bookerId))
+                .thenReturn(false);
 
         assertThrows(NotExistsException.class,
                 () -> bookingService.getByStateBooker(bookerId, state, from, size),
@@ -454,8 +487,8 @@ class BookingServiceImplUnitTest {
         String state = "all";
         int from = 0;
         int size = 20;
-        when(userRepository.findById(bookerId))
-                .thenReturn(Optional.ofNullable(getValidUser(bookerId)));
+        when(userExistenceCache.exists(bookerId))
+                .thenReturn(true);
 
         try {
             bookingService.getByStateBooker(bookerId, state, from, size);
@@ -463,7 +496,7 @@ class BookingServiceImplUnitTest {
             //capture value before end of method
         }
 
-        verify(bookingRepository).findByBookerId(
+        verify(bookingRepository).findRefsWithArchivedByBookerId(
                 pageRequestArgumentCaptor.capture(),
                 anyLong());
 
@@ -476,8 +509,8 @@ class BookingServiceImplUnitTest {
         String state = "all";
         int from = 5;
         int size = 20;
-        when(userRepository.findById(bookerId))
-                .thenReturn(Optional.ofNullable(getValidUser(bookerId)));
+        when(userExistenceCache.exists(bookerId))
+                .thenReturn(true);
 
         try {
             bookingService.getByStateBooker(bookerId, state, from, size);
@@ -485,7 +518,7 @@ class BookingServiceImplUnitTest {
             //capture value before end of method
         }
 
-        verify(bookingRepository).findByBookerId(
+        verify(bookingRepository).findRefsWithArchivedByBookerId(
                 pageRequestArgumentCaptor.capture(),
                 anyLong());
 
@@ -493,13 +526,13 @@ class BookingServiceImplUnitTest {
     }
 
     @Test
-    void getByStateBooker_whenStateIsAll_thenFindByBookerIdCalled() {
+    void getByStateBooker_whenStateIsAll_thenFindRefsWithArchivedByBookerIdCalled() {
         Long bookerId = 0L;
         String state = "all";
         int from = 5;
         int size = 3;
-        when(userRepository.findById(bookerId))
-                .thenReturn(Optional.ofNullable(getValidUser(bookerId)));
+        when(userExistenceCache.exists(bookerId))
+                .thenReturn(true);
 
         try {
             bookingService.getByStateBooker(bookerId, state, from, size);
@@ -507,11 +540,11 @@ class BookingServiceImplUnitTest {
             //capture value before end of method
         }
 
-        verify(bookingRepository, times(1)).findByBookerId(
+        verify(bookingRepository, times(1)).findRefsWithArchivedByBookerId(
                 any(), anyLong());
         verify(bookingRepository, never()).findByBookerIdAndEndIsAfterAndStartIsBefore(
                 any(), any(), any(), any());
-        verify(bookingRepository, never()).findByBookerIdAndEndIsBefore(
+        verify(bookingRepository, never()).findPastRefsWithArchivedByBookerId(
                 any(), any(), any());
         verify(bookingRepository, never()).findByBookerIdAndStartIsAfter(
                 any(), any(), any());
@@ -525,8 +558,8 @@ class BookingServiceImplUnitTest {
         String state = "current";
         int from = 5;
         int size = 3;
-        when(userRepository.findById(bookerId))
-                .thenReturn(Optional.ofNullable(getValidUser(bookerId)));
+        when(userExistenceCache.exists(bookerId))
+                .thenReturn(true);
 
         try {
             bookingService.getByStateBooker(bookerId, state, from, size);
@@ -534,11 +567,11 @@ class BookingServiceImplUnitTest {
             //capture value before end of method
         }
 
-        verify(bookingRepository, never()).findByBookerId(
+        verify(bookingRepository, never()).findRefsWithArchivedByBookerId(
                 any(), anyLong());
         verify(bookingRepository, times(1)).findByBookerIdAndEndIsAfterAndStartIsBefore(
                 any(), any(), any(), any());
-        verify(bookingRepository, never()).findByBookerIdAndEndIsBefore(
+        verify(bookingRepository, never()).findPastRefsWithArchivedByBookerId(
                 any(), any(), any());
         verify(bookingRepository, never()).findByBookerIdAndStartIsAfter(
                 any(), any(), any());
@@ -547,13 +580,13 @@ class BookingServiceImplUnitTest {
     }
 
     @Test
-    void getByStateBooker_whenStateIsPast_thenFindByBookerIdAndEndIsBeforeCalled() {
+    void getByStateBooker_whenStateIsPast_thenFindPastRefsWithArchivedByBookerIdCalled() {
         Long bookerId = 0L;
         String state = "past";
         int from = 5;
         int size = 3;
-        when(userRepository.findById(bookerId))
-                .thenReturn(Optional.ofNullable(getValidUser(bookerId)));
+        when(userExistenceCache.exists(bookerId))
+                .thenReturn(true);
 
         try {
             bookingService.getByStateBooker(bookerId, state, from, size);
@@ -561,11 +594,11 @@ class BookingServiceImplUnitTest {
             //capture value before end of method
         }
 
-        verify(bookingRepository, never()).findByBookerId(
+        verify(bookingRepository, never()).findRefsWithArchivedByBookerId(
                 any(), anyLong());
         verify(bookingRepository, never()).findByBookerIdAndEndIsAfterAndStartIsBefore(
                 any(), any(), any(), any());
-        verify(bookingRepository, times(1)).findByBookerIdAndEndIsBefore(
+        verify(bookingRepository, times(1)).findPastRefsWithArchivedByBookerId(
                 any(), any(), any());
         verify(bookingRepository, never()).findByBookerIdAndStartIsAfter(
                 any(), any(), any());
@@ -579,8 +612,8 @@ class BookingServiceImplUnitTest {
         String state = "future";
         int from = 5;
         int size = 3;
-        when(userRepository.findById(bookerId))
-                .thenReturn(Optional.ofNullable(getValidUser(bookerId)));
+        when(userExistenceCache.exists(bookerId))
+                .thenReturn(true);
 
         try {
             bookingService.getByStateBooker(bookerId, state, from, size);
@@ -588,11 +621,11 @@ class BookingServiceImplUnitTest {
             //capture value before end of method
         }
 
-        verify(bookingRepository, never()).findByBookerId(
+        verify(bookingRepository, never()).findRefsWithArchivedByBookerId(
                 any(), anyLong());
         verify(bookingRepository, never()).findByBookerIdAndEndIsAfterAndStartIsBefore(
                 any(), any(), any(), any());
-        verify(bookingRepository, never()).findByBookerIdAndEndIsBefore(
+        verify(bookingRepository, never()).findPastRefsWithArchivedByBookerId(
                 any(), any(), any());
         verify(bookingRepository, times(1)).findByBookerIdAndStartIsAfter(
                 any(), any(), any());
@@ -606,8 +639,8 @@ class BookingServiceImplUnitTest {
         String state = "waiting";
         int from = 5;
         int size = 3;
-        when(userRepository.findById(bookerId))
-                .thenReturn(Optional.ofNullable(getValidUser(bookerId)));
+        when(userExistenceCache.exists(bookerId))
+                .thenReturn(true);
 
         try {
             bookingService.getByStateBooker(bookerId, state, from, size);
@@ -615,11 +648,11 @@ class BookingServiceImplUnitTest {
             //capture value before end of method
         }
 
-        verify(bookingRepository, never()).findByBookerId(
+        verify(bookingRepository, never()).findRefsWithArchivedByBookerId(
                 any(), anyLong());
         verify(bookingRepository, never()).findByBookerIdAndEndIsAfterAndStartIsBefore(
                 any(), any(), any(), any());
-        verify(bookingRepository, never()).findByBookerIdAndEndIsBefore(
+        verify(bookingRepository, never()).findPastRefsWithArchivedByBookerId(
                 any(), any(), any());
         verify(bookingRepository, never()).findByBookerIdAndStartIsAfter(
                 any(), any(), any());
@@ -631,13 +664,13 @@ class BookingServiceImplUnitTest {
     }
 
     @Test
-    void getByStateBooker_whenStateIsRejected_thenFindByBookerIdAndStateCalled() {
+    void getByStateBooker_whenStateIsRejected_thenFindRefsWithArchivedByBookerIdAndStateCalled() {
         Long bookerId = 0L;
         String state = "rejected";
         int from = 5;
         int size = 3;
-        when(userRepository.findById(bookerId))
-                .thenReturn(Optional.ofNullable(getValidUser(bookerId)));
+        when(userExistenceCache.exists(bookerId))
+                .thenReturn(true);
 
         try {
             bookingService.getByStateBooker(bookerId, state, from, size);
@@ -645,19 +678,18 @@ class BookingServiceImplUnitTest {
             //capture value before end of method
         }
 
-        verify(bookingRepository, never()).findByBookerId(
+        verify(bookingRepository, never()).findRefsWithArchivedByBookerId(
                 any(), anyLong());
         verify(bookingRepository, never()).findByBookerIdAndEndIsAfterAndStartIsBefore(
                 any(), any(), any(), any());
-        verify(bookingRepository, never()).findByBookerIdAndEndIsBefore(
+        verify(bookingRepository, never()).findPastRefsWithArchivedByBookerId(
                 any(), any(), any());
         verify(bookingRepository, never()).findByBookerIdAndStartIsAfter(
                 any(), any(), any());
-        verify(bookingRepository, times(1)).findByBookerIdAndState(
-                any(), any(), bookingStateArgumentCaptor.capture());
-
-        assertEquals(BookingState.REJECTED, bookingStateArgumentCaptor.getValue(),
-                String.format("Method with wrong Booking state used, expected %s", BookingState.REJECTED));
+        verify(bookingRepository, never()).findByBookerIdAndState(
+                any(), any(), any());
+        verify(bookingRepository, times(1)).findRefsWithArchivedByBookerIdAndState(
+                any(), any(), eq(BookingState.REJECTED.name()));
     }
 
     @Test
@@ -678,8 +710,8 @@ class BookingServiceImplUnitTest {
         String state = "all";
         int from = 0;
         int size = 0;
-        when(userRepository.findById(ownerId))
-                .thenReturn(Optional.empty());
+        when(userExistenceCache.exists(ownerId))
+                .thenReturn(false);
 
         assertThrows(NotExistsException.class,
                 () -> bookingService.getByStateOwner(ownerId, state, from, size),
@@ -692,10 +724,10 @@ class BookingServiceImplUnitTest {
         String state = "all";
         int from = 0;
         int size = 0;
-        when(userRepository.findById(ownerId))
-                .thenReturn(Optional.of(getValidUser(ownerId)));
-        when(itemRepository.findByOwnerId(ownerId))
-                .thenReturn(List.of());
+        when(userExistenceCache.exists(ownerId))
+                .thenReturn(true);
+        when(ownerItemCounters.getItemCount(ownerId))
+                .thenReturn(0L);
 
         assertThrows(NotExistsException.class,
                 () -> bookingService.getByStateOwner(ownerId, state, from, size),
@@ -708,10 +740,10 @@ class BookingServiceImplUnitTest {
         String state = "all";
         int from = 0;
         int size = 20;
-        when(userRepository.findById(ownerId))
-                .thenReturn(Optional.of(getValidUser(ownerId)));
-        when(itemRepository.findByOwnerId(ownerId))
-                .thenReturn(List.of(getValidItem(0L)));
+        when(userExistenceCache.exists(ownerId))
+                .thenReturn(true);
+        when(ownerItemCounters.getItemCount(ownerId))
+                .thenReturn(1L);
 
         try {
             bookingService.getByStateOwner(ownerId, state, from, size);
@@ -719,7 +751,7 @@ class BookingServiceImplUnitTest {
             //capture value before end of method
         }
 
-        verify(bookingRepository).findByItemOwnerId(
+        verify(bookingRepository).findRefsWithArchivedByItemOwnerId(
                 pageRequestArgumentCaptor.capture(),
                 anyLong());
 
@@ -732,10 +764,10 @@ class BookingServiceImplUnitTest {
         String state = "all";
         int from = 5;
         int size = 20;
-        when(userRepository.findById(ownerId))
-                .thenReturn(Optional.of(getValidUser(ownerId)));
-        when(itemRepository.findByOwnerId(ownerId))
-                .thenReturn(List.of(getValidItem(0L)));
+        when(userExistenceCache.exists(ownerId))
+                .thenReturn(true);
+        when(ownerItemCounters.getItemCount(ownerId))
+                .thenReturn(1L);
 
         try {
             bookingService.getByStateOwner(ownerId, state, from, size);
@@ -743,7 +775,7 @@ class BookingServiceImplUnitTest {
             //capture value before end of method
         }
 
-        verify(bookingRepository).findByItemOwnerId(
+        verify(bookingRepository).findRefsWithArchivedByItemOwnerId(
                 pageRequestArgumentCaptor.capture(),
                 anyLong());
 
@@ -751,15 +783,15 @@ class BookingServiceImplUnitTest {
     }
 
     @Test
-    void getByStateOwner_whenStateIsAll_thenFindByItemOwnerIdCalled() {
+    void getByStateOwner_whenStateIsAll_thenFindRefsWithArchivedByItemOwnerIdCalled() {
         Long ownerId = 0L;
         String state = "all";
         int from = 5;
         int size = 3;
-        when(userRepository.findById(ownerId))
-                .thenReturn(Optional.of(getValidUser(ownerId)));
-        when(itemRepository.findByOwnerId(ownerId))
-                .thenReturn(List.of(getValidItem(0L)));
+        when(userExistenceCache.exists(ownerId))
+                .thenReturn(true);
+        when(ownerItemCounters.getItemCount(ownerId))
+                .thenReturn(1L);
 
         try {
             bookingService.getByStateOwner(ownerId, state, from, size);
@@ -767,11 +799,11 @@ class BookingServiceImplUnitTest {
             //capture value before end of method
         }
 
-        verify(bookingRepository, times(1)).findByItemOwnerId(
+        verify(bookingRepository, times(1)).findRefsWithArchivedByItemOwnerId(
                 any(), anyLong());
         verify(bookingRepository, never()).findByItemOwnerIdAndEndIsAfterAndStartIsBefore(
                 any(), any(), any(), any());
-        verify(bookingRepository, never()).findByItemOwnerIdAndEndIsBefore(
+        verify(bookingRepository, never()).findPastRefsWithArchivedByItemOwnerId(
                 any(), any(), any());
         verify(bookingRepository, never()).findByItemOwnerIdAndStartIsAfter(
                 any(), any(), any());
@@ -785,10 +817,10 @@ class BookingServiceImplUnitTest {
         String state = "current";
         int from = 5;
         int size = 3;
-        when(userRepository.findById(ownerId))
-                .thenReturn(Optional.of(getValidUser(ownerId)));
-        when(itemRepository.findByOwnerId(ownerId))
-                .thenReturn(List.of(getValidItem(0L)));
+        when(userExistenceCache.exists(ownerId))
+                .thenReturn(true);
+        when(ownerItemCounters.getItemCount(ownerId))
+                .thenReturn(1L);
 
         try {
             bookingService.getByStateOwner(ownerId, state, from, size);
@@ -796,11 +828,11 @@ class BookingServiceImplUnitTest {
             //capture value before end of method
         }
 
-        verify(bookingRepository, never()).findByItemOwnerId(
+        verify(bookingRepository, never()).findRefsWithArchivedByItemOwnerId(
                 any(), anyLong());
         verify(bookingRepository, times(1)).findByItemOwnerIdAndEndIsAfterAndStartIsBefore(
                 any(), any(), any(), any());
-        verify(bookingRepository, never()).findByItemOwnerIdAndEndIsBefore(
+        verify(bookingRepository, never()).findPastRefsWithArchivedByItemOwnerId(
                 any(), any(), any());
         verify(bookingRepository, never()).findByItemOwnerIdAndStartIsAfter(
                 any(), any(), any());
@@ -809,15 +841,15 @@ class BookingServiceImplUnitTest {
     }
 
     @Test
-    void getByStateOwner_whenStateIsPast_thenFindByItemOwnerIdAndEndIsBeforeCalled() {
+    void getByStateOwner_whenStateIsPast_thenFindPastRefsWithArchivedByItemOwnerIdCalled() {
         Long ownerId = 0L;
         String state = "past";
         int from = 5;
         int size = 3;
-        when(userRepository.findById(ownerId))
-                .thenReturn(Optional.of(getValidUser(ownerId)));
-        when(itemRepository.findByOwnerId(ownerId))
-                .thenReturn(List.of(getValidItem(0L)));
+        when(userExistenceCache.exists(ownerId))
+                .thenReturn(true);
+        when(ownerItemCounters.getItemCount(ownerId))
+                .thenReturn(1L);
 
         try {
             bookingService.getByStateOwner(ownerId, state, from, size);
@@ -825,11 +857,11 @@ class BookingServiceImplUnitTest {
             //capture value before end of method
         }
 
-        verify(bookingRepository, never()).findByItemOwnerId(
+        verify(bookingRepository, never()).findRefsWithArchivedByItemOwnerId(
                 any(), anyLong());
         verify(bookingRepository, never()).findByItemOwnerIdAndEndIsAfterAndStartIsBefore(
                 any(), any(), any(), any());
-        verify(bookingRepository, times(1)).findByItemOwnerIdAndEndIsBefore(
+        verify(bookingRepository, times(1)).findPastRefsWithArchivedByItemOwnerId(
                 any(), any(), any());
         verify(bookingRepository, never()).findByItemOwnerIdAndStartIsAfter(
                 any(), any(), any());
@@ -843,10 +875,10 @@ class BookingServiceImplUnitTest {
         String state = "future";
         int from = 5;
         int size = 3;
-        when(userRepository.findById(ownerId))
-                .thenReturn(Optional.of(getValidUser(ownerId)));
-        when(itemRepository.findByOwnerId(ownerId))
-                .thenReturn(List.of(getValidItem(0L)));
+        when(userExistenceCache.exists(ownerId))
+                .thenReturn(true);
+        when(ownerItemCounters.getItemCount(ownerId))
+                .thenReturn(1L);
 
         try {
             bookingService.getByStateOwner(ownerId, state, from, size);
@@ -854,11 +886,11 @@ class BookingServiceImplUnitTest {
             //capture value before end of method
         }
 
-        verify(bookingRepository, never()).findByItemOwnerId(
+        verify(bookingRepository, never()).findRefsWithArchivedByItemOwnerId(
                 any(), anyLong());
         verify(bookingRepository, never()).findByItemOwnerIdAndEndIsAfterAndStartIsBefore(
                 any(), any(), any(), any());
-        verify(bookingRepository, never()).findByItemOwnerIdAndEndIsBefore(
+        verify(bookingRepository, never()).findPastRefsWithArchivedByItemOwnerId(
                 any(), any(), any());
         verify(bookingRepository, times(1)).findByItemOwnerIdAndStartIsAfter(
                 any(), any(), any());
@@ -872,10 +904,10 @@ class BookingServiceImplUnitTest {
         String state = "waiting";
         int from = 5;
         int size = 3;
-        when(userRepository.findById(ownerId))
-                .thenReturn(Optional.of(getValidUser(ownerId)));
-        when(itemRepository.findByOwnerId(ownerId))
-                .thenReturn(List.of(getValidItem(0L)));
+        when(userExistenceCache.exists(ownerId))
+                .thenReturn(true);
+        when(ownerItemCounters.getItemCount(ownerId))
+                .thenReturn(1L);
 
         try {
             bookingService.getByStateOwner(ownerId, state, from, size);
@@ -883,11 +915,11 @@ class BookingServiceImplUnitTest {
             //capture value before end of method
         }
 
-        verify(bookingRepository, never()).findByItemOwnerId(
+        verify(bookingRepository, never()).findRefsWithArchivedByItemOwnerId(
                 any(), anyLong());
         verify(bookingRepository, never()).findByItemOwnerIdAndEndIsAfterAndStartIsBefore(
                 any(), any(), any(), any());
-        verify(bookingRepository, never()).findByItemOwnerIdAndEndIsBefore(
+        verify(bookingRepository, never()).findPastRefsWithArchivedByItemOwnerId(
                 any(), any(), any());
         verify(bookingRepository, never()).findByItemOwnerIdAndStartIsAfter(
                 any(), any(), any());
@@ -899,15 +931,15 @@ class BookingServiceImplUnitTest {
     }
 
     @Test
-    void getByStateOwner_whenStateIsRejected_thenFindByItemOwnerIdAndStateCalled() {
+    void getByStateOwner_whenStateIsRejected_thenFindRefsWithArchivedByItemOwnerIdAndStateCalled() {
         Long ownerId = 0L;
         String state = "rejected";
         int from = 5;
         int size = 3;
-        when(userRepository.findById(ownerId))
-                .thenReturn(Optional.of(getValidUser(ownerId)));
-        when(itemRepository.findByOwnerId(ownerId))
-                .thenReturn(List.of(getValidItem(0L)));
+        when(userExistenceCache.exists(ownerId))
+                .thenReturn(true);
+        when(ownerItemCounters.getItemCount(ownerId))
+                .thenReturn(1L);
 
         try {
             bookingService.getByStateOwner(ownerId, state, from, size);
@@ -915,19 +947,18 @@ class BookingServiceImplUnitTest {
             //capture value before end of method
         }
 
-        verify(bookingRepository, never()).findByItemOwnerId(
+        verify(bookingRepository, never()).findRefsWithArchivedByItemOwnerId(
                 any(), anyLong());
         verify(bookingRepository, never()).findByItemOwnerIdAndEndIsAfterAndStartIsBefore(
                 any(), any(), any(), any());
-        verify(bookingRepository, never()).findByItemOwnerIdAndEndIsBefore(
+        verify(bookingRepository, never()).findPastRefsWithArchivedByItemOwnerId(
                 any(), any(), any());
         verify(bookingRepository, never()).findByItemOwnerIdAndStartIsAfter(
                 any(), any(), any());
-        verify(bookingRepository, times(1)).findByItemOwnerIdAndState(
-                any(), any(), bookingStateArgumentCaptor.capture());
-
-        assertEquals(BookingState.REJECTED, bookingStateArgumentCaptor.getValue(),
-                String.format("Method with wrong Booking state used, expected %s", BookingState.REJECTED));
+        verify(bookingRepository, never()).findByItemOwnerIdAndState(
+                any(), any(), any());
+        verify(bookingRepository, times(1)).findRefsWithArchivedByItemOwnerIdAndState(
+                any(), any(), eq(BookingState.REJECTED.name()));
     }
 
     private User getValidUser(Long id) {
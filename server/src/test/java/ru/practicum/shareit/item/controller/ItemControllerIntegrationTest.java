@@ -15,7 +15,13 @@ import ru.practicum.shareit.item.dto.ItemCreateDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.service.ItemService;
 
+import java.time.LocalDateTime;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -352,4 +358,54 @@ class ItemControllerIntegrationTest {
                         text, from, size))
                 .andExpect(status().isBadRequest());
     }
-}
\ No newline at end of file
+
+    @SneakyThrows
+    @Test
+    void searchItems_whenStartAndEndPassed_thenAvailableItemsSearched() {
+        LocalDateTime start = LocalDateTime.of(2030, 1, 1, 10, 0);
+        LocalDateTime end = start.plusDays(2);
+
+        mvc.perform(get("/items/search?text={text}&from={from}&size={size}&start={start}&end={end}",
+                        "drill", 0, 10, start, end)
+                        .header("X-Sharer-User-Id", 0L))
+                .andExpect(status().isOk());
+
+        verify(itemService, times(1)).searchAvailableItems(0L, "drill", start, end, 0, 10);
+        verify(itemService, never()).searchItems(anyLong(), anyString(), anyInt(), anyInt());
+    }
+
+    @SneakyThrows
+    @Test
+    void suggestNames_whenInvoked_thenStatusIsOkAndParamsPassedToService() {
+        mvc.perform(get("/items/suggest?prefix={prefix}&limit={limit}", "dri", 5)
+                        .header("X-Sharer-User-Id", 0L))
+                .andExpect(status().isOk());
+
+        verify(itemService, times(1)).suggestNames(0L, "dri", 5);
+    }
+
+    @SneakyThrows
+    @Test
+    void getMatchingRequests_whenInvoked_thenStatusIsOkAndParamsPassedToService() {
+        mvc.perform(get("/items/{id}/matching-requests?size={size}", 1L, 5)
+                        .header("X-Sharer-User-Id", 0L))
+                .andExpect(status().isOk());
+
+        verify(itemService, times(1)).getMatchingRequests(0L, 1L, 5);
+    }
+
+    @SneakyThrows
+    @Test
+    void getAvailability_whenInvoked_thenStatusIsOkAndParamsPassedToService() {
+        Long userId = 0L;
+        Long itemId = 1L;
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 10, 0);
+        LocalDateTime to = from.plusDays(1);
+
+        mvc.perform(get("/items/{id}/availability?from={from}&to={to}", itemId, from, to)
+                        .header("X-Sharer-User-Id", userId))
+                .andExpect(status().isOk());
+
+        verify(itemService, times(1)).getAvailability(userId, itemId, from, to);
+    }
+}
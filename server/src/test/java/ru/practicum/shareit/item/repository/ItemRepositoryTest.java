@@ -5,6 +5,9 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.request.model.Request;
 import ru.practicum.shareit.request.repository.RequestRepository;
@@ -30,6 +33,8 @@ class ItemRepositoryTest {
 
     @Autowired
     private RequestRepository requestRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
 
 
     @Test
@@ -113,6 +118,52 @@ class ItemRepositoryTest {
         assertFalse(itemsList.contains(item3));
     }
 
+    @Test
+    void searchByText_whenTextInNameAndInDescription_thenNameMatchesGoFirst() {
+        User owner = saveRandomUser();
+        Item descriptionMatch = itemRepository.save(Item.builder()
+                .name("saw")
+                .description("works with any drill")
+                .available(true)
+                .owner(owner)
+                .build());
+        Item nameMatch = itemRepository.save(Item.builder()
+                .name("Drill")
+                .description("desc")
+                .available(true)
+                .owner(owner)
+                .build());
+
+        Page<Item> items = itemRepository.searchByText(PageRequest.of(0, 10), "drill");
+
+        assertThat(items.getContent(), contains(nameMatch, descriptionMatch));
+    }
+
+    @Test
+    void searchFreeByText_whenItemHasActiveBookingInPeriod_thenItemNotFound() {
+        User owner = saveRandomUser();
+        User booker = saveRandomUser();
+        LocalDateTime start = LocalDateTime.of(2030, 5, 3, 0, 0);
+        LocalDateTime end = start.plusDays(2);
+        Item approved = saveItem(owner, "Trimmer approved");
+        Item waiting = saveItem(owner, "Trimmer waiting");
+        Item rejected = saveItem(owner, "Trimmer rejected");
+        Item adjacent = saveItem(owner, "Trimmer adjacent");
+        Item free = saveItem(owner, "Trimmer free");
+        saveBooking(approved, booker, BookingState.APPROVED, start.minusDays(1), start.plusHours(1));
+        saveBooking(waiting, booker, BookingState.WAITING, end.minusHours(1), end.plusDays(1));
+        saveBooking(rejected, booker, BookingState.REJECTED, start, end);
+        saveBooking(adjacent, booker, BookingState.APPROVED, end, end.plusDays(1));
+        saveBooking(adjacent, booker, BookingState.APPROVED, start.minusDays(1), start);
+
+        Page<Item> items = itemRepository.searchFreeByText(PageRequest.of(0, 2), "trimmer", start, end);
+
+        assertThat(items.getTotalElements(), equalTo(3L));
+        assertThat(items.getContent(), contains(rejected, adjacent));
+        assertThat(itemRepository.searchFreeByText(PageRequest.of(1, 2), "trimmer", start, end).getContent(),
+                contains(free));
+    }
+
     @Test
     void findAllByRequest_RequestId_whenInvoked_thenItemsWithRequestFound() {
         User owner = saveRandomUser();
@@ -146,6 +197,25 @@ class ItemRepositoryTest {
         assertThat(foundItems, not(containsInAnyOrder(item3)));
     }
 
+    private Item saveItem(User owner, String name) {
+        return itemRepository.save(Item.builder()
+                .name(name)
+                .description("desc")
+                .available(true)
+                .owner(owner)
+                .build());
+    }
+
+    private void saveBooking(Item item, User booker, BookingState state, LocalDateTime start, LocalDateTime end) {
+        bookingRepository.save(Booking.builder()
+                .item(item)
+                .booker(booker)
+                .state(state)
+                .start(start)
+                .end(end)
+                .build());
+    }
+
     private User saveRandomUser() {
         return userRepository.save(User.builder()
                 .name("name")
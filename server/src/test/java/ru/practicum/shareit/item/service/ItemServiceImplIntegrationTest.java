@@ -1,33 +1,57 @@
 package ru.practicum.shareit.item.service;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.dto.BookingCreationDto;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingState;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingArchiver;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.booking.service.ItemAvailabilityIndex;
+import ru.practicum.shareit.item.dto.AvailabilitySlotDto;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemCreateDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemWithBookingsAndCommentsDto;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemBookingSummary;
 import ru.practicum.shareit.item.repository.CommentRepository;
+import ru.practicum.shareit.item.repository.ItemBookingSummaryRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.repository.ItemTextSearch;
+import ru.practicum.shareit.request.dto.CreationRequestDto;
+import ru.practicum.shareit.request.dto.RequestNoItemsDto;
 import ru.practicum.shareit.request.model.Request;
 import ru.practicum.shareit.request.repository.RequestRepository;
+import ru.practicum.shareit.request.service.RequestMatcher;
+import ru.practicum.shareit.request.service.RequestService;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserService;
 
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
+import java.util.stream.Collectors;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
 
-@SpringBootTest
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
 class ItemServiceImplIntegrationTest {
 
     @Autowired
@@ -42,6 +66,30 @@ class ItemServiceImplIntegrationTest {
     private BookingRepository bookingRepository;
     @Autowired
     private CommentRepository commentRepository;
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private BookingArchiver bookingArchiver;
+    @Autowired
+    private ItemBookingSummaryRepository bookingSummaryRepository;
+    @Autowired
+    private ItemBookingSummaryProjection bookingSummaryProjection;
+    @Autowired
+    private ItemSearchIndex itemSearchIndex;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private RequestService requestService;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private ItemAvailabilityIndex availabilityIndex;
+    @Autowired
+    private DataSource dataSource;
+    @Autowired
+    private ItemTextSearch itemTextSearch;
 
     @Test
     @Transactional
@@ -288,6 +336,123 @@ class ItemServiceImplIntegrationTest {
         assertThat(requestedItemDto.getNextBooking().getId(), equalTo(nextBookingId));
     }
 
+    @Test
+    void getById_whenBookingApproved_thenNextBookingReadFromSummary() {
+        User owner = saveRandomUser();
+        User booker = saveRandomUser();
+        Long itemId = itemService.add(owner.getId(), ItemCreateDto.builder()
+                .name("name")
+                .description("desc")
+                .available(true)
+                .build()).getId();
+        Long bookingId = bookingService.add(booker.getId(), BookingCreationDto.builder()
+                .itemId(itemId)
+                .start(LocalDateTime.now().plusDays(1))
+                .end(LocalDateTime.now().plusDays(2))
+                .build()).getId();
+        ItemWithBookingsAndCommentsDto beforeApproval = itemService.getById(owner.getId(), itemId);
+        bookingService.changeStatus(owner.getId(), bookingId, true);
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        statistics.clear();
+        ItemWithBookingsAndCommentsDto afterApproval = itemService.getById(owner.getId(), itemId);
+        long statements = statistics.getPrepareStatementCount();
+
+        assertThat(beforeApproval.getNextBooking(), nullValue());
+        assertThat(afterApproval.getNextBooking(), notNullValue());
+        assertThat(afterApproval.getNextBooking().getId(), equalTo(bookingId));
+        assertThat(afterApproval.getNextBooking().getBookerId(), equalTo(booker.getId()));
+        assertThat(afterApproval.getLastBooking(), nullValue());
+        assertThat(statements, lessThanOrEqualTo(4L));
+    }
+
+    @Test
+    void getById_whenNextBookingOfSummaryHasStarted_thenSummaryRecomputedOnReadAndStoredByRefresh() {
+        User owner = saveRandomUser();
+        User booker = saveRandomUser();
+        Item item = itemRepository.save(Item.builder()
+                .name("name")
+                .description("desc")
+                .owner(owner)
+                .available(true)
+                .build());
+        Booking startedBooking = bookingRepository.save(Booking.builder()
+                .item(item)
+                .booker(booker)
+                .state(BookingState.APPROVED)
+                .start(LocalDateTime.now().minusHours(1))
+                .end(LocalDateTime.now().plusHours(1))
+                .build());
+        bookingSummaryRepository.save(ItemBookingSummary.builder()
+                .itemId(item.getId())
+                .nextBookingId(startedBooking.getId())
+                .nextBookerId(booker.getId())
+                .nextStart(startedBooking.getStart())
+                .build());
+
+        ItemWithBookingsAndCommentsDto itemDto = itemService.getById(owner.getId(), item.getId());
+        bookingSummaryProjection.refreshOutdated();
+
+        assertThat(itemDto.getNextBooking(), nullValue());
+        assertThat(itemDto.getLastBooking(), notNullValue());
+        assertThat(itemDto.getLastBooking().getId(), equalTo(startedBooking.getId()));
+        ItemBookingSummary storedSummary = bookingSummaryRepository.findById(item.getId()).orElseThrow();
+        assertThat(storedSummary.getLastBookingId(), equalTo(startedBooking.getId()));
+        assertThat(storedSummary.getNextBookingId(), nullValue());
+    }
+
+    @Test
+    void schema_whenItemHasNoSummary_thenRowAddedAndStoredByRefresh() {
+        User owner = saveRandomUser();
+        Item item = itemRepository.save(Item.builder()
+                .name("name")
+                .description("desc")
+                .owner(owner)
+                .available(true)
+                .build());
+        Booking nextBooking = bookingRepository.save(Booking.builder()
+                .item(item)
+                .booker(saveRandomUser())
+                .state(BookingState.APPROVED)
+                .start(LocalDateTime.now().plusHours(1))
+                .end(LocalDateTime.now().plusHours(2))
+                .build());
+
+        new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).execute(dataSource);
+        bookingSummaryProjection.refreshOutdated();
+
+        ItemBookingSummary summary = bookingSummaryRepository.findById(item.getId()).orElseThrow();
+        assertThat(summary.getNextBookingId(), equalTo(nextBooking.getId()));
+        assertThat(summary.getNextBookerId(), equalTo(nextBooking.getBooker().getId()));
+    }
+
+    @Test
+    void rebuild_whenSummaryIsCorrupted_thenSummaryRecomputedFromBookings() {
+        User owner = saveRandomUser();
+        Item item = itemRepository.save(Item.builder()
+                .name("name")
+                .description("desc")
+                .owner(owner)
+                .available(true)
+                .build());
+        Booking nextBooking = bookingRepository.save(Booking.builder()
+                .item(item)
+                .booker(saveRandomUser())
+                .state(BookingState.APPROVED)
+                .start(LocalDateTime.now().plusHours(1))
+                .end(LocalDateTime.now().plusHours(2))
+                .build());
+        bookingSummaryRepository.save(ItemBookingSummary.builder()
+                .itemId(item.getId())
+                .build());
+
+        bookingSummaryProjection.rebuild();
+
+        ItemBookingSummary summary = bookingSummaryRepository.findById(item.getId()).orElseThrow();
+        assertThat(summary.getNextBookingId(), equalTo(nextBooking.getId()));
+        assertThat(summary.getLastBookingId(), nullValue());
+    }
+
     @Test
     void getUserItems_whenInvoked_thenItemsDtoListWithBookingsReturned() {
         User owner = saveRandomUser();
@@ -357,21 +522,72 @@ class ItemServiceImplIntegrationTest {
         assertThat(requestedItemDtos.get(0).getComments().get(0).getId(), equalTo(comment.getId()));
     }
 
+    @Test
+    void getUserItems_whenPageHasManyItems_thenQueriesCountNotDependOnPageSize() {
+        User owner = saveRandomUser();
+        List<Long> itemIds = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            Item item = itemRepository.save(Item.builder()
+                    .name("name")
+                    .description("desc")
+                    .owner(owner)
+                    .available(true)
+                    .build());
+            itemIds.add(item.getId());
+            bookingRepository.save(Booking.builder()
+                    .item(item)
+                    .booker(saveRandomUser())
+                    .state(BookingState.APPROVED)
+                    .start(LocalDateTime.now().minusHours(2))
+                    .end(LocalDateTime.now().minusHours(1))
+                    .build());
+            bookingRepository.save(Booking.builder()
+                    .item(item)
+                    .booker(saveRandomUser())
+                    .state(BookingState.APPROVED)
+                    .start(LocalDateTime.now().plusHours(1))
+                    .end(LocalDateTime.now().plusHours(2))
+                    .build());
+            commentRepository.save(Comment.builder()
+                    .item(item)
+                    .created(LocalDateTime.now())
+                    .author(saveRandomUser())
+                    .text("text")
+                    .build());
+        }
+        bookingSummaryProjection.refreshItems(itemIds);
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        itemService.getUserItems(owner.getId(), 0, 8);
+
+        statistics.clear();
+        List<ItemWithBookingsAndCommentsDto> smallPage = itemService.getUserItems(owner.getId(), 0, 2);
+        long smallPageStatements = statistics.getPrepareStatementCount();
+        statistics.clear();
+        List<ItemWithBookingsAndCommentsDto> bigPage = itemService.getUserItems(owner.getId(), 0, 8);
+        long bigPageStatements = statistics.getPrepareStatementCount();
+
+        assertThat(smallPage, hasSize(2));
+        assertThat(bigPage, hasSize(8));
+        assertThat(bigPage.get(7).getLastBooking(), notNullValue());
+        assertThat(bigPage.get(7).getNextBooking(), notNullValue());
+        assertThat(bigPage.get(7).getComments(), hasSize(1));
+        assertThat(bigPageStatements, equalTo(smallPageStatements));
+        assertThat(bigPageStatements, lessThanOrEqualTo(6L));
+    }
+
     @Test
     void searchItems_whenInvoked_thenListItemsReturnedContainedTextInNameOrDescription() {
         User owner = saveRandomUser();
         Long requesterId = saveRandomUser().getId();
         String requestedText = "randomize";
-        itemRepository.save(Item.builder()
-                .name("SomeRandomizeName")
-                .description("desc")
-                .owner(owner)
-                .available(true)
-                .build());
-        itemRepository.save(Item.builder()
+        itemService.add(owner.getId(), ItemCreateDto.builder()
                 .name("name")
                 .description("randoMize Description")
-                .owner(owner)
+                .available(true)
+                .build());
+        itemService.add(owner.getId(), ItemCreateDto.builder()
+                .name("SomeRandomizeName")
+                .description("desc")
                 .available(true)
                 .build());
 
@@ -382,6 +598,207 @@ class ItemServiceImplIntegrationTest {
         assertThat(foundItems.get(1).getDescription(), containsStringIgnoringCase(requestedText));
     }
 
+    @Test
+    void searchItems_whenItemUpdated_thenFoundByNewTextOnly() {
+        User owner = saveRandomUser();
+        Long itemId = itemService.add(owner.getId(), ItemCreateDto.builder()
+                .name("Old hammerhead")
+                .description("desc")
+                .available(true)
+                .build()).getId();
+
+        itemService.update(owner.getId(), itemId, ItemDto.builder().name("New screwdriverhead").build());
+
+        assertThat(itemService.searchItems(owner.getId(), "hammerhead", 0, 10), empty());
+        assertThat(itemService.searchItems(owner.getId(), "screwdriverhead", 0, 10).stream()
+                .map(ItemDto::getId)
+                .collect(Collectors.toList()), contains(itemId));
+    }
+
+    @Test
+    void searchItems_whenOwnerDeleted_thenOwnerItemsNotFound() {
+        User owner = saveRandomUser();
+        itemService.add(owner.getId(), ItemCreateDto.builder()
+                .name("Orphaned chainsaw")
+                .description("desc")
+                .available(true)
+                .build());
+
+        userService.delete(owner.getId());
+
+        assertThat(itemService.searchItems(saveRandomUser().getId(), "orphaned chainsaw", 0, 10), empty());
+    }
+
+    @Test
+    void searchItems_whenQueryRepeated_thenPageServedFromCache() {
+        User owner = saveRandomUser();
+        itemService.add(owner.getId(), ItemCreateDto.builder()
+                .name("Cached jigsaw")
+                .description("desc")
+                .available(true)
+                .build());
+        itemService.searchItems(owner.getId(), "cached jigsaw", 0, 10);
+        double hitsBefore = cacheGets("hit");
+
+        List<ItemDto> foundItems = itemService.searchItems(owner.getId(), "CACHED JIGSAW", 0, 10);
+
+        assertThat(foundItems, hasSize(1));
+        assertThat(cacheGets("hit"), equalTo(hitsBefore + 1));
+    }
+
+    @Test
+    void searchItems_whenMatchingItemAddedOrUpdated_thenOnlyAffectedQueriesInvalidated() {
+        User owner = saveRandomUser();
+        Long sanderId = itemService.add(owner.getId(), ItemCreateDto.builder()
+                .name("Belt sander")
+                .description("coarse grit")
+                .available(true)
+                .build()).getId();
+        itemService.add(owner.getId(), ItemCreateDto.builder()
+                .name("Rotary hammer")
+                .description("desc")
+                .available(true)
+                .build());
+        itemService.searchItems(owner.getId(), "belt sander", 0, 10);
+        itemService.searchItems(owner.getId(), "coarse grit", 0, 10);
+        itemService.searchItems(owner.getId(), "orbital polisher", 0, 10);
+        itemService.searchItems(owner.getId(), "rotary hammer", 0, 10);
+
+        itemService.add(owner.getId(), ItemCreateDto.builder()
+                .name("Orbital polisher")
+                .description("desc")
+                .available(true)
+                .build());
+        itemService.update(owner.getId(), sanderId, ItemDto.builder().description("fine grit").build());
+
+        double hitsBefore = cacheGets("hit");
+        assertThat(itemService.searchItems(owner.getId(), "rotary hammer", 0, 10), hasSize(1));
+        assertThat(cacheGets("hit"), equalTo(hitsBefore + 1));
+        List<ItemDto> sanders = itemService.searchItems(owner.getId(), "belt sander", 0, 10);
+        assertThat(sanders, hasSize(1));
+        assertThat(sanders.get(0).getDescription(), equalTo("fine grit"));
+        assertThat(itemService.searchItems(owner.getId(), "coarse grit", 0, 10), empty());
+        assertThat(itemService.searchItems(owner.getId(), "orbital polisher", 0, 10), hasSize(1));
+        assertThat(cacheGets("hit"), equalTo(hitsBefore + 1));
+    }
+
+    @Test
+    void suggestNames_whenItemsAddedAndUpdated_thenDistinctAvailableNamesSuggestedInOrder() {
+        User owner = saveRandomUser();
+        for (String name : List.of("Quillpen deluxe", "quillpen", "Quillpen deluxe", "Quillpen broken", "Quill")) {
+            itemService.add(owner.getId(), ItemCreateDto.builder()
+                    .name(name)
+                    .description("desc")
+                    .available(!name.endsWith("broken"))
+                    .build());
+        }
+        Long renamedItemId = itemService.add(owner.getId(), ItemCreateDto.builder()
+                .name("Quillpen old")
+                .description("desc")
+                .available(true)
+                .build()).getId();
+
+        itemService.update(owner.getId(), renamedItemId, ItemDto.builder().name("Inkpot").build());
+
+        assertThat(itemService.suggestNames(owner.getId(), "QUILLP", 10), contains("quillpen", "Quillpen deluxe"));
+        assertThat(itemService.suggestNames(owner.getId(), "quill", 2), contains("Quill", "quillpen"));
+        assertThat(itemService.suggestNames(owner.getId(), "quillpen", 10),
+                equalTo(itemRepository.findAvailableNamesByPrefix("quillpen", PageRequest.of(0, 10))));
+    }
+
+    @Test
+    void getMatchingRequests_whenRequestsOpenAndClose_thenOpenRequestsOfOtherUsersRankedByMatchedShare() {
+        User owner = saveRandomUser();
+        User requester = saveRandomUser();
+        Long fullMatch = addRequest(requester, "Zylophone mallet");
+        Long partialMatch = addRequest(requester, "zylophone stand with wheels");
+        addRequest(owner, "zylophone mallet");
+        Long closedMatch = addRequest(requester, "zylophone mallet set");
+        addRequest(requester, "garden hose");
+        Long linkedItemId = itemService.add(owner.getId(), ItemCreateDto.builder()
+                .name("Mallet set")
+                .description("desc")
+                .available(true)
+                .requestId(closedMatch)
+                .build()).getId();
+        Long itemId = itemService.add(owner.getId(), ItemCreateDto.builder()
+                .name("Zylophone")
+                .description("wooden mallet included")
+                .available(true)
+                .build()).getId();
+
+        List<RequestNoItemsDto> matches = itemService.getMatchingRequests(requester.getId(), itemId, 10);
+        itemService.update(owner.getId(), linkedItemId, ItemDto.builder().build());
+        List<RequestNoItemsDto> matchesAfterUnlink = itemService.getMatchingRequests(requester.getId(), itemId, 10);
+
+        assertThat(matches.stream().map(RequestNoItemsDto::getId).collect(Collectors.toList()),
+                contains(fullMatch, partialMatch));
+        assertThat(matches.get(0).getDescription(), equalTo("Zylophone mallet"));
+        assertThat(matchesAfterUnlink.stream().map(RequestNoItemsDto::getId).collect(Collectors.toList()),
+                contains(fullMatch, closedMatch, partialMatch));
+        assertThat(itemService.getMatchingRequests(requester.getId(), itemId, 1), hasSize(1));
+    }
+
+    @Test
+    void findMatchingRequests_whenLoadedAfterUserDeleted_thenRequestsAndItemsOfDeletedUserLeftOut() {
+        User owner = saveRandomUser();
+        User requester = saveRandomUser();
+        User deletedUser = saveRandomUser();
+        Long openRequest = addRequest(requester, "Quokka harness");
+        Long deletedUserRequest = addRequest(deletedUser, "quokka harness");
+        // linked by the deleted user, so the request counts as open again
+        itemService.add(deletedUser.getId(), ItemCreateDto.builder()
+                .name("Harness")
+                .description("desc")
+                .available(true)
+                .requestId(openRequest)
+                .build());
+        Long itemId = itemService.add(owner.getId(), ItemCreateDto.builder()
+                .name("Quokka harness")
+                .description("desc")
+                .available(true)
+                .build()).getId();
+        userService.delete(deletedUser.getId());
+        RequestMatcher reloadedMatcher = new RequestMatcher(requestRepository, itemRepository, itemSearchIndex,
+                itemTextSearch, new SimpleMeterRegistry());
+
+        reloadedMatcher.load();
+        List<Request> matches = reloadedMatcher.findMatchingRequests(itemRepository.findById(itemId).orElseThrow(), 10);
+
+        List<Long> matchIds = matches.stream().map(Request::getRequestId).collect(Collectors.toList());
+        assertThat(matchIds, hasItem(openRequest));
+        assertThat(matchIds, not(hasItem(deletedUserRequest)));
+    }
+
+    @Test
+    void search_whenAnsweredFromIndex_thenSameItemsInSameOrderAsRankedDatabaseSearch() {
+        User owner = saveRandomUser();
+        List.of("Laser level", "Level tripod", "Spirit level 60cm", "Ladder")
+                .forEach(name -> itemService.add(owner.getId(), ItemCreateDto.builder()
+                        .name(name)
+                        .description("for the leveling job")
+                        .available(!name.startsWith("Spirit"))
+                        .build()));
+        itemService.add(owner.getId(), ItemCreateDto.builder()
+                .name("Tape")
+                .description("Levelling tape, 60cm")
+                .available(true)
+                .build());
+        Long exactNameId = itemService.add(owner.getId(), ItemCreateDto.builder()
+                .name("Level")
+                .description("short")
+                .available(true)
+                .build()).getId();
+
+        assertThat(itemSearchIndex.search(PageRequest.of(0, 1), "level").getContent().get(0).getId(),
+                equalTo(exactNameId));
+        for (String text : List.of("level", "LEVEL T", "l tri", "60cm", "r lev", "leveling job", "Ladder")) {
+            PageRequest page = PageRequest.of(0, 100);
+            assertThat(text, itemSearchIndex.search(page, text).getContent(),
+                    equalTo(itemRepository.searchByTextRanked(page, text).getContent()));
+        }
+    }
+
     @Test
     @Transactional
     void addComment_whenInvoked_thenCommentAddedToItem() {
@@ -413,6 +830,195 @@ class ItemServiceImplIntegrationTest {
         assertThat(itemDto.getComments().get(0).getText(), equalTo(commentDto.getText()));
     }
 
+    @Test
+    void getAvailability_whenItemHasBookings_thenGapsBetweenActiveBookingsReturned() {
+        User owner = saveRandomUser();
+        Item item = itemRepository.save(Item.builder()
+                .name("name")
+                .description("desc")
+                .owner(owner)
+                .available(true)
+                .build());
+        LocalDateTime from = LocalDateTime.now().plusDays(1).withNano(0);
+        LocalDateTime to = from.plusDays(1);
+        bookingRepository.save(Booking.builder()
+                .item(item)
+                .booker(saveRandomUser())
+                .state(BookingState.APPROVED)
+                .start(from.minusHours(1))
+                .end(from.plusHours(2))
+                .build());
+        bookingRepository.save(Booking.builder()
+                .item(item)
+                .booker(saveRandomUser())
+                .state(BookingState.WAITING)
+                .start(from.plusHours(5))
+                .end(from.plusHours(6))
+                .build());
+        bookingRepository.save(Booking.builder()
+                .item(item)
+                .booker(saveRandomUser())
+                .state(BookingState.REJECTED)
+                .start(from.plusHours(10))
+                .end(from.plusHours(12))
+                .build());
+
+        List<AvailabilitySlotDto> slots = itemService.getAvailability(owner.getId(), item.getId(), from, to);
+
+        assertThat(slots, hasSize(2));
+        assertThat(slots.get(0).getStart(), equalTo(from.plusHours(2)));
+        assertThat(slots.get(0).getEnd(), equalTo(from.plusHours(5)));
+        assertThat(slots.get(1).getStart(), equalTo(from.plusHours(6)));
+        assertThat(slots.get(1).getEnd(), equalTo(to));
+    }
+
+    @Test
+    void getAvailability_whenBookingAddedAndRejected_thenSlotsUpdatedWithoutReloadingBookings() {
+        User owner = saveRandomUser();
+        User booker = saveRandomUser();
+        Item item = itemRepository.save(Item.builder()
+                .name("name")
+                .description("desc")
+                .owner(owner)
+                .available(true)
+                .build());
+        LocalDateTime from = LocalDateTime.now().plusDays(1).withNano(0);
+        LocalDateTime to = from.plusDays(1);
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        List<AvailabilitySlotDto> beforeBooking = itemService.getAvailability(booker.getId(), item.getId(), from, to);
+        Long bookingId = bookingService.add(booker.getId(), BookingCreationDto.builder()
+                .itemId(item.getId())
+                .start(from.plusHours(1))
+                .end(from.plusHours(3))
+                .build()).getId();
+        statistics.clear();
+        List<AvailabilitySlotDto> afterBooking = itemService.getAvailability(booker.getId(), item.getId(), from, to);
+        long indexedStatements = statistics.getPrepareStatementCount();
+        bookingService.changeStatus(owner.getId(), bookingId, false);
+        List<AvailabilitySlotDto> afterRejection = itemService.getAvailability(booker.getId(), item.getId(), from, to);
+
+        assertThat(beforeBooking, hasSize(1));
+        assertThat(afterBooking, hasSize(2));
+        assertThat(afterBooking.get(0).getEnd(), equalTo(from.plusHours(1)));
+        assertThat(afterBooking.get(1).getStart(), equalTo(from.plusHours(3)));
+        assertThat(indexedStatements, lessThanOrEqualTo(1L));
+        assertThat(afterRejection, hasSize(1));
+        assertThat(afterRejection.get(0).getStart(), equalTo(from));
+        assertThat(afterRejection.get(0).getEnd(), equalTo(to));
+    }
+
+    @Test
+    void getAvailability_whenRejectedBookingHadSameStartAsNewBooking_thenNewBookingStillBlocksSlot() {
+        User owner = saveRandomUser();
+        Item item = itemRepository.save(Item.builder()
+                .name("name")
+                .description("desc")
+                .owner(owner)
+                .available(true)
+                .build());
+        LocalDateTime from = LocalDateTime.now().plusDays(1).withNano(0);
+        LocalDateTime to = from.plusDays(1);
+        Booking rejected = Booking.builder()
+                .id(-1L)
+                .item(item)
+                .state(BookingState.WAITING)
+                .start(from.plusHours(1))
+                .end(from.plusHours(2))
+                .build();
+        Booking added = Booking.builder()
+                .id(-2L)
+                .item(item)
+                .state(BookingState.APPROVED)
+                .start(from.plusHours(1))
+                .end(from.plusHours(3))
+                .build();
+        itemService.getAvailability(owner.getId(), item.getId(), from, to);
+
+        availabilityIndex.updateAfterCommit(rejected);
+        availabilityIndex.updateAfterCommit(added);
+        rejected.setState(BookingState.REJECTED);
+        availabilityIndex.updateAfterCommit(rejected);
+        List<AvailabilitySlotDto> slots = itemService.getAvailability(owner.getId(), item.getId(), from, to);
+
+        assertThat(slots, hasSize(2));
+        assertThat(slots.get(0).getEnd(), equalTo(from.plusHours(1)));
+        assertThat(slots.get(1).getStart(), equalTo(from.plusHours(3)));
+    }
+
+    @Test
+    void getAvailability_whenIndexedBookingEnded_thenPeriodDroppedFromIndex() {
+        User owner = saveRandomUser();
+        Item item = itemRepository.save(Item.builder()
+                .name("name")
+                .description("desc")
+                .owner(owner)
+                .available(true)
+                .build());
+        LocalDateTime now = LocalDateTime.now();
+        Booking ended = Booking.builder()
+                .id(-1L)
+                .item(item)
+                .state(BookingState.APPROVED)
+                .start(now.minusHours(2))
+                .end(now.minusHours(1))
+                .build();
+        Booking upcoming = Booking.builder()
+                .id(-2L)
+                .item(item)
+                .state(BookingState.APPROVED)
+                .start(now.plusDays(1))
+                .end(now.plusDays(2))
+                .build();
+        itemService.getAvailability(owner.getId(), item.getId(), now, now.plusDays(3));
+
+        availabilityIndex.updateAfterCommit(ended);
+        availabilityIndex.updateAfterCommit(upcoming);
+        List<AvailabilitySlotDto> slots = itemService.getAvailability(owner.getId(), item.getId(),
+                now.minusDays(1), now.plusDays(3));
+
+        assertThat(availabilityIndex.periodCount(item.getId()), equalTo(1));
+        assertThat(slots, hasSize(2));
+        assertThat(slots.get(0).getEnd(), equalTo(upcoming.getStart()));
+        assertThat(slots.get(1).getStart(), equalTo(upcoming.getEnd()));
+    }
+
+    @Test
+    void addComment_whenAuthorBookingIsArchived_thenCommentAdded() {
+        User owner = saveRandomUser();
+        User author = saveRandomUser();
+        Item item = itemRepository.save(Item.builder()
+                .name("name")
+                .description("desc")
+                .owner(owner)
+                .available(true)
+                .build());
+        bookingRepository.save(Booking.builder()
+                .item(item)
+                .booker(author)
+                .state(BookingState.APPROVED)
+                .start(LocalDateTime.now().minusDays(501))
+                .end(LocalDateTime.now().minusDays(500))
+                .build());
+        bookingArchiver.archive(LocalDateTime.now().minusDays(400));
+
+        CommentDto addedComment = itemService.addComment(author.getId(), item.getId(), CommentDto.builder()
+                .text("Some valid text")
+                .build());
+
+        assertThat(addedComment.getId(), notNullValue());
+    }
+
+    private double cacheGets(String result) {
+        return meterRegistry.get("shareit.item.search.cache.gets").tag("result", result).counter().count();
+    }
+
+    private Long addRequest(User requester, String description) {
+        CreationRequestDto creationRequestDto = new CreationRequestDto();
+        creationRequestDto.setDescription(description);
+        return requestService.add(requester.getId(), creationRequestDto).getId();
+    }
+
     private User saveRandomUser() {
         return userRepository.save(User.builder()
                 .name("name")
@@ -10,7 +10,9 @@ import org.springframework.data.domain.PageRequest;
 import ru.practicum.shareit.booking.dto.LastNextBookingDto;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.ArchivedBookingRepository;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.ItemAvailabilityIndex;
 import ru.practicum.shareit.exception.InvalidParamException;
 import ru.practicum.shareit.exception.NotExistsException;
 import ru.practicum.shareit.item.dto.CommentDto;
@@ -20,10 +22,15 @@ import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.CommentRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.repository.ItemTextSearch;
+import ru.practicum.shareit.request.mapper.RequestMapper;
 import ru.practicum.shareit.request.model.Request;
 import ru.practicum.shareit.request.repository.RequestRepository;
+import ru.practicum.shareit.request.service.RequestFeed;
+import ru.practicum.shareit.request.service.RequestMatcher;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserExistenceCache;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -39,8 +46,14 @@ class ItemServiceImplUnitTest {
     @Mock
     private ItemRepository itemRepository;
     @Mock
+    private ItemTextSearch itemTextSearch;
+    @Mock
     private UserRepository userRepository;
     @Mock
+    private UserExistenceCache userExistenceCache;
+    @Mock
+    private OwnerItemCounters ownerItemCounters;
+    @Mock
     private RequestRepository requestRepository;
     @Mock
     private BookingRepository bookingRepository;
@@ -50,6 +63,22 @@ class ItemServiceImplUnitTest {
     private ItemMapper itemMapper;
     @Mock
     private BookingMapper bookingMapper;
+    @Mock
+    private ItemAvailabilityIndex availabilityIndex;
+    @Mock
+    private ItemBookingSummaryProjection bookingSummaryProjection;
+    @Mock
+    private ArchivedBookingRepository archivedBookingRepository;
+    @Mock
+    private ItemSearchIndex searchIndex;
+    @Mock
+    private ItemSearchCache searchCache;
+    @Mock
+    private RequestFeed requestFeed;
+    @Mock
+    private RequestMatcher requestMatcher;
+    @Mock
+    private RequestMapper requestMapper;
     @InjectMocks
     private ItemServiceImpl itemService;
     @Captor
@@ -73,7 +102,7 @@ class ItemServiceImplUnitTest {
 
     @Test
     void add_whenUserNotFound_thenNotExistsExceptionThrown() {
-        when(userRepository.findById(anyLong()))
+        when(userRepository.findByIdAndDeletedFalse(anyLong()))
                 .thenReturn(Optional.empty());
 
         assertThrows(NotExistsException.class,
@@ -101,7 +130,7 @@ class ItemServiceImplUnitTest {
         Item someValidItem = getValidItem(1L);
         when(requestRepository.findById(requestId))
                 .thenReturn(Optional.of(itemRequest));
-        when(userRepository.findById(userId))
+        when(userRepository.findByIdAndDeletedFalse(userId))
                 .thenReturn(Optional.of(getValidUser(0L)));
         when(itemMapper.mapToItem(any(ItemCreateDto.class), any(User.class), any(Request.class)))
                 .thenReturn(someValidItem);
@@ -142,7 +171,7 @@ class ItemServiceImplUnitTest {
         Item someValidItem = getValidItem(1L);
         when(requestRepository.findById(requestId))
                 .thenReturn(Optional.of(itemRequest));
-        when(userRepository.findById(userId))
+        when(userRepository.findByIdAndDeletedFalse(userId))
                 .thenReturn(Optional.of(getValidUser(0L)));
         when(itemMapper.mapToItem(any(ItemCreateDto.class), any(User.class), any(Request.class)))
                 .thenReturn(someValidItem);
@@ -152,7 +181,7 @@ class ItemServiceImplUnitTest {
         itemService.add(userId, addedItemDto);
 
         InOrder inOrder = inOrder(userRepository, requestRepository, itemMapper, itemRepository);
-        inOrder.verify(userRepository).findById(anyLong());
+        inOrder.verify(userRepository).findByIdAndDeletedFalse(anyLong());
         inOrder.verify(requestRepository).findById(anyLong());
         inOrder.verify(itemMapper).mapToItem(
                 any(ItemCreateDto.class),
@@ -173,7 +202,7 @@ class ItemServiceImplUnitTest {
                 .build();
         when(requestRepository.findById(0L))
                 .thenReturn(Optional.empty());
-        when(userRepository.findById(0L))
+        when(userRepository.findByIdAndDeletedFalse(0L))
                 .thenReturn(Optional.of(getValidUser(0L)));
 
         assertThrows(NotExistsException.class,
@@ -191,7 +220,7 @@ class ItemServiceImplUnitTest {
                 .available(true)
                 .build();
         Item someValidItem = getValidItem(1L);
-        when(userRepository.findById(0L))
+        when(userRepository.findByIdAndDeletedFalse(0L))
                 .thenReturn(Optional.of(getValidUser(0L)));
         when(itemMapper.mapToItem(any(ItemCreateDto.class), any(User.class)))
                 .thenReturn(someValidItem);
@@ -201,7 +230,7 @@ class ItemServiceImplUnitTest {
         itemService.add(userId, addedItemDto);
 
         InOrder inOrder = inOrder(userRepository, itemMapper, itemRepository);
-        inOrder.verify(userRepository).findById(anyLong());
+        inOrder.verify(userRepository).findByIdAndDeletedFalse(anyLong());
         inOrder.verify(itemMapper).mapToItem(
                 any(ItemCreateDto.class),
                 any(User.class));
@@ -218,7 +247,7 @@ class ItemServiceImplUnitTest {
                 .available(true)
                 .build();
         Item someValidItem = getValidItem(1L);
-        when(userRepository.findById(0L))
+        when(userRepository.findByIdAndDeletedFalse(0L))
                 .thenReturn(Optional.of(getValidUser(0L)));
         when(itemMapper.mapToItem(any(ItemCreateDto.class), any(User.class)))
                 .thenReturn(someValidItem);
@@ -238,7 +267,7 @@ class ItemServiceImplUnitTest {
 
     @Test
     void update_whenUpdatedItemNotFound_thenNotNotExistsExceptionThrown() {
-        when(itemRepository.findById(anyLong()))
+        when(itemRepository.findByIdAndOwnerDeletedFalse(anyLong()))
                 .thenReturn(Optional.empty());
 
         assertThrows(NotExistsException.class,
@@ -256,7 +285,7 @@ class ItemServiceImplUnitTest {
                 .id(itemId)
                 .owner(getValidUser(itemOwnerId))
                 .build();
-        when(itemRepository.findById(itemId))
+        when(itemRepository.findByIdAndOwnerDeletedFalse(itemId))
                 .thenReturn(Optional.of(savedItem));
 
         assertThrows(NotExistsException.class,
@@ -282,7 +311,7 @@ class ItemServiceImplUnitTest {
         ItemDto updateDto = ItemDto.builder()
                 .name("newName")
                 .build();
-        when(itemRepository.findById(itemId))
+        when(itemRepository.findByIdAndOwnerDeletedFalse(itemId))
                 .thenReturn(Optional.of(originalItem));
         when(itemRepository.save(any(Item.class)))
                 .thenReturn(originalItem);
@@ -318,7 +347,7 @@ class ItemServiceImplUnitTest {
         ItemDto updateDto = ItemDto.builder()
                 .description("newDescription")
                 .build();
-        when(itemRepository.findById(itemId))
+        when(itemRepository.findByIdAndOwnerDeletedFalse(itemId))
                 .thenReturn(Optional.of(originalItem));
         when(itemRepository.save(any(Item.class)))
                 .thenReturn(originalItem);
@@ -354,7 +383,7 @@ class ItemServiceImplUnitTest {
         ItemDto updateDto = ItemDto.builder()
                 .available(false)
                 .build();
-        when(itemRepository.findById(itemId))
+        when(itemRepository.findByIdAndOwnerDeletedFalse(itemId))
                 .thenReturn(Optional.of(originalItem));
         when(itemRepository.save(any(Item.class)))
                 .thenReturn(originalItem);
@@ -391,7 +420,7 @@ class ItemServiceImplUnitTest {
         ItemDto updateDto = ItemDto.builder()
                 .requestId(newRequest.getRequestId())
                 .build();
-        when(itemRepository.findById(itemId))
+        when(itemRepository.findByIdAndOwnerDeletedFalse(itemId))
                 .thenReturn(Optional.of(originalItem));
         when(requestRepository.findById(newRequest.getRequestId()))
                 .thenReturn(Optional.of(newRequest));
@@ -432,7 +461,7 @@ class ItemServiceImplUnitTest {
         ItemDto updateDto = ItemDto.builder()
                 .requestId(invalidRequestId)
                 .build();
-        when(itemRepository.findById(itemId))
+        when(itemRepository.findByIdAndOwnerDeletedFalse(itemId))
                 .thenReturn(Optional.of(originalItem));
         when(requestRepository.findById(invalidRequestId))
                 .thenReturn(Optional.empty());
@@ -445,7 +474,7 @@ class ItemServiceImplUnitTest {
 
     @Test
     void update_whenInvoked_thenMethodsInvokedInRightOrder() {
-        when(itemRepository.findById(anyLong()))
+        when(itemRepository.findByIdAndOwnerDeletedFalse(anyLong()))
                 .thenReturn(Optional.of(getValidItem(0L)));
         when(itemRepository.save(any(Item.class)))
                 .thenReturn(getValidItem(0L));
@@ -453,7 +482,7 @@ class ItemServiceImplUnitTest {
         itemService.update(1L, 0L, getValidItemDto(0L));
 
         InOrder inOrder = inOrder(itemMapper, itemRepository);
-        inOrder.verify(itemRepository).findById(anyLong());
+        inOrder.verify(itemRepository).findByIdAndOwnerDeletedFalse(anyLong());
         inOrder.verify(itemRepository).save(any(Item.class));
         inOrder.verify(itemMapper).mapToDto(any(Item.class), anyLong());
     }
@@ -461,8 +490,8 @@ class ItemServiceImplUnitTest {
     @Test
     void getById_whenUserNotFound_thenNotExistsExceptionThrown() {
         Long userId = 0L;
-        when(userRepository.findById(userId))
-                .thenReturn(Optional.empty());
+        when(userExistenceCache.exists(userId))
+                .thenReturn(false);
 
         assertThrows(NotExistsException.class,
                 () -> itemService.getById(userId, anyLong()),
@@ -474,9 +503,9 @@ class ItemServiceImplUnitTest {
     void getById_whenItemNotFound_thenNotExistsExceptionThrown() {
         Long userId = 0L;
         Long itemId = 0L;
-        when(userRepository.findById(userId))
-                .thenReturn(Optional.of(getValidUser(userId)));
-        when(itemRepository.findById(itemId))
+        when(userExistenceCache.exists(userId))
+                .thenReturn(true);
+        when(itemRepository.findByIdAndOwnerDeletedFalse(itemId))
                 .thenReturn(Optional.empty());
 
         assertThrows(NotExistsException.class,
@@ -488,8 +517,8 @@ class ItemServiceImplUnitTest {
     @Test
     void getUserItems_whenUserNotFound_thenNotExistsExceptionThrown() {
         Long userId = 0L;
-        when(userRepository.findById(userId))
-                .thenReturn(Optional.empty());
+        when(userExistenceCache.exists(userId))
+                .thenReturn(false);
 
         assertThrows(NotExistsException.class,
                 () -> itemService.getUserItems(userId, 0, 1),
@@ -502,8 +531,8 @@ class ItemServiceImplUnitTest {
         Long userId = 0L;
         int from = 0;
         int size = 1;
-        when(userRepository.findById(userId))
-                .thenReturn(Optional.of(getValidUser(userId)));
+        when(userExistenceCache.exists(userId))
+                .thenReturn(true);
         when(itemRepository.findByOwnerId(any(), any()))
                 .thenReturn(Page.empty());
 
@@ -521,8 +550,8 @@ class ItemServiceImplUnitTest {
         Long userId = 0L;
         int from = 3;
         int size = 5;
-        when(userRepository.findById(userId))
-                .thenReturn(Optional.of(getValidUser(userId)));
+        when(userExistenceCache.exists(userId))
+                .thenReturn(true);
         when(itemRepository.findByOwnerId(any(), any()))
                 .thenReturn(Page.empty());
 
@@ -540,8 +569,8 @@ class ItemServiceImplUnitTest {
         Long userId = 0L;
         int from = 5;
         int size = 3;
-        when(userRepository.findById(userId))
-                .thenReturn(Optional.of(getValidUser(userId)));
+        when(userExistenceCache.exists(userId))
+                .thenReturn(true);
         when(itemRepository.findByOwnerId(any(), any()))
                 .thenReturn(Page.empty());
 
@@ -566,8 +595,8 @@ class ItemServiceImplUnitTest {
     void searchItems_whenUserNotFound_thenNotExistsExceptionThrown() {
         String searchText = "text";
         Long userId = 0L;
-        when(userRepository.findById(userId))
-                .thenReturn(Optional.empty());
+        when(userExistenceCache.exists(userId))
+                .thenReturn(false);
 
         assertThrows(NotExistsException.class,
                 () -> itemService.searchItems(userId, searchText, 0, 1),
@@ -575,19 +604,31 @@ class ItemServiceImplUnitTest {
         );
     }
 
+    @Test
+    void suggestNames_whenUserNotFound_thenNotExistsExceptionThrown() {
+        Long userId = 0L;
+        when(userExistenceCache.exists(userId))
+                .thenReturn(false);
+
+        assertThrows(NotExistsException.class,
+                () -> itemService.suggestNames(userId, "dri", 5),
+                "User not found but no NotExistsException thrown"
+        );
+    }
+
     @Test
     void searchItems_thenFromIsZero_thenPageIsZero() {
         Long userId = 0L;
         int from = 0;
         int size = 1;
-        when(userRepository.findById(userId))
-                .thenReturn(Optional.of(getValidUser(userId)));
-        when(itemRepository.searchByText(any(), any()))
+        when(userExistenceCache.exists(userId))
+                .thenReturn(true);
+        when(itemTextSearch.search(any(), any()))
                 .thenReturn(Page.empty());
 
         itemService.searchItems(userId, "text", from, size);
 
-        verify(itemRepository).searchByText(
+        verify(itemTextSearch).search(
                 pageRequestArgumentCaptor.capture(),
                 anyString()
         );
@@ -599,14 +640,14 @@ class ItemServiceImplUnitTest {
         Long userId = 0L;
         int from = 3;
         int size = 5;
-        when(userRepository.findById(userId))
-                .thenReturn(Optional.of(getValidUser(userId)));
-        when(itemRepository.searchByText(any(), any()))
+        when(userExistenceCache.exists(userId))
+                .thenReturn(true);
+        when(itemTextSearch.search(any(), any()))
                 .thenReturn(Page.empty());
 
         itemService.searchItems(userId, "text", from, size);
 
-        verify(itemRepository).searchByText(
+        verify(itemTextSearch).search(
                 pageRequestArgumentCaptor.capture(),
                 anyString()
         );
@@ -618,14 +659,14 @@ class ItemServiceImplUnitTest {
         Long userId = 0L;
         int from = 5;
         int size = 3;
-        when(userRepository.findById(userId))
-                .thenReturn(Optional.of(getValidUser(userId)));
-        when(itemRepository.searchByText(any(), any()))
+        when(userExistenceCache.exists(userId))
+                .thenReturn(true);
+        when(itemTextSearch.search(any(), any()))
                 .thenReturn(Page.empty());
 
         itemService.searchItems(userId, "text", from, size);
 
-        verify(itemRepository).searchByText(
+        verify(itemTextSearch).search(
                 pageRequestArgumentCaptor.capture(),
                 anyString()
         );
@@ -636,7 +677,7 @@ class ItemServiceImplUnitTest {
     void addComment_whenUserNotFound_thenNotExistsExceptionThrown() {
         Long userId = 0L;
 
-        when(userRepository.findById(userId))
+        when(userRepository.findByIdAndDeletedFalse(userId))
                 .thenReturn(Optional.empty());
 
         assertThrows(NotExistsException.class,
@@ -650,9 +691,9 @@ class ItemServiceImplUnitTest {
         Long userId = 0L;
         Long itemId = 0L;
 
-        when(userRepository.findById(userId))
+        when(userRepository.findByIdAndDeletedFalse(userId))
                 .thenReturn(Optional.of(getValidUser(userId)));
-        when(itemRepository.findById(itemId))
+        when(itemRepository.findByIdAndOwnerDeletedFalse(itemId))
                 .thenReturn(Optional.empty());
 
         assertThrows(NotExistsException.class,
@@ -666,9 +707,9 @@ class ItemServiceImplUnitTest {
         Long userId = 0L;
         Long itemId = 0L;
 
-        when(userRepository.findById(userId))
+        when(userRepository.findByIdAndDeletedFalse(userId))
                 .thenReturn(Optional.of(getValidUser(userId)));
-        when(itemRepository.findById(itemId))
+        when(itemRepository.findByIdAndOwnerDeletedFalse(itemId))
                 .thenReturn(Optional.of(getValidItem(itemId)));
         when(bookingRepository.findByStateAndBookerIdAndItemIdAndEndIsBefore(
                 any(), anyLong(), anyLong(), any()))
@@ -680,6 +721,57 @@ class ItemServiceImplUnitTest {
         );
     }
 
+    @Test
+    void getAvailability_whenFromIsNotBeforeTo_thenInvalidParamExceptionThrown() {
+        Long userId = 0L;
+        LocalDateTime from = LocalDateTime.now().plusDays(2);
+
+        when(userExistenceCache.exists(userId))
+                .thenReturn(true);
+
+        assertThrows(InvalidParamException.class,
+                () -> itemService.getAvailability(userId, 0L, from, from.minusDays(1)),
+                "From is after to, but no InvalidParamException thrown"
+        );
+        verifyNoInteractions(availabilityIndex);
+    }
+
+    @Test
+    void searchAvailableItems_whenStartIsNotBeforeEnd_thenInvalidParamExceptionThrown() {
+        LocalDateTime start = LocalDateTime.now().plusDays(2);
+
+        assertThrows(InvalidParamException.class,
+                () -> itemService.searchAvailableItems(0L, "text", start, start, 0, 10),
+                "Start is not before end, but no InvalidParamException thrown"
+        );
+        verifyNoInteractions(itemTextSearch);
+    }
+
+    @Test
+    void searchAvailableItems_whenEndIsMissing_thenInvalidParamExceptionThrown() {
+        assertThrows(InvalidParamException.class,
+                () -> itemService.searchAvailableItems(0L, "text", LocalDateTime.now(), null, 0, 10),
+                "End is missing, but no InvalidParamException thrown"
+        );
+        verifyNoInteractions(itemTextSearch);
+    }
+
+    @Test
+    void searchAvailableItems_whenFromMoreThanSize_thenPageIsFromDivideBySize() {
+        Long userId = 0L;
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        LocalDateTime end = start.plusDays(2);
+        when(userExistenceCache.exists(userId))
+                .thenReturn(true);
+        when(itemTextSearch.searchFree(any(), any(), any(), any()))
+                .thenReturn(Page.empty());
+
+        itemService.searchAvailableItems(userId, "text", start, end, 5, 3);
+
+        verify(itemTextSearch).searchFree(pageRequestArgumentCaptor.capture(), eq("text"), eq(start), eq(end));
+        assertEquals(1, pageRequestArgumentCaptor.getValue().getPageNumber());
+    }
+
     private User getValidUser(Long id) {
         return User.builder()
                 .id(id)
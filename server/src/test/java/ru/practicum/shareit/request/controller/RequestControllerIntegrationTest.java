@@ -155,4 +155,14 @@ class RequestControllerIntegrationTest {
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isBadRequest());
     }
-}
\ No newline at end of file
+
+    @SneakyThrows
+    @Test
+    void getCandidateItems_whenInvoked_thenStatusIsOkAndParamsPassedToService() {
+        mvc.perform(get("/requests/{id}/candidates?size={size}", 1L, 5)
+                        .header("X-Sharer-User-Id", 0L))
+                .andExpect(status().isOk());
+
+        verify(requestService, times(1)).getCandidateItems(0L, 1L, 5);
+    }
+}
@@ -0,0 +1,198 @@
+package ru.practicum.shareit.request.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.item.dto.ItemCreateDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.mapper.ItemMapper;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.request.dto.CreationRequestDto;
+import ru.practicum.shareit.request.dto.RequestDto;
+import ru.practicum.shareit.request.repository.RequestRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserService;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs on its own database, so every request the feed is compared against was created through the services.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.datasource.url=jdbc:h2:mem:request-feed",
+        "shareit.request.feed.capacity=5"
+})
+class RequestServiceImplFeedIntegrationTest {
+
+    @Autowired
+    private RequestService requestService;
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private RequestFeed requestFeed;
+    @Autowired
+    private RequestRepository requestRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private ItemMapper itemMapper;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void getAllOtherUsersRequests_whenPageFitsFeed_thenServedWithoutQueries() {
+        User requester = saveRandomUser();
+        User viewer = saveRandomUser();
+        User itemOwner = saveRandomUser();
+        RequestDto first = addRequestWithItem(requester, itemOwner, "first");
+        RequestDto second = addRequestWithItem(requester, itemOwner, "second");
+        addRequestWithItem(viewer, itemOwner, "own");
+        addRequest(requester, "no items");
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        statistics.clear();
+        List<RequestDto> page = requestService.getAllOtherUsersRequests(viewer.getId(), 0, 2);
+
+        assertThat(requestFeed.isReady(), is(true));
+        assertThat(statistics.getPrepareStatementCount(), equalTo(0L));
+        assertThat(ids(page), contains(second.getId(), first.getId()));
+        assertThat(page.get(0).getItems(), hasSize(1));
+        assertThat(page.get(0).getItems().get(0).getRequestId(), equalTo(second.getId()));
+    }
+
+    @Test
+    void getAllOtherUsersRequests_whenItemUpdatedOrUnlinked_thenFeedFollowsItem() {
+        User requester = saveRandomUser();
+        User viewer = saveRandomUser();
+        User itemOwner = saveRandomUser();
+        RequestDto request = addRequestWithItem(requester, itemOwner, "drill");
+        Long itemId = request.getItems().get(0).getId();
+
+        itemService.update(itemOwner.getId(), itemId, ItemDto.builder()
+                .name("cordless drill")
+                .requestId(request.getId())
+                .build());
+        List<RequestDto> updatedPage = requestService.getAllOtherUsersRequests(viewer.getId(), 0, 1);
+        itemService.update(itemOwner.getId(), itemId, ItemDto.builder().build());
+        List<RequestDto> unlinkedPage = requestService.getAllOtherUsersRequests(viewer.getId(), 0, 1);
+
+        assertThat(ids(updatedPage), contains(request.getId()));
+        assertThat(updatedPage.get(0).getItems().get(0).getName(), equalTo("cordless drill"));
+        assertThat(ids(unlinkedPage), not(hasItem(request.getId())));
+    }
+
+    @Test
+    void getAllOtherUsersRequests_whenPageReachesPastFeed_thenServedFromDatabase() {
+        User requester = saveRandomUser();
+        User viewer = saveRandomUser();
+        User itemOwner = saveRandomUser();
+        List<Long> newestFirst = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            newestFirst.add(0, addRequestWithItem(requester, itemOwner, "request" + i).getId());
+        }
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        List<RequestDto> firstPage = requestService.getAllOtherUsersRequests(viewer.getId(), 0, 2);
+        statistics.clear();
+        List<RequestDto> lastPage = requestService.getAllOtherUsersRequests(viewer.getId(), 4, 2);
+
+        assertThat(requestFeed.size(), equalTo(5));
+        assertThat(statistics.getPrepareStatementCount(), greaterThan(0L));
+        assertThat(ids(firstPage), contains(newestFirst.get(0), newestFirst.get(1)));
+        assertThat(ids(lastPage), contains(newestFirst.get(4), newestFirst.get(5)));
+        assertThat(lastPage.get(1).getItems(), hasSize(1));
+    }
+
+    @Test
+    void getAllOtherUsersRequests_whenRequesterDeleted_thenRequestsLeaveFeed() {
+        User requester = saveRandomUser();
+        User viewer = saveRandomUser();
+        User itemOwner = saveRandomUser();
+        RequestDto kept = addRequestWithItem(itemOwner, viewer, "kept");
+        RequestDto removed = addRequestWithItem(requester, itemOwner, "removed");
+
+        userService.delete(requester.getId());
+        List<RequestDto> page = requestService.getAllOtherUsersRequests(viewer.getId(), 0, 1);
+
+        assertThat(ids(page), not(hasItem(removed.getId())));
+        assertThat(ids(page), contains(kept.getId()));
+    }
+
+    @Test
+    void load_whenItemLinkedWhileSnapshotIsRead_thenItemKeptInFeed() {
+        User requester = saveRandomUser();
+        User viewer = saveRandomUser();
+        User itemOwner = saveRandomUser();
+        RequestDto request = addRequestWithItem(requester, itemOwner, "linked during load");
+        Item linkedItem = itemRepository.findAllByRequestIds(List.of(request.getId())).get(0);
+        ItemRepository loadingItemRepository = mock(ItemRepository.class);
+        RequestFeed loadingFeed = new RequestFeed(requestRepository, loadingItemRepository, itemMapper,
+                new SimpleMeterRegistry(), true, 5);
+        // the item link commits after the snapshot of items was read, before its requests are inserted
+        when(loadingItemRepository.findAllByRequestIds(any())).thenAnswer(invocation -> {
+            loadingFeed.updateItemAfterCommit(null, linkedItem);
+            return List.of();
+        });
+
+        loadingFeed.load();
+        List<RequestDto> page = loadingFeed.findOtherUsersRequests(viewer.getId(), 0, 1).orElseThrow();
+
+        assertThat(ids(page), contains(request.getId()));
+        assertThat(page.get(0).getItems().get(0).getId(), equalTo(linkedItem.getId()));
+    }
+
+    private RequestDto addRequestWithItem(User requester, User itemOwner, String description) {
+        Long requestId = addRequest(requester, description);
+        ItemDto item = itemService.add(itemOwner.getId(), ItemCreateDto.builder()
+                .name(description)
+                .description("desc")
+                .available(true)
+                .requestId(requestId)
+                .build());
+        return RequestDto.builder()
+                .id(requestId)
+                .description(description)
+                .items(List.of(item))
+                .build();
+    }
+
+    private Long addRequest(User requester, String description) {
+        CreationRequestDto creationRequestDto = new CreationRequestDto();
+        creationRequestDto.setDescription(description);
+        return requestService.add(requester.getId(), creationRequestDto).getId();
+    }
+
+    private List<Long> ids(List<RequestDto> requests) {
+        return requests.stream()
+                .map(RequestDto::getId)
+                .collect(Collectors.toList());
+    }
+
+    private User saveRandomUser() {
+        return userRepository.save(User.builder()
+                .name("name")
+                .email(UUID.randomUUID() + "@email.ru")
+                .build());
+    }
+}
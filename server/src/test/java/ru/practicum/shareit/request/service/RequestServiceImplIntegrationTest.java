@@ -1,27 +1,45 @@
 package ru.practicum.shareit.request.service;
 
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.item.dto.ItemCreateDto;
+import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemService;
 import ru.practicum.shareit.request.dto.CreationRequestDto;
 import ru.practicum.shareit.request.dto.RequestDto;
 import ru.practicum.shareit.request.dto.RequestNoItemsDto;
 import ru.practicum.shareit.request.model.Request;
 import ru.practicum.shareit.request.repository.RequestRepository;
+import ru.practicum.shareit.exception.NotExistsException;
+import ru.practicum.shareit.user.dto.UserCreateDto;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserService;
 
+import javax.persistence.EntityManagerFactory;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Random;
+import java.util.UUID;
+import java.util.stream.Collectors;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
-@SpringBootTest
+// requests are saved straight into the repository here, so pages are read from the database
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "shareit.request.feed.enabled=false"
+})
 class RequestServiceImplIntegrationTest {
     @Autowired
     private RequestService requestService;
@@ -31,6 +49,12 @@ class RequestServiceImplIntegrationTest {
     private RequestRepository requestRepository;
     @Autowired
     private ItemRepository itemRepository;
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
 
     @Test
     void add_whenInvoked_thenRequestSavedInDB() {
@@ -98,6 +122,134 @@ class RequestServiceImplIntegrationTest {
         assertThat(returnedRequest.getItems(), hasSize(2));
     }
 
+    @Test
+    void getAllOtherUsersRequests_whenPageHasManyRequests_thenQueriesCountNotDependOnPageSize() {
+        User requester = saveRandomUser();
+        User viewer = saveRandomUser();
+        // created far ahead, so these requests come first among the ones left by other tests
+        LocalDateTime created = LocalDateTime.now().plusYears(1);
+        for (int i = 0; i < 10; i++) {
+            Request request = requestRepository.save(Request.builder()
+                    .description("request" + i)
+                    .owner(requester)
+                    .created(created.minusHours(i))
+                    .build());
+            saveRandomItemWithRequest(request);
+            if (i % 2 == 0) {
+                saveRandomItemWithRequest(request);
+            }
+        }
+        requestRepository.save(Request.builder()
+                .description("request without items")
+                .owner(requester)
+                .created(created.plusHours(1))
+                .build());
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        requestService.getAllOtherUsersRequests(viewer.getId(), 0, 8);
+
+        statistics.clear();
+        List<RequestDto> smallPage = requestService.getAllOtherUsersRequests(viewer.getId(), 0, 2);
+        long smallPageStatements = statistics.getPrepareStatementCount();
+        statistics.clear();
+        List<RequestDto> bigPage = requestService.getAllOtherUsersRequests(viewer.getId(), 0, 8);
+        long bigPageStatements = statistics.getPrepareStatementCount();
+
+        assertThat(smallPage, hasSize(2));
+        assertThat(bigPage, hasSize(8));
+        for (int i = 0; i < 8; i++) {
+            assertThat(bigPage.get(i).getDescription(), equalTo("request" + i));
+            assertThat(bigPage.get(i).getItems(), hasSize(i % 2 == 0 ? 2 : 1));
+            assertThat(bigPage.get(i).getItems().get(0).getRequestId(), equalTo(bigPage.get(i).getId()));
+        }
+        assertThat(bigPageStatements, equalTo(smallPageStatements));
+        assertThat(bigPageStatements, lessThanOrEqualTo(2L));
+    }
+
+    @Test
+    void getAllUserItemRequests_whenUserHasManyRequests_thenQueriesCountNotDependOnRequestsCount() {
+        User fewRequestsOwner = saveRandomUser();
+        User manyRequestsOwner = saveRandomUser();
+        for (int i = 0; i < 8; i++) {
+            User owner = i < 2 ? fewRequestsOwner : manyRequestsOwner;
+            Request request = requestRepository.save(Request.builder()
+                    .description("request" + i)
+                    .owner(owner)
+                    .created(LocalDateTime.now().minusHours(i))
+                    .build());
+            saveRandomItemWithRequest(request);
+        }
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        statistics.clear();
+        List<RequestDto> fewRequests = requestService.getAllUserItemRequests(fewRequestsOwner.getId());
+        long fewRequestsStatements = statistics.getPrepareStatementCount();
+        statistics.clear();
+        List<RequestDto> manyRequests = requestService.getAllUserItemRequests(manyRequestsOwner.getId());
+        long manyRequestsStatements = statistics.getPrepareStatementCount();
+
+        assertThat(fewRequests, hasSize(2));
+        assertThat(manyRequests, hasSize(6));
+        assertThat(manyRequests.get(5).getItems(), hasSize(1));
+        assertThat(manyRequestsStatements, equalTo(fewRequestsStatements));
+        assertThat(manyRequestsStatements, lessThanOrEqualTo(3L));
+    }
+
+    @Test
+    void getCandidateItems_whenInvoked_thenAvailableItemsOfOtherUsersRankedByMatchedShare() {
+        User requester = saveRandomUser();
+        User itemOwner = saveRandomUser();
+        Long bestMatch = addItem(itemOwner, "Kettlebell rack", "holds weights", true);
+        Long partialMatch = addItem(itemOwner, "Kettlebell 16kg", "cast iron", true);
+        addItem(itemOwner, "Kettlebell 24kg", "cast iron", false);
+        addItem(requester, "Kettlebell rack", "spare", true);
+        Long weakMatch = addItem(itemOwner, "Yoga mat", "for home workouts", true);
+        CreationRequestDto creationRequestDto = new CreationRequestDto();
+        creationRequestDto.setDescription("Kettlebell rack for a home gym");
+        Long requestId = requestService.add(requester.getId(), creationRequestDto).getId();
+
+        List<ItemDto> candidates = requestService.getCandidateItems(itemOwner.getId(), requestId, 10);
+
+        assertThat(candidates.stream().map(ItemDto::getId).collect(Collectors.toList()),
+                contains(bestMatch, partialMatch, weakMatch));
+        assertThat(requestService.getCandidateItems(itemOwner.getId(), requestId, 1), hasSize(1));
+    }
+
+    @Test
+    void getAllUserItemRequests_whenUserExistenceCached_thenOneStatementLessPerCall() {
+        User user = saveRandomUser();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        statistics.clear();
+        requestService.getAllUserItemRequests(user.getId());
+        long uncachedStatements = statistics.getPrepareStatementCount();
+        statistics.clear();
+        requestService.getAllUserItemRequests(user.getId());
+        long cachedStatements = statistics.getPrepareStatementCount();
+
+        assertThat(uncachedStatements - cachedStatements, equalTo(1L));
+    }
+
+    @Test
+    void getAllUserItemRequests_whenUserDeleted_thenNotExistsExceptionThrown() {
+        Long userId = userService.add(UserCreateDto.builder()
+                .name("name")
+                .email(UUID.randomUUID() + "@email.ru")
+                .build()).getId();
+        requestService.getAllUserItemRequests(userId);
+
+        userService.delete(userId);
+
+        assertThrows(NotExistsException.class, () -> requestService.getAllUserItemRequests(userId));
+    }
+
+    private Long addItem(User owner, String name, String description, boolean available) {
+        return itemService.add(owner.getId(), ItemCreateDto.builder()
+                .name(name)
+                .description(description)
+                .available(available)
+                .build()).getId();
+    }
+
     private User saveRandomUser() {
         return userRepository.save(User.builder()
                 .name("name")
@@ -14,6 +14,7 @@ import ru.practicum.shareit.request.dto.CreationRequestDto;
 import ru.practicum.shareit.request.repository.RequestRepository;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserExistenceCache;
 
 import java.util.Optional;
 
@@ -28,7 +29,13 @@ class RequestServiceImplUnitTest {
     @Mock
     private UserRepository userRepository;
     @Mock
+    private UserExistenceCache userExistenceCache;
+    @Mock
     private RequestRepository requestRepository;
+    @Mock
+    private RequestFeed requestFeed;
+    @Mock
+    private RequestMatcher requestMatcher;
     @InjectMocks
     private RequestServiceImpl requestService;
     @Captor
@@ -38,7 +45,7 @@ class RequestServiceImplUnitTest {
     void add_thenOwnerNotFound_thenNotExistsExceptionThrown() {
         Long ownerId = 0L;
         CreationRequestDto creationRequestDto = new CreationRequestDto();
-        when(userRepository.findById(ownerId))
+        when(userRepository.findByIdAndDeletedFalse(ownerId))
                 .thenReturn(Optional.empty());
 
         assertThrows(NotExistsException.class,
@@ -49,8 +56,8 @@ class RequestServiceImplUnitTest {
     @Test
     void getAllUserItemRequests_whenOwnerNotFound_thenNotExistsExceptionThrown() {
         Long ownerId = 0L;
-        when(userRepository.findById(ownerId))
-                .thenReturn(Optional.empty());
+        when(userExistenceCache.exists(ownerId))
+                .thenReturn(false);
 
         assertThrows(NotExistsException.class,
                 () -> requestService.getAllUserItemRequests(ownerId),
@@ -70,7 +77,7 @@ class RequestServiceImplUnitTest {
         }
 
         verify(requestRepository, times(1))
-                .findAllExceptOwnerRequestsEager(anyLong(), pageRequestArgumentCaptor.capture());
+                .findAllExceptOwnerWithItems(anyLong(), pageRequestArgumentCaptor.capture());
         assertThat(pageRequestArgumentCaptor.getValue().getPageNumber(), equalTo(0));
     }
 
@@ -87,7 +94,7 @@ class RequestServiceImplUnitTest {
         }
 
         verify(requestRepository, times(1))
-                .findAllExceptOwnerRequestsEager(anyLong(), pageRequestArgumentCaptor.capture());
+                .findAllExceptOwnerWithItems(anyLong(), pageRequestArgumentCaptor.capture());
         assertThat(pageRequestArgumentCaptor.getValue().getPageNumber(), equalTo(0));
     }
 
@@ -104,7 +111,7 @@ class RequestServiceImplUnitTest {
         }
 
         verify(requestRepository, times(1))
-                .findAllExceptOwnerRequestsEager(anyLong(), pageRequestArgumentCaptor.capture());
+                .findAllExceptOwnerWithItems(anyLong(), pageRequestArgumentCaptor.capture());
         assertThat(pageRequestArgumentCaptor.getValue().getPageNumber(), equalTo(from / size));
     }
 
@@ -121,7 +128,7 @@ class RequestServiceImplUnitTest {
         }
 
         verify(requestRepository, times(1))
-                .findAllExceptOwnerRequestsEager(anyLong(), pageRequestArgumentCaptor.capture());
+                .findAllExceptOwnerWithItems(anyLong(), pageRequestArgumentCaptor.capture());
         assertThat(pageRequestArgumentCaptor.getValue().getSort(),
                 equalTo(Sort.by(Sort.Direction.DESC, "created")));
     }
@@ -129,8 +136,8 @@ class RequestServiceImplUnitTest {
     @Test
     void getById_thenUserNotFound_thenNotExistsExceptionThrown() {
         Long userId = 0L;
-        when(userRepository.findById(userId))
-                .thenReturn(Optional.empty());
+        when(userExistenceCache.exists(userId))
+                .thenReturn(false);
 
         assertThrows(NotExistsException.class,
                 () -> requestService.getAllUserItemRequests(userId),
@@ -141,8 +148,8 @@ class RequestServiceImplUnitTest {
     void getById_thenRequestNotFound_thenNotExistsExceptionThrown() {
         Long userId = 0L;
         Long requestId = 1L;
-        when(userRepository.findById(userId))
-                .thenReturn(Optional.ofNullable(getValidUser(userId)));
+        when(userExistenceCache.exists(userId))
+                .thenReturn(true);
         when(requestRepository.findById(requestId))
                 .thenReturn(Optional.empty());
 
@@ -10,14 +10,19 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import ru.practicum.shareit.user.dto.UserCreateDto;
+import ru.practicum.shareit.user.dto.UserCursorPageDto;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.service.UserService;
 
+import java.util.List;
+import java.util.function.Consumer;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
-import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(controllers = UserController.class)
 class UserControllerIntegrationTest {
@@ -121,6 +126,57 @@ class UserControllerIntegrationTest {
         verify(userService, times(1)).getAll();
     }
 
+    @SneakyThrows
+    @Test
+    void getAll_whenPaged_thenParamsPassedToService() {
+        mvc.perform(get("/users?from={from}&size={size}", 10, 5).accept(MediaType.ALL))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON));
+        verify(userService, times(1)).getAll(10, 5);
+        verify(userService, never()).getAll();
+    }
+
+    @SneakyThrows
+    @Test
+    void getAll_whenCursorPassed_thenNextCursorReturnedInHeader() {
+        when(userService.getAllAfterCursor("cursor", 5))
+                .thenReturn(UserCursorPageDto.builder()
+                        .users(List.of())
+                        .nextCursor("next")
+                        .build());
+
+        mvc.perform(get("/users?cursor={cursor}&size={size}", "cursor", 5))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Next-Cursor", "next"));
+    }
+
+    @SneakyThrows
+    @Test
+    void streamAll_whenNdjsonAccepted_thenEveryUserWrittenOnOwnLine() {
+        UserDto first = UserDto.builder().id(1L).name("first").email("first@email.ru").build();
+        UserDto second = UserDto.builder().id(2L).name("second").email("second@email.ru").build();
+        doAnswer(invocation -> {
+            Consumer<List<UserDto>> batchConsumer = invocation.getArgument(0);
+            batchConsumer.accept(List.of(first));
+            batchConsumer.accept(List.of(second));
+            return null;
+        }).when(userService).forEachBatch(any());
+
+        MvcResult asyncResult = mvc.perform(get("/users").accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String body = mvc.perform(asyncDispatch(asyncResult))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        assertEquals(mapper.writeValueAsString(first) + "\n" + mapper.writeValueAsString(second) + "\n", body,
+                "Invalid NDJSON body");
+        verify(userService, never()).getAll();
+    }
+
     @SneakyThrows
     @Test
     void delete_whenInvoked_thenStatusIsOkAndIdPassedToService() {
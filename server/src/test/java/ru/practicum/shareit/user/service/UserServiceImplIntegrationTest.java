@@ -1,17 +1,48 @@
 package ru.practicum.shareit.user.service;
 
+import org.hibernate.Session;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.dto.BookingCreationDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.exception.NotExistsException;
+import ru.practicum.shareit.item.dto.AvailabilitySlotDto;
+import ru.practicum.shareit.item.dto.ItemCreateDto;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.CommentRepository;
+import ru.practicum.shareit.item.repository.ItemBookingSummaryRepository;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemBookingSummaryProjection;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.request.model.Request;
+import ru.practicum.shareit.request.repository.RequestRepository;
 import ru.practicum.shareit.user.dto.UserCreateDto;
+import ru.practicum.shareit.user.dto.UserCursor;
+import ru.practicum.shareit.user.dto.UserCursorPageDto;
 import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.dto.UserPurgeProgressDto;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @SpringBootTest
@@ -20,6 +51,28 @@ class UserServiceImplIntegrationTest {
     private UserServiceImpl userService;
     @Autowired
     private UserRepository userRepository;
+    @Autowired
+    private UserPurger userPurger;
+    @Autowired
+    private UserPurgeEndpoint userPurgeEndpoint;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private CommentRepository commentRepository;
+    @Autowired
+    private RequestRepository requestRepository;
+    @Autowired
+    private ItemBookingSummaryRepository summaryRepository;
+    @Autowired
+    private ItemBookingSummaryProjection itemBookingSummaryProjection;
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
 
     @Test
     void add_whenInvoked_thenSavedProperlyInDB() {
@@ -95,8 +148,298 @@ class UserServiceImplIntegrationTest {
 
         userService.delete(savedUserId);
 
+        assertThrows(NotExistsException.class, () -> userService.getById(savedUserId));
+        assertThat(userRepository.findById(savedUserId).get().isDeleted(), is(true));
+        userPurger.purge(Integer.MAX_VALUE);
         assertTrue(userRepository.findById(savedUserId).isEmpty());
     }
 
+    @Test
+    void add_whenEmailOfDeletedUser_thenUserAdded() {
+        String email = UUID.randomUUID() + "@email.ru";
+        Long deletedUserId = userService.add(UserCreateDto.builder().name("name").email(email).build()).getId();
+        userService.delete(deletedUserId);
+
+        UserDto addedUser = userService.add(UserCreateDto.builder().name("name").email(email).build());
+
+        assertThat(addedUser.getId(), not(equalTo(deletedUserId)));
+        assertThat(addedUser.getEmail(), equalTo(email));
+    }
+
+    @Test
+    void purge_whenUserWithDataDeleted_thenDataRemovedChunkByChunkBeforeUser() {
+        LocalDateTime now = LocalDateTime.now();
+        User owner = saveRandomUser();
+        User other = saveRandomUser();
+        Request ownerRequest = requestRepository.save(Request.builder()
+                .owner(owner)
+                .description("request")
+                .created(now)
+                .build());
+        Item ownerItem = saveItem(owner, null);
+        Item otherItem = saveItem(other, ownerRequest);
+        Booking ownerBooking = saveBooking(owner, otherItem, now);
+        Booking otherBooking = saveBooking(other, ownerItem, now);
+        Comment ownerComment = saveComment(owner, otherItem, now);
+        Comment otherComment = saveComment(other, ownerItem, now);
+        itemBookingSummaryProjection.refreshItems(List.of(otherItem.getId()));
+        userService.delete(owner.getId());
+
+        int firstRunChunks = userPurger.purge(1);
+
+        assertThat(firstRunChunks, equalTo(1));
+        assertThat(commentRepository.existsById(ownerComment.getId()), is(false));
+        assertThat(commentRepository.existsById(otherComment.getId()), is(true));
+        assertThat(userRepository.existsById(owner.getId()), is(true));
+
+        userPurger.purge(Integer.MAX_VALUE);
+
+        assertThat(userRepository.existsById(owner.getId()), is(false));
+        assertThat(commentRepository.existsById(otherComment.getId()), is(false));
+        assertThat(bookingRepository.existsById(ownerBooking.getId()), is(false));
+        assertThat(bookingRepository.existsById(otherBooking.getId()), is(false));
+        assertThat(itemRepository.existsById(ownerItem.getId()), is(false));
+        assertThat(requestRepository.existsById(ownerRequest.getRequestId()), is(false));
+        assertThat(itemRepository.findById(otherItem.getId()).get().getRequest(), nullValue());
+        assertThat(summaryRepository.findById(otherItem.getId()).get().getLastBookingId(), nullValue());
+        UserPurgeProgressDto progress = userPurgeEndpoint.progress();
+        assertThat(progress.getPendingUsers(), equalTo(0L));
+        assertThat(progress.getPurgedUsers(), greaterThanOrEqualTo(1L));
+        assertThat(progress.getPurgedRows().get("booking"), greaterThanOrEqualTo(2L));
+    }
+
+    @Test
+    void delete_whenOwnerDeletedButNotPurged_thenOwnerItemsHidden() {
+        User owner = saveRandomUser();
+        User viewer = saveRandomUser();
+        String name = UUID.randomUUID().toString();
+        Long itemId = itemService.add(owner.getId(), ItemCreateDto.builder()
+                .name(name)
+                .description("desc")
+                .available(true)
+                .build()).getId();
+
+        userService.delete(owner.getId());
+
+        assertThat(itemRepository.existsById(itemId), is(true));
+        assertThrows(NotExistsException.class, () -> itemService.getById(viewer.getId(), itemId));
+        assertThrows(NotExistsException.class, () -> bookingService.add(viewer.getId(), BookingCreationDto.builder()
+                .itemId(itemId)
+                .start(LocalDateTime.now().plusDays(1))
+                .end(LocalDateTime.now().plusDays(2))
+                .build()));
+        assertThat(itemService.searchItems(viewer.getId(), name, 0, 10), empty());
+        assertThat(itemRepository.searchByText(PageRequest.of(0, 10), name).getContent(), empty());
+        assertThat(itemService.suggestNames(viewer.getId(), name, 10), empty());
+    }
+
+    @Test
+    void purge_whenBookerPurged_thenBookedPeriodFreedInAvailability() {
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        User booker = saveRandomUser();
+        User owner = saveRandomUser();
+        Item item = saveItem(owner, null);
+        bookingRepository.save(Booking.builder()
+                .booker(booker)
+                .item(item)
+                .state(BookingState.APPROVED)
+                .start(start)
+                .end(start.plusDays(1))
+                .build());
+        List<AvailabilitySlotDto> booked = itemService.getAvailability(owner.getId(), item.getId(),
+                start.minusHours(1), start.plusDays(2));
+        userService.delete(booker.getId());
+
+        userPurger.purge(Integer.MAX_VALUE);
+        List<AvailabilitySlotDto> freed = itemService.getAvailability(owner.getId(), item.getId(),
+                start.minusHours(1), start.plusDays(2));
+
+        assertThat(booked, hasSize(2));
+        assertThat(freed, hasSize(1));
+        assertThat(freed.get(0).getStart(), equalTo(start.minusHours(1)));
+        assertThat(freed.get(0).getEnd(), equalTo(start.plusDays(2)));
+    }
+
+    @Test
+    void purge_whenBookerPurged_thenOnlyCountersOfBookedOwnersReloaded() {
+        LocalDateTime now = LocalDateTime.now();
+        User booker = saveRandomUser();
+        User bookedOwner = saveRandomUser();
+        User otherOwner = saveRandomUser();
+        saveBooking(booker, saveItem(bookedOwner, null), now);
+        Item otherItem = saveItem(otherOwner, null);
+        saveBooking(saveRandomUser(), otherItem, now);
+        bookingService.getOwnerSummary(bookedOwner.getId());
+        bookingService.getOwnerSummary(otherOwner.getId());
+        // saved past the counters, so it is only seen by counters that are loaded again
+        saveBooking(saveRandomUser(), otherItem, now.minusDays(5));
+        userService.delete(booker.getId());
+
+        userPurger.purge(Integer.MAX_VALUE);
+
+        assertThat(bookingService.getOwnerSummary(bookedOwner.getId()).getPast(), equalTo(0L));
+        assertThat(bookingService.getOwnerSummary(otherOwner.getId()).getPast(), equalTo(1L));
+    }
+
+    @Test
+    void getAllAfterCursor_whenWalkedPageByPage_thenEveryUserReturnedOnceInIdOrder() {
+        Long firstId = saveRandomUser().getId();
+        Long secondId = saveRandomUser().getId();
+        Long thirdId = saveRandomUser().getId();
+        String cursor = new UserCursor(firstId - 1).encode();
+
+        UserCursorPageDto firstPage = userService.getAllAfterCursor(cursor, 2);
+        UserCursorPageDto secondPage = userService.getAllAfterCursor(firstPage.getNextCursor(), 2);
+
+        assertThat(ids(firstPage.getUsers()), contains(firstId, secondId));
+        assertThat(firstPage.getNextCursor(), notNullValue());
+        assertThat(ids(secondPage.getUsers()), contains(thirdId));
+        assertThat(secondPage.getNextCursor(), nullValue());
+    }
+
+    @Test
+    void getAll_whenPaged_thenUsersOrderedById() {
+        userRepository.deleteAll();
+        Long firstId = saveRandomUser().getId();
+        Long secondId = saveRandomUser().getId();
+        Long thirdId = saveRandomUser().getId();
+
+        assertThat(ids(userService.getAll(0, 2)), contains(firstId, secondId));
+        assertThat(ids(userService.getAll(2, 2)), contains(thirdId));
+    }
+
+    @Test
+    void forEachBatch_whenInvoked_thenEveryUserPassedOnceInIdOrder() {
+        saveRandomUser();
+        saveRandomUser();
+        List<Long> streamedIds = new ArrayList<>();
+
+        userService.forEachBatch(users -> streamedIds.addAll(ids(users)));
+
+        List<Long> expectedIds = userRepository.findAll().stream()
+                .map(User::getId)
+                .sorted()
+                .collect(Collectors.toList());
+        assertThat(streamedIds, equalTo(expectedIds));
+    }
+
+    @Test
+    void forEachBatch_whenEntityManagerBoundLikeOpenInView_thenLoadedUsersNotKeptBetweenBatches() {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i <= UserServiceImpl.STREAM_BATCH_SIZE; i++) {
+            users.add(User.builder()
+                    .name("name")
+                    .email(UUID.randomUUID() + "@email.ru")
+                    .build());
+        }
+        userRepository.saveAll(users);
+        EntityManager requestEntityManager = entityManagerFactory.createEntityManager();
+        TransactionSynchronizationManager.bindResource(entityManagerFactory,
+                new EntityManagerHolder(requestEntityManager));
+        List<Integer> managedEntityCounts = new ArrayList<>();
+        try {
+            userService.forEachBatch(batch -> managedEntityCounts.add(
+                    requestEntityManager.unwrap(Session.class).getStatistics().getEntityCount()));
+        } finally {
+            TransactionSynchronizationManager.unbindResource(entityManagerFactory);
+            requestEntityManager.close();
+        }
+
+        assertThat(managedEntityCounts.size(), greaterThan(1));
+        assertThat(managedEntityCounts, everyItem(equalTo(0)));
+    }
 
-}
\ No newline at end of file
+    @Test
+    void getById_whenItemsAdded_thenItemCountReturned() {
+        Long userId = userService.add(UserCreateDto.builder()
+                .name("name")
+                .email(UUID.randomUUID() + "@email.ru")
+                .build()).getId();
+        ItemCreateDto itemCreateDto = ItemCreateDto.builder()
+                .name("item")
+                .description("desc")
+                .available(true)
+                .build();
+
+        assertThat(userService.getById(userId).getItemCount(), equalTo(0L));
+
+        itemService.add(userId, itemCreateDto);
+        itemService.add(userId, itemCreateDto);
+
+        assertThat(userService.getById(userId).getItemCount(), equalTo(2L));
+        assertThat(userRepository.findItemCountById(userId), equalTo(2L));
+    }
+
+    @Test
+    void getAll_whenItemCountNotStored_thenCountedWithoutStoring() {
+        User owner = saveRandomUser();
+        saveItem(owner, null);
+        saveItem(owner, null);
+
+        UserDto foundUser = userService.getAll().stream()
+                .filter(user -> user.getId().equals(owner.getId()))
+                .findFirst()
+                .get();
+
+        assertThat(foundUser.getItemCount(), equalTo(2L));
+        assertThat(userRepository.findItemCountById(owner.getId()), nullValue());
+    }
+
+    @Test
+    void add_whenItemCountNotStored_thenCountStoredIncludingNewItem() {
+        User owner = saveRandomUser();
+        saveItem(owner, null);
+        saveItem(owner, null);
+
+        itemService.add(owner.getId(), ItemCreateDto.builder()
+                .name("item")
+                .description("desc")
+                .available(true)
+                .build());
+
+        assertThat(userRepository.findItemCountById(owner.getId()), equalTo(3L));
+        assertThat(userService.getById(owner.getId()).getItemCount(), equalTo(3L));
+    }
+
+    private Item saveItem(User owner, Request request) {
+        return itemRepository.save(Item.builder()
+                .name("item")
+                .description("desc")
+                .available(true)
+                .owner(owner)
+                .request(request)
+                .build());
+    }
+
+    private Booking saveBooking(User booker, Item item, LocalDateTime now) {
+        return bookingRepository.save(Booking.builder()
+                .booker(booker)
+                .item(item)
+                .state(BookingState.APPROVED)
+                .start(now.minusDays(2))
+                .end(now.minusDays(1))
+                .build());
+    }
+
+    private Comment saveComment(User author, Item item, LocalDateTime now) {
+        return commentRepository.save(Comment.builder()
+                .author(author)
+                .item(item)
+                .text("comment")
+                .created(now)
+                .build());
+    }
+
+    private User saveRandomUser() {
+        return userRepository.save(User.builder()
+                .name("name")
+                .email(UUID.randomUUID() + "@email.ru")
+                .build());
+    }
+
+    private List<Long> ids(List<UserDto> users) {
+        return users.stream()
+                .map(UserDto::getId)
+                .collect(Collectors.toList());
+    }
+}
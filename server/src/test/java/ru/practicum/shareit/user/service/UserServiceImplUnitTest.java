@@ -9,14 +9,22 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.dao.DataIntegrityViolationException;
-import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.data.domain.PageRequest;
+import ru.practicum.shareit.booking.service.OwnerBookingCounters;
 import ru.practicum.shareit.exception.DuplicateEntityException;
+import ru.practicum.shareit.exception.InvalidParamException;
 import ru.practicum.shareit.exception.NotExistsException;
+import ru.practicum.shareit.item.service.ItemSearchCache;
+import ru.practicum.shareit.item.service.ItemSearchIndex;
+import ru.practicum.shareit.request.service.RequestFeed;
+import ru.practicum.shareit.request.service.RequestMatcher;
 import ru.practicum.shareit.user.dto.UserCreateDto;
+import ru.practicum.shareit.user.dto.UserCursorPageDto;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.mapper.UserMapper;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.item.service.OwnerItemCounters;
 
 import java.util.List;
 import java.util.Optional;
@@ -32,10 +40,24 @@ class UserServiceImplUnitTest {
     private static UserDto mockUserDto;
     @Mock
     private UserRepository userRepository;
+    @Mock
+    private UserExistenceCache userExistenceCache;
+    @Mock
+    private OwnerItemCounters ownerItemCounters;
     @InjectMocks
     private UserServiceImpl userService;
     @Mock
     private UserMapper userMapper;
+    @Mock
+    private OwnerBookingCounters ownerBookingCounters;
+    @Mock
+    private ItemSearchIndex itemSearchIndex;
+    @Mock
+    private ItemSearchCache itemSearchCache;
+    @Mock
+    private RequestFeed requestFeed;
+    @Mock
+    private RequestMatcher requestMatcher;
     @Captor
     private ArgumentCaptor<User> userArgumentCaptor;
 
@@ -71,7 +93,7 @@ class UserServiceImplUnitTest {
                 .id(1L)
                 .name("newName")
                 .build();
-        when(userRepository.findById(userId))
+        when(userRepository.findByIdAndDeletedFalse(userId))
                 .thenReturn(Optional.of(savedUser));
 
         userService.update(userId, userToUpdate);
@@ -95,7 +117,7 @@ class UserServiceImplUnitTest {
                 .id(1L)
                 .email("newEmail@test.ru")
                 .build();
-        when(userRepository.findById(userId))
+        when(userRepository.findByIdAndDeletedFalse(userId))
                 .thenReturn(Optional.of(savedUser));
 
         userService.update(userId, userToUpdate);
@@ -125,7 +147,7 @@ class UserServiceImplUnitTest {
                 .id(1L)
                 .email("sameEmail@test.ru")
                 .build();
-        when(userRepository.findById(userId))
+        when(userRepository.findByIdAndDeletedFalse(userId))
                 .thenReturn(Optional.of(savedUser));
         when(userRepository.findByEmail(userToUpdate.getEmail()))
                 .thenReturn(Optional.of(otherUser));
@@ -137,7 +159,7 @@ class UserServiceImplUnitTest {
 
     @Test
     void update_whenUserNotFound_thenNotExistsExceptionThrown() {
-        when(userRepository.findById(anyLong()))
+        when(userRepository.findByIdAndDeletedFalse(anyLong()))
                 .thenReturn(Optional.ofNullable(null));
 
         assertThrows(NotExistsException.class,
@@ -147,7 +169,7 @@ class UserServiceImplUnitTest {
 
     @Test
     void getById_whenUserNotFound_thenNotExistsExceptionThrown() {
-        when(userRepository.findById(anyLong()))
+        when(userRepository.findByIdAndDeletedFalse(anyLong()))
                 .thenReturn(Optional.ofNullable(null));
 
         assertThrows(NotExistsException.class,
@@ -157,7 +179,7 @@ class UserServiceImplUnitTest {
 
     @Test
     void getAll_whenUsersNotFound_thenEmptyListReturned() {
-        when(userRepository.findAll())
+        when(userRepository.findAllByDeletedFalse())
                 .thenReturn(List.of());
 
         List<UserDto> users = userService.getAll();
@@ -166,13 +188,32 @@ class UserServiceImplUnitTest {
                 "Users not found, but list is not empty");
     }
 
+    @Test
+    void getAllAfterCursor_whenPageNotFull_thenNoNextCursor() {
+        when(userRepository.findByIdGreaterThanAndDeletedFalseOrderByIdAsc(0L, PageRequest.of(0, 2)))
+                .thenReturn(List.of(mockUser));
+
+        UserCursorPageDto page = userService.getAllAfterCursor(null, 2);
+
+        assertEquals(1, page.getUsers().size(), "Invalid users page");
+        assertNull(page.getNextCursor(), "Next cursor returned for the last page");
+    }
+
+    @Test
+    void getAllAfterCursor_whenCursorIsNotValid_thenInvalidParamExceptionThrown() {
+        assertThrows(InvalidParamException.class,
+                () -> userService.getAllAfterCursor("not a cursor", 2),
+                "InvalidParamException not thrown when cursor is not valid");
+        verifyNoInteractions(userRepository);
+    }
+
     @Test
     void delete_whenDeletedNotExistUser_thenNotExistsExceptionThrown() {
-        doThrow(EmptyResultDataAccessException.class)
-                .when(userRepository).deleteById(anyLong());
+        when(userRepository.markDeleted(1L, "deleted-user-1"))
+                .thenReturn(0);
 
         assertThrows(NotExistsException.class,
-                () -> userService.delete(anyLong()),
+                () -> userService.delete(1L),
                 "NotExistsException not thrown when user not found");
     }
 }
\ No newline at end of file
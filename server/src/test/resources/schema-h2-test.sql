@@ -0,0 +1,3 @@
+create trigger if not exists booking_no_overlap after insert, update on booking
+    for each row call 'ru.practicum.shareit.booking.repository.BookingOverlapTrigger';
+create alias if not exists similarity for 'ru.practicum.shareit.item.service.TrigramSimilarity.similarity';